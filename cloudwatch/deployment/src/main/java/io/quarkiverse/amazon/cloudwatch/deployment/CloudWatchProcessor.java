@@ -2,9 +2,13 @@ package io.quarkiverse.amazon.cloudwatch.deployment;
 
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchBuildTimeConfig;
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchMetricsBuffer;
 import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchRecorder;
 import io.quarkiverse.amazon.common.deployment.*;
 import io.quarkiverse.amazon.common.deployment.spi.EventLoopGroupBuildItem;
@@ -28,6 +32,8 @@ public class CloudWatchProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-cloudwatch";
 
+    private static final DotName CLOUDWATCH_METRICS_BUFFER = DotName.createSimple(CloudWatchMetricsBuffer.class);
+
     CloudWatchBuildTimeConfig buildTimeConfig;
 
     @Override
@@ -69,6 +75,8 @@ public class CloudWatchProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, CLOUDWATCH_METRICS_BUFFER, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -194,4 +202,31 @@ public class CloudWatchProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createMetricsBuffers(CloudWatchRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the buffer is removed if not injected, the aggregated values are sent when it is destroyed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(CloudWatchMetricsBuffer.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createMetricsBuffer(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(CloudWatchAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
 }
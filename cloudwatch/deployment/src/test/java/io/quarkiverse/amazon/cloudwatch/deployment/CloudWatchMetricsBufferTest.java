@@ -0,0 +1,235 @@
+package io.quarkiverse.amazon.cloudwatch.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchBufferedMetric;
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchMetricsBuffer;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataRequest;
+import software.amazon.awssdk.services.cloudwatch.model.PutMetricDataResponse;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+
+/**
+ * Runs the buffer against a local stub of the client, without CloudWatch.
+ */
+class CloudWatchMetricsBufferTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void aggregate() throws Exception {
+        StubCloudWatchClient stub = new StubCloudWatchClient();
+        CloudWatchMetricsBuffer buffer = new CloudWatchMetricsBuffer(stub, scheduler, "app", Duration.ofHours(1), 60,
+                1000, 1024 * 1024, true, 10240);
+
+        CloudWatchBufferedMetric latency = buffer.metric("latency", StandardUnit.MILLISECONDS,
+                Map.of("operation", "get", "region", "eu"));
+        // the same dimensions in another order are the same metric
+        assertSame(latency, buffer.metric("latency", StandardUnit.MILLISECONDS,
+                Map.of("region", "eu", "operation", "get")));
+
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            threads.execute(() -> {
+                for (int i = 1; i <= 1000; i++) {
+                    latency.record(i);
+                }
+            });
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(1, TimeUnit.MINUTES));
+        buffer.record("requests", 1, StandardUnit.COUNT, Map.of());
+
+        buffer.flush().get(1, TimeUnit.MINUTES);
+        assertEquals(1, stub.requests.size());
+        PutMetricDataRequest request = stub.requests.get(0);
+        assertEquals("app", request.namespace());
+        assertEquals(2, request.metricData().size());
+        MetricDatum datum = request.metricData().stream()
+                .filter(d -> d.metricName().equals("latency"))
+                .findFirst().orElseThrow();
+        assertEquals(8000, datum.statisticValues().sampleCount());
+        assertEquals(8 * 500500, datum.statisticValues().sum());
+        assertEquals(1, datum.statisticValues().minimum());
+        assertEquals(1000, datum.statisticValues().maximum());
+        assertEquals("operation", datum.dimensions().get(0).name());
+
+        // nothing recorded since the previous flush
+        buffer.flush().get(1, TimeUnit.MINUTES);
+        assertEquals(1, stub.requests.size());
+        assertEquals(2, buffer.sent());
+        buffer.close();
+    }
+
+    @Test
+    void removeIdleMetrics() throws Exception {
+        StubCloudWatchClient stub = new StubCloudWatchClient();
+        CloudWatchMetricsBuffer buffer = new CloudWatchMetricsBuffer(stub, scheduler, "app", Duration.ofHours(1), 60,
+                1000, 1024 * 1024, true, 10240);
+
+        CloudWatchBufferedMetric kept = buffer.metric("kept", StandardUnit.COUNT, Map.of());
+        for (int i = 0; i < 100; i++) {
+            buffer.record("requests", 1, StandardUnit.COUNT, Map.of("request", "request-" + i));
+        }
+        kept.increment();
+        buffer.flush().get(1, TimeUnit.MINUTES);
+        assertEquals(101, buffer.size());
+
+        // nothing recorded since the previous flush
+        buffer.flush().get(1, TimeUnit.MINUTES);
+        assertEquals(0, buffer.size());
+        assertEquals(1, stub.requests.size());
+
+        // the values recorded through a reference kept to a removed metric are sent by the next flush
+        kept.increment();
+        kept.increment();
+        assertEquals(0, buffer.size());
+        buffer.flush().get(1, TimeUnit.MINUTES);
+        assertEquals(2, stub.requests.size());
+        List<MetricDatum> data = stub.requests.get(1).metricData();
+        assertEquals(1, data.size());
+        assertEquals("kept", data.get(0).metricName());
+        assertEquals(2, data.get(0).statisticValues().sampleCount());
+        buffer.flush().get(1, TimeUnit.MINUTES);
+        assertEquals(2, stub.requests.size());
+        assertEquals(102, buffer.sent());
+
+        // looked up again once removed
+        assertNotSame(kept, buffer.metric("kept", StandardUnit.COUNT, Map.of()));
+        assertEquals(1, buffer.size());
+        buffer.close();
+    }
+
+    @Test
+    void pack() throws Exception {
+        StubCloudWatchClient stub = new StubCloudWatchClient();
+        CloudWatchMetricsBuffer buffer = new CloudWatchMetricsBuffer(stub, scheduler, null, Duration.ofHours(1), 1,
+                1000, 1024 * 1024, false, 10240);
+
+        for (int i = 0; i < 2500; i++) {
+            buffer.metric("app", "metric-" + i, StandardUnit.COUNT, Map.of()).increment();
+        }
+        buffer.metric("other", "metric", StandardUnit.COUNT, Map.of()).increment();
+
+        buffer.flush().get(1, TimeUnit.MINUTES);
+        List<Integer> sizes = new ArrayList<>();
+        for (PutMetricDataRequest request : stub.requests) {
+            sizes.add(request.metricData().size());
+        }
+        // the requests of a namespace hold at most 1000 metrics
+        assertEquals(4, stub.requests.size());
+        assertEquals(2501, sizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(sizes.stream().allMatch(size -> size <= 1000), sizes.toString());
+        assertEquals(4, buffer.requests());
+        buffer.close();
+    }
+
+    @Test
+    void takeStatisticsWhileRecording() throws Exception {
+        StubCloudWatchClient stub = new StubCloudWatchClient();
+        CloudWatchMetricsBuffer buffer = new CloudWatchMetricsBuffer(stub, scheduler, "app", Duration.ofHours(1), 60,
+                1000, 1024 * 1024, false, 10240);
+        CloudWatchBufferedMetric requests = buffer.metric("requests", StandardUnit.COUNT, Map.of());
+
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            threads.execute(() -> {
+                for (int i = 0; i < 100_000; i++) {
+                    requests.increment();
+                }
+            });
+        }
+        threads.shutdown();
+        while (!threads.isTerminated()) {
+            buffer.flush().get(1, TimeUnit.MINUTES);
+        }
+        buffer.flush().get(1, TimeUnit.MINUTES);
+
+        // each value is taken whole by a single flush
+        double count = 0;
+        for (PutMetricDataRequest request : stub.requests) {
+            for (MetricDatum datum : request.metricData()) {
+                count += datum.statisticValues().sampleCount();
+                assertEquals(datum.statisticValues().sampleCount(), datum.statisticValues().sum());
+                assertEquals(1, datum.statisticValues().minimum());
+                assertEquals(1, datum.statisticValues().maximum());
+            }
+        }
+        assertEquals(400_000, count);
+        buffer.close();
+    }
+
+    @Test
+    void periodicFlushesDoNotOverlap() throws Exception {
+        StubCloudWatchClient stub = new StubCloudWatchClient();
+        CompletableFuture<PutMetricDataResponse> response = new CompletableFuture<>();
+        stub.response = response;
+        CloudWatchMetricsBuffer buffer = new CloudWatchMetricsBuffer(stub, scheduler, "app", Duration.ofMillis(10), 60,
+                1000, 1024 * 1024, false, 10240);
+        CloudWatchBufferedMetric requests = buffer.metric("requests", StandardUnit.COUNT, Map.of());
+
+        requests.increment();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (stub.requests.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        // the next flush waits for the request of the previous one
+        requests.increment();
+        Thread.sleep(200);
+        assertEquals(1, stub.requests.size());
+
+        stub.response = null;
+        response.complete(PutMetricDataResponse.builder().build());
+        while (stub.requests.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, stub.requests.size());
+        buffer.close();
+    }
+
+    private static final class StubCloudWatchClient implements CloudWatchAsyncClient {
+
+        private final List<PutMetricDataRequest> requests = new CopyOnWriteArrayList<>();
+        // the response of the requests if set, completed by the test
+        private volatile CompletableFuture<PutMetricDataResponse> response;
+
+        @Override
+        public CompletableFuture<PutMetricDataResponse> putMetricData(PutMetricDataRequest request) {
+            requests.add(request);
+            CompletableFuture<PutMetricDataResponse> pending = response;
+            return pending != null ? pending : CompletableFuture.completedFuture(PutMetricDataResponse.builder().build());
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
+
+/**
+ * A metric of a {@link CloudWatchMetricsBuffer}, aggregating the recorded values until they are sent.
+ * <p>
+ * The count, sum, minimum and maximum are striped accumulators, the values are recorded without lock and without
+ * contention between threads. They are replaced as a whole when the statistics are taken, once the values being
+ * recorded in them are recorded, so that a value is never split between two intervals. Keep a reference to the metric
+ * to record values without looking it up.
+ */
+public final class CloudWatchBufferedMetric {
+
+    private static final int ACTIVE = 0;
+    private static final int REMOVED = 1;
+    private static final int RETIRED = 2;
+
+    private final String namespace;
+    private final String metricName;
+    private final StandardUnit unit;
+    private final List<Dimension> dimensions;
+
+    private final AtomicReference<Statistics> statistics = new AtomicReference<>(new Statistics());
+
+    // a removed metric recording a value is retired, to be sent by the next flush
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+    private final Consumer<CloudWatchBufferedMetric> retire;
+
+    CloudWatchBufferedMetric(String namespace, String metricName, StandardUnit unit, List<Dimension> dimensions,
+            Consumer<CloudWatchBufferedMetric> retire) {
+        this.namespace = namespace;
+        this.metricName = metricName;
+        this.unit = unit;
+        this.dimensions = dimensions;
+        this.retire = retire;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value the value
+     */
+    public void record(double value) {
+        while (!statistics.get().record(value, statistics)) {
+            // the statistics were taken meanwhile, recorded in the next ones
+        }
+        // checked once counted, the flush removing the metric takes the values counted before it was removed
+        if (state.get() == REMOVED && state.compareAndSet(REMOVED, RETIRED)) {
+            retire.accept(this);
+        }
+    }
+
+    /**
+     * Records a value of 1, for the metrics counting events.
+     */
+    public void increment() {
+        record(1);
+    }
+
+    /**
+     * @return the namespace
+     */
+    public String namespace() {
+        return namespace;
+    }
+
+    /**
+     * @return the name
+     */
+    public String metricName() {
+        return metricName;
+    }
+
+    /**
+     * @return the unit
+     */
+    public StandardUnit unit() {
+        return unit;
+    }
+
+    /**
+     * @return the dimensions, sorted by name
+     */
+    public List<Dimension> dimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Marks the metric removed from its buffer, or a retired metric as sent.
+     */
+    void remove() {
+        state.set(REMOVED);
+    }
+
+    /**
+     * Takes the values recorded since the previous call.
+     *
+     * @return the statistics of the values, or {@code null} if no value was recorded
+     */
+    StatisticSet takeStatistics() {
+        if (statistics.get().count.sum() == 0) {
+            // nothing to take, a value being recorded is counted by the next call
+            return null;
+        }
+        Statistics taken = statistics.getAndSet(new Statistics());
+        taken.awaitRecorded();
+        long sampleCount = taken.count.sum();
+        if (sampleCount == 0) {
+            return null;
+        }
+        return StatisticSet.builder()
+                .sampleCount((double) sampleCount)
+                .sum(taken.sum.sum())
+                .minimum(taken.min.get())
+                .maximum(taken.max.get())
+                .build();
+    }
+
+    /**
+     * The values recorded during an interval.
+     */
+    private static final class Statistics {
+
+        private final LongAdder count = new LongAdder();
+        private final DoubleAdder sum = new DoubleAdder();
+        private final DoubleAccumulator min = new DoubleAccumulator(Math::min, Double.POSITIVE_INFINITY);
+        private final DoubleAccumulator max = new DoubleAccumulator(Math::max, Double.NEGATIVE_INFINITY);
+
+        // the values being recorded are started and not finished
+        private final LongAdder started = new LongAdder();
+        private final LongAdder finished = new LongAdder();
+
+        /**
+         * @return whether the value is recorded, {@code false} if these statistics were taken meanwhile
+         */
+        boolean record(double value, AtomicReference<Statistics> current) {
+            started.increment();
+            try {
+                // checked once started, the thread taking the statistics waits for the value
+                if (current.get() != this) {
+                    return false;
+                }
+                sum.add(value);
+                min.accumulate(value);
+                max.accumulate(value);
+                count.increment();
+                return true;
+            } finally {
+                finished.increment();
+            }
+        }
+
+        // the statistics are no longer current, no value is started anymore
+        void awaitRecorded() {
+            // finished read first, a value counted as finished is counted as started
+            while (finished.sum() != started.sum()) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
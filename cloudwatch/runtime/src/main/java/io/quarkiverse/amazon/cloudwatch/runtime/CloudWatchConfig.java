@@ -22,4 +22,10 @@ public interface CloudWatchConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Metrics buffer configurations
+     */
+    @ConfigDocSection
+    CloudWatchMetricsBufferConfig metricsBuffer();
 }
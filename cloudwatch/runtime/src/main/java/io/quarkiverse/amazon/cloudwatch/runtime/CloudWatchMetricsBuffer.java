@@ -0,0 +1,332 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import io.quarkiverse.amazon.common.runtime.BatchUtil;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.CompressionConfiguration;
+import software.amazon.awssdk.services.cloudwatch.CloudWatchAsyncClient;
+import software.amazon.awssdk.services.cloudwatch.model.Dimension;
+import software.amazon.awssdk.services.cloudwatch.model.MetricDatum;
+import software.amazon.awssdk.services.cloudwatch.model.StandardUnit;
+import software.amazon.awssdk.services.cloudwatch.model.StatisticSet;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Aggregates the values of metrics in memory and sends them periodically with {@code PutMetricData} requests.
+ * <p>
+ * Each metric, identified by its namespace, name, unit and dimensions, is sent once per flush interval as a statistic
+ * set, whatever the number of values recorded. The metrics of a namespace are packed into requests of up to the maximum
+ * number of metrics and the maximum size, and the requests of a flush are sent one after the other. The next periodic
+ * flush is scheduled once the requests of the previous one completed, so that the flushes never overlap.
+ * <p>
+ * A metric is removed from the buffer once a flush finds no value recorded since the previous flush, and created again
+ * by the next lookup. The values recorded by a reference kept to a removed metric are still sent by the next flush.
+ */
+public class CloudWatchMetricsBuffer implements SdkAutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(CloudWatchMetricsBuffer.class);
+
+    // the encoded size of the fields of a metric, without their values
+    private static final int DATUM_OVERHEAD = 512;
+    private static final int DIMENSION_OVERHEAD = 96;
+    private static final int REQUEST_OVERHEAD = 128;
+
+    private final CloudWatchAsyncClient client;
+    private final String defaultNamespace;
+    private final int storageResolution;
+    private final int maxMetricsPerRequest;
+    private final long maxRequestSize;
+    private final AwsRequestOverrideConfiguration overrideConfiguration;
+    private final ScheduledExecutorService scheduler;
+    private final long flushIntervalNanos;
+
+    private volatile ScheduledFuture<?> scheduledFlush;
+    private volatile boolean closed;
+
+    private final Map<MetricKey, CloudWatchBufferedMetric> metrics = new ConcurrentHashMap<>();
+    // the removed metrics which recorded values since the previous flush
+    private final Queue<CloudWatchBufferedMetric> retired = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public CloudWatchMetricsBuffer(CloudWatchAsyncClient client, ScheduledExecutorService scheduler,
+            String defaultNamespace, Duration flushInterval, int storageResolution, int maxMetricsPerRequest,
+            long maxRequestSize, boolean compression, long compressionThreshold) {
+        this.client = client;
+        this.defaultNamespace = defaultNamespace;
+        this.storageResolution = storageResolution;
+        this.maxMetricsPerRequest = maxMetricsPerRequest;
+        this.maxRequestSize = maxRequestSize;
+        this.overrideConfiguration = AwsRequestOverrideConfiguration.builder()
+                .compressionConfiguration(CompressionConfiguration.builder()
+                        .requestCompressionEnabled(compression)
+                        .minimumCompressionThresholdInBytes((int) Math.min(compressionThreshold, Integer.MAX_VALUE))
+                        .build())
+                .build();
+        this.scheduler = scheduler;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        scheduleFlush();
+    }
+
+    /**
+     * @param metricName the name of the metric
+     * @param unit the unit of the values
+     * @param dimensions the dimensions of the metric
+     * @return the metric of the default namespace, created on first use
+     */
+    public CloudWatchBufferedMetric metric(String metricName, StandardUnit unit, Map<String, String> dimensions) {
+        if (defaultNamespace == null) {
+            throw new IllegalStateException("No namespace configured, the namespace must be specified");
+        }
+        return metric(defaultNamespace, metricName, unit, dimensions);
+    }
+
+    /**
+     * Looks up a metric. The returned metric records the values without any lookup, keep a reference to it to record the
+     * values of the hot paths.
+     *
+     * @param namespace the namespace of the metric
+     * @param metricName the name of the metric
+     * @param unit the unit of the values, {@code None} if {@code null}
+     * @param dimensions the dimensions of the metric
+     * @return the metric, created on first use
+     */
+    public CloudWatchBufferedMetric metric(String namespace, String metricName, StandardUnit unit,
+            Map<String, String> dimensions) {
+        MetricKey key = new MetricKey(namespace, metricName, unit != null ? unit : StandardUnit.NONE, dimensions);
+        CloudWatchBufferedMetric metric = metrics.get(key);
+        if (metric != null) {
+            return metric;
+        }
+        return metrics.computeIfAbsent(key, k -> new CloudWatchBufferedMetric(k.namespace, k.metricName, k.unit,
+                k.dimensions, retired::add));
+    }
+
+    /**
+     * Records a value of a metric of the default namespace.
+     *
+     * @param metricName the name of the metric
+     * @param value the value
+     * @param unit the unit of the value
+     * @param dimensions the dimensions of the metric
+     */
+    public void record(String metricName, double value, StandardUnit unit, Map<String, String> dimensions) {
+        metric(metricName, unit, dimensions).record(value);
+    }
+
+    /**
+     * Sends the values recorded since the previous flush.
+     *
+     * @return completed once the requests of the flush completed, successfully or not
+     */
+    public CompletableFuture<Void> flush() {
+        Instant timestamp = Instant.now();
+        Map<String, List<MetricDatum>> data = new LinkedHashMap<>();
+        for (Map.Entry<MetricKey, CloudWatchBufferedMetric> entry : metrics.entrySet()) {
+            CloudWatchBufferedMetric metric = entry.getValue();
+            StatisticSet statistics = metric.takeStatistics();
+            if (statistics == null) {
+                // idle since the previous flush
+                metric.remove();
+                metrics.remove(entry.getKey(), metric);
+                // the values recorded before the metric was removed
+                statistics = metric.takeStatistics();
+            }
+            add(data, metric, statistics, timestamp);
+        }
+        for (CloudWatchBufferedMetric metric = retired.poll(); metric != null; metric = retired.poll()) {
+            metric.remove();
+            add(data, metric, metric.takeStatistics(), timestamp);
+        }
+
+        CompletableFuture<Void> flushed = CompletableFuture.completedFuture(null);
+        for (Map.Entry<String, List<MetricDatum>> namespace : data.entrySet()) {
+            List<MetricDatum> request = new ArrayList<>();
+            long requestSize = REQUEST_OVERHEAD + namespace.getKey().length();
+            for (MetricDatum datum : namespace.getValue()) {
+                long size = size(datum);
+                if (!request.isEmpty()
+                        && (request.size() >= maxMetricsPerRequest || requestSize + size > maxRequestSize)) {
+                    flushed = send(flushed, namespace.getKey(), request);
+                    request = new ArrayList<>();
+                    requestSize = REQUEST_OVERHEAD + namespace.getKey().length();
+                }
+                request.add(datum);
+                requestSize += size;
+            }
+            flushed = send(flushed, namespace.getKey(), request);
+        }
+        return flushed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> scheduled = scheduledFlush;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of metrics held by the buffer
+     */
+    public int size() {
+        return metrics.size();
+    }
+
+    /**
+     * @return the number of {@code PutMetricData} requests
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of statistic sets sent
+     */
+    public long sent() {
+        return sent.sum();
+    }
+
+    /**
+     * @return the number of statistic sets which could not be sent
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    private void scheduleFlush() {
+        if (closed) {
+            return;
+        }
+        try {
+            scheduledFlush = scheduler.schedule(this::periodicFlush, flushIntervalNanos, TimeUnit.NANOSECONDS);
+            if (closed) {
+                // closed meanwhile, the values are sent by close
+                scheduledFlush.cancel(false);
+            }
+        } catch (RejectedExecutionException e) {
+            // the scheduler is shut down, the values are sent on close
+        }
+    }
+
+    private void periodicFlush() {
+        CompletableFuture<Void> flushed;
+        try {
+            flushed = flush();
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to flush the metrics", e);
+            flushed = CompletableFuture.completedFuture(null);
+        }
+        flushed.whenComplete((ignored, failure) -> scheduleFlush());
+    }
+
+    // the requests are chained, a flush never sends more than one request at a time
+    private CompletableFuture<Void> send(CompletableFuture<Void> previous, String namespace, List<MetricDatum> data) {
+        return previous.thenCompose(ignored -> {
+            requests.increment();
+            return BatchUtil.send(() -> client.putMetricData(r -> r.namespace(namespace)
+                    .metricData(data)
+                    .overrideConfiguration(overrideConfiguration)),
+                    result -> sent.add(data.size()),
+                    failure -> {
+                        failed.add(data.size());
+                        LOG.warnf(failure, "Unable to send %d metrics of the namespace %s", data.size(), namespace);
+                    });
+        });
+    }
+
+    private void add(Map<String, List<MetricDatum>> data, CloudWatchBufferedMetric metric, StatisticSet statistics,
+            Instant timestamp) {
+        if (statistics == null) {
+            return;
+        }
+        data.computeIfAbsent(metric.namespace(), namespace -> new ArrayList<>())
+                .add(MetricDatum.builder()
+                        .metricName(metric.metricName())
+                        .dimensions(metric.dimensions())
+                        .unit(metric.unit())
+                        .statisticValues(statistics)
+                        .storageResolution(storageResolution)
+                        .timestamp(timestamp)
+                        .build());
+    }
+
+    private static long size(MetricDatum datum) {
+        long size = DATUM_OVERHEAD + datum.metricName().length();
+        for (Dimension dimension : datum.dimensions()) {
+            size += DIMENSION_OVERHEAD + dimension.name().length() + dimension.value().length();
+        }
+        return size;
+    }
+
+    private static final class MetricKey {
+        private final String namespace;
+        private final String metricName;
+        private final StandardUnit unit;
+        private final List<Dimension> dimensions;
+        private final int hashCode;
+
+        private MetricKey(String namespace, String metricName, StandardUnit unit, Map<String, String> dimensions) {
+            this.namespace = namespace;
+            this.metricName = metricName;
+            this.unit = unit;
+            if (dimensions.isEmpty()) {
+                this.dimensions = Collections.emptyList();
+            } else {
+                // the same dimensions in a different order are the same metric
+                List<Dimension> sorted = new ArrayList<>(dimensions.size());
+                for (Map.Entry<String, String> dimension : new TreeMap<>(dimensions).entrySet()) {
+                    sorted.add(Dimension.builder().name(dimension.getKey()).value(dimension.getValue()).build());
+                }
+                this.dimensions = Collections.unmodifiableList(sorted);
+            }
+            this.hashCode = Objects.hash(namespace, metricName, unit, this.dimensions);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MetricKey)) {
+                return false;
+            }
+            MetricKey other = (MetricKey) o;
+            return hashCode == other.hashCode
+                    && namespace.equals(other.namespace)
+                    && metricName.equals(other.metricName)
+                    && unit == other.unit
+                    && dimensions.equals(other.dimensions);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface CloudWatchMetricsBufferConfig {
+
+    /**
+     * The namespace of the metrics recorded without explicit namespace.
+     */
+    @ConfigDocDefault("The namespace must be specified when recording")
+    Optional<String> namespace();
+
+    /**
+     * The interval at which the aggregated values are sent, each metric being sent once per interval as a statistic set.
+     */
+    @WithDefault("60S")
+    Duration flushInterval();
+
+    /**
+     * The storage resolution of the metrics in seconds, 1 for high resolution metrics or 60 for standard metrics.
+     */
+    @WithDefault("60")
+    int storageResolution();
+
+    /**
+     * The maximum number of metrics of a `PutMetricData` request. The maximum value is 1000.
+     */
+    @WithDefault("1000")
+    int maxMetricsPerRequest();
+
+    /**
+     * The maximum size of a `PutMetricData` request, before compression. The maximum value is 1M.
+     */
+    @WithDefault("1M")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxRequestSize();
+
+    /**
+     * Whether the `PutMetricData` requests are compressed with gzip.
+     */
+    @WithDefault("true")
+    boolean compression();
+
+    /**
+     * The minimum size of a compressed `PutMetricData` request.
+     */
+    @WithDefault("10K")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize compressionThreshold();
+}
@@ -1,6 +1,11 @@
 package io.quarkiverse.amazon.cloudwatch.runtime;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.*;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
@@ -41,4 +46,39 @@ public class CloudWatchRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return CloudWatchAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<CloudWatchMetricsBuffer>, CloudWatchMetricsBuffer> createMetricsBuffer(
+            String clientName, ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<CloudWatchMetricsBuffer>, CloudWatchMetricsBuffer>() {
+            @Override
+            public CloudWatchMetricsBuffer apply(SyntheticCreationalContext<CloudWatchMetricsBuffer> context) {
+                CloudWatchAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(CloudWatchAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(CloudWatchAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                CloudWatchMetricsBufferConfig bufferConfig = config.metricsBuffer();
+                if (bufferConfig.storageResolution() != 1 && bufferConfig.storageResolution() != 60) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.cloudwatch.metrics-buffer.storage-resolution must be 1 or 60");
+                }
+                if (bufferConfig.maxMetricsPerRequest() < 1 || bufferConfig.maxMetricsPerRequest() > 1000) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.cloudwatch.metrics-buffer.max-metrics-per-request must be between 1 and 1000");
+                }
+                return new CloudWatchMetricsBuffer(client,
+                        scheduledExecutorService,
+                        bufferConfig.namespace().orElse(null),
+                        bufferConfig.flushInterval(),
+                        bufferConfig.storageResolution(),
+                        bufferConfig.maxMetricsPerRequest(),
+                        bufferConfig.maxRequestSize().asLongValue(),
+                        bufferConfig.compression(),
+                        bufferConfig.compressionThreshold().asLongValue());
+            }
+        };
+    }
 }
@@ -2,9 +2,15 @@ package io.quarkiverse.amazon.cloudwatch.deployment;
 
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Singleton;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchEmfEmitter;
 import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchLogsBuildTimeConfig;
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchLogsHandler;
 import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchLogsRecorder;
 import io.quarkiverse.amazon.common.deployment.*;
 import io.quarkiverse.amazon.common.deployment.spi.EventLoopGroupBuildItem;
@@ -19,6 +25,9 @@ import io.quarkus.deployment.builditem.ExecutorBuildItem;
 import io.quarkus.deployment.builditem.ExtensionSslNativeSupportBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
 import io.quarkus.deployment.builditem.LaunchModeBuildItem;
+import io.quarkus.deployment.builditem.LogHandlerBuildItem;
+import io.quarkus.deployment.builditem.ShutdownContextBuildItem;
+import io.quarkus.runtime.RuntimeValue;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClientBuilder;
 import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsClient;
@@ -28,6 +37,8 @@ public class CloudWatchLogsProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-cloudwatchlogs";
 
+    private static final DotName CLOUDWATCH_EMF_EMITTER = DotName.createSimple(CloudWatchEmfEmitter.class);
+
     CloudWatchLogsBuildTimeConfig buildTimeConfig;
 
     @Override
@@ -69,6 +80,13 @@ public class CloudWatchLogsProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, CLOUDWATCH_EMF_EMITTER, asyncClientName(),
+                requireClientInjectionProducer);
+        if (buildTimeConfig.logHandler().enabled()) {
+            // the logs are sent with the default async client
+            requireClientInjectionProducer
+                    .produce(new RequireAmazonClientInjectionBuildItem(asyncClientName(), ClientUtil.DEFAULT_CLIENT_NAME));
+        }
     }
 
     @BuildStep
@@ -197,4 +215,52 @@ public class CloudWatchLogsProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createEmfEmitters(CloudWatchLogsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the emitter is removed if not injected, the queued events are sent when it is destroyed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(CloudWatchEmfEmitter.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createEmfEmitter(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(CloudWatchLogsAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void setupLogHandler(CloudWatchLogsRecorder recorder,
+            ShutdownContextBuildItem shutdownContext,
+            BuildProducer<LogHandlerBuildItem> logHandlers,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        if (!buildTimeConfig.logHandler().enabled()) {
+            return;
+        }
+
+        RuntimeValue<CloudWatchLogsHandler> handler = recorder.createLogHandler(shutdownContext);
+        logHandlers.produce(new LogHandlerBuildItem(recorder.logHandler(handler)));
+        // the handler is exposed for its metrics
+        syntheticBeans.produce(SyntheticBeanBuildItem.configure(CloudWatchLogsHandler.class)
+                .setRuntimeInit()
+                .scope(Singleton.class)
+                .runtimeValue(handler)
+                .done());
+    }
 }
@@ -0,0 +1,163 @@
+package io.quarkiverse.amazon.cloudwatch.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchEmfEmitter;
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchEmfRecord;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.CreateLogStreamRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.CreateLogStreamResponse;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsResponse;
+import software.amazon.awssdk.services.cloudwatchlogs.model.ResourceNotFoundException;
+
+/**
+ * Runs the emitter against a local stub of the client, without CloudWatch Logs.
+ */
+class CloudWatchEmfEmitterTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void emit() throws Exception {
+        StubCloudWatchLogsClient stub = new StubCloudWatchLogsClient();
+        CloudWatchEmfEmitter emitter = new CloudWatchEmfEmitter(stub, scheduler, "metrics", "stream", false, "app", 60,
+                Duration.ofHours(1), 100_000);
+
+        emitter.record()
+                .timestamp(1000)
+                .dimension("Operation", "get")
+                .metric("Latency", 12.5, "Milliseconds")
+                .metric("Latency", 7, "Milliseconds")
+                .metric("Requests", 1, "Count")
+                .property("RequestId", "a\"b")
+                .emit();
+
+        emitter.flush().get(1, TimeUnit.MINUTES);
+        // the stream is created when missing, then the events are sent again
+        assertEquals(1, stub.createdStreams.size());
+        assertEquals(1, stub.requests.size());
+        PutLogEventsRequest request = stub.requests.get(0);
+        assertEquals("metrics", request.logGroupName());
+        assertEquals("stream", request.logStreamName());
+        InputLogEvent event = request.logEvents().get(0);
+        assertEquals(1000, event.timestamp());
+        assertEquals("{\"_aws\":{\"Timestamp\":1000,\"CloudWatchMetrics\":[{\"Namespace\":\"app\","
+                + "\"Dimensions\":[[\"Operation\"]],\"Metrics\":[{\"Name\":\"Latency\",\"Unit\":\"Milliseconds\"},"
+                + "{\"Name\":\"Requests\",\"Unit\":\"Count\"}]}]},\"Operation\":\"get\",\"Latency\":[12.5,7.0],"
+                + "\"Requests\":1.0,\"RequestId\":\"a\\\"b\"}", event.message());
+        assertEquals(1, emitter.sent());
+        emitter.close();
+    }
+
+    @Test
+    void names() throws Exception {
+        StubCloudWatchLogsClient stub = new StubCloudWatchLogsClient();
+        stub.createdStreams.add("stream");
+        CloudWatchEmfEmitter emitter = new CloudWatchEmfEmitter(stub, scheduler, "metrics", "stream", false, null, 60,
+                Duration.ofHours(1), 100_000);
+
+        // a name is the field of a single dimension, metric or property
+        CloudWatchEmfRecord record = emitter.record().dimension("Operation", "get").metric("Latency", 1);
+        assertThrows(IllegalArgumentException.class, () -> record.metric("Operation", 1));
+        assertThrows(IllegalArgumentException.class, () -> record.dimension("Latency", "high"));
+        assertThrows(IllegalArgumentException.class, () -> record.property("Latency", "high"));
+        assertThrows(IllegalArgumentException.class, () -> record.property("Operation", "put"));
+        assertThrows(IllegalArgumentException.class, () -> record.dimension("Operation", "put"));
+        record.property("RequestId", "a");
+        assertThrows(IllegalArgumentException.class, () -> record.metric("RequestId", 1));
+        assertThrows(IllegalArgumentException.class, () -> record.property(null, "a"));
+        record.timestamp(1000).emit();
+
+        // without namespace, the metrics are sent to the default namespace
+        emitter.flush().get(1, TimeUnit.MINUTES);
+        assertEquals("{\"_aws\":{\"Timestamp\":1000,\"CloudWatchMetrics\":[{\"Namespace\":\"aws-embedded-metrics\","
+                + "\"Dimensions\":[[\"Operation\"]],\"Metrics\":[{\"Name\":\"Latency\"}]}]},\"Operation\":\"get\","
+                + "\"Latency\":1.0,\"RequestId\":\"a\"}", stub.requests.get(0).logEvents().get(0).message());
+        emitter.close();
+    }
+
+    @Test
+    void batch() throws Exception {
+        StubCloudWatchLogsClient stub = new StubCloudWatchLogsClient();
+        stub.createdStreams.add("stream");
+        CloudWatchEmfEmitter emitter = new CloudWatchEmfEmitter(stub, scheduler, "metrics", "stream", false, "app", 1,
+                Duration.ofHours(1), 9_000);
+
+        String payload = "x".repeat(200);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 9_500; i++) {
+            emitter.record().timestamp(now - i).metric("Requests", 1, "Count").property("Payload", payload).emit();
+        }
+
+        emitter.flush().get(1, TimeUnit.MINUTES);
+        // the events emitted while the queue is full are dropped
+        assertEquals(9_500, emitter.emitted());
+        assertEquals(500, emitter.dropped());
+        assertEquals(9_000, emitter.sent());
+        // the requests hold at most 1MB of events
+        assertTrue(stub.requests.size() >= 3, String.valueOf(stub.requests.size()));
+        for (PutLogEventsRequest request : stub.requests) {
+            List<InputLogEvent> events = request.logEvents();
+            long size = 0;
+            for (InputLogEvent event : events) {
+                size += event.message().length() + 26;
+            }
+            assertTrue(size <= 1_048_576, String.valueOf(size));
+            for (int i = 1; i < events.size(); i++) {
+                assertTrue(events.get(i - 1).timestamp() <= events.get(i).timestamp());
+            }
+        }
+        assertTrue(stub.requests.get(0).logEvents().get(0).message().contains("\"StorageResolution\":1"));
+        emitter.close();
+    }
+
+    private static final class StubCloudWatchLogsClient implements CloudWatchLogsAsyncClient {
+
+        private final List<PutLogEventsRequest> requests = new CopyOnWriteArrayList<>();
+        private final List<String> createdStreams = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<PutLogEventsResponse> putLogEvents(PutLogEventsRequest request) {
+            if (!createdStreams.contains(request.logStreamName())) {
+                return CompletableFuture.failedFuture(ResourceNotFoundException.builder().message("missing").build());
+            }
+            requests.add(request);
+            return CompletableFuture.completedFuture(PutLogEventsResponse.builder().build());
+        }
+
+        @Override
+        public CompletableFuture<CreateLogStreamResponse> createLogStream(CreateLogStreamRequest request) {
+            createdStreams.add(request.logStreamName());
+            return CompletableFuture.completedFuture(CreateLogStreamResponse.builder().build());
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
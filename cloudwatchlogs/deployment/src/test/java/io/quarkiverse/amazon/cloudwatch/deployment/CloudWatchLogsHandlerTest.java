@@ -0,0 +1,113 @@
+package io.quarkiverse.amazon.cloudwatch.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.Level;
+import org.jboss.logmanager.formatters.PatternFormatter;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchLogsHandler;
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchLogsHandlerConfig.OverflowPolicy;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsRequest;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsResponse;
+
+/**
+ * Runs the handler against a local stub of the client, without CloudWatch Logs.
+ */
+class CloudWatchLogsHandlerTest {
+
+    @Test
+    void send() throws Exception {
+        StubCloudWatchLogsClient stub = new StubCloudWatchLogsClient();
+        CloudWatchLogsHandler handler = handler(() -> stub, 1024);
+
+        Instant now = Instant.now();
+        // published out of order and across more than 24 hours
+        handler.publish(record("app", "second", now.minusSeconds(10)));
+        handler.publish(record("app", "first", now.minusSeconds(20)));
+        handler.publish(record("app", "old", now.minus(Duration.ofHours(30))));
+        // the records of the SDK are not sent
+        handler.publish(record("software.amazon.awssdk.request", "ignored", now));
+
+        handler.sendBuffered().get(1, TimeUnit.MINUTES);
+        assertEquals(3, handler.published());
+        assertEquals(3, handler.sent());
+        assertEquals(2, stub.requests.size());
+        assertEquals(List.of("old"), messages(stub.requests.get(0)));
+        assertEquals(List.of("first", "second"), messages(stub.requests.get(1)));
+        handler.close();
+    }
+
+    @Test
+    void drop() throws Exception {
+        StubCloudWatchLogsClient stub = new StubCloudWatchLogsClient();
+        AtomicReference<CloudWatchLogsAsyncClient> client = new AtomicReference<>();
+        CloudWatchLogsHandler handler = handler(client::get, 100);
+
+        // the events are buffered until the client is available
+        for (int i = 0; i < 150; i++) {
+            handler.publish(record("app", "message-" + i, Instant.now()));
+        }
+        handler.sendBuffered().get(1, TimeUnit.MINUTES);
+        assertEquals(150, handler.published());
+        assertEquals(22, handler.dropped());
+        assertEquals(128, handler.buffered());
+
+        client.set(stub);
+        handler.sendBuffered().get(1, TimeUnit.MINUTES);
+        assertEquals(128, handler.sent());
+        assertEquals(0, handler.buffered());
+        handler.close();
+    }
+
+    private static CloudWatchLogsHandler handler(Supplier<CloudWatchLogsAsyncClient> client, int bufferSize) {
+        CloudWatchLogsHandler handler = new CloudWatchLogsHandler(client, "logs", "stream", false, bufferSize,
+                OverflowPolicy.DROP, Duration.ofSeconds(1), Duration.ofHours(1), 10_000, 1_048_576, Duration.ofSeconds(10));
+        handler.setFormatter(new PatternFormatter("%s"));
+        return handler;
+    }
+
+    private static ExtLogRecord record(String category, String message, Instant instant) {
+        ExtLogRecord record = new ExtLogRecord(Level.INFO, message, CloudWatchLogsHandlerTest.class.getName());
+        record.setLoggerName(category);
+        record.setInstant(instant);
+        return record;
+    }
+
+    private static List<String> messages(PutLogEventsRequest request) {
+        return request.logEvents().stream().map(InputLogEvent::message).toList();
+    }
+
+    private static final class StubCloudWatchLogsClient implements CloudWatchLogsAsyncClient {
+
+        private final List<PutLogEventsRequest> requests = new CopyOnWriteArrayList<>();
+
+        @Override
+        public CompletableFuture<PutLogEventsResponse> putLogEvents(PutLogEventsRequest request) {
+            requests.add(request);
+            return CompletableFuture.completedFuture(PutLogEventsResponse.builder().build());
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
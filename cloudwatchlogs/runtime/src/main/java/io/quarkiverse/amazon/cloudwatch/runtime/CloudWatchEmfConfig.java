@@ -0,0 +1,53 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface CloudWatchEmfConfig {
+
+    /**
+     * The log group of the events in the embedded metric format. It must be set for the emitter to be created.
+     */
+    Optional<String> logGroup();
+
+    /**
+     * The log stream of the events in the embedded metric format.
+     */
+    @ConfigDocDefault("A random name, one stream per application instance")
+    Optional<String> logStream();
+
+    /**
+     * Whether the log group is created if it does not exist. The log stream is always created.
+     */
+    @WithDefault("false")
+    boolean createLogGroup();
+
+    /**
+     * The namespace of the metrics emitted without explicit namespace.
+     */
+    @WithDefault("aws-embedded-metrics")
+    String namespace();
+
+    /**
+     * The storage resolution of the metrics in seconds, 1 for high resolution metrics or 60 for standard metrics.
+     */
+    @WithDefault("60")
+    int storageResolution();
+
+    /**
+     * The interval at which the queued events are sent. A full batch of events is sent without waiting.
+     */
+    @WithDefault("5S")
+    Duration flushInterval();
+
+    /**
+     * The maximum number of queued events, the events emitted while the queue is full are dropped.
+     */
+    @WithDefault("100000")
+    int maxPending();
+}
@@ -0,0 +1,162 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Emits metrics as log events in the CloudWatch embedded metric format, CloudWatch extracting the metrics from the
+ * events of the log group.
+ * <p>
+ * The events are serialized into buffers reused per thread and queued, then sent to the log stream with
+ * {@code PutLogEvents} requests every flush interval, or as soon as a full batch is queued. The events emitted while the
+ * maximum number of events is queued are dropped.
+ */
+public class CloudWatchEmfEmitter implements SdkAutoCloseable {
+
+    // the namespace of the CloudWatch embedded metric format libraries
+    static final String DEFAULT_NAMESPACE = "aws-embedded-metrics";
+
+    private final CloudWatchLogsBatchSender sender;
+    private final ScheduledExecutorService scheduler;
+    private final String namespace;
+    private final int storageResolution;
+    private final int maxPending;
+    private final ScheduledFuture<?> scheduledFlush;
+
+    private final ThreadLocal<CloudWatchEmfRecord> records = ThreadLocal.withInitial(() -> new CloudWatchEmfRecord(this));
+    private final Queue<InputLogEvent> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final LongAdder emitted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public CloudWatchEmfEmitter(CloudWatchLogsAsyncClient client, ScheduledExecutorService scheduler, String logGroupName,
+            String logStreamName, boolean createLogGroup, String namespace, int storageResolution, Duration flushInterval,
+            int maxPending) {
+        this.sender = new CloudWatchLogsBatchSender(client, logGroupName, logStreamName, createLogGroup,
+                CloudWatchLogsBatchSender.MAX_BATCH_EVENTS, CloudWatchLogsBatchSender.MAX_BATCH_SIZE);
+        this.scheduler = scheduler;
+        this.namespace = namespace != null ? namespace : DEFAULT_NAMESPACE;
+        this.storageResolution = storageResolution;
+        this.maxPending = maxPending;
+        this.scheduledFlush = scheduler.scheduleAtFixedRate(this::flush, flushInterval.toNanos(),
+                flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the record of the current thread, cleared. The record must be emitted before this method is called again
+     * by the same thread.
+     *
+     * @return the record of the next event of the current thread
+     */
+    public CloudWatchEmfRecord record() {
+        CloudWatchEmfRecord record = records.get();
+        record.clear();
+        return record;
+    }
+
+    /**
+     * Emits a single metric value.
+     *
+     * @param metricName the name of the metric
+     * @param value the value
+     * @param unit the unit of the value, or {@code null}
+     */
+    public void emit(String metricName, double value, String unit) {
+        record().metric(metricName, value, unit).emit();
+    }
+
+    /**
+     * Sends the queued events.
+     *
+     * @return completed once the events are sent or failed
+     */
+    public CompletableFuture<Void> flush() {
+        flushRequested.set(false);
+        List<InputLogEvent> events = new ArrayList<>(Math.min(pendingCount.get(), CloudWatchLogsBatchSender.MAX_BATCH_EVENTS));
+        InputLogEvent event;
+        while ((event = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            events.add(event);
+        }
+        return sender.send(events);
+    }
+
+    @Override
+    public void close() {
+        scheduledFlush.cancel(false);
+        flush();
+    }
+
+    /**
+     * @return the number of emitted events, including the dropped ones
+     */
+    public long emitted() {
+        return emitted.sum();
+    }
+
+    /**
+     * @return the number of events dropped because too many events were queued
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of events sent
+     */
+    public long sent() {
+        return sender.sent();
+    }
+
+    /**
+     * @return the number of events which could not be sent
+     */
+    public long failed() {
+        return sender.failed();
+    }
+
+    /**
+     * @return the number of {@code PutLogEvents} requests
+     */
+    public long requests() {
+        return sender.requests();
+    }
+
+    String namespace() {
+        return namespace;
+    }
+
+    int storageResolution() {
+        return storageResolution;
+    }
+
+    void enqueue(long timestamp, String message) {
+        emitted.increment();
+        if (pendingCount.incrementAndGet() > maxPending) {
+            pendingCount.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.add(InputLogEvent.builder().timestamp(timestamp).message(message).build());
+        if (pendingCount.get() >= CloudWatchLogsBatchSender.MAX_BATCH_EVENTS && flushRequested.compareAndSet(false, true)) {
+            // a full batch is sent without waiting for the next flush
+            scheduler.execute(this::flush);
+        }
+    }
+}
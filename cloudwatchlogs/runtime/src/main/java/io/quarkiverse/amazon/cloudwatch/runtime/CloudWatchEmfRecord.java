@@ -0,0 +1,311 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.util.Arrays;
+
+/**
+ * A log event in the CloudWatch embedded metric format, holding the dimensions, the metrics and the properties of the
+ * event until it is emitted.
+ * <p>
+ * A record is reused by the events of a thread: it is returned by {@link CloudWatchEmfEmitter#record()} and must be
+ * emitted by the same thread before another record is requested. The event is serialized into a buffer also reused, so
+ * that emitting an event only allocates its message.
+ * <p>
+ * The dimensions, the metrics and the properties are written as the fields of the event, so a name is used by one of
+ * them only. The values of a metric added several times are sent as an array.
+ */
+public final class CloudWatchEmfRecord {
+
+    // the limits of the embedded metric format
+    static final int MAX_DIMENSIONS = 30;
+    static final int MAX_METRICS = 100;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final CloudWatchEmfEmitter emitter;
+    private final StringBuilder json = new StringBuilder(1024);
+
+    private String namespace;
+    private long timestamp;
+
+    private String[] dimensionNames = new String[4];
+    private String[] dimensionValues = new String[4];
+    private int dimensionCount;
+
+    private String[] metricNames = new String[8];
+    private String[] metricUnits = new String[8];
+    private double[] metricValues = new double[8];
+    private int metricCount;
+
+    private String[] propertyNames = new String[4];
+    private String[] propertyValues = new String[4];
+    private int propertyCount;
+
+    CloudWatchEmfRecord(CloudWatchEmfEmitter emitter) {
+        this.emitter = emitter;
+    }
+
+    /**
+     * @param namespace the namespace of the metrics of the event, the namespace of the emitter if {@code null}
+     * @return this record
+     */
+    public CloudWatchEmfRecord namespace(String namespace) {
+        this.namespace = namespace;
+        return this;
+    }
+
+    /**
+     * @param timestamp the time of the event in milliseconds since the epoch, the time of emission by default
+     * @return this record
+     */
+    public CloudWatchEmfRecord timestamp(long timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    /**
+     * Adds a dimension to the metrics of the event.
+     *
+     * @param name the name of the dimension
+     * @param value the value of the dimension
+     * @return this record
+     */
+    public CloudWatchEmfRecord dimension(String name, String value) {
+        if (dimensionCount == MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("An event has at most " + MAX_DIMENSIONS + " dimensions");
+        }
+        checkUnused(name, true);
+        if (dimensionCount == dimensionNames.length) {
+            dimensionNames = Arrays.copyOf(dimensionNames, dimensionCount * 2);
+            dimensionValues = Arrays.copyOf(dimensionValues, dimensionCount * 2);
+        }
+        dimensionNames[dimensionCount] = name;
+        dimensionValues[dimensionCount++] = value;
+        return this;
+    }
+
+    /**
+     * Adds a value of a metric, the values of a metric added several times are sent as an array.
+     *
+     * @param name the name of the metric
+     * @param value the value
+     * @param unit the unit of the value, such as {@code Milliseconds} or {@code Count}, or {@code null}
+     * @return this record
+     */
+    public CloudWatchEmfRecord metric(String name, double value, String unit) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("The value of the metric " + name + " is not a finite number");
+        }
+        if (metricCount == MAX_METRICS) {
+            throw new IllegalArgumentException("An event has at most " + MAX_METRICS + " metrics");
+        }
+        checkUnused(name, false);
+        if (metricCount == metricNames.length) {
+            metricNames = Arrays.copyOf(metricNames, metricCount * 2);
+            metricUnits = Arrays.copyOf(metricUnits, metricCount * 2);
+            metricValues = Arrays.copyOf(metricValues, metricCount * 2);
+        }
+        metricNames[metricCount] = name;
+        metricUnits[metricCount] = unit;
+        metricValues[metricCount++] = value;
+        return this;
+    }
+
+    /**
+     * @param name the name of the metric
+     * @param value the value, without unit
+     * @return this record
+     */
+    public CloudWatchEmfRecord metric(String name, double value) {
+        return metric(name, value, null);
+    }
+
+    /**
+     * Adds a property, searchable in the logs but not a dimension of the metrics.
+     *
+     * @param name the name of the property
+     * @param value the value of the property
+     * @return this record
+     */
+    public CloudWatchEmfRecord property(String name, String value) {
+        checkUnused(name, true);
+        if (propertyCount == propertyNames.length) {
+            propertyNames = Arrays.copyOf(propertyNames, propertyCount * 2);
+            propertyValues = Arrays.copyOf(propertyValues, propertyCount * 2);
+        }
+        propertyNames[propertyCount] = name;
+        propertyValues[propertyCount++] = value;
+        return this;
+    }
+
+    /**
+     * Serializes the event, queues it to be sent and clears this record.
+     */
+    public void emit() {
+        try {
+            long time = timestamp != 0 ? timestamp : System.currentTimeMillis();
+            emitter.enqueue(time, serialize(time));
+        } finally {
+            clear();
+        }
+    }
+
+    /**
+     * Serializes the event into the reused buffer.
+     *
+     * @return the message of the event
+     */
+    String serialize(long time) {
+        StringBuilder json = this.json;
+        json.setLength(0);
+        json.append("{\"_aws\":{\"Timestamp\":").append(time).append(",\"CloudWatchMetrics\":[{\"Namespace\":");
+        string(json, namespace != null ? namespace : emitter.namespace());
+        json.append(",\"Dimensions\":[[");
+        for (int i = 0; i < dimensionCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            string(json, dimensionNames[i]);
+        }
+        json.append("]],\"Metrics\":[");
+        boolean first = true;
+        for (int i = 0; i < metricCount; i++) {
+            if (firstIndex(i) != i) {
+                continue;
+            }
+            json.append(first ? "{\"Name\":" : ",{\"Name\":");
+            first = false;
+            string(json, metricNames[i]);
+            if (metricUnits[i] != null) {
+                json.append(",\"Unit\":");
+                string(json, metricUnits[i]);
+            }
+            if (emitter.storageResolution() == 1) {
+                json.append(",\"StorageResolution\":1");
+            }
+            json.append('}');
+        }
+        json.append("]}]}");
+
+        for (int i = 0; i < dimensionCount; i++) {
+            json.append(',');
+            string(json, dimensionNames[i]);
+            json.append(':');
+            string(json, dimensionValues[i]);
+        }
+        for (int i = 0; i < metricCount; i++) {
+            if (firstIndex(i) != i) {
+                continue;
+            }
+            json.append(',');
+            string(json, metricNames[i]);
+            json.append(':');
+            int count = 0;
+            for (int j = i; j < metricCount; j++) {
+                if (metricNames[j].equals(metricNames[i])) {
+                    count++;
+                }
+            }
+            if (count == 1) {
+                json.append(metricValues[i]);
+            } else {
+                json.append('[');
+                for (int j = i; j < metricCount; j++) {
+                    if (metricNames[j].equals(metricNames[i])) {
+                        json.append(metricValues[j]);
+                        if (--count > 0) {
+                            json.append(',');
+                        }
+                    }
+                }
+                json.append(']');
+            }
+        }
+        for (int i = 0; i < propertyCount; i++) {
+            json.append(',');
+            string(json, propertyNames[i]);
+            json.append(':');
+            string(json, propertyValues[i]);
+        }
+        return json.append('}').toString();
+    }
+
+    void clear() {
+        namespace = null;
+        timestamp = 0;
+        // the references are cleared so that the values can be collected
+        Arrays.fill(dimensionNames, 0, dimensionCount, null);
+        Arrays.fill(dimensionValues, 0, dimensionCount, null);
+        Arrays.fill(metricNames, 0, metricCount, null);
+        Arrays.fill(metricUnits, 0, metricCount, null);
+        Arrays.fill(propertyNames, 0, propertyCount, null);
+        Arrays.fill(propertyValues, 0, propertyCount, null);
+        dimensionCount = 0;
+        metricCount = 0;
+        propertyCount = 0;
+    }
+
+    // a name is the field of a single dimension or property, or of the values of a metric
+    private void checkUnused(String name, boolean checkMetrics) {
+        if (name == null) {
+            throw new IllegalArgumentException("The name of a dimension, a metric or a property is required");
+        }
+        if (contains(dimensionNames, dimensionCount, name) || contains(propertyNames, propertyCount, name)
+                || (checkMetrics && contains(metricNames, metricCount, name))) {
+            throw new IllegalArgumentException("The name " + name + " is already used by the event");
+        }
+    }
+
+    private static boolean contains(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the index of the first value of the metric of a value
+    private int firstIndex(int index) {
+        for (int i = 0; i < index; i++) {
+            if (metricNames[i].equals(metricNames[index])) {
+                return i;
+            }
+        }
+        return index;
+    }
+
+    private static void string(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
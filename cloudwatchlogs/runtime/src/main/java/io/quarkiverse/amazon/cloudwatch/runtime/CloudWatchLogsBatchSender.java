@@ -0,0 +1,209 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import io.quarkiverse.amazon.common.runtime.BatchUtil;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+import software.amazon.awssdk.services.cloudwatchlogs.model.PutLogEventsResponse;
+import software.amazon.awssdk.services.cloudwatchlogs.model.RejectedLogEventsInfo;
+import software.amazon.awssdk.services.cloudwatchlogs.model.ResourceAlreadyExistsException;
+import software.amazon.awssdk.services.cloudwatchlogs.model.ResourceNotFoundException;
+
+/**
+ * Sends the events of a log stream with {@code PutLogEvents} requests, one request at a time.
+ * <p>
+ * The events are sorted by timestamp and split into batches of up to the maximum number of events and the maximum size,
+ * each batch spanning less than 24 hours. The log stream, and optionally the log group, are created when a request fails
+ * because they do not exist.
+ */
+final class CloudWatchLogsBatchSender {
+
+    private static final Logger LOG = Logger.getLogger(CloudWatchLogsBatchSender.class);
+
+    // the size of an event is the size of its message plus 26 bytes
+    static final int EVENT_OVERHEAD = 26;
+    static final int MAX_EVENT_SIZE = 256 * 1024;
+    static final int MAX_BATCH_EVENTS = 10_000;
+    static final int MAX_BATCH_SIZE = 1_048_576;
+    private static final long MAX_BATCH_SPAN_MILLIS = 24 * 60 * 60 * 1000L - 1;
+
+    private static final Comparator<InputLogEvent> BY_TIMESTAMP = Comparator.comparingLong(InputLogEvent::timestamp);
+
+    private final CloudWatchLogsAsyncClient client;
+    private final String logGroupName;
+    private final String logStreamName;
+    private final boolean createLogGroup;
+    private final int maxBatchEvents;
+    private final int maxBatchSize;
+
+    // guarded by this, the requests of the stream are chained
+    private CompletableFuture<Void> last = CompletableFuture.completedFuture(null);
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    CloudWatchLogsBatchSender(CloudWatchLogsAsyncClient client, String logGroupName, String logStreamName,
+            boolean createLogGroup, int maxBatchEvents, int maxBatchSize) {
+        this.client = client;
+        this.logGroupName = logGroupName;
+        this.logStreamName = logStreamName;
+        this.createLogGroup = createLogGroup;
+        this.maxBatchEvents = Math.min(maxBatchEvents, MAX_BATCH_EVENTS);
+        this.maxBatchSize = Math.min(maxBatchSize, MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Sends events after the events of the previous calls.
+     *
+     * @param events the events, sorted in place
+     * @return completed once the events are sent or failed
+     */
+    CompletableFuture<Void> send(List<InputLogEvent> events) {
+        if (events.isEmpty()) {
+            return lastRequest();
+        }
+        events.sort(BY_TIMESTAMP);
+
+        List<List<InputLogEvent>> batches = new ArrayList<>();
+        List<InputLogEvent> batch = new ArrayList<>();
+        long batchSize = 0;
+        long firstTimestamp = 0;
+        for (InputLogEvent event : events) {
+            int size = size(event);
+            if (!batch.isEmpty() && (batch.size() >= maxBatchEvents || batchSize + size > maxBatchSize
+                    || event.timestamp() - firstTimestamp > MAX_BATCH_SPAN_MILLIS)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchSize = 0;
+            }
+            if (batch.isEmpty()) {
+                firstTimestamp = event.timestamp();
+            }
+            batch.add(event);
+            batchSize += size;
+        }
+        batches.add(batch);
+
+        synchronized (this) {
+            for (List<InputLogEvent> next : batches) {
+                // a failed batch does not prevent the next ones from being sent
+                last = last.exceptionally(failure -> null).thenCompose(ignored -> put(next, true));
+            }
+            return last;
+        }
+    }
+
+    /**
+     * @return completed once the requests sent so far completed
+     */
+    synchronized CompletableFuture<Void> lastRequest() {
+        return last;
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long sent() {
+        return sent.sum();
+    }
+
+    long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the size of the event in a request
+     */
+    static int size(InputLogEvent event) {
+        return (int) BatchUtil.utf8Length(event.message()) + EVENT_OVERHEAD;
+    }
+
+    /**
+     * Truncates a message to the maximum size of an event.
+     */
+    static String truncate(String message) {
+        if (message.length() * 3L + EVENT_OVERHEAD <= MAX_EVENT_SIZE
+                || BatchUtil.utf8Length(message) + EVENT_OVERHEAD <= MAX_EVENT_SIZE) {
+            return message;
+        }
+        int length = 0;
+        int end = 0;
+        while (end < message.length()) {
+            char c = message.charAt(end);
+            int charLength = c < 0x80 ? 1 : c < 0x800 ? 2 : Character.isHighSurrogate(c) ? 4 : 3;
+            if (length + charLength + EVENT_OVERHEAD > MAX_EVENT_SIZE) {
+                break;
+            }
+            length += charLength;
+            end += charLength == 4 ? 2 : 1;
+        }
+        return message.substring(0, end);
+    }
+
+    private CompletableFuture<Void> put(List<InputLogEvent> batch, boolean createIfMissing) {
+        requests.increment();
+        CompletableFuture<PutLogEventsResponse> response = BatchUtil.invoke(() -> client.putLogEvents(
+                r -> r.logGroupName(logGroupName).logStreamName(logStreamName).logEvents(batch)));
+        return response.handle((result, failure) -> {
+            if (failure == null) {
+                int rejected = rejected(result.rejectedLogEventsInfo(), batch.size());
+                sent.add(batch.size() - rejected);
+                if (rejected > 0) {
+                    failed.add(rejected);
+                    LOG.warnf("%d events of the log stream %s were rejected because of their timestamp", rejected,
+                            logStreamName);
+                }
+                return CompletableFuture.<Void> completedFuture(null);
+            }
+            Throwable cause = BatchUtil.unwrap(failure);
+            if (createIfMissing && cause instanceof ResourceNotFoundException) {
+                return create().thenCompose(ignored -> put(batch, false));
+            }
+            failed.add(batch.size());
+            LOG.warnf(cause, "Unable to send %d events to the log stream %s", batch.size(), logStreamName);
+            return CompletableFuture.<Void> completedFuture(null);
+        }).thenCompose(next -> next);
+    }
+
+    private CompletableFuture<Void> create() {
+        CompletableFuture<Void> group = createLogGroup
+                ? ignoreExisting(client.createLogGroup(r -> r.logGroupName(logGroupName)))
+                : CompletableFuture.completedFuture(null);
+        return group.thenCompose(ignored -> ignoreExisting(
+                client.createLogStream(r -> r.logGroupName(logGroupName).logStreamName(logStreamName))));
+    }
+
+    private static CompletableFuture<Void> ignoreExisting(CompletableFuture<?> creation) {
+        return creation.handle((result, failure) -> {
+            Throwable cause = failure != null ? BatchUtil.unwrap(failure) : null;
+            if (cause != null && !(cause instanceof ResourceAlreadyExistsException)) {
+                LOG.debugf(cause, "Unable to create the log group or stream");
+            }
+            return null;
+        });
+    }
+
+    private static int rejected(RejectedLogEventsInfo info, int batchSize) {
+        if (info == null) {
+            return 0;
+        }
+        // the events before the expired and too old indexes and after the too new index are rejected
+        int rejected = 0;
+        int tooOld = Math.max(info.expiredLogEventEndIndex() != null ? info.expiredLogEventEndIndex() : -1,
+                info.tooOldLogEventEndIndex() != null ? info.tooOldLogEventEndIndex() : -1);
+        rejected += tooOld + 1;
+        if (info.tooNewLogEventStartIndex() != null) {
+            rejected += batchSize - Math.max(info.tooNewLogEventStartIndex(), tooOld + 1);
+        }
+        return Math.min(rejected, batchSize);
+    }
+}
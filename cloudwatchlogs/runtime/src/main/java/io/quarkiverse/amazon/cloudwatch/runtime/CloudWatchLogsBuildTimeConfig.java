@@ -29,4 +29,9 @@ public interface CloudWatchLogsBuildTimeConfig extends HasSdkBuildTimeConfig {
      * Config for dev services
      */
     DevServicesBuildTimeConfig devservices();
+
+    /**
+     * Log handler configuration
+     */
+    CloudWatchLogsHandlerBuildTimeConfig logHandler();
 }
@@ -22,4 +22,16 @@ public interface CloudWatchLogsConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Embedded metric format emitter configurations
+     */
+    @ConfigDocSection
+    CloudWatchEmfConfig emf();
+
+    /**
+     * Log handler configurations
+     */
+    @ConfigDocSection
+    CloudWatchLogsHandlerConfig logHandler();
 }
@@ -0,0 +1,265 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import java.util.logging.ErrorManager;
+
+import org.jboss.logmanager.ExtHandler;
+import org.jboss.logmanager.ExtLogRecord;
+
+import io.quarkiverse.amazon.cloudwatch.runtime.CloudWatchLogsHandlerConfig.OverflowPolicy;
+import software.amazon.awssdk.services.cloudwatchlogs.CloudWatchLogsAsyncClient;
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+
+/**
+ * A log handler sending the log records to a CloudWatch Logs log stream with {@code PutLogEvents} requests.
+ * <p>
+ * The logging threads format the records and add them to a lock-free ring buffer, and a single thread sends the buffered
+ * events every flush interval, or as soon as a full batch is buffered. The requests of the stream are sent one at a time:
+ * the buffer is not drained while a request is in progress, so that the buffer fills up when CloudWatch Logs does not
+ * keep up and the overflow policy applies.
+ * <p>
+ * The client is looked up on the first flush, the records published before are buffered. The records of the SDK and of
+ * this extension are not sent, sending them would publish records again.
+ */
+public class CloudWatchLogsHandler extends ExtHandler {
+
+    private static final String[] IGNORED_CATEGORIES = {
+            "io.quarkiverse.amazon.cloudwatch.runtime",
+            "software.amazon.awssdk",
+            "io.netty",
+            "org.apache.http"
+    };
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final Supplier<CloudWatchLogsAsyncClient> clientSupplier;
+    private final String logGroupName;
+    private final String logStreamName;
+    private final boolean createLogGroup;
+    private final int maxBatchEvents;
+    private final int maxBatchSize;
+    private final OverflowPolicy overflow;
+    private final long blockTimeoutNanos;
+    private final Duration shutdownTimeout;
+
+    private final CloudWatchLogsRingBuffer buffer;
+    private final ScheduledExecutorService flusher;
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private volatile Thread flusherThread;
+    private volatile boolean closed;
+
+    // only written by the flusher thread
+    private volatile CloudWatchLogsBatchSender sender;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public CloudWatchLogsHandler(Supplier<CloudWatchLogsAsyncClient> clientSupplier, String logGroupName,
+            String logStreamName, boolean createLogGroup, int bufferSize, OverflowPolicy overflow, Duration blockTimeout,
+            Duration flushInterval, int maxBatchEvents, int maxBatchSize, Duration shutdownTimeout) {
+        this.clientSupplier = clientSupplier;
+        this.logGroupName = logGroupName;
+        this.logStreamName = logStreamName;
+        this.createLogGroup = createLogGroup;
+        this.maxBatchEvents = maxBatchEvents;
+        this.maxBatchSize = maxBatchSize;
+        this.overflow = overflow;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.shutdownTimeout = shutdownTimeout;
+        this.buffer = new CloudWatchLogsRingBuffer(bufferSize);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cloudwatchlogs-handler-" + logStreamName);
+            thread.setDaemon(true);
+            flusherThread = thread;
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> drain(false), flushInterval.toNanos(), flushInterval.toNanos(),
+                TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    protected void doPublish(ExtLogRecord record) {
+        if (closed || isIgnored(record.getLoggerName())) {
+            return;
+        }
+        String message;
+        try {
+            message = getFormatter().format(record);
+        } catch (RuntimeException e) {
+            reportError("Unable to format the log record", e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        published.increment();
+        InputLogEvent event = InputLogEvent.builder()
+                .timestamp(record.getMillis())
+                .message(CloudWatchLogsBatchSender.truncate(message))
+                .build();
+        if (!buffer.offer(event) && !waitForRoom(event)) {
+            dropped.increment();
+            return;
+        }
+        if (buffer.size() >= maxBatchEvents) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * Requests the buffered events to be sent, without waiting.
+     */
+    @Override
+    public void flush() {
+        requestFlush();
+    }
+
+    /**
+     * Sends the buffered events.
+     *
+     * @return completed once the events are sent or failed, or immediately if the client is not available yet
+     */
+    public CompletableFuture<Void> sendBuffered() {
+        try {
+            return CompletableFuture.supplyAsync(() -> drain(true), flusher).thenCompose(sent -> sent);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * Sends the buffered events, waiting up to the shutdown timeout, and stops the sending thread.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            sendBuffered().get(shutdownTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            reportError("Unable to send the buffered log events", e, ErrorManager.CLOSE_FAILURE);
+        } finally {
+            flusher.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the number of log records published to CloudWatch Logs, including the dropped ones
+     */
+    public long published() {
+        return published.sum();
+    }
+
+    /**
+     * @return the number of log events dropped because the buffer was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return the number of log events sent
+     */
+    public long sent() {
+        CloudWatchLogsBatchSender current = sender;
+        return current != null ? current.sent() : 0;
+    }
+
+    /**
+     * @return the number of log events which could not be sent
+     */
+    public long failed() {
+        CloudWatchLogsBatchSender current = sender;
+        return current != null ? current.failed() : 0;
+    }
+
+    /**
+     * @return the number of log events waiting to be sent
+     */
+    public int buffered() {
+        return buffer.size();
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(() -> drain(false));
+            } catch (RejectedExecutionException e) {
+                // closed
+            }
+        }
+    }
+
+    // runs on the flusher thread, which is the only reader of the buffer
+    private CompletableFuture<Void> drain(boolean all) {
+        flushRequested.set(false);
+        if (sender == null) {
+            CloudWatchLogsAsyncClient client;
+            try {
+                client = clientSupplier.get();
+            } catch (RuntimeException e) {
+                client = null;
+            }
+            if (client == null) {
+                // the events stay in the buffer until the client is available
+                return CompletableFuture.completedFuture(null);
+            }
+            sender = new CloudWatchLogsBatchSender(client, logGroupName, logStreamName, createLogGroup, maxBatchEvents,
+                    maxBatchSize);
+        }
+        if (!all && !sender.lastRequest().isDone()) {
+            // the events stay in the buffer while the previous events are being sent
+            return sender.lastRequest();
+        }
+        List<InputLogEvent> events = new ArrayList<>(Math.min(buffer.size(), buffer.capacity()));
+        buffer.drain(events, buffer.capacity());
+        return sender.send(events).whenComplete((result, failure) -> {
+            if (buffer.size() >= maxBatchEvents) {
+                // the events buffered while sending are sent without waiting for the next flush
+                requestFlush();
+            }
+        });
+    }
+
+    private boolean waitForRoom(InputLogEvent event) {
+        if (overflow != OverflowPolicy.BLOCK || Thread.currentThread() == flusherThread) {
+            return false;
+        }
+        requestFlush();
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        while (System.nanoTime() - deadline < 0 && !closed) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(event)) {
+                return true;
+            }
+            requestFlush();
+        }
+        return false;
+    }
+
+    private static boolean isIgnored(String loggerName) {
+        if (loggerName == null) {
+            return false;
+        }
+        for (String category : IGNORED_CATEGORIES) {
+            if (loggerName.startsWith(category)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface CloudWatchLogsHandlerBuildTimeConfig {
+
+    /**
+     * Whether the application logs are sent to CloudWatch Logs with the default client.
+     */
+    @WithDefault("false")
+    boolean enabled();
+}
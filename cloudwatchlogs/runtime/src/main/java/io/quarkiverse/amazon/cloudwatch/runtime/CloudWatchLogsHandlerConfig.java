@@ -0,0 +1,103 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.logging.Level;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.quarkus.runtime.logging.LevelConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface CloudWatchLogsHandlerConfig {
+
+    /**
+     * The log group of the application logs. It must be set when the log handler is enabled.
+     */
+    Optional<String> logGroup();
+
+    /**
+     * The log stream of the application logs.
+     */
+    @ConfigDocDefault("A random name, one stream per application instance")
+    Optional<String> logStream();
+
+    /**
+     * Whether the log group is created if it does not exist. The log stream is always created.
+     */
+    @WithDefault("false")
+    boolean createLogGroup();
+
+    /**
+     * The minimum level of the logs sent to CloudWatch Logs.
+     */
+    @WithDefault("ALL")
+    @WithConverter(LevelConverter.class)
+    Level level();
+
+    /**
+     * The format of the log events.
+     */
+    @WithDefault("%d{yyyy-MM-dd HH:mm:ss,SSS} %-5p [%c{3.}] (%t) %s%e")
+    String format();
+
+    /**
+     * The maximum number of log events waiting to be sent, rounded up to a power of 2.
+     */
+    @WithDefault("65536")
+    int bufferSize();
+
+    /**
+     * What happens to the log events published while the buffer is full.
+     */
+    @WithDefault("drop")
+    OverflowPolicy overflow();
+
+    /**
+     * The maximum time a logging thread waits for the buffer to have room when the overflow policy is `block`, the
+     * event being dropped after this time.
+     */
+    @WithDefault("1S")
+    Duration blockTimeout();
+
+    /**
+     * The interval at which the buffered log events are sent. The events are sent without waiting once a full batch is
+     * buffered.
+     */
+    @WithDefault("2S")
+    Duration flushInterval();
+
+    /**
+     * The maximum number of log events of a `PutLogEvents` request. The maximum value is 10000.
+     */
+    @WithDefault("10000")
+    int maxBatchEvents();
+
+    /**
+     * The maximum size of a `PutLogEvents` request. The maximum value is 1M.
+     */
+    @WithDefault("1M")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxBatchSize();
+
+    /**
+     * The maximum time to wait for the buffered log events to be sent when the application stops.
+     */
+    @WithDefault("10S")
+    Duration shutdownTimeout();
+
+    public enum OverflowPolicy {
+        /**
+         * The log events are dropped.
+         */
+        DROP,
+        /**
+         * The logging thread waits for room in the buffer, up to the block timeout.
+         */
+        BLOCK
+    }
+}
@@ -1,7 +1,21 @@
 package io.quarkiverse.amazon.cloudwatch.runtime;
 
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Handler;
+
+import org.jboss.logmanager.formatters.PatternFormatter;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.*;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.ShutdownContext;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
@@ -41,4 +55,82 @@ public class CloudWatchLogsRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return CloudWatchLogsAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<CloudWatchEmfEmitter>, CloudWatchEmfEmitter> createEmfEmitter(
+            String clientName, ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<CloudWatchEmfEmitter>, CloudWatchEmfEmitter>() {
+            @Override
+            public CloudWatchEmfEmitter apply(SyntheticCreationalContext<CloudWatchEmfEmitter> context) {
+                CloudWatchLogsAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(CloudWatchLogsAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(CloudWatchLogsAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                CloudWatchEmfConfig emfConfig = config.emf();
+                if (emfConfig.logGroup().isEmpty()) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.cloudwatchlogs.emf.log-group must be set to emit metrics in the embedded metric format");
+                }
+                if (emfConfig.storageResolution() != 1 && emfConfig.storageResolution() != 60) {
+                    throw new RuntimeConfigurationError("quarkus.cloudwatchlogs.emf.storage-resolution must be 1 or 60");
+                }
+                return new CloudWatchEmfEmitter(client,
+                        scheduledExecutorService,
+                        emfConfig.logGroup().get(),
+                        emfConfig.logStream().orElseGet(() -> "emf-" + UUID.randomUUID()),
+                        emfConfig.createLogGroup(),
+                        emfConfig.namespace(),
+                        emfConfig.storageResolution(),
+                        emfConfig.flushInterval(),
+                        emfConfig.maxPending());
+            }
+        };
+    }
+
+    public RuntimeValue<CloudWatchLogsHandler> createLogHandler(ShutdownContext shutdownContext) {
+        CloudWatchLogsHandlerConfig handlerConfig = config.logHandler();
+        if (handlerConfig.logGroup().isEmpty()) {
+            throw new RuntimeConfigurationError(
+                    "quarkus.cloudwatchlogs.log-handler.log-group must be set when the log handler is enabled");
+        }
+        if (handlerConfig.maxBatchEvents() < 1 || handlerConfig.maxBatchEvents() > 10_000) {
+            throw new RuntimeConfigurationError(
+                    "quarkus.cloudwatchlogs.log-handler.max-batch-events must be between 1 and 10000");
+        }
+
+        // the handler is created before the container, the client is looked up once the container is running
+        Supplier<CloudWatchLogsAsyncClient> client = new Supplier<CloudWatchLogsAsyncClient>() {
+            @Override
+            public CloudWatchLogsAsyncClient get() {
+                ArcContainer container = Arc.container();
+                if (container == null || !container.isRunning()) {
+                    return null;
+                }
+                return container.instance(CloudWatchLogsAsyncClient.class).get();
+            }
+        };
+        CloudWatchLogsHandler handler = new CloudWatchLogsHandler(client,
+                handlerConfig.logGroup().get(),
+                handlerConfig.logStream().orElseGet(() -> "logs-" + UUID.randomUUID()),
+                handlerConfig.createLogGroup(),
+                handlerConfig.bufferSize(),
+                handlerConfig.overflow(),
+                handlerConfig.blockTimeout(),
+                handlerConfig.flushInterval(),
+                handlerConfig.maxBatchEvents(),
+                (int) Math.min(handlerConfig.maxBatchSize().asLongValue(), Integer.MAX_VALUE),
+                handlerConfig.shutdownTimeout());
+        handler.setLevel(handlerConfig.level());
+        handler.setFormatter(new PatternFormatter(handlerConfig.format()));
+        // the buffered events are sent before the client is closed
+        shutdownContext.addShutdownTask(handler::close);
+        return new RuntimeValue<>(handler);
+    }
+
+    public RuntimeValue<Optional<Handler>> logHandler(RuntimeValue<CloudWatchLogsHandler> handler) {
+        return new RuntimeValue<>(Optional.of(handler.getValue()));
+    }
 }
@@ -0,0 +1,74 @@
+package io.quarkiverse.amazon.cloudwatch.runtime;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import software.amazon.awssdk.services.cloudwatchlogs.model.InputLogEvent;
+
+/**
+ * A bounded lock-free buffer of log events, written by any thread and read by a single thread.
+ * <p>
+ * The writers claim a slot by moving the tail with a compare-and-set, then publish the event into the slot. The reader
+ * takes the events in the order of the slots, stopping at a slot claimed but not yet published.
+ */
+final class CloudWatchLogsRingBuffer {
+
+    private final AtomicReferenceArray<InputLogEvent> slots;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // only written by the reader
+    private volatile long head;
+
+    CloudWatchLogsRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * @return whether the event was added, {@code false} if the buffer is full
+     */
+    boolean offer(InputLogEvent event) {
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head > mask) {
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+        slots.lazySet((int) claimed & mask, event);
+        return true;
+    }
+
+    /**
+     * Moves the available events to a list, called by the reader only.
+     *
+     * @return the number of events drained
+     */
+    int drain(List<InputLogEvent> events, int max) {
+        long current = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) current & mask;
+            InputLogEvent event = slots.get(index);
+            if (event == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            events.add(event);
+            current++;
+            drained++;
+        }
+        head = current;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(tail.get() - head, 0);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+}
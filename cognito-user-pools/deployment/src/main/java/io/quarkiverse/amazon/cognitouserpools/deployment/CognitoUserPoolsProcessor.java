@@ -2,8 +2,12 @@ package io.quarkiverse.amazon.cognitouserpools.deployment;
 
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
+import io.quarkiverse.amazon.cognitouserpools.runtime.CognitoTokenVerifier;
 import io.quarkiverse.amazon.cognitouserpools.runtime.CognitoUserPoolsBuildTimeConfig;
 import io.quarkiverse.amazon.cognitouserpools.runtime.CognitoUserPoolsRecorder;
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -24,6 +28,7 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
 import io.quarkus.deployment.annotations.BuildProducer;
@@ -43,6 +48,8 @@ public class CognitoUserPoolsProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-cognito-user-pools";
 
+    private static final DotName COGNITO_TOKEN_VERIFIER = DotName.createSimple(CognitoTokenVerifier.class);
+
     CognitoUserPoolsBuildTimeConfig buildTimeConfig;
 
     @Override
@@ -84,6 +91,8 @@ public class CognitoUserPoolsProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, COGNITO_TOKEN_VERIFIER, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -212,4 +221,29 @@ public class CognitoUserPoolsProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createTokenVerifiers(CognitoUserPoolsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the verifier is removed if not injected, the keys of the user pools are fetched when it is created
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(CognitoTokenVerifier.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createTokenVerifier(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .addInjectionPoint(ClassType.create(CognitoIdentityProviderAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .done());
+        }
+    }
 }
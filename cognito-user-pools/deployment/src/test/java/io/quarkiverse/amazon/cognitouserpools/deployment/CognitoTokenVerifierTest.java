@@ -0,0 +1,216 @@
+package io.quarkiverse.amazon.cognitouserpools.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import io.quarkiverse.amazon.cognitouserpools.runtime.CognitoToken;
+import io.quarkiverse.amazon.cognitouserpools.runtime.CognitoTokenVerificationException;
+import io.quarkiverse.amazon.cognitouserpools.runtime.CognitoTokenVerifier;
+import software.amazon.awssdk.auth.credentials.AnonymousCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+
+/**
+ * Verifies tokens signed locally, the key sets being served by a local HTTP server.
+ */
+class CognitoTokenVerifierTest {
+
+    private static final String POOL = "us-east-1_pool";
+
+    private final Map<String, String> keySets = new ConcurrentHashMap<>();
+    private final List<URI> requests = new CopyOnWriteArrayList<>();
+    private HttpServer server;
+    private CognitoIdentityProviderAsyncClient client;
+    private String issuer;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.add(exchange.getRequestURI());
+            String pool = exchange.getRequestURI().getPath().split("/")[1];
+            byte[] body = keySets.getOrDefault(pool, "{\"keys\":[]}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        String endpoint = "http://localhost:" + server.getAddress().getPort();
+        client = CognitoIdentityProviderAsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(AnonymousCredentialsProvider.create())
+                .endpointOverride(URI.create(endpoint))
+                .build();
+        issuer = "https://cognito-idp.us-east-1.amazonaws.com/" + POOL;
+    }
+
+    @AfterEach
+    void stop() {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void verify() throws Exception {
+        KeyPair key = newKey();
+        keySets.put(POOL, keySet(Map.of("key-1", key)));
+        CognitoTokenVerifier verifier = newVerifier(Set.of("client"));
+
+        long now = System.currentTimeMillis() / 1000;
+        String token = sign("key-1", key, "{\"sub\":\"user-id\",\"iss\":\"" + issuer + "\",\"token_use\":\"access\","
+                + "\"client_id\":\"client\",\"username\":\"user\",\"scope\":\"read write\","
+                + "\"cognito:groups\":[\"admins\"],\"iat\":" + now + ",\"exp\":" + (now + 3600) + "}");
+
+        CognitoToken verified = verifier.verify(token).get(10, TimeUnit.SECONDS);
+        assertEquals("user-id", verified.subject());
+        assertEquals("user", verified.username());
+        assertEquals("client", verified.clientId());
+        assertEquals(POOL, verified.userPoolId());
+        assertEquals(List.of("admins"), verified.groups());
+        assertEquals(List.of("read", "write"), verified.scopes());
+
+        // verified again from the cache
+        assertSame(verified, verifier.verify(token).get(10, TimeUnit.SECONDS));
+        assertEquals(1, verifier.cacheHits());
+        assertEquals(1, verifier.jwksFetches());
+    }
+
+    @Test
+    void reject() throws Exception {
+        KeyPair key = newKey();
+        keySets.put(POOL, keySet(Map.of("key-1", key)));
+        CognitoTokenVerifier verifier = newVerifier(Set.of("client"));
+
+        long now = System.currentTimeMillis() / 1000;
+        String expired = sign("key-1", key, "{\"iss\":\"" + issuer + "\",\"token_use\":\"access\","
+                + "\"client_id\":\"client\",\"exp\":" + (now - 3600) + "}");
+        String otherClient = sign("key-1", key, "{\"iss\":\"" + issuer + "\",\"token_use\":\"id\","
+                + "\"aud\":\"other\",\"exp\":" + (now + 3600) + "}");
+        String otherPool = sign("key-1", key, "{\"iss\":\"" + issuer + "-other\",\"token_use\":\"access\","
+                + "\"client_id\":\"client\",\"exp\":" + (now + 3600) + "}");
+        String valid = sign("key-1", key, "{\"iss\":\"" + issuer + "\",\"token_use\":\"access\","
+                + "\"client_id\":\"client\",\"exp\":" + (now + 3600) + "}");
+        String tampered = valid.substring(0, valid.length() - 4) + (valid.endsWith("AAAA") ? "BBBB" : "AAAA");
+        String forged = sign("key-1", newKey(), "{\"iss\":\"" + issuer + "\",\"token_use\":\"access\","
+                + "\"client_id\":\"client\",\"exp\":" + (now + 3600) + "}");
+
+        for (String token : List.of(expired, otherClient, otherPool, tampered, forged, "not.a-token")) {
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> verifier.verify(token).get(10, TimeUnit.SECONDS));
+            assertInstanceOf(CognitoTokenVerificationException.class, e.getCause());
+        }
+        assertEquals(6, verifier.rejected());
+    }
+
+    @Test
+    void rotate() throws Exception {
+        KeyPair first = newKey();
+        KeyPair second = newKey();
+        keySets.put(POOL, keySet(Map.of("key-1", first)));
+        CognitoTokenVerifier verifier = new CognitoTokenVerifier(client, List.of(POOL), Set.of(), Set.of(),
+                Duration.ofSeconds(60), Duration.ofHours(1), Duration.ZERO, Duration.ofSeconds(10), null, 100);
+
+        long now = System.currentTimeMillis() / 1000;
+        String claims = "{\"iss\":\"" + issuer + "\",\"token_use\":\"id\",\"aud\":\"client\",\"exp\":" + (now + 3600) + "}";
+        verifier.verify(sign("key-1", first, claims)).get(10, TimeUnit.SECONDS);
+
+        // the key set is fetched again when a token is signed with a new key
+        keySets.put(POOL, keySet(Map.of("key-1", first, "key-2", second)));
+        CognitoToken rotated = verifier.verify(sign("key-2", second, claims)).get(10, TimeUnit.SECONDS);
+        assertEquals("key-2", rotated.keyId());
+        assertEquals(2, verifier.jwksFetches());
+    }
+
+    @Test
+    void proxy() throws Exception {
+        KeyPair key = newKey();
+        keySets.put(POOL, keySet(Map.of("key-1", key)));
+        long now = System.currentTimeMillis() / 1000;
+        String token = sign("key-1", key,
+                "{\"iss\":\"" + issuer + "\",\"token_use\":\"id\",\"aud\":\"client\",\"exp\":" + (now + 3600) + "}");
+
+        // the endpoint cannot be resolved, the key set is fetched through the local server acting as a proxy
+        try (CognitoIdentityProviderAsyncClient proxiedClient = CognitoIdentityProviderAsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(AnonymousCredentialsProvider.create())
+                .endpointOverride(URI.create("http://cognito.invalid"))
+                .build();
+                CognitoTokenVerifier verifier = new CognitoTokenVerifier(proxiedClient, List.of(POOL), Set.of(), Set.of(),
+                        Duration.ofSeconds(60), Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(10),
+                        ProxySelector.of(server.getAddress()), 100)) {
+            assertEquals("key-1", verifier.verify(token).get(10, TimeUnit.SECONDS).keyId());
+        }
+        assertEquals(URI.create("http://cognito.invalid/" + POOL + "/.well-known/jwks.json"),
+                requests.get(requests.size() - 1));
+    }
+
+    private CognitoTokenVerifier newVerifier(Set<String> clientIds) {
+        return new CognitoTokenVerifier(client, List.of(POOL), clientIds, Set.of(), Duration.ofSeconds(60),
+                Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(10), null, 100);
+    }
+
+    private static KeyPair newKey() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String keySet(Map<String, KeyPair> keys) {
+        StringBuilder keySet = new StringBuilder("{\"keys\":[");
+        for (Map.Entry<String, KeyPair> key : keys.entrySet()) {
+            RSAPublicKey publicKey = (RSAPublicKey) key.getValue().getPublic();
+            if (keySet.length() > 9) {
+                keySet.append(',');
+            }
+            keySet.append("{\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\",\"kid\":\"").append(key.getKey())
+                    .append("\",\"n\":\"").append(encode(unsigned(publicKey.getModulus().toByteArray())))
+                    .append("\",\"e\":\"").append(encode(publicKey.getPublicExponent().toByteArray()))
+                    .append("\"}");
+        }
+        return keySet.append("]}").toString();
+    }
+
+    private static String sign(String keyId, KeyPair key, String claims) throws Exception {
+        String content = encode(("{\"alg\":\"RS256\",\"kid\":\"" + keyId + "\"}").getBytes(StandardCharsets.UTF_8))
+                + "." + encode(claims.getBytes(StandardCharsets.UTF_8));
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(key.getPrivate());
+        signature.update(content.getBytes(StandardCharsets.US_ASCII));
+        return content + "." + encode(signature.sign());
+    }
+
+    private static byte[] unsigned(byte[] value) {
+        return value[0] == 0 ? Arrays.copyOfRange(value, 1, value.length) : value;
+    }
+
+    private static String encode(byte[] value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+    }
+}
@@ -0,0 +1,138 @@
+package io.quarkiverse.amazon.cognitouserpools.runtime;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+
+/**
+ * The claims of a verified access or ID token of a user pool.
+ */
+public final class CognitoToken {
+
+    private final String userPoolId;
+    private final String keyId;
+    private final Map<String, JsonNode> claims;
+    private final long expiresAt;
+
+    CognitoToken(String userPoolId, String keyId, Map<String, JsonNode> claims, long expiresAt) {
+        this.userPoolId = userPoolId;
+        this.keyId = keyId;
+        this.claims = claims;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * @return the id of the user pool which issued the token
+     */
+    public String userPoolId() {
+        return userPoolId;
+    }
+
+    /**
+     * @return the id of the key which signed the token
+     */
+    public String keyId() {
+        return keyId;
+    }
+
+    /**
+     * @return the {@code iss} claim
+     */
+    public String issuer() {
+        return claim("iss");
+    }
+
+    /**
+     * @return the {@code sub} claim, the id of the user
+     */
+    public String subject() {
+        return claim("sub");
+    }
+
+    /**
+     * @return the {@code token_use} claim, {@code access} or {@code id}
+     */
+    public String tokenUse() {
+        return claim("token_use");
+    }
+
+    /**
+     * @return whether the token is an access token
+     */
+    public boolean isAccessToken() {
+        return "access".equals(tokenUse());
+    }
+
+    /**
+     * @return the name of the user, the {@code username} claim of an access token or the {@code cognito:username}
+     *         claim of an ID token
+     */
+    public String username() {
+        return isAccessToken() ? claim("username") : claim("cognito:username");
+    }
+
+    /**
+     * @return the id of the app client, the {@code client_id} claim of an access token or the {@code aud} claim of an
+     *         ID token
+     */
+    public String clientId() {
+        return isAccessToken() ? claim("client_id") : claim("aud");
+    }
+
+    /**
+     * @return the expiration time of the token
+     */
+    public Instant expiresAt() {
+        return Instant.ofEpochSecond(expiresAt);
+    }
+
+    /**
+     * @return the {@code cognito:groups} claim, empty if the user is not in a group
+     */
+    public List<String> groups() {
+        JsonNode groups = claims.get("cognito:groups");
+        if (groups == null || !groups.isArray()) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>(groups.asArray().size());
+        for (JsonNode group : groups.asArray()) {
+            names.add(group.text());
+        }
+        return names;
+    }
+
+    /**
+     * @return the scopes of the {@code scope} claim of an access token
+     */
+    public List<String> scopes() {
+        String scope = claim("scope");
+        return scope == null || scope.isEmpty() ? Collections.emptyList() : Arrays.asList(scope.split(" "));
+    }
+
+    /**
+     * @param name the name of the claim
+     * @return the value of the claim as text, or {@code null} if the token does not have it or it is not a string, a
+     *         number or a boolean
+     */
+    public String claim(String name) {
+        JsonNode claim = claims.get(name);
+        return claim != null ? claim.text() : null;
+    }
+
+    /**
+     * @return all the claims of the token
+     */
+    public Map<String, JsonNode> claims() {
+        return claims;
+    }
+
+    // the expiration time in seconds since the epoch
+    long expiresAtSeconds() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,15 @@
+package io.quarkiverse.amazon.cognitouserpools.runtime;
+
+/**
+ * Thrown when a token is malformed, not signed by a trusted user pool or has invalid claims.
+ */
+public class CognitoTokenVerificationException extends RuntimeException {
+
+    public CognitoTokenVerificationException(String message) {
+        super(message);
+    }
+
+    public CognitoTokenVerificationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,479 @@
+package io.quarkiverse.amazon.cognitouserpools.runtime;
+
+import java.math.BigInteger;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+import software.amazon.awssdk.protocols.jsoncore.JsonNodeParser;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderServiceClientConfiguration;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Verifies the access and ID tokens of user pools locally, with the signing keys of the user pools.
+ * <p>
+ * The JSON web key set of a user pool is fetched once and its RSA keys are parsed when fetched, a token is then verified
+ * without any request. The key set is fetched again in the background once its time to live elapsed, or immediately when
+ * a token is signed with an unknown key, so that the rotated keys are picked up, but at most once per minimum refresh
+ * interval. The verified tokens are kept until they expire, a token verified again only costs a map lookup.
+ * <p>
+ * The key sets are fetched through the proxy of the asynchronous client, if any, and the HTTP client fetching them is
+ * closed with the verifier.
+ */
+public class CognitoTokenVerifier implements SdkAutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(CognitoTokenVerifier.class);
+
+    private static final JsonNodeParser PARSER = JsonNode.parser();
+    private static final Base64.Decoder BASE64_URL = Base64.getUrlDecoder();
+
+    private final String jwksBaseUrl;
+    private final List<String> issuerPrefixes;
+    private final List<String> userPoolIds;
+    private final Set<String> clientIds;
+    private final Set<String> tokenUses;
+    private final long clockSkewSeconds;
+    private final long jwksTtlNanos;
+    private final long jwksMinRefreshNanos;
+    private final Duration jwksTimeout;
+    private final int maxVerifiedTokens;
+    private final HttpClient httpClient;
+
+    private final Map<String, Jwks> jwks = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Jwks>> jwksFetches = new ConcurrentHashMap<>();
+    private final Map<String, CognitoToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final ThreadLocal<Verification> threadVerifications = ThreadLocal.withInitial(Verification::new);
+
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder jwksFetchCount = new LongAdder();
+
+    public CognitoTokenVerifier(CognitoIdentityProviderAsyncClient client, List<String> userPoolIds,
+            Set<String> clientIds, Set<String> tokenUses, Duration clockSkew, Duration jwksTtl,
+            Duration jwksMinRefreshInterval, Duration jwksTimeout, ProxySelector proxySelector, int maxVerifiedTokens) {
+        CognitoIdentityProviderServiceClientConfiguration configuration = client.serviceClientConfiguration();
+        String cognitoUrl = "https://cognito-idp." + configuration.region().id() + ".amazonaws.com";
+        Optional<URI> endpointOverride = configuration.endpointOverride();
+        List<String> prefixes = new ArrayList<>(2);
+        prefixes.add(cognitoUrl + "/");
+        if (endpointOverride.isPresent()) {
+            // the tokens of the emulators are issued by either the AWS endpoint or the overridden endpoint
+            String overriddenUrl = endpointOverride.get().toString();
+            this.jwksBaseUrl = overriddenUrl.endsWith("/") ? overriddenUrl.substring(0, overriddenUrl.length() - 1)
+                    : overriddenUrl;
+            prefixes.add(this.jwksBaseUrl + "/");
+        } else {
+            this.jwksBaseUrl = cognitoUrl;
+        }
+        this.issuerPrefixes = prefixes;
+        this.userPoolIds = userPoolIds;
+        this.clientIds = clientIds;
+        this.tokenUses = tokenUses;
+        this.clockSkewSeconds = clockSkew.toSeconds();
+        this.jwksTtlNanos = jwksTtl.toNanos();
+        this.jwksMinRefreshNanos = jwksMinRefreshInterval.toNanos();
+        this.jwksTimeout = jwksTimeout;
+        this.maxVerifiedTokens = maxVerifiedTokens;
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder().connectTimeout(jwksTimeout);
+        if (proxySelector != null) {
+            httpClientBuilder.proxy(proxySelector);
+        }
+        this.httpClient = httpClientBuilder.build();
+
+        for (String userPoolId : userPoolIds) {
+            fetchJwks(userPoolId).exceptionally(e -> {
+                LOG.warnf(e, "Unable to fetch the signing keys of the user pool %s", userPoolId);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Verifies a token issued by one of the configured user pools.
+     *
+     * @param token the encoded token, without the {@code Bearer} prefix
+     * @return the claims of the token, or a future failed with a {@link CognitoTokenVerificationException} if the token
+     *         is not valid
+     */
+    public CompletableFuture<CognitoToken> verify(String token) {
+        if (userPoolIds.isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("No user pool configured, the user pool must be specified"));
+        }
+        return verify(token, userPoolIds);
+    }
+
+    /**
+     * Verifies a token issued by a user pool.
+     *
+     * @param userPoolId the id of the user pool which must have issued the token
+     * @param token the encoded token, without the {@code Bearer} prefix
+     * @return the claims of the token, or a future failed with a {@link CognitoTokenVerificationException} if the token
+     *         is not valid
+     */
+    public CompletableFuture<CognitoToken> verify(String userPoolId, String token) {
+        return verify(token, List.of(userPoolId));
+    }
+
+    @Override
+    public void close() {
+        // the HTTP client is closeable since Java 21, before that its threads stop once it is no longer referenced
+        if (httpClient instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) httpClient).close();
+            } catch (Exception e) {
+                LOG.debugf(e, "Unable to close the HTTP client of the token verifier");
+            }
+        }
+    }
+
+    /**
+     * Removes the verified tokens and the signing keys, the keys are fetched again on the next verification.
+     */
+    public void invalidateAll() {
+        verifiedTokens.clear();
+        jwks.clear();
+    }
+
+    /**
+     * @return the number of verified tokens, including the ones found in the cache
+     */
+    public long verifications() {
+        return verified.sum();
+    }
+
+    /**
+     * @return the number of tokens found in the cache of the verified tokens
+     */
+    public long cacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return the number of rejected tokens
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of times a key set was fetched
+     */
+    public long jwksFetches() {
+        return jwksFetchCount.sum();
+    }
+
+    private CompletableFuture<CognitoToken> verify(String token, Collection<String> trustedUserPoolIds) {
+        long now = System.currentTimeMillis() / 1000;
+        CognitoToken cached = verifiedTokens.get(token);
+        if (cached != null && trustedUserPoolIds.contains(cached.userPoolId())) {
+            if (now <= cached.expiresAtSeconds() + clockSkewSeconds) {
+                verified.increment();
+                cacheHits.increment();
+                return CompletableFuture.completedFuture(cached);
+            }
+            verifiedTokens.remove(token, cached);
+        }
+
+        ParsedToken parsed;
+        try {
+            parsed = ParsedToken.parse(token);
+        } catch (CognitoTokenVerificationException e) {
+            return rejected(e);
+        }
+        String userPoolId = userPoolId(parsed.issuer, trustedUserPoolIds);
+        if (userPoolId == null) {
+            return rejected(new CognitoTokenVerificationException("The token issuer " + parsed.issuer + " is not trusted"));
+        }
+
+        Jwks current = jwks.get(userPoolId);
+        if (current != null) {
+            long age = System.nanoTime() - current.fetchedAt;
+            if (age > jwksTtlNanos) {
+                fetchJwks(userPoolId).exceptionally(e -> {
+                    LOG.warnf(e, "Unable to refresh the signing keys of the user pool %s", userPoolId);
+                    return null;
+                });
+            }
+            PublicKey key = current.keys.get(parsed.keyId);
+            if (key != null) {
+                try {
+                    return CompletableFuture.completedFuture(check(token, parsed, userPoolId, key, now));
+                } catch (CognitoTokenVerificationException e) {
+                    return rejected(e);
+                }
+            }
+            if (age < jwksMinRefreshNanos) {
+                return rejected(new CognitoTokenVerificationException("The token is signed with the unknown key "
+                        + parsed.keyId + " of the user pool " + userPoolId));
+            }
+        }
+
+        // the keys are fetched for the first time or rotated
+        return fetchJwks(userPoolId).thenApply(fetched -> {
+            PublicKey key = fetched.keys.get(parsed.keyId);
+            try {
+                if (key == null) {
+                    throw new CognitoTokenVerificationException("The token is signed with the unknown key "
+                            + parsed.keyId + " of the user pool " + userPoolId);
+                }
+                return check(token, parsed, userPoolId, key, System.currentTimeMillis() / 1000);
+            } catch (CognitoTokenVerificationException e) {
+                rejected.increment();
+                throw e;
+            }
+        });
+    }
+
+    private <T> CompletableFuture<T> rejected(CognitoTokenVerificationException e) {
+        rejected.increment();
+        return CompletableFuture.failedFuture(e);
+    }
+
+    private String userPoolId(String issuer, Collection<String> trustedUserPoolIds) {
+        if (issuer == null) {
+            return null;
+        }
+        for (int i = 0; i < issuerPrefixes.size(); i++) {
+            String prefix = issuerPrefixes.get(i);
+            if (issuer.startsWith(prefix)) {
+                String userPoolId = issuer.substring(prefix.length());
+                return trustedUserPoolIds.contains(userPoolId) ? userPoolId : null;
+            }
+        }
+        return null;
+    }
+
+    private CognitoToken check(String token, ParsedToken parsed, String userPoolId, PublicKey key, long now) {
+        Verification verification = threadVerifications.get();
+        try {
+            if (!verification.verify(key, token, parsed.signatureStart - 1, parsed.signature)) {
+                throw new CognitoTokenVerificationException("The token signature is not valid");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new CognitoTokenVerificationException("Unable to verify the token signature", e);
+        }
+
+        Map<String, JsonNode> claims = parsed.claims();
+        long expiresAt = numericClaim(claims, "exp");
+        if (now > expiresAt + clockSkewSeconds) {
+            throw new CognitoTokenVerificationException("The token expired");
+        }
+        if (claims.containsKey("iat") && now + clockSkewSeconds < numericClaim(claims, "iat")) {
+            throw new CognitoTokenVerificationException("The token is issued in the future");
+        }
+
+        CognitoToken verifiedToken = new CognitoToken(userPoolId, parsed.keyId, claims, expiresAt);
+        String tokenUse = verifiedToken.tokenUse();
+        if (tokenUses.isEmpty() ? !"access".equals(tokenUse) && !"id".equals(tokenUse) : !tokenUses.contains(tokenUse)) {
+            throw new CognitoTokenVerificationException("The token use " + tokenUse + " is not accepted");
+        }
+        if (!clientIds.isEmpty() && !clientIds.contains(verifiedToken.clientId())) {
+            throw new CognitoTokenVerificationException("The client " + verifiedToken.clientId() + " is not accepted");
+        }
+
+        if (maxVerifiedTokens > 0) {
+            if (verifiedTokens.size() >= maxVerifiedTokens) {
+                verifiedTokens.values().removeIf(expired -> now > expired.expiresAtSeconds() + clockSkewSeconds);
+                if (verifiedTokens.size() >= maxVerifiedTokens) {
+                    verifiedTokens.clear();
+                }
+            }
+            verifiedTokens.put(token, verifiedToken);
+        }
+        verified.increment();
+        return verifiedToken;
+    }
+
+    private static long numericClaim(Map<String, JsonNode> claims, String name) {
+        JsonNode claim = claims.get(name);
+        if (claim == null || !claim.isNumber()) {
+            throw new CognitoTokenVerificationException("The token has no " + name + " claim");
+        }
+        try {
+            return Long.parseLong(claim.asNumber());
+        } catch (NumberFormatException e) {
+            throw new CognitoTokenVerificationException("The token has an invalid " + name + " claim", e);
+        }
+    }
+
+    private CompletableFuture<Jwks> fetchJwks(String userPoolId) {
+        CompletableFuture<Jwks> fetch = new CompletableFuture<>();
+        CompletableFuture<Jwks> pending = jwksFetches.putIfAbsent(userPoolId, fetch);
+        if (pending != null) {
+            // a single request per user pool
+            return pending;
+        }
+
+        jwksFetchCount.increment();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(jwksBaseUrl + "/" + userPoolId + "/.well-known/jwks.json"))
+                .timeout(jwksTimeout)
+                .GET()
+                .build();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new CognitoTokenVerificationException("Unable to fetch the signing keys of the user pool "
+                                + userPoolId + ", status " + response.statusCode());
+                    }
+                    return parseJwks(response.body());
+                })
+                .whenComplete((fetched, failure) -> {
+                    jwksFetches.remove(userPoolId, fetch);
+                    if (failure != null) {
+                        fetch.completeExceptionally(failure);
+                        return;
+                    }
+                    Jwks previous = jwks.put(userPoolId, fetched);
+                    if (previous != null && !fetched.keys.keySet().containsAll(previous.keys.keySet())) {
+                        // the tokens signed with the revoked keys must be verified again
+                        verifiedTokens.values().removeIf(token -> token.userPoolId().equals(userPoolId)
+                                && !fetched.keys.containsKey(token.keyId()));
+                    }
+                    fetch.complete(fetched);
+                });
+        return fetch;
+    }
+
+    private static Jwks parseJwks(byte[] body) {
+        JsonNode keys = PARSER.parse(body).field("keys").orElse(null);
+        if (keys == null || !keys.isArray()) {
+            throw new CognitoTokenVerificationException("The key set has no keys");
+        }
+        Map<String, PublicKey> publicKeys = new HashMap<>();
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+            for (JsonNode key : keys.asArray()) {
+                if (!"RSA".equals(text(key, "kty")) || text(key, "kid") == null || text(key, "n") == null
+                        || text(key, "e") == null) {
+                    continue;
+                }
+                BigInteger modulus = new BigInteger(1, BASE64_URL.decode(text(key, "n")));
+                BigInteger exponent = new BigInteger(1, BASE64_URL.decode(text(key, "e")));
+                publicKeys.put(text(key, "kid"), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new CognitoTokenVerificationException("Unable to parse the key set", e);
+        }
+        return new Jwks(publicKeys, System.nanoTime());
+    }
+
+    private static String text(JsonNode node, String field) {
+        return node.field(field).map(JsonNode::text).orElse(null);
+    }
+
+    // the signature and the buffer of the signed content are reused by the verifications of a thread
+    private static final class Verification {
+        private final Signature signature;
+        private byte[] content = new byte[2048];
+
+        private Verification() {
+            try {
+                signature = Signature.getInstance("SHA256withRSA");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        boolean verify(PublicKey key, String token, int length, byte[] expected) throws GeneralSecurityException {
+            if (content.length < length) {
+                content = new byte[Math.max(length, content.length * 2)];
+            }
+            // the signed content is the ASCII header and payload, up to the second dot
+            for (int i = 0; i < length; i++) {
+                content[i] = (byte) token.charAt(i);
+            }
+            signature.initVerify(key);
+            signature.update(content, 0, length);
+            return signature.verify(expected);
+        }
+    }
+
+    private static final class Jwks {
+        private final Map<String, PublicKey> keys;
+        private final long fetchedAt;
+
+        private Jwks(Map<String, PublicKey> keys, long fetchedAt) {
+            this.keys = keys;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private static final class ParsedToken {
+        private final String keyId;
+        private final String issuer;
+        private final JsonNode payload;
+        private final byte[] signature;
+        private final int signatureStart;
+
+        private ParsedToken(String keyId, String issuer, JsonNode payload, byte[] signature, int signatureStart) {
+            this.keyId = keyId;
+            this.issuer = issuer;
+            this.payload = payload;
+            this.signature = signature;
+            this.signatureStart = signatureStart;
+        }
+
+        static ParsedToken parse(String token) {
+            int payloadStart = token.indexOf('.') + 1;
+            int signatureStart = payloadStart > 0 ? token.indexOf('.', payloadStart) + 1 : 0;
+            if (payloadStart == 0 || signatureStart == 0 || token.indexOf('.', signatureStart) >= 0) {
+                throw new CognitoTokenVerificationException("The token is not a signed JSON web token");
+            }
+            try {
+                JsonNode header = decode(token, 0, payloadStart - 1);
+                if (!"RS256".equals(text(header, "alg"))) {
+                    throw new CognitoTokenVerificationException("The token algorithm " + text(header, "alg")
+                            + " is not supported");
+                }
+                String keyId = text(header, "kid");
+                if (keyId == null) {
+                    throw new CognitoTokenVerificationException("The token has no key id");
+                }
+                JsonNode payload = decode(token, payloadStart, signatureStart - 1);
+                if (!payload.isObject()) {
+                    throw new CognitoTokenVerificationException("The token payload is not a JSON object");
+                }
+                byte[] signature = BASE64_URL.decode(token.substring(signatureStart));
+                return new ParsedToken(keyId, text(payload, "iss"), payload, signature, signatureStart);
+            } catch (CognitoTokenVerificationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                // invalid Base64 or JSON
+                throw new CognitoTokenVerificationException("The token is malformed", e);
+            }
+        }
+
+        Map<String, JsonNode> claims() {
+            return payload.asObject();
+        }
+
+        private static JsonNode decode(String token, int start, int end) {
+            return PARSER.parse(BASE64_URL.decode(token.substring(start, end)));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.quarkiverse.amazon.cognitouserpools.runtime;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface CognitoTokenVerifierConfig {
+
+    /**
+     * The ids of the user pools whose tokens are accepted. Their signing keys are fetched when the verifier is created.
+     */
+    @ConfigDocDefault("The user pool must be specified when verifying")
+    Optional<List<String>> userPoolIds();
+
+    /**
+     * The ids of the app clients whose tokens are accepted, matched against the `client_id` claim of the access tokens
+     * and the `aud` claim of the ID tokens.
+     */
+    @ConfigDocDefault("The tokens of any app client are accepted")
+    Optional<List<String>> clientIds();
+
+    /**
+     * The accepted values of the `token_use` claim, `access` or `id`.
+     */
+    @ConfigDocDefault("Both the access and ID tokens are accepted")
+    Optional<List<String>> tokenUse();
+
+    /**
+     * The clock skew tolerated when checking the expiration and issue times of the tokens.
+     */
+    @WithDefault("60S")
+    @WithConverter(DurationConverter.class)
+    Duration clockSkew();
+
+    /**
+     * The amount of time the signing keys of a user pool are used before they are fetched again in the background.
+     */
+    @WithDefault("1H")
+    @WithConverter(DurationConverter.class)
+    Duration jwksTtl();
+
+    /**
+     * The minimum amount of time between two fetches of the signing keys of a user pool, when a token is signed with an
+     * unknown key.
+     */
+    @WithDefault("1M")
+    @WithConverter(DurationConverter.class)
+    Duration jwksMinRefreshInterval();
+
+    /**
+     * The timeout of the requests fetching the signing keys.
+     */
+    @WithDefault("10S")
+    @WithConverter(DurationConverter.class)
+    Duration jwksTimeout();
+
+    /**
+     * The maximum number of verified tokens kept until they expire, a token verified again is then not parsed again.
+     */
+    @WithDefault("10000")
+    int maxVerifiedTokens();
+}
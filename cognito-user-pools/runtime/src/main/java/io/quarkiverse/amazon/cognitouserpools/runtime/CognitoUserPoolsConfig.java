@@ -22,4 +22,10 @@ public interface CognitoUserPoolsConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Token verifier configurations
+     */
+    @ConfigDocSection
+    CognitoTokenVerifierConfig tokenVerifier();
 }
@@ -1,9 +1,24 @@
 package io.quarkiverse.amazon.cognitouserpools.runtime;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.ProxySelector;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
@@ -43,4 +58,70 @@ public class CognitoUserPoolsRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return CognitoIdentityProviderAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<CognitoTokenVerifier>, CognitoTokenVerifier> createTokenVerifier(
+            String clientName) {
+        return new Function<SyntheticCreationalContext<CognitoTokenVerifier>, CognitoTokenVerifier>() {
+            @Override
+            public CognitoTokenVerifier apply(SyntheticCreationalContext<CognitoTokenVerifier> context) {
+                CognitoIdentityProviderAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(CognitoIdentityProviderAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(CognitoIdentityProviderAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                CognitoTokenVerifierConfig verifierConfig = config.tokenVerifier();
+                Set<String> tokenUses = new HashSet<>(verifierConfig.tokenUse().orElse(List.of()));
+                for (String tokenUse : tokenUses) {
+                    if (!"access".equals(tokenUse) && !"id".equals(tokenUse)) {
+                        throw new RuntimeConfigurationError(
+                                "quarkus.cognito-user-pools.token-verifier.token-use must be access or id");
+                    }
+                }
+                if (verifierConfig.maxVerifiedTokens() < 0) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.cognito-user-pools.token-verifier.max-verified-tokens must not be negative");
+                }
+                return new CognitoTokenVerifier(client,
+                        verifierConfig.userPoolIds().orElse(List.of()),
+                        new HashSet<>(verifierConfig.clientIds().orElse(List.of())),
+                        tokenUses,
+                        verifierConfig.clockSkew(),
+                        verifierConfig.jwksTtl(),
+                        verifierConfig.jwksMinRefreshInterval(),
+                        verifierConfig.jwksTimeout(),
+                        proxySelector(config.asyncClient().proxy()),
+                        verifierConfig.maxVerifiedTokens());
+            }
+        };
+    }
+
+    // the proxy of the asynchronous client, the system proxy settings apply otherwise
+    private static ProxySelector proxySelector(AsyncHttpClientConfig.NettyProxyConfiguration proxy) {
+        if (!proxy.enabled() || proxy.endpoint().isEmpty()) {
+            return null;
+        }
+        URI endpoint = proxy.endpoint().get();
+        int port = endpoint.getPort() != -1 ? endpoint.getPort() : "https".equalsIgnoreCase(endpoint.getScheme()) ? 443 : 80;
+        Proxy httpProxy = new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved(endpoint.getHost(), port));
+        List<String> nonProxyHosts = proxy.nonProxyHosts().orElse(List.of());
+        return new ProxySelector() {
+            @Override
+            public List<Proxy> select(URI uri) {
+                for (String nonProxyHost : nonProxyHosts) {
+                    if (nonProxyHost.startsWith("*") ? uri.getHost().endsWith(nonProxyHost.substring(1))
+                            : uri.getHost().equalsIgnoreCase(nonProxyHost)) {
+                        return List.of(Proxy.NO_PROXY);
+                    }
+                }
+                return List.of(httpProxy);
+            }
+
+            @Override
+            public void connectFailed(URI uri, SocketAddress address, IOException e) {
+            }
+        };
+    }
 }
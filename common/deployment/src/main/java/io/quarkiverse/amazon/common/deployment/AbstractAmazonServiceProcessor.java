@@ -95,6 +95,29 @@ abstract public class AbstractAmazonServiceProcessor {
         }
     }
 
+    /**
+     * @return whether the bean is injected
+     */
+    protected boolean discoverClientInjectionPointsFor(BeanRegistrationPhaseBuildItem beanRegistrationPhase,
+            DotName beanName, DotName clientName,
+            BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
+
+        boolean injected = false;
+        // Discover injections of a bean built on top of a client, the client with the same name is required
+        for (InjectionPointInfo injectionPoint : beanRegistrationPhase.getInjectionPoints()) {
+
+            Type injectedType = getInjectedType(injectionPoint);
+
+            if (beanName.equals(injectedType.name())) {
+                injected = true;
+                requireClientInjectionProducer
+                        .produce(new RequireAmazonClientInjectionBuildItem(clientName,
+                                getNamedClientInjection(injectionPoint)));
+            }
+        }
+        return injected;
+    }
+
     @BuildStep
     protected void discoverClient(
             List<RequireAmazonClientInjectionBuildItem> amazonClientInjectionPoints,
@@ -313,6 +336,7 @@ abstract public class AbstractAmazonServiceProcessor {
         }
 
         createClientBuilders(
+                recorder,
                 commonRecorder,
                 otelRecorder,
                 recorder.getAmazonClientsConfig(),
@@ -336,6 +360,7 @@ abstract public class AbstractAmazonServiceProcessor {
     }
 
     private void createClientBuilders(
+            AmazonClientRecorder clientRecorder,
             AmazonClientCommonRecorder recorder,
             AmazonClientOpenTelemetryRecorder otelRecorder,
             RuntimeValue<HasAmazonClientRuntimeConfig> amazonClientConfigRuntime,
@@ -428,7 +453,7 @@ abstract public class AbstractAmazonServiceProcessor {
                                         .defaultBean()
                                         .setRuntimeInit()
                                         .scope(ApplicationScoped.class)
-                                        .createWith(recorder.build(syncClientBuilderClass, clientName))
+                                        .createWith(clientRecorder.decorate(recorder.build(syncClientBuilderClass, clientName)))
                                         .addInjectionPoint(ClassType.create(syncClientBuilderClass),
                                                 injectionPointAnnotationsBuilder(clientName))
                                         .destroyer(SdkAutoCloseableDestroyer.class)
@@ -467,7 +492,7 @@ abstract public class AbstractAmazonServiceProcessor {
                                 .defaultBean()
                                 .setRuntimeInit()
                                 .scope(ApplicationScoped.class)
-                                .createWith(recorder.build(asyncClientBuilderClass, clientName))
+                                .createWith(clientRecorder.decorate(recorder.build(asyncClientBuilderClass, clientName)))
                                 .addInjectionPoint(ClassType.create(asyncClientBuilderClass),
                                         injectionPointAnnotationsBuilder(clientName))
                                 .destroyer(SdkAutoCloseableDestroyer.class)
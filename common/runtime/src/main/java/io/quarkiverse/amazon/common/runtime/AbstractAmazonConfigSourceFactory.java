@@ -0,0 +1,284 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.spi.ConfigSource;
+import org.jboss.logging.Logger;
+
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.ConfigSourceContext;
+import io.smallrye.config.ConfigSourceFactory;
+import io.smallrye.config.ConfigValue;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+
+/**
+ * Creates the {@link AmazonConfigSource} of an extension from the {@code quarkus.<extension>.config-source} settings
+ * described by {@link AmazonConfigSourceConfig}.
+ * <p>
+ * The properties are loaded with a dedicated synchronous client, as the configuration is not built yet, sending up to
+ * the maximum concurrency requests at once. The client and the threads are released once the properties are loaded,
+ * unless they are refreshed in the background, in which case they are released when the source is closed.
+ */
+public abstract class AbstractAmazonConfigSourceFactory implements ConfigSourceFactory {
+
+    private static final Logger LOG = Logger.getLogger(AbstractAmazonConfigSourceFactory.class);
+
+    private final String configName;
+
+    protected AbstractAmazonConfigSourceFactory(String configName) {
+        this.configName = configName;
+    }
+
+    /**
+     * Creates the loader of the properties, with a client configured by {@link #configure}.
+     */
+    protected abstract PropertiesLoader createLoader(ConfigSourceContext context);
+
+    @Override
+    public Iterable<ConfigSource> getConfigSources(ConfigSourceContext context) {
+        if (!setting(context, "enabled").map(Boolean::parseBoolean).orElse(false)) {
+            return List.of();
+        }
+        String name = "AmazonConfigSource[" + configName + "]";
+        int ordinal = setting(context, "ordinal").map(Integer::parseInt).orElse(270);
+        int maxConcurrency = setting(context, "max-concurrency").map(Integer::parseInt).orElse(4);
+        if (maxConcurrency < 1) {
+            throw new RuntimeConfigurationError(
+                    "quarkus." + configName + ".config-source.max-concurrency must be greater than 0");
+        }
+        Optional<Duration> refreshInterval = setting(context, "refresh-interval").map(DurationConverter::parseDuration);
+        Duration snapshotMaxAge = setting(context, "snapshot.max-age").map(DurationConverter::parseDuration)
+                .orElse(Duration.ofHours(1));
+        AmazonConfigSnapshot snapshot = snapshot(context, name);
+
+        PropertiesLoader loader = createLoader(context);
+        ExecutorService executor = Executors.newFixedThreadPool(maxConcurrency, daemonThreads(configName + "-config-source"));
+
+        Map<String, String> properties = null;
+        boolean loadInBackground = false;
+        if (snapshot != null && isYoungerThan(snapshot, snapshotMaxAge)) {
+            // a fast start, the properties are loaded right after
+            properties = read(snapshot);
+            loadInBackground = properties != null;
+        }
+        if (properties == null) {
+            try {
+                properties = load(loader, executor);
+                write(snapshot, properties);
+            } catch (RuntimeException e) {
+                properties = snapshot != null ? read(snapshot) : null;
+                if (properties == null) {
+                    executor.shutdown();
+                    loader.close();
+                    throw e;
+                }
+                LOG.warnf(e, "Unable to load the properties of %s, starting from the snapshot %s", name, snapshot.path());
+                loadInBackground = true;
+            }
+        }
+
+        AmazonConfigSource source = new AmazonConfigSource(name, ordinal, properties);
+        if (refreshInterval.isEmpty() && !loadInBackground) {
+            executor.shutdown();
+            loader.close();
+            return List.of(source);
+        }
+
+        Runnable refresh = () -> {
+            try {
+                Map<String, String> loaded = load(loader, executor);
+                Set<String> changed = source.update(loaded);
+                if (!changed.isEmpty()) {
+                    LOG.debugf("The properties %s of %s changed", changed, name);
+                    write(snapshot, loaded);
+                }
+            } catch (RuntimeException e) {
+                LOG.warnf(e, "Unable to refresh the properties of %s", name);
+            }
+        };
+        ScheduledExecutorService scheduler = Executors
+                .newSingleThreadScheduledExecutor(daemonThreads(configName + "-config-source-refresh"));
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                scheduler.shutdown();
+                executor.shutdown();
+                loader.close();
+            }
+        };
+        source.closeWith(release);
+        if (refreshInterval.isPresent()) {
+            long interval = refreshInterval.get().toMillis();
+            scheduler.scheduleWithFixedDelay(refresh, loadInBackground ? 0 : interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler.execute(() -> {
+                try {
+                    refresh.run();
+                } finally {
+                    release.run();
+                }
+            });
+        }
+        return List.of(source);
+    }
+
+    /**
+     * Configures the client of the source as the default client of the extension: endpoint override, region and static
+     * credentials, the other settings of the SDK are the default ones.
+     */
+    protected <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B configure(B builder,
+            ConfigSourceContext context) {
+        value(context, "quarkus." + configName + ".endpoint-override").map(URI::create).ifPresent(builder::endpointOverride);
+        value(context, "quarkus." + configName + ".aws.region").map(Region::of).ifPresent(builder::region);
+
+        String credentials = "quarkus." + configName + ".aws.credentials.";
+        if (value(context, credentials + "type").filter("static"::equalsIgnoreCase).isPresent()) {
+            String accessKeyId = value(context, credentials + "static-provider.access-key-id").orElse(null);
+            String secretAccessKey = value(context, credentials + "static-provider.secret-access-key").orElse(null);
+            Optional<String> sessionToken = value(context, credentials + "static-provider.session-token");
+            builder.credentialsProvider(StaticCredentialsProvider.create(sessionToken.isPresent()
+                    ? AwsSessionCredentials.create(accessKeyId, secretAccessKey, sessionToken.get())
+                    : AwsBasicCredentials.create(accessKeyId, secretAccessKey)));
+        }
+
+        // the SDK refuses to choose when several implementations are present
+        if (isClassPresent("software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient")) {
+            builder.httpClientBuilder(UrlConnectionHttpClient.builder());
+        } else if (isClassPresent("software.amazon.awssdk.http.apache.ApacheHttpClient")) {
+            builder.httpClientBuilder(ApacheHttpClient.builder());
+        }
+        return builder;
+    }
+
+    /**
+     * @return the value of a setting of the source, {@code quarkus.<extension>.config-source.<name>}
+     */
+    protected Optional<String> setting(ConfigSourceContext context, String name) {
+        return value(context, "quarkus." + configName + ".config-source." + name);
+    }
+
+    /**
+     * @return the values of a list setting of the source
+     */
+    protected List<String> settings(ConfigSourceContext context, String name) {
+        return setting(context, name)
+                .map(value -> Arrays.stream(value.split(","))
+                        .map(String::trim)
+                        .filter(element -> !element.isEmpty())
+                        .collect(Collectors.toList()))
+                .orElse(List.of());
+    }
+
+    private static Optional<String> value(ConfigSourceContext context, String name) {
+        ConfigValue value = context.getValue(name);
+        return value != null ? Optional.ofNullable(value.getValue()).filter(v -> !v.isBlank()) : Optional.empty();
+    }
+
+    private AmazonConfigSnapshot snapshot(ConfigSourceContext context, String name) {
+        Optional<Path> path = setting(context, "snapshot.path").map(Path::of);
+        if (path.isEmpty()) {
+            return null;
+        }
+        String key = setting(context, "snapshot.key").orElseThrow(() -> new RuntimeConfigurationError(
+                "quarkus." + configName + ".config-source.snapshot.key is required to encrypt the snapshot"));
+        return new AmazonConfigSnapshot(path.get(), key, name);
+    }
+
+    private static Map<String, String> load(PropertiesLoader loader, ExecutorService executor) {
+        try {
+            return loader.load(executor);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isYoungerThan(AmazonConfigSnapshot snapshot, Duration maxAge) {
+        try {
+            return snapshot.isYoungerThan(maxAge);
+        } catch (IOException e) {
+            LOG.warnf(e, "Unable to read the snapshot %s", snapshot.path());
+            return false;
+        }
+    }
+
+    private static Map<String, String> read(AmazonConfigSnapshot snapshot) {
+        try {
+            return snapshot.read();
+        } catch (IOException | GeneralSecurityException e) {
+            LOG.warnf(e, "Unable to read the snapshot %s", snapshot.path());
+            return null;
+        }
+    }
+
+    private static void write(AmazonConfigSnapshot snapshot, Map<String, String> properties) {
+        if (snapshot == null) {
+            return;
+        }
+        try {
+            snapshot.write(properties);
+        } catch (IOException | GeneralSecurityException e) {
+            LOG.warnf(e, "Unable to write the snapshot %s", snapshot.path());
+        }
+    }
+
+    private static boolean isClassPresent(String name) {
+        try {
+            Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Loads all the properties of a source.
+     */
+    public interface PropertiesLoader extends AutoCloseable {
+
+        /**
+         * @param executor the executor of the concurrent requests
+         * @return the properties
+         */
+        Map<String, String> load(ExecutorService executor);
+
+        @Override
+        void close();
+    }
+}
@@ -51,12 +51,7 @@ public class AmazonClientCommonRecorder {
             AwsConfig defaultConfig) {
         namedConfig.region().or(() -> defaultConfig.region()).ifPresent(builder::region);
 
-        AwsCredentialsProvider credential = namedConfig.credentials().map(c -> c.type().create(c, "quarkus." + namedExtension))
-                .or(() -> defaultConfig.credentials().map(c -> c.type().create(c, "quarkus." + extension)))
-                .orElseGet(() -> DefaultCredentialsProvider.builder().asyncCredentialUpdateEnabled(false)
-                        .reuseLastProviderEnabled(false).build());
-
-        builder.credentialsProvider(credential);
+        builder.credentialsProvider(credentialsProvider(extension, namedExtension, namedConfig, defaultConfig));
     }
 
     public void initSdkClient(SdkClientBuilder builder, String extension, String namedExtension, SdkConfig namedConfig,
@@ -121,12 +116,19 @@ public class AmazonClientCommonRecorder {
             AwsConfig defaultConfig) {
         namedConfig.region().or(() -> defaultConfig.region()).ifPresent(builder::region);
 
-        AwsCredentialsProvider credential = namedConfig.credentials().map(c -> c.type().create(c, "quarkus." + namedExtension))
+        builder.credentialsProvider(credentialsProvider(extension, namedExtension, namedConfig, defaultConfig));
+    }
+
+    /**
+     * Creates the credentials provider of a client or a presigner, from the configuration of the named client or else of
+     * the default client.
+     */
+    public static AwsCredentialsProvider credentialsProvider(String extension, String namedExtension, AwsConfig namedConfig,
+            AwsConfig defaultConfig) {
+        return namedConfig.credentials().map(c -> c.type().create(c, "quarkus." + namedExtension))
                 .or(() -> defaultConfig.credentials().map(c -> c.type().create(c, "quarkus." + extension)))
                 .orElseGet(() -> DefaultCredentialsProvider.builder().asyncCredentialUpdateEnabled(false)
                         .reuseLastProviderEnabled(false).build());
-
-        builder.credentialsProvider(credential);
     }
 
     public void initSdkPresigner(SdkPresigner.Builder builder, String extension, String namedExtension, SdkConfig namedConfig,
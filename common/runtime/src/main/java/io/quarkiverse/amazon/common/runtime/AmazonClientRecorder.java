@@ -1,9 +1,12 @@
 package io.quarkiverse.amazon.common.runtime;
 
 import java.util.concurrent.Executor;
+import java.util.function.Function;
 
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.LaunchMode;
 import io.quarkus.runtime.RuntimeValue;
+import software.amazon.awssdk.awscore.AwsClient;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
@@ -76,6 +79,28 @@ public abstract class AmazonClientRecorder {
         throw new UnsupportedOperationException();
     }
 
+    public Function<SyntheticCreationalContext<AwsClient>, AwsClient> decorate(
+            Function<SyntheticCreationalContext<AwsClient>, AwsClient> build) {
+        return new Function<SyntheticCreationalContext<AwsClient>, AwsClient>() {
+
+            @Override
+            public AwsClient apply(SyntheticCreationalContext<AwsClient> context) {
+                return decorateClient(build.apply(context));
+            }
+        };
+    }
+
+    /**
+     * Wraps the clients built from the configured builders, the extensions overriding it to customize the requests
+     * before they are passed to the client.
+     *
+     * @param client the built client
+     * @return the client exposed as a bean
+     */
+    protected AwsClient decorateClient(AwsClient client) {
+        return client;
+    }
+
     /**
      * Capture the current ClassLoader and restore it to support dev and test mode
      */
@@ -0,0 +1,32 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.util.Set;
+
+/**
+ * The CDI event fired when a refresh of a configuration source loading the properties from an Amazon service added,
+ * changed or removed properties.
+ */
+public class AmazonConfigChangeEvent {
+
+    private final String sourceName;
+    private final Set<String> changedProperties;
+
+    public AmazonConfigChangeEvent(String sourceName, Set<String> changedProperties) {
+        this.sourceName = sourceName;
+        this.changedProperties = changedProperties;
+    }
+
+    /**
+     * @return the name of the configuration source
+     */
+    public String sourceName() {
+        return sourceName;
+    }
+
+    /**
+     * @return the names of the properties added, changed or removed
+     */
+    public Set<String> changedProperties() {
+        return changedProperties;
+    }
+}
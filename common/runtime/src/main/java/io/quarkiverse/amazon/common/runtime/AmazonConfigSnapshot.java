@@ -0,0 +1,120 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A local copy of the properties of a configuration source, encrypted with AES-GCM: the 12 bytes IV followed by the
+ * encrypted properties file and the tag. The name of the source is the additional authenticated data, so the snapshot of
+ * a source cannot be read as the snapshot of another one.
+ */
+final class AmazonConfigSnapshot {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final Path path;
+    private final SecretKeySpec key;
+    private final byte[] associatedData;
+
+    AmazonConfigSnapshot(Path path, String base64Key, String sourceName) {
+        byte[] decoded;
+        try {
+            decoded = Base64.getDecoder().decode(base64Key);
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeConfigurationError("The key of the snapshot " + path + " is not base64 encoded");
+        }
+        if (decoded.length != 16 && decoded.length != 24 && decoded.length != 32) {
+            throw new RuntimeConfigurationError(
+                    "The key of the snapshot " + path + " must be 16, 24 or 32 bytes long, not " + decoded.length);
+        }
+        this.path = path;
+        this.key = new SecretKeySpec(decoded, "AES");
+        this.associatedData = sourceName.getBytes(StandardCharsets.UTF_8);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    boolean isYoungerThan(Duration maxAge) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        Instant modified = Files.getLastModifiedTime(path).toInstant();
+        return modified.plus(maxAge).isAfter(Instant.now());
+    }
+
+    /**
+     * @return the properties of the snapshot, or null if there is no snapshot
+     */
+    Map<String, String> read() throws IOException, GeneralSecurityException {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        byte[] content = Files.readAllBytes(path);
+        if (content.length < IV_LENGTH) {
+            throw new IOException("The snapshot " + path + " is truncated");
+        }
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, content, 0, IV_LENGTH));
+        cipher.updateAAD(associatedData);
+        byte[] plain = cipher.doFinal(content, IV_LENGTH, content.length - IV_LENGTH);
+
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(plain));
+        Map<String, String> loaded = new HashMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            loaded.put(name, properties.getProperty(name));
+        }
+        return loaded;
+    }
+
+    void write(Map<String, String> loaded) throws IOException, GeneralSecurityException {
+        Properties properties = new Properties();
+        properties.putAll(loaded);
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        properties.store(plain, null);
+
+        // the random generator is not kept, it must not be initialized in a native image
+        byte[] iv = new byte[IV_LENGTH];
+        new SecureRandom().nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(associatedData);
+        byte[] encrypted = cipher.doFinal(plain.toByteArray());
+
+        byte[] content = new byte[IV_LENGTH + encrypted.length];
+        System.arraycopy(iv, 0, content, 0, IV_LENGTH);
+        System.arraycopy(encrypted, 0, content, IV_LENGTH, encrypted.length);
+
+        // replaced atomically, a concurrent start never reads a partial snapshot
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
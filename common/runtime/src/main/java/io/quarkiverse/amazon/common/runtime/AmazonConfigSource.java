@@ -0,0 +1,107 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.config.spi.ConfigSource;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ArcContainer;
+import io.smallrye.config.common.AbstractConfigSource;
+
+/**
+ * A configuration source holding the properties loaded from an Amazon service, replaced as a whole when they are
+ * refreshed.
+ * <p>
+ * Closing the source releases the client and the threads refreshing its properties.
+ */
+public class AmazonConfigSource extends AbstractConfigSource implements AutoCloseable {
+
+    private volatile Map<String, String> properties;
+    private final AtomicReference<Runnable> release = new AtomicReference<>();
+
+    public AmazonConfigSource(String name, int ordinal, Map<String, String> properties) {
+        super(name, ordinal);
+        this.properties = Map.copyOf(properties);
+    }
+
+    @Override
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public Set<String> getPropertyNames() {
+        return properties.keySet();
+    }
+
+    @Override
+    public String getValue(String propertyName) {
+        return properties.get(propertyName);
+    }
+
+    /**
+     * Replaces the properties and fires an {@link AmazonConfigChangeEvent} if some of them changed and the container is
+     * running.
+     *
+     * @param updated the properties loaded again
+     * @return the names of the properties added, changed or removed
+     */
+    public Set<String> update(Map<String, String> updated) {
+        Map<String, String> previous = properties;
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> property : updated.entrySet()) {
+            if (!Objects.equals(previous.get(property.getKey()), property.getValue())) {
+                changed.add(property.getKey());
+            }
+        }
+        for (String name : previous.keySet()) {
+            if (!updated.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        if (changed.isEmpty()) {
+            return Set.of();
+        }
+
+        properties = Map.copyOf(updated);
+        ArcContainer container = Arc.container();
+        if (container != null && container.isRunning()) {
+            container.beanManager().getEvent().select(AmazonConfigChangeEvent.class)
+                    .fire(new AmazonConfigChangeEvent(getName(), Set.copyOf(changed)));
+        }
+        return changed;
+    }
+
+    /**
+     * Stops refreshing the properties, which are still served.
+     */
+    @Override
+    public void close() {
+        Runnable action = release.getAndSet(null);
+        if (action != null) {
+            action.run();
+        }
+    }
+
+    /**
+     * Closes the Amazon configuration sources of a configuration.
+     *
+     * @param config the configuration
+     */
+    public static void closeAll(Config config) {
+        for (ConfigSource source : config.getConfigSources()) {
+            if (source instanceof AmazonConfigSource) {
+                ((AmazonConfigSource) source).close();
+            }
+        }
+    }
+
+    void closeWith(Runnable action) {
+        release.set(action);
+    }
+}
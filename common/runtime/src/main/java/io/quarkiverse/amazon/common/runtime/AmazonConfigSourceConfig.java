@@ -0,0 +1,77 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+
+/**
+ * The settings of a configuration source loading the properties from an Amazon service.
+ * <p>
+ * These settings are read before the configuration is built, so they cannot be set in the sources they enable.
+ */
+@ConfigGroup
+public interface AmazonConfigSourceConfig {
+
+    /**
+     * Whether the properties are loaded from the service when the application starts.
+     * <p>
+     * The source uses its own synchronous client built from the endpoint override, the region and the static
+     * credentials of the default client, or from the default AWS providers.
+     */
+    @WithDefault("false")
+    boolean enabled();
+
+    /**
+     * The ordinal of the configuration source.
+     */
+    @WithDefault("270")
+    int ordinal();
+
+    /**
+     * The maximum number of requests sent concurrently to load the properties.
+     */
+    @WithDefault("4")
+    int maxConcurrency();
+
+    /**
+     * The interval at which the properties are loaded again in the background.
+     * <p>
+     * A `AmazonConfigChangeEvent` is fired when properties are added, changed or removed. The configuration values
+     * already injected are not updated.
+     */
+    @ConfigDocDefault("The properties are not refreshed")
+    Optional<Duration> refreshInterval();
+
+    /**
+     * Local snapshot
+     */
+    SnapshotConfig snapshot();
+
+    @ConfigGroup
+    interface SnapshotConfig {
+
+        /**
+         * The file where the loaded properties are saved, encrypted with AES-GCM.
+         * <p>
+         * The application starts from a snapshot younger than the maximum age and loads the properties from the
+         * service in the background, and falls back to an older snapshot when the service cannot be reached.
+         */
+        @ConfigDocDefault("No snapshot is saved")
+        Optional<Path> path();
+
+        /**
+         * The base64 encoded AES key, of 16, 24 or 32 bytes, encrypting the snapshot.
+         */
+        Optional<String> key();
+
+        /**
+         * The maximum age of a snapshot used instead of loading the properties from the service.
+         */
+        @WithDefault("1H")
+        Duration maxAge();
+    }
+}
@@ -0,0 +1,91 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Helpers of the clients aggregating entries into batch requests.
+ */
+public final class BatchUtil {
+
+    private BatchUtil() {
+    }
+
+    /**
+     * @param value a string, or {@code null}
+     * @return the length of the UTF-8 encoding of the string, computed without encoding it
+     */
+    public static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // a surrogate pair is encoded with 4 bytes
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @param request sends a request
+     * @return the response, failed if the request could not be sent
+     */
+    public static <R> CompletableFuture<R> invoke(Supplier<CompletableFuture<R>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends a batch request. A failed request is not sent again, it was already retried by the client according to its
+     * retry strategy, so all the entries of the batch fail.
+     *
+     * @param request sends the request
+     * @param completed handles the response, which may report failed entries
+     * @param failed handles the failure of the request, or of the response handler
+     * @return completed once the response or the failure is handled
+     */
+    public static <R> CompletableFuture<Void> send(Supplier<CompletableFuture<R>> request, Consumer<R> completed,
+            Consumer<Throwable> failed) {
+        return invoke(request).thenAccept(completed).handle((ignored, failure) -> {
+            if (failure != null) {
+                failed.accept(unwrap(failure));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * @param baseNanos the backoff of the first retry
+     * @param attempts the number of previous retries
+     * @param maxNanos the maximum backoff
+     * @return the backoff of a retry, doubled on each retry up to the maximum backoff
+     */
+    public static long backoff(long baseNanos, int attempts, long maxNanos) {
+        // shifted further, the backoff would overflow
+        return attempts < Long.numberOfLeadingZeros(baseNanos) ? Math.min(maxNanos, baseNanos << attempts) : maxNanos;
+    }
+
+    /**
+     * @param failure the failure of a future
+     * @return the cause of the failure, without the {@link CompletionException} wrapping it
+     */
+    public static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+}
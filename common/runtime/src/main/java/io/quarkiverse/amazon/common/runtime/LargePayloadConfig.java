@@ -0,0 +1,42 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface LargePayloadConfig {
+
+    /**
+     * The S3 bucket where the message bodies larger than the threshold are stored.
+     * <p>
+     * The bodies are stored with the default S3 asynchronous client, which requires the `quarkus-amazon-s3`
+     * extension.
+     */
+    @ConfigDocDefault("No body is stored in S3")
+    Optional<String> bucket();
+
+    /**
+     * The size of a message, body and attributes, above which the body is stored in S3.
+     */
+    @WithDefault("256K")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize threshold();
+
+    /**
+     * Store all the message bodies in S3, whatever their size.
+     */
+    @WithDefault("false")
+    boolean alwaysThroughS3();
+
+    /**
+     * The prefix of the keys of the stored bodies.
+     */
+    @ConfigDocDefault("No prefix")
+    Optional<String> keyPrefix();
+}
@@ -0,0 +1,138 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+
+/**
+ * A pointer to a message body stored in S3, in the format of the Amazon SQS and SNS extended client libraries.
+ */
+public final class LargePayloadPointer {
+
+    /**
+     * The message attribute holding the size of the stored body.
+     */
+    public static final String PAYLOAD_SIZE_ATTRIBUTE = "ExtendedPayloadSize";
+
+    /**
+     * The message attribute holding the size of the stored body, as set by the previous versions of the libraries.
+     */
+    public static final String LEGACY_PAYLOAD_SIZE_ATTRIBUTE = "SQSLargePayloadSize";
+
+    /**
+     * The maximum number of message attributes of an SQS or SNS message, including the size attribute.
+     */
+    public static final int MAX_MESSAGE_ATTRIBUTES = 10;
+
+    private static final String POINTER_CLASS = "software.amazon.payloadoffloading.PayloadS3Pointer";
+    private static final String BUCKET_FIELD = "s3BucketName";
+    private static final String KEY_FIELD = "s3Key";
+
+    private final String bucket;
+    private final String key;
+
+    public LargePayloadPointer(String bucket, String key) {
+        this.bucket = bucket;
+        this.key = key;
+    }
+
+    /**
+     * @param body a message body pointing to a stored body
+     * @return the pointer
+     * @throws IllegalArgumentException if the body is not a pointer
+     */
+    public static LargePayloadPointer fromJson(String body) {
+        JsonNode json;
+        try {
+            json = JsonNode.parser().parse(body);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("The message body is not a pointer to a payload stored in S3", e);
+        }
+        if (json.isArray()) {
+            List<JsonNode> elements = json.asArray();
+            if (elements.size() == 2 && elements.get(0).isString() && POINTER_CLASS.equals(elements.get(0).asString())
+                    && elements.get(1).isObject()) {
+                Map<String, JsonNode> fields = elements.get(1).asObject();
+                JsonNode bucket = fields.get(BUCKET_FIELD);
+                JsonNode key = fields.get(KEY_FIELD);
+                if (bucket != null && bucket.isString() && key != null && key.isString()) {
+                    return new LargePayloadPointer(bucket.asString(), key.asString());
+                }
+            }
+        }
+        throw new IllegalArgumentException("The message body is not a pointer to a payload stored in S3");
+    }
+
+    /**
+     * @param attributeNames the names of the attributes of a message
+     * @throws IllegalArgumentException if the size attribute cannot be added to the attributes of the message
+     */
+    public static void checkAttributeLimit(Iterable<String> attributeNames) {
+        int count = 0;
+        for (String name : attributeNames) {
+            if (!PAYLOAD_SIZE_ATTRIBUTE.equals(name)) {
+                count++;
+            }
+        }
+        if (count >= MAX_MESSAGE_ATTRIBUTES) {
+            throw new IllegalArgumentException("A message whose body is stored in S3 has at most "
+                    + (MAX_MESSAGE_ATTRIBUTES - 1) + " message attributes, the attribute " + PAYLOAD_SIZE_ATTRIBUTE
+                    + " being added to them, but it has " + count);
+        }
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder(POINTER_CLASS.length() + bucket.length() + key.length() + 40);
+        json.append('[');
+        appendString(json, POINTER_CLASS);
+        json.append(",{");
+        appendString(json, BUCKET_FIELD);
+        json.append(':');
+        appendString(json, bucket);
+        json.append(',');
+        appendString(json, KEY_FIELD);
+        json.append(':');
+        appendString(json, key);
+        return json.append("}]").toString();
+    }
+
+    public String bucket() {
+        return bucket;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,132 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import software.amazon.awssdk.core.SdkBytes;
+
+/**
+ * Stores the message bodies larger than a threshold in S3, for the SQS and SNS clients replacing them with a
+ * {@link LargePayloadPointer}.
+ * <p>
+ * The message attributes of SQS and SNS are distinct types, the sizes of their values and the size attribute are
+ * computed by functions given by the clients.
+ */
+public final class LargePayloadStore {
+
+    private final String bucket;
+    private final long threshold;
+    private final boolean alwaysThroughS3;
+    private final String keyPrefix;
+    private final BiFunction<LargePayloadPointer, byte[], CompletableFuture<?>> putObject;
+
+    private final LongAdder offloadedPayloads = new LongAdder();
+    private final LongAdder offloadedBytes = new LongAdder();
+
+    /**
+     * @param bucket the bucket where the bodies are stored, or {@code null} to store no body
+     * @param threshold the size of a message, in bytes, above which its body is stored
+     * @param alwaysThroughS3 whether all the bodies are stored
+     * @param keyPrefix the prefix of the keys of the stored bodies
+     * @param putObject stores a body in the S3 object of a pointer
+     */
+    public LargePayloadStore(String bucket, long threshold, boolean alwaysThroughS3, String keyPrefix,
+            BiFunction<LargePayloadPointer, byte[], CompletableFuture<?>> putObject) {
+        this.bucket = bucket;
+        this.threshold = threshold;
+        this.alwaysThroughS3 = alwaysThroughS3;
+        this.keyPrefix = keyPrefix != null ? keyPrefix : "";
+        this.putObject = putObject;
+    }
+
+    /**
+     * @param body the body of a message
+     * @param attributesSize the size of the attributes of the message
+     * @return the encoded body if it is stored in S3, {@code null} otherwise
+     */
+    public byte[] payloadToStore(String body, long attributesSize) {
+        if (bucket == null || body == null) {
+            return null;
+        }
+        // a character is encoded with at most 3 bytes, no need to encode the small bodies
+        if (!alwaysThroughS3 && (long) body.length() * 3 + attributesSize <= threshold) {
+            return null;
+        }
+        byte[] payload = body.getBytes(UTF_8);
+        return alwaysThroughS3 || payload.length + attributesSize > threshold ? payload : null;
+    }
+
+    /**
+     * @param payload the encoded body
+     * @return completed with the pointer to the stored body
+     */
+    public CompletableFuture<LargePayloadPointer> store(byte[] payload) {
+        LargePayloadPointer pointer = new LargePayloadPointer(bucket, keyPrefix + UUID.randomUUID());
+        return putObject.apply(pointer, payload)
+                .thenApply(response -> {
+                    offloadedPayloads.increment();
+                    offloadedBytes.add(payload.length);
+                    return pointer;
+                });
+    }
+
+    /**
+     * @return the number of message bodies stored in S3
+     */
+    public long offloadedPayloads() {
+        return offloadedPayloads.sum();
+    }
+
+    /**
+     * @return the number of bytes of the message bodies stored in S3
+     */
+    public long offloadedBytes() {
+        return offloadedBytes.sum();
+    }
+
+    /**
+     * @param attributes the attributes of a message
+     * @param valueSize the size of an attribute value
+     * @return the size of the names and values of the attributes
+     */
+    public static <V> long attributesSize(Map<String, V> attributes, ToLongFunction<V> valueSize) {
+        long size = 0;
+        for (Map.Entry<String, V> attribute : attributes.entrySet()) {
+            size += attribute.getKey().getBytes(UTF_8).length;
+            size += valueSize.applyAsLong(attribute.getValue());
+        }
+        return size;
+    }
+
+    /**
+     * @return the size of the data type and value of an attribute
+     */
+    public static long attributeValueSize(String dataType, String stringValue, SdkBytes binaryValue) {
+        long size = 0;
+        size += dataType != null ? dataType.getBytes(UTF_8).length : 0;
+        size += stringValue != null ? stringValue.getBytes(UTF_8).length : 0;
+        size += binaryValue != null ? binaryValue.asByteArrayUnsafe().length : 0;
+        return size;
+    }
+
+    /**
+     * @param attributes the attributes of a message
+     * @param size the size of the stored body
+     * @param numberAttribute creates an attribute of the {@code Number} data type
+     * @return the attributes with the size attribute of the stored body
+     */
+    public static <V> Map<String, V> withPayloadSize(Map<String, V> attributes, int size,
+            Function<String, V> numberAttribute) {
+        Map<String, V> withSize = new HashMap<>(attributes);
+        withSize.put(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE, numberAttribute.apply(Integer.toString(size)));
+        return withSize;
+    }
+}
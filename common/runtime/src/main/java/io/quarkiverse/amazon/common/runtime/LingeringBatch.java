@@ -0,0 +1,122 @@
+package io.quarkiverse.amazon.common.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Aggregates entries into batches sent by a batch request.
+ * <p>
+ * A batch is sent once it holds the maximum number of entries or the next entry would exceed the maximum size, or once
+ * the linger time elapsed since its first entry was added. The batches are sent by the thread adding the entry which
+ * completes them, or by the scheduler. Once the batch is closed or the scheduler is shut down, the entries are sent as
+ * soon as they are added.
+ *
+ * @param <E> the type of the entries
+ */
+public final class LingeringBatch<E> {
+
+    private final ScheduledExecutorService scheduler;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long lingerNanos;
+    private final ToLongFunction<E> size;
+    private final Consumer<List<E>> sender;
+
+    private volatile boolean closed;
+
+    // guarded by this
+    private List<E> entries;
+    private long bytes;
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * @param scheduler sends the batches once the linger time elapsed
+     * @param maxEntries the maximum number of entries of a batch
+     * @param maxBytes the maximum size of a batch
+     * @param lingerNanos the maximum time an entry waits for a batch to be completed
+     * @param size the size of an entry, at most {@code maxBytes}
+     * @param sender sends a batch
+     */
+    public LingeringBatch(ScheduledExecutorService scheduler, int maxEntries, long maxBytes, long lingerNanos,
+            ToLongFunction<E> size, Consumer<List<E>> sender) {
+        this.scheduler = scheduler;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.lingerNanos = lingerNanos;
+        this.size = size;
+        this.sender = sender;
+        this.entries = new ArrayList<>(maxEntries);
+    }
+
+    /**
+     * @param entry the entry to add to the batch
+     */
+    public void add(E entry) {
+        long entrySize = size.applyAsLong(entry);
+        List<E> full = null;
+        List<E> next = null;
+        synchronized (this) {
+            if (bytes + entrySize > maxBytes) {
+                full = take();
+            }
+            entries.add(entry);
+            bytes += entrySize;
+            if (entries.size() >= maxEntries || closed) {
+                next = take();
+            } else if (entries.size() == 1) {
+                try {
+                    scheduledFlush = scheduler.schedule(this::flush, lingerNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the scheduler is shut down
+                    next = take();
+                }
+            }
+        }
+        if (full != null && !full.isEmpty()) {
+            sender.accept(full);
+        }
+        if (next != null) {
+            sender.accept(next);
+        }
+    }
+
+    /**
+     * Sends the pending entries.
+     */
+    public void flush() {
+        List<E> pending;
+        synchronized (this) {
+            if (entries.isEmpty()) {
+                return;
+            }
+            pending = take();
+        }
+        sender.accept(pending);
+    }
+
+    /**
+     * Sends the pending entries, and the entries added afterwards without scheduling a flush.
+     */
+    public void close() {
+        closed = true;
+        flush();
+    }
+
+    // guarded by this
+    private List<E> take() {
+        List<E> taken = entries;
+        entries = new ArrayList<>(maxEntries);
+        bytes = 0;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return taken;
+    }
+}
@@ -23,6 +23,7 @@ import software.amazon.awssdk.services.s3.S3Client;
 public class S3DevServicesProcessor extends AbstractDevServicesLocalStackProcessor {
 
     private static final String AWS_PATH_STYLE_ACCESS = "quarkus.s3.path-style-access";
+    private static final String AWS_EXPRESS_SESSION_AUTH = "quarkus.s3.express-session-auth";
 
     @BuildStep
     DevServicesLocalStackProviderBuildItem setupS3(S3BuildTimeConfig clientBuildTimeConfig) {
@@ -40,6 +41,9 @@ public class S3DevServicesProcessor extends AbstractDevServicesLocalStackProcess
         // returns an ip as host
         // and it confuse DefaultS3EndpointProvider ruleset
         defaultConfig.put(AWS_PATH_STYLE_ACCESS, "true");
+        // Localstack does not implement CreateSession, directory buckets are accessed
+        // with the regular credentials
+        defaultConfig.put(AWS_EXPRESS_SESSION_AUTH, "false");
     }
 
     public void createBuckets(LocalStackContainer localstack, S3DevServiceCfg configuration) {
@@ -1,7 +1,13 @@
 package io.quarkiverse.amazon.eventbridge.deployment;
 
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.injectionPointAnnotationsClient;
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.namedClient;
+
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,6 +28,8 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
+import io.quarkiverse.amazon.eventbridge.runtime.EventBridgeBatchPublisher;
 import io.quarkiverse.amazon.eventbridge.runtime.EventBridgeBuildTimeConfig;
 import io.quarkiverse.amazon.eventbridge.runtime.EventBridgeRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
@@ -42,6 +50,7 @@ import software.amazon.awssdk.services.eventbridge.EventBridgeClientBuilder;
 public class EventBridgeProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-eventbridge";
+    private static final DotName EVENTBRIDGE_BATCH_PUBLISHER = DotName.createSimple(EventBridgeBatchPublisher.class);
 
     EventBridgeBuildTimeConfig buildTimeConfig;
 
@@ -84,6 +93,8 @@ public class EventBridgeProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, EVENTBRIDGE_BATCH_PUBLISHER, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -212,4 +223,31 @@ public class EventBridgeProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createBatchPublishers(EventBridgeRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the batch publisher is removed if not injected, the pending batches are sent when it is destroyed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(EventBridgeBatchPublisher.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createBatchPublisher(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(EventBridgeAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
 }
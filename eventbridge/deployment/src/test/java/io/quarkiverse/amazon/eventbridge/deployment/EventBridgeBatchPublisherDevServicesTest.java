@@ -0,0 +1,52 @@
+package io.quarkiverse.amazon.eventbridge.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.eventbridge.runtime.EventBridgeBatchPublisher;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
+
+class EventBridgeBatchPublisherDevServicesTest {
+
+    @Inject
+    EventBridgeBatchPublisher publisher;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar.addAsResource(
+                    new StringAsset("quarkus.eventbridge.batch-publisher.linger=50ms\n"
+                            + "quarkus.eventbridge.batch-publisher.max-batch-bytes=1K"),
+                    "application.properties"));
+
+    @Test
+    void test() {
+        // each event is 19 + 6 + 183 = 208 bytes, so that 4 events fit in 1K
+        String detail = "{\"value\":\"" + "x".repeat(171) + "\"}";
+        List<CompletableFuture<PutEventsResultEntry>> results = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            results.add(publisher.publish(PutEventsRequestEntry.builder()
+                    .source("io.quarkiverse.test")
+                    .detailType("Tested")
+                    .detail(detail)
+                    .build()));
+        }
+        results.forEach(result -> assertNotNull(result.join().eventId()));
+
+        assertEquals(12, publisher.published());
+        assertEquals(12 * 208, publisher.publishedBytes());
+        assertEquals(3, publisher.requests());
+        assertEquals(0, publisher.failed());
+    }
+}
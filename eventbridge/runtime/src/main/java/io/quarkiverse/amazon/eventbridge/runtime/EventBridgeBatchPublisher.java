@@ -0,0 +1,243 @@
+package io.quarkiverse.amazon.eventbridge.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.quarkiverse.amazon.common.runtime.BatchUtil;
+import io.quarkiverse.amazon.common.runtime.LingeringBatch;
+import software.amazon.awssdk.services.eventbridge.EventBridgeAsyncClient;
+import software.amazon.awssdk.services.eventbridge.model.EventBridgeException;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Sends events with {@code PutEvents} requests, aggregating the events of each event bus.
+ * <p>
+ * A batch is sent once it holds the maximum number of entries or the next event would exceed the maximum size, or once
+ * the linger time elapsed since its first event was added. The size of an event is computed as documented by
+ * EventBridge, from its time, source, detail type, detail and resources. The entries which failed because of an
+ * internal failure or throttling are sent again with the next batch of the event bus after a backoff, the other failed
+ * entries complete their future exceptionally.
+ * <p>
+ * Once the publisher is closed, the events are sent as soon as they are added, and the entries waiting for their
+ * backoff are sent immediately, without being retried again.
+ */
+public class EventBridgeBatchPublisher implements SdkAutoCloseable {
+
+    private static final String DEFAULT_EVENT_BUS = "default";
+
+    // the error codes of the entries which may succeed when sent again
+    private static final Set<String> RETRYABLE_ERRORS = Set.of("InternalFailure", "InternalException",
+            "ThrottlingException");
+
+    private final EventBridgeAsyncClient client;
+    private final ScheduledExecutorService scheduler;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long lingerNanos;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+
+    private final Map<String, LingeringBatch<Entry>> batches = new ConcurrentHashMap<>();
+    // the entries waiting for their backoff, with their event bus
+    private final Map<Entry, String> retries = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder publishedBytes = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public EventBridgeBatchPublisher(EventBridgeAsyncClient client, ScheduledExecutorService scheduler, int maxBatchSize,
+            long maxBatchBytes, Duration linger, int maxRetries, Duration retryBackoff, Duration maxRetryBackoff) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = linger.toNanos();
+        this.maxRetries = maxRetries;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.maxRetryBackoffNanos = maxRetryBackoff.toNanos();
+    }
+
+    /**
+     * Sends an event with a batch of its event bus, the default event bus if the entry has no event bus name.
+     *
+     * @param event the event to send
+     * @return the result of the entry of the event once sent
+     */
+    public CompletableFuture<PutEventsResultEntry> publish(PutEventsRequestEntry event) {
+        Entry entry = new Entry(event, size(event));
+        if (entry.size > maxBatchBytes) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "The event size " + entry.size + " exceeds the maximum batch size " + maxBatchBytes));
+        }
+        String eventBus = event.eventBusName() != null ? event.eventBusName() : DEFAULT_EVENT_BUS;
+        batches.computeIfAbsent(eventBus, this::batch).add(entry);
+        return entry.result;
+    }
+
+    /**
+     * Sends the pending batches.
+     */
+    public void flush() {
+        batches.values().forEach(LingeringBatch::flush);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Entry entry : retries.keySet()) {
+            String eventBus = retries.remove(entry);
+            if (eventBus != null) {
+                if (entry.retry != null) {
+                    entry.retry.cancel(false);
+                }
+                batches.computeIfAbsent(eventBus, this::batch).add(entry);
+            }
+        }
+        batches.values().forEach(LingeringBatch::close);
+    }
+
+    /**
+     * @return the number of {@code PutEvents} requests
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of sent events
+     */
+    public long published() {
+        return published.sum();
+    }
+
+    /**
+     * @return the total size of the sent events
+     */
+    public long publishedBytes() {
+        return publishedBytes.sum();
+    }
+
+    /**
+     * @return the number of entries sent again after an internal failure or throttling
+     */
+    public long retried() {
+        return retried.sum();
+    }
+
+    /**
+     * @return the number of events which could not be sent
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    // https://docs.aws.amazon.com/eventbridge/latest/userguide/eb-putevent-size.html
+    static long size(PutEventsRequestEntry event) {
+        long size = event.time() != null ? 14 : 0;
+        size += BatchUtil.utf8Length(event.source()) + BatchUtil.utf8Length(event.detailType())
+                + BatchUtil.utf8Length(event.detail());
+        for (String resource : event.resources()) {
+            size += BatchUtil.utf8Length(resource);
+        }
+        return size;
+    }
+
+    private LingeringBatch<Entry> batch(String eventBus) {
+        LingeringBatch<Entry> batch = new LingeringBatch<>(scheduler, maxBatchSize, maxBatchBytes, lingerNanos,
+                entry -> entry.size, entries -> send(eventBus, entries));
+        if (closed) {
+            batch.close();
+        }
+        return batch;
+    }
+
+    private void send(String eventBus, List<Entry> batch) {
+        List<PutEventsRequestEntry> requestEntries = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            requestEntries.add(entry.event);
+        }
+
+        requests.increment();
+        BatchUtil.send(() -> client.putEvents(r -> r.entries(requestEntries)),
+                result -> {
+                    // the result entries are in the order of the request entries
+                    List<PutEventsResultEntry> resultEntries = result.entries();
+                    for (int i = 0; i < batch.size(); i++) {
+                        Entry entry = batch.get(i);
+                        PutEventsResultEntry resultEntry = resultEntries.get(i);
+                        if (resultEntry.errorCode() == null) {
+                            published.increment();
+                            publishedBytes.add(entry.size);
+                            entry.result.complete(resultEntry);
+                        } else {
+                            failed(eventBus, entry, resultEntry);
+                        }
+                    }
+                },
+                failure -> {
+                    failed.add(batch.size());
+                    batch.forEach(entry -> entry.result.completeExceptionally(failure));
+                });
+    }
+
+    private void failed(String eventBus, Entry entry, PutEventsResultEntry error) {
+        if (RETRYABLE_ERRORS.contains(error.errorCode()) && entry.attempts < maxRetries && !closed) {
+            long backoff = BatchUtil.backoff(retryBackoffNanos, entry.attempts, maxRetryBackoffNanos);
+            entry.attempts++;
+            retries.put(entry, eventBus);
+            try {
+                entry.retry = scheduler.schedule(() -> retry(entry), backoff, TimeUnit.NANOSECONDS);
+                retried.increment();
+                return;
+            } catch (RejectedExecutionException e) {
+                // the scheduler is shut down
+                retries.remove(entry);
+                failed.increment();
+                entry.result.completeExceptionally(e);
+                return;
+            }
+        }
+        failed.increment();
+        entry.result.completeExceptionally(EventBridgeException.builder()
+                .message(error.errorCode() + ": " + error.errorMessage())
+                .build());
+    }
+
+    private void retry(Entry entry) {
+        // unless already sent by close
+        String eventBus = retries.remove(entry);
+        if (eventBus != null) {
+            batches.computeIfAbsent(eventBus, this::batch).add(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final PutEventsRequestEntry event;
+        private final long size;
+        private final CompletableFuture<PutEventsResultEntry> result = new CompletableFuture<>();
+        private int attempts;
+        private volatile ScheduledFuture<?> retry;
+
+        private Entry(PutEventsRequestEntry event, long size) {
+            this.event = event;
+            this.size = size;
+        }
+    }
+}
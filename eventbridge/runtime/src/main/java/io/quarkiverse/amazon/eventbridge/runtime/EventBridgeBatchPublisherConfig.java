@@ -0,0 +1,51 @@
+package io.quarkiverse.amazon.eventbridge.runtime;
+
+import java.time.Duration;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface EventBridgeBatchPublisherConfig {
+
+    /**
+     * The maximum number of entries of a `PutEvents` request. The maximum value is 10.
+     */
+    @WithDefault("10")
+    int maxBatchSize();
+
+    /**
+     * The maximum total size of the entries of a `PutEvents` request, computed as documented by EventBridge. The maximum
+     * value is 256K.
+     */
+    @WithDefault("256K")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxBatchBytes();
+
+    /**
+     * The maximum time an event waits for other events of the same event bus to fill a batch before the batch is sent.
+     */
+    @WithDefault("10MS")
+    Duration linger();
+
+    /**
+     * The maximum number of times an entry which failed because of an internal failure or throttling is sent again.
+     */
+    @WithDefault("3")
+    int maxRetries();
+
+    /**
+     * The delay before the failed entries are sent again, doubled on each retry.
+     */
+    @WithDefault("100MS")
+    Duration retryBackoff();
+
+    /**
+     * The maximum delay before the failed entries are sent again.
+     */
+    @WithDefault("20S")
+    Duration maxRetryBackoff();
+}
@@ -1,9 +1,16 @@
 package io.quarkiverse.amazon.eventbridge.runtime;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
@@ -44,4 +51,34 @@ public class EventBridgeRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return EventBridgeAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<EventBridgeBatchPublisher>, EventBridgeBatchPublisher> createBatchPublisher(
+            String clientName, ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<EventBridgeBatchPublisher>, EventBridgeBatchPublisher>() {
+            @Override
+            public EventBridgeBatchPublisher apply(SyntheticCreationalContext<EventBridgeBatchPublisher> context) {
+                EventBridgeAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(EventBridgeAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(EventBridgeAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                EventBridgeBatchPublisherConfig batchPublisherConfig = config.batchPublisher().get(clientName);
+                if (batchPublisherConfig.maxBatchSize() < 1 || batchPublisherConfig.maxBatchSize() > 10) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.eventbridge.batch-publisher.max-batch-size must be between 1 and 10");
+                }
+                return new EventBridgeBatchPublisher(client,
+                        scheduledExecutorService,
+                        batchPublisherConfig.maxBatchSize(),
+                        Math.min(batchPublisherConfig.maxBatchBytes().asLongValue(), 256 * 1024),
+                        batchPublisherConfig.linger(),
+                        batchPublisherConfig.maxRetries(),
+                        batchPublisherConfig.retryBackoff(),
+                        batchPublisherConfig.maxRetryBackoff());
+            }
+        };
+    }
 }
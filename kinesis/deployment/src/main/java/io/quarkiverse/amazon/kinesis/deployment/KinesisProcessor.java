@@ -1,7 +1,13 @@
 package io.quarkiverse.amazon.kinesis.deployment;
 
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.injectionPointAnnotationsClient;
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.namedClient;
+
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,10 +28,15 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
+import io.quarkiverse.amazon.kinesis.runtime.KinesisAggregatingProducer;
 import io.quarkiverse.amazon.kinesis.runtime.KinesisBuildTimeConfig;
+import io.quarkiverse.amazon.kinesis.runtime.KinesisFanOutConsumer;
 import io.quarkiverse.amazon.kinesis.runtime.KinesisRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
+import io.quarkus.bootstrap.classloading.QuarkusClassLoader;
 import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
 import io.quarkus.deployment.annotations.ExecutionTime;
@@ -42,6 +53,11 @@ import software.amazon.awssdk.services.kinesis.KinesisClientBuilder;
 public class KinesisProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-kinesis";
+    private static final DotName KINESIS_AGGREGATING_PRODUCER = DotName.createSimple(KinesisAggregatingProducer.class);
+    private static final DotName KINESIS_FAN_OUT_CONSUMER = DotName.createSimple(KinesisFanOutConsumer.class);
+    private static final DotName DYNAMODB_ASYNC_CLIENT = DotName
+            .createSimple("software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient");
+    private static final String DYNAMODB_EXTENSION_RECORDER = "io.quarkiverse.amazon.dynamodb.runtime.DynamodbRecorder";
 
     KinesisBuildTimeConfig buildTimeConfig;
 
@@ -84,6 +100,15 @@ public class KinesisProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, KINESIS_AGGREGATING_PRODUCER, asyncClientName(),
+                requireClientInjectionProducer);
+        if (discoverClientInjectionPointsFor(beanRegistrationPhase, KINESIS_FAN_OUT_CONSUMER, asyncClientName(),
+                requireClientInjectionProducer)
+                && QuarkusClassLoader.isClassPresentAtRuntime(DYNAMODB_EXTENSION_RECORDER)) {
+            // the checkpoints are stored with the default DynamoDB client
+            requireClientInjectionProducer
+                    .produce(new RequireAmazonClientInjectionBuildItem(DYNAMODB_ASYNC_CLIENT, ClientUtil.DEFAULT_CLIENT_NAME));
+        }
     }
 
     @BuildStep
@@ -208,4 +233,64 @@ public class KinesisProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createProducers(KinesisRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the producer is removed if not injected, the pending records are sent when it is destroyed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(KinesisAggregatingProducer.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createProducer(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(KinesisAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createConsumers(KinesisRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        // the checkpoints are stored in DynamoDB with the client of the DynamoDB extension, if present
+        boolean dynamoDbPresent = QuarkusClassLoader.isClassPresentAtRuntime(DYNAMODB_EXTENSION_RECORDER);
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the consumer is removed if not injected, the checkpoints are written when it is destroyed
+            SyntheticBeanBuildItem.ExtendedBeanConfigurator configurator = namedClient(
+                    SyntheticBeanBuildItem.configure(KinesisFanOutConsumer.class), asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createConsumer(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy(), dynamoDbPresent))
+                    .addInjectionPoint(ClassType.create(KinesisAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class);
+            if (dynamoDbPresent) {
+                configurator.addInjectionPoint(ClassType.create(DYNAMODB_ASYNC_CLIENT));
+            }
+            syntheticBeans.produce(configurator.done());
+        }
+    }
 }
@@ -0,0 +1,205 @@
+package io.quarkiverse.amazon.kinesis.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.kinesis.runtime.KinesisAggregatingProducer;
+import io.quarkiverse.amazon.kinesis.runtime.UserRecordResult;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.GetRecordsResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+
+class KinesisAggregatingProducerDevServicesTest {
+
+    private static final byte[] MAGIC = { (byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2 };
+    private static final int MAX_AGGREGATED_BYTES = 2048;
+
+    @Inject
+    KinesisAggregatingProducer producer;
+
+    @Inject
+    KinesisAsyncClient client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withEmptyApplication()
+            .overrideConfigKey("quarkus.kinesis.producer.max-aggregated-bytes", "2K");
+
+    @Test
+    void test() throws Exception {
+        client.createStream(r -> r.streamName("stream1").shardCount(2)).join();
+        client.waiter().waitUntilStreamExists(r -> r.streamName("stream1")).join();
+
+        Map<String, List<byte[]>> sent = new HashMap<>();
+        List<CompletableFuture<UserRecordResult>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(send(sent, "key-" + i, ("record-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        results.forEach(CompletableFuture::join);
+        // the user records are aggregated per shard
+        assertTrue(producer.records() <= 4, "records: " + producer.records());
+
+        // several aggregated records of the same partition key, under the maximum size with the magic bytes and digest
+        for (int i = 0; i < 10; i++) {
+            byte[] data = new byte[600];
+            Arrays.fill(data, (byte) i);
+            results.add(send(sent, "medium", data));
+        }
+        // fits in a Kinesis record, but not in an aggregated record with the magic bytes and digest
+        byte[] large = new byte[MAX_AGGREGATED_BYTES - 3 - 10];
+        Arrays.fill(large, (byte) 'x');
+        results.add(send(sent, "big", large));
+
+        Set<String> userRecords = new HashSet<>();
+        for (CompletableFuture<UserRecordResult> result : results) {
+            UserRecordResult userRecord = result.join();
+            userRecords.add(userRecord.sequenceNumber() + "/" + userRecord.subSequenceNumber());
+        }
+        assertEquals(111, userRecords.size());
+        assertEquals(111, producer.userRecords());
+        assertEquals(0, producer.failed());
+        assertEquals(0, producer.bufferedBytes());
+
+        // the records read from the stream are decoded as the Kinesis Client Library does
+        Map<String, List<byte[]>> received = new HashMap<>();
+        int aggregated = 0;
+        for (Record record : records("stream1")) {
+            byte[] data = record.data().asByteArray();
+            assertTrue(data.length + record.partitionKey().getBytes(StandardCharsets.UTF_8).length <= MAX_AGGREGATED_BYTES,
+                    "record size: " + data.length);
+            if (!Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+                received.computeIfAbsent(record.partitionKey(), key -> new ArrayList<>()).add(data);
+                continue;
+            }
+            aggregated++;
+            int end = data.length - 16;
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            md5.update(data, MAGIC.length, end - MAGIC.length);
+            assertArrayEquals(md5.digest(), Arrays.copyOfRange(data, end, data.length));
+
+            AggregatedRecord message = AggregatedRecord.parse(Arrays.copyOfRange(data, MAGIC.length, end));
+            // sent with the partition key of its first user record
+            assertEquals(record.partitionKey(), message.partitionKeys.get(message.partitionKeyIndexes.get(0)));
+            for (int i = 0; i < message.data.size(); i++) {
+                received.computeIfAbsent(message.partitionKeys.get(message.partitionKeyIndexes.get(i)),
+                        key -> new ArrayList<>()).add(message.data.get(i));
+            }
+        }
+
+        assertEquals(sent.keySet(), received.keySet());
+        sent.forEach((partitionKey, data) -> {
+            List<byte[]> receivedData = received.get(partitionKey);
+            assertEquals(data.size(), receivedData.size(), partitionKey);
+            for (int i = 0; i < data.size(); i++) {
+                assertArrayEquals(data.get(i), receivedData.get(i), partitionKey);
+            }
+        });
+        assertTrue(aggregated >= 2, "aggregated records: " + aggregated);
+        assertEquals(large.length, received.get("big").get(0).length);
+    }
+
+    private CompletableFuture<UserRecordResult> send(Map<String, List<byte[]>> sent, String partitionKey, byte[] data) {
+        sent.computeIfAbsent(partitionKey, key -> new ArrayList<>()).add(data);
+        return producer.addUserRecord("stream1", partitionKey, SdkBytes.fromByteArray(data));
+    }
+
+    private List<Record> records(String streamName) {
+        List<Record> records = new ArrayList<>();
+        for (Shard shard : client.listShards(r -> r.streamName(streamName)).join().shards()) {
+            String iterator = client.getShardIterator(r -> r.streamName(streamName)
+                    .shardId(shard.shardId())
+                    .shardIteratorType(ShardIteratorType.TRIM_HORIZON)).join().shardIterator();
+            while (iterator != null) {
+                String current = iterator;
+                GetRecordsResponse response = client.getRecords(r -> r.shardIterator(current)).join();
+                records.addAll(response.records());
+                iterator = response.records().isEmpty() ? null : response.nextShardIterator();
+            }
+        }
+        return records;
+    }
+
+    /**
+     * The {@code AggregatedRecord} protobuf message of the Kinesis Producer Library, decoded independently of the
+     * producer.
+     */
+    private static final class AggregatedRecord {
+
+        private final List<String> partitionKeys = new ArrayList<>();
+        private final List<Integer> partitionKeyIndexes = new ArrayList<>();
+        private final List<byte[]> data = new ArrayList<>();
+
+        static AggregatedRecord parse(byte[] message) {
+            AggregatedRecord aggregatedRecord = new AggregatedRecord();
+            int[] position = { 0 };
+            while (position[0] < message.length) {
+                long tag = varint(message, position);
+                int field = (int) (tag >>> 3);
+                if (field == 1) {
+                    aggregatedRecord.partitionKeys.add(new String(bytes(message, position), StandardCharsets.UTF_8));
+                } else if (field == 3) {
+                    byte[] record = bytes(message, position);
+                    int[] recordPosition = { 0 };
+                    ByteArrayOutputStream recordData = new ByteArrayOutputStream();
+                    while (recordPosition[0] < record.length) {
+                        long recordTag = varint(record, recordPosition);
+                        if (recordTag >>> 3 == 1) {
+                            aggregatedRecord.partitionKeyIndexes.add((int) varint(record, recordPosition));
+                        } else if (recordTag >>> 3 == 3) {
+                            recordData.writeBytes(bytes(record, recordPosition));
+                        } else {
+                            throw new IllegalStateException("Unexpected field of a record: " + (recordTag >>> 3));
+                        }
+                    }
+                    aggregatedRecord.data.add(recordData.toByteArray());
+                } else {
+                    throw new IllegalStateException("Unexpected field of an aggregated record: " + field);
+                }
+            }
+            assertFalse(aggregatedRecord.data.isEmpty());
+            assertEquals(aggregatedRecord.data.size(), aggregatedRecord.partitionKeyIndexes.size());
+            return aggregatedRecord;
+        }
+
+        private static long varint(byte[] bytes, int[] position) {
+            long value = 0;
+            for (int shift = 0;; shift += 7) {
+                byte b = bytes[position[0]++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        }
+
+        private static byte[] bytes(byte[] bytes, int[] position) {
+            int length = (int) varint(bytes, position);
+            byte[] value = Arrays.copyOfRange(bytes, position[0], position[0] + length);
+            position[0] += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.quarkiverse.amazon.kinesis.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.kinesis.runtime.KinesisAggregatingProducer;
+import io.quarkiverse.amazon.kinesis.runtime.KinesisFanOutConsumer;
+import io.quarkiverse.amazon.kinesis.runtime.KinesisUserRecord;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+
+class KinesisFanOutConsumerDevServicesTest {
+
+    @Inject
+    KinesisFanOutConsumer consumer;
+
+    @Inject
+    KinesisAggregatingProducer producer;
+
+    @Inject
+    KinesisAsyncClient client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar.addAsResource(
+                    new StringAsset("quarkus.kinesis.consumer.consumer-name=consumer1\n"
+                            + "quarkus.kinesis.consumer.initial-position=trim-horizon"),
+                    "application.properties"));
+
+    @Test
+    void test() throws Exception {
+        client.createStream(r -> r.streamName("stream2").shardCount(1)).join();
+        client.waiter().waitUntilStreamExists(r -> r.streamName("stream2")).join();
+        String streamArn = client.describeStreamSummary(r -> r.streamName("stream2")).join()
+                .streamDescriptionSummary().streamARN();
+
+        // the records are aggregated into a single Kinesis record
+        List<CompletableFuture<?>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(producer.addUserRecord("stream2", "key-" + i, SdkBytes.fromUtf8String("record-" + i)));
+        }
+        results.forEach(CompletableFuture::join);
+
+        List<KinesisUserRecord> records = consumer.consume(streamArn)
+                .select().first(5)
+                .collect().asList()
+                .await().atMost(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("key-" + i, records.get(i).partitionKey());
+            assertEquals("record-" + i, records.get(i).data().asUtf8String());
+            assertEquals(i, records.get(i).subSequenceNumber());
+        }
+        assertEquals(5, consumer.userRecords());
+
+        // closing the consumer cancels the subscriptions and completes the ongoing consumptions
+        long subscriptions = consumer.subscriptions();
+        CompletableFuture<Void> consumption = consumer.consume(streamArn).collect().last().replaceWithVoid()
+                .subscribeAsCompletionStage();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        while (consumer.subscriptions() == subscriptions && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(consumer.subscriptions() > subscriptions);
+        consumer.close();
+        consumption.get(30, TimeUnit.SECONDS);
+    }
+}
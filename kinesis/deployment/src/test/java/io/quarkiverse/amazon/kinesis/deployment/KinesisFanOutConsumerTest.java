@@ -0,0 +1,191 @@
+package io.quarkiverse.amazon.kinesis.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.quarkiverse.amazon.kinesis.runtime.KinesisConsumerConfig.InitialPosition;
+import io.quarkiverse.amazon.kinesis.runtime.KinesisFanOutConsumer;
+import io.quarkiverse.amazon.kinesis.runtime.KinesisUserRecord;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ChildShard;
+import software.amazon.awssdk.services.kinesis.model.ConsumerStatus;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamConsumerRequest;
+import software.amazon.awssdk.services.kinesis.model.DescribeStreamConsumerResponse;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.ListShardsResponse;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEventStream;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponse;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+
+/**
+ * Runs the consumer against a local stub of the client pushing the events of a closed shard and of its child, without
+ * Kinesis.
+ */
+class KinesisFanOutConsumerTest {
+
+    private static final String STREAM_ARN = "arn:aws:kinesis:eu-west-1:000000000000:stream/stream";
+    private static final String PARENT = "shardId-000000000000";
+    private static final String CHILD = "shardId-000000000001";
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void lastEventWithRecords() {
+        StubKinesisClient stub = new StubKinesisClient();
+        KinesisFanOutConsumer consumer = new KinesisFanOutConsumer(stub, scheduler, null, null,
+                InitialPosition.TRIM_HORIZON, Duration.ofSeconds(10), false);
+
+        List<KinesisUserRecord> records = consumer.consume(STREAM_ARN, "consumer")
+                .select().first(3)
+                .collect().asList()
+                .await().atMost(Duration.ofMinutes(1));
+
+        // the records of the last event of the parent are emitted before the child is read
+        assertEquals(List.of("parent-1", "parent-2", "child-1"),
+                records.stream().map(record -> record.data().asUtf8String()).toList());
+        assertEquals(PARENT, records.get(1).shardId());
+        assertEquals(CHILD, records.get(2).shardId());
+        // the parent is not subscribed again once its last event is received
+        assertEquals(1, stub.subscriptions.get(PARENT).get());
+        consumer.close();
+    }
+
+    private static Record record(String sequenceNumber, String data) {
+        return Record.builder()
+                .sequenceNumber(sequenceNumber)
+                .partitionKey("key")
+                .data(SdkBytes.fromUtf8String(data))
+                .approximateArrivalTimestamp(Instant.now())
+                .build();
+    }
+
+    private static final class StubKinesisClient implements KinesisAsyncClient {
+
+        private final Map<String, AtomicInteger> subscriptions = new ConcurrentHashMap<>();
+
+        @Override
+        public CompletableFuture<DescribeStreamConsumerResponse> describeStreamConsumer(
+                DescribeStreamConsumerRequest request) {
+            return CompletableFuture.completedFuture(DescribeStreamConsumerResponse.builder()
+                    .consumerDescription(d -> d.consumerARN(STREAM_ARN + "/consumer/consumer:1")
+                            .consumerStatus(ConsumerStatus.ACTIVE))
+                    .build());
+        }
+
+        @Override
+        public CompletableFuture<ListShardsResponse> listShards(ListShardsRequest request) {
+            return CompletableFuture.completedFuture(ListShardsResponse.builder()
+                    .shards(Shard.builder()
+                            .shardId(PARENT)
+                            .sequenceNumberRange(r -> r.startingSequenceNumber("1").endingSequenceNumber("2"))
+                            .build(),
+                            Shard.builder()
+                                    .shardId(CHILD)
+                                    .parentShardId(PARENT)
+                                    .sequenceNumberRange(r -> r.startingSequenceNumber("3"))
+                                    .build())
+                    .build());
+        }
+
+        @Override
+        public CompletableFuture<Void> subscribeToShard(SubscribeToShardRequest request,
+                SubscribeToShardResponseHandler handler) {
+            subscriptions.computeIfAbsent(request.shardId(), id -> new AtomicInteger()).incrementAndGet();
+            List<SubscribeToShardEvent> events = new ArrayList<>();
+            if (request.shardId().equals(PARENT)) {
+                events.add(SubscribeToShardEvent.builder()
+                        .records(record("1", "parent-1"))
+                        .continuationSequenceNumber("1")
+                        .millisBehindLatest(0L)
+                        .build());
+                // the last event of the closed shard carries its last record
+                events.add(SubscribeToShardEvent.builder()
+                        .records(record("2", "parent-2"))
+                        .childShards(ChildShard.builder().shardId(CHILD).parentShards(PARENT).build())
+                        .millisBehindLatest(0L)
+                        .build());
+            } else {
+                events.add(SubscribeToShardEvent.builder()
+                        .records(record("3", "child-1"))
+                        .continuationSequenceNumber("3")
+                        .millisBehindLatest(0L)
+                        .build());
+            }
+            handler.responseReceived(SubscribeToShardResponse.builder().build());
+            // the stream of the open child stays open until it is cancelled
+            handler.onEventStream(new EventPublisher(events, request.shardId().equals(PARENT)));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class EventPublisher implements SdkPublisher<SubscribeToShardEventStream> {
+
+        private final List<SubscribeToShardEvent> events;
+        private final boolean completes;
+
+        private EventPublisher(List<SubscribeToShardEvent> events, boolean completes) {
+            this.events = events;
+            this.completes = completes;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super SubscribeToShardEventStream> subscriber) {
+            subscriber.onSubscribe(new Subscription() {
+                private int next;
+                private boolean done;
+
+                @Override
+                public synchronized void request(long n) {
+                    for (long i = 0; i < n && next < events.size(); i++) {
+                        subscriber.onNext(events.get(next++));
+                    }
+                    if (completes && next == events.size() && !done) {
+                        done = true;
+                        subscriber.onComplete();
+                    }
+                }
+
+                @Override
+                public synchronized void cancel() {
+                    next = events.size();
+                    done = true;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds and reads the records aggregating user records in the format of the Kinesis Producer Library, so that they
+ * are exchanged with the Kinesis Producer and Client Libraries and the other producers and consumers supporting it.
+ * <p>
+ * An aggregated record is made of 4 magic bytes, the {@code AggregatedRecord} protobuf message and the MD5 digest of the
+ * message. The message holds the table of the partition keys of the user records and the user records, each referencing
+ * its partition key in the table. The message is encoded directly, without depending on protobuf.
+ */
+final class KinesisAggregatedRecord {
+
+    static final byte[] MAGIC = { (byte) 0xF3, (byte) 0x89, (byte) 0x9A, (byte) 0xC2 };
+    static final int DIGEST_LENGTH = 16;
+    // the magic bytes and the digest around the protobuf message
+    static final int OVERHEAD = MAGIC.length + DIGEST_LENGTH;
+
+    // the field tags of the AggregatedRecord and Record messages, with the length delimited or varint wire type
+    private static final int PARTITION_KEY_TABLE_TAG = 1 << 3 | 2;
+    private static final int RECORDS_TAG = 3 << 3 | 2;
+    private static final int PARTITION_KEY_INDEX_TAG = 1 << 3;
+    private static final int DATA_TAG = 3 << 3 | 2;
+
+    // the wire types of the fields
+    private static final int VARINT = 0;
+    private static final int FIXED64 = 1;
+    private static final int LENGTH_DELIMITED = 2;
+    private static final int FIXED32 = 5;
+
+    private final Map<String, Integer> partitionKeys = new LinkedHashMap<>();
+    private final List<byte[]> partitionKeyBytes = new ArrayList<>();
+    private final List<byte[]> data = new ArrayList<>();
+    private final List<Integer> partitionKeyIndexes = new ArrayList<>();
+
+    // the size of the protobuf message
+    private int messageSize;
+
+    /**
+     * @return the size of an aggregated record holding only the user record, magic bytes and digest included
+     */
+    static int sizeOf(int partitionKeyLength, int dataLength) {
+        return OVERHEAD + lengthDelimitedSize(partitionKeyLength) + lengthDelimitedSize(recordSize(0, dataLength));
+    }
+
+    /**
+     * @return the size of the aggregated record once the user record is added, magic bytes and digest included
+     */
+    int sizeWith(String partitionKey, byte[] userData) {
+        int size = OVERHEAD + messageSize;
+        Integer index = partitionKeys.get(partitionKey);
+        if (index == null) {
+            index = partitionKeys.size();
+            size += lengthDelimitedSize(partitionKey.getBytes(StandardCharsets.UTF_8).length);
+        }
+        return size + lengthDelimitedSize(recordSize(index, userData.length));
+    }
+
+    void add(String partitionKey, byte[] userData) {
+        Integer index = partitionKeys.get(partitionKey);
+        if (index == null) {
+            index = partitionKeys.size();
+            byte[] bytes = partitionKey.getBytes(StandardCharsets.UTF_8);
+            partitionKeys.put(partitionKey, index);
+            partitionKeyBytes.add(bytes);
+            messageSize += lengthDelimitedSize(bytes.length);
+        }
+        partitionKeyIndexes.add(index);
+        data.add(userData);
+        messageSize += lengthDelimitedSize(recordSize(index, userData.length));
+    }
+
+    int size() {
+        return data.size();
+    }
+
+    byte[] toByteArray() {
+        byte[] bytes = new byte[OVERHEAD + messageSize];
+        System.arraycopy(MAGIC, 0, bytes, 0, MAGIC.length);
+        int position = MAGIC.length;
+        for (byte[] partitionKey : partitionKeyBytes) {
+            position = writeVarint(bytes, position, PARTITION_KEY_TABLE_TAG);
+            position = writeVarint(bytes, position, partitionKey.length);
+            System.arraycopy(partitionKey, 0, bytes, position, partitionKey.length);
+            position += partitionKey.length;
+        }
+        for (int i = 0; i < data.size(); i++) {
+            byte[] userData = data.get(i);
+            int index = partitionKeyIndexes.get(i);
+            position = writeVarint(bytes, position, RECORDS_TAG);
+            position = writeVarint(bytes, position, recordSize(index, userData.length));
+            position = writeVarint(bytes, position, PARTITION_KEY_INDEX_TAG);
+            position = writeVarint(bytes, position, index);
+            position = writeVarint(bytes, position, DATA_TAG);
+            position = writeVarint(bytes, position, userData.length);
+            System.arraycopy(userData, 0, bytes, position, userData.length);
+            position += userData.length;
+        }
+
+        MessageDigest md5 = md5();
+        md5.update(bytes, MAGIC.length, messageSize);
+        System.arraycopy(md5.digest(), 0, bytes, position, DIGEST_LENGTH);
+        return bytes;
+    }
+
+    /**
+     * Reads the user records of an aggregated record.
+     *
+     * @return the user records, or {@code null} if the record is not an aggregated record
+     */
+    static List<UserData> deaggregate(byte[] bytes) {
+        if (bytes.length < OVERHEAD
+                || !Arrays.equals(bytes, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            return null;
+        }
+        int end = bytes.length - DIGEST_LENGTH;
+        MessageDigest md5 = md5();
+        md5.update(bytes, MAGIC.length, end - MAGIC.length);
+        if (!Arrays.equals(md5.digest(), 0, DIGEST_LENGTH, bytes, end, bytes.length)) {
+            // records starting with the magic bytes by chance are not aggregated records
+            return null;
+        }
+
+        try {
+            List<String> partitionKeys = new ArrayList<>();
+            List<Integer> partitionKeyIndexes = new ArrayList<>();
+            List<byte[]> data = new ArrayList<>();
+            Reader reader = new Reader(bytes, MAGIC.length, end);
+            while (reader.position < end) {
+                int tag = (int) reader.varint();
+                if (tag == PARTITION_KEY_TABLE_TAG) {
+                    int length = (int) reader.varint();
+                    partitionKeys.add(new String(bytes, reader.position, length, StandardCharsets.UTF_8));
+                    reader.position += length;
+                } else if (tag == RECORDS_TAG) {
+                    int recordEnd = (int) reader.varint() + reader.position;
+                    int partitionKeyIndex = 0;
+                    byte[] userData = new byte[0];
+                    while (reader.position < recordEnd) {
+                        int recordTag = (int) reader.varint();
+                        if (recordTag == PARTITION_KEY_INDEX_TAG) {
+                            partitionKeyIndex = (int) reader.varint();
+                        } else if (recordTag == DATA_TAG) {
+                            int length = (int) reader.varint();
+                            userData = Arrays.copyOfRange(bytes, reader.position, reader.position + length);
+                            reader.position += length;
+                        } else {
+                            // the explicit hash key index and the tags
+                            reader.skip(recordTag & 7);
+                        }
+                    }
+                    partitionKeyIndexes.add(partitionKeyIndex);
+                    data.add(userData);
+                } else {
+                    // the explicit hash key table
+                    reader.skip(tag & 7);
+                }
+            }
+
+            // the partition key table may follow the records
+            List<UserData> userRecords = new ArrayList<>(data.size());
+            for (int i = 0; i < data.size(); i++) {
+                userRecords.add(new UserData(partitionKeys.get(partitionKeyIndexes.get(i)), data.get(i)));
+            }
+            return userRecords;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static int recordSize(int partitionKeyIndex, int dataLength) {
+        return 1 + varintSize(partitionKeyIndex) + lengthDelimitedSize(dataLength);
+    }
+
+    // the size of a length delimited field with a single byte tag
+    private static int lengthDelimitedSize(int length) {
+        return 1 + varintSize(length) + length;
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarint(byte[] bytes, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[position++] = (byte) value;
+        return position;
+    }
+
+    /**
+     * A user record read from an aggregated record.
+     */
+    static final class UserData {
+        final String partitionKey;
+        final byte[] data;
+
+        UserData(String partitionKey, byte[] data) {
+            this.partitionKey = partitionKey;
+            this.data = data;
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private final int end;
+        private int position;
+
+        private Reader(byte[] bytes, int position, int end) {
+            this.bytes = bytes;
+            this.position = position;
+            this.end = end;
+        }
+
+        long varint() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (position >= end) {
+                    throw new IndexOutOfBoundsException(position);
+                }
+                byte b = bytes[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IndexOutOfBoundsException(position);
+        }
+
+        void skip(int wireType) {
+            if (wireType == VARINT) {
+                varint();
+            } else if (wireType == FIXED64) {
+                position += 8;
+            } else if (wireType == LENGTH_DELIMITED) {
+                position += (int) varint();
+            } else if (wireType == FIXED32) {
+                position += 4;
+            } else {
+                throw new IndexOutOfBoundsException(position);
+            }
+            if (position > end) {
+                throw new IndexOutOfBoundsException(position);
+            }
+        }
+    }
+}
@@ -0,0 +1,510 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.quarkiverse.amazon.common.runtime.BatchUtil;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.KinesisException;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsRequestEntry;
+import software.amazon.awssdk.services.kinesis.model.PutRecordsResultEntry;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardFilterType;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Sends user records to Kinesis streams with {@code PutRecords} requests, aggregating the small user records sent to
+ * the same shard into records in the format of the Kinesis Producer Library.
+ * <p>
+ * The shard of a user record is predicted from the MD5 hash of its partition key and the hash key ranges of the open
+ * shards of the stream, which are listed on the first record sent to the stream and again whenever a record is written
+ * to another shard than the predicted one. An aggregated record is sent with the partition key of its first user record
+ * and the hash key of this partition key as explicit hash key, so that it is written to the predicted shard.
+ * <p>
+ * The records of a stream are sent once a {@code PutRecords} request is full, or once the linger time elapsed since
+ * the first pending record of the stream was added. The records which failed because of throttling or an internal
+ * failure are sent again after a backoff. The user records are rejected while the size of the buffered user records
+ * exceeds the maximum buffered size.
+ * <p>
+ * Once the producer is closed, the records are sent as soon as they are added, and the records waiting for their
+ * backoff are sent immediately, without being retried again.
+ */
+public class KinesisAggregatingProducer implements SdkAutoCloseable {
+
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+
+    private final KinesisAsyncClient client;
+    private final ScheduledExecutorService scheduler;
+    private final boolean aggregationEnabled;
+    private final int maxAggregatedBytes;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long lingerNanos;
+    private final long maxBufferedBytes;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+
+    private final Map<String, Stream> streams = new ConcurrentHashMap<>();
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    // the records waiting for their backoff, with their stream
+    private final Map<Entry, Stream> retries = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private final LongAdder userRecords = new LongAdder();
+    private final LongAdder records = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public KinesisAggregatingProducer(KinesisAsyncClient client, ScheduledExecutorService scheduler,
+            KinesisProducerConfig config) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.aggregationEnabled = config.aggregationEnabled();
+        this.maxAggregatedBytes = (int) Math.min(config.maxAggregatedBytes().asLongValue(), MAX_RECORD_BYTES);
+        this.maxBatchSize = config.maxBatchSize();
+        this.maxBatchBytes = config.maxBatchBytes().asLongValue();
+        this.lingerNanos = config.linger().toNanos();
+        this.maxBufferedBytes = config.maxBufferedBytes().asLongValue();
+        this.maxRetries = config.maxRetries();
+        this.retryBackoffNanos = config.retryBackoff().toNanos();
+        this.maxRetryBackoffNanos = config.maxRetryBackoff().toNanos();
+    }
+
+    /**
+     * Sends a user record, aggregated with the other user records sent to the same shard if the aggregation is enabled.
+     *
+     * @param streamName the stream
+     * @param partitionKey the partition key of the record
+     * @param data the data of the record
+     * @return the result of the user record once sent
+     */
+    public CompletableFuture<UserRecordResult> addUserRecord(String streamName, String partitionKey, SdkBytes data) {
+        UserRecord record = new UserRecord(partitionKey, data);
+        if (record.size > MAX_RECORD_BYTES) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "The record size " + record.size + " exceeds the maximum record size " + MAX_RECORD_BYTES));
+        }
+        if (bufferedBytes.addAndGet(record.size) > maxBufferedBytes) {
+            bufferedBytes.addAndGet(-record.size);
+            rejected.increment();
+            return CompletableFuture.failedFuture(KinesisException.builder()
+                    .message("The maximum buffered size " + maxBufferedBytes + " is reached")
+                    .build());
+        }
+        userRecords.increment();
+
+        Stream stream = streams.computeIfAbsent(streamName, Stream::new);
+        if (!aggregationEnabled) {
+            stream.add(record, null);
+        } else {
+            stream.shardMap().whenComplete((shardMap, failure) -> {
+                if (failure != null) {
+                    failed(record, failure);
+                } else {
+                    stream.add(record, shardMap.shardId(record.hashKey()));
+                }
+            });
+        }
+        return record.result;
+    }
+
+    /**
+     * Sends the pending records.
+     */
+    public void flush() {
+        streams.values().forEach(Stream::flush);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Entry entry : retries.keySet()) {
+            Stream stream = retries.remove(entry);
+            if (stream != null) {
+                if (entry.retry != null) {
+                    entry.retry.cancel(false);
+                }
+                stream.resend(entry);
+            }
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of added user records
+     */
+    public long userRecords() {
+        return userRecords.sum();
+    }
+
+    /**
+     * @return the number of sent Kinesis records, aggregated or not
+     */
+    public long records() {
+        return records.sum();
+    }
+
+    /**
+     * @return the number of {@code PutRecords} requests
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of records sent again after throttling or an internal failure
+     */
+    public long retried() {
+        return retried.sum();
+    }
+
+    /**
+     * @return the number of user records which could not be sent
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the number of user records rejected because the maximum buffered size was reached
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the total size of the user records waiting to be sent or being sent
+     */
+    public long bufferedBytes() {
+        return bufferedBytes.get();
+    }
+
+    private void failed(UserRecord record, Throwable failure) {
+        bufferedBytes.addAndGet(-record.size);
+        failed.increment();
+        record.result.completeExceptionally(failure);
+    }
+
+    private final class Stream {
+
+        private final String name;
+
+        private volatile CompletableFuture<ShardMap> shardMap;
+
+        // guarded by this
+        private final Map<String, Aggregate> aggregates = new HashMap<>();
+        private List<Entry> ready = new ArrayList<>();
+        private long readyBytes;
+        private ScheduledFuture<?> scheduledFlush;
+
+        private Stream(String name) {
+            this.name = name;
+        }
+
+        CompletableFuture<ShardMap> shardMap() {
+            CompletableFuture<ShardMap> current = shardMap;
+            if (current == null || current.isCompletedExceptionally()) {
+                synchronized (this) {
+                    current = shardMap;
+                    if (current == null || current.isCompletedExceptionally()) {
+                        current = listShards(ListShardsRequest.builder()
+                                .streamName(name)
+                                .shardFilter(f -> f.type(ShardFilterType.AT_LATEST))
+                                .build(), new ArrayList<>())
+                                .thenApply(ShardMap::new);
+                        shardMap = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        private CompletableFuture<List<Shard>> listShards(ListShardsRequest request, List<Shard> shards) {
+            return client.listShards(request).thenCompose(response -> {
+                shards.addAll(response.shards());
+                if (response.nextToken() == null) {
+                    return CompletableFuture.completedFuture(shards);
+                }
+                return listShards(ListShardsRequest.builder().nextToken(response.nextToken()).build(), shards);
+            });
+        }
+
+        void add(UserRecord record, String shardId) {
+            List<List<Entry>> batches = new ArrayList<>(1);
+            synchronized (this) {
+                // the size of a Kinesis record includes its partition key, the magic bytes and the digest of an
+                // aggregated record, a user record too large to be aggregated alone is sent as is
+                if (shardId == null || KinesisAggregatedRecord.sizeOf(record.partitionKeyLength,
+                        record.data.asByteArrayUnsafe().length) + record.partitionKeyLength > maxAggregatedBytes) {
+                    ready(new Entry(List.of(record), record.partitionKey, null, record.data, null), batches);
+                } else {
+                    Aggregate aggregate = aggregates.get(shardId);
+                    if (aggregate != null && aggregate.record.sizeWith(record.partitionKey,
+                            record.data.asByteArrayUnsafe()) + aggregate.partitionKeyLength > maxAggregatedBytes) {
+                        aggregates.remove(shardId);
+                        ready(aggregate.toEntry(), batches);
+                        aggregate = null;
+                    }
+                    if (aggregate == null) {
+                        aggregate = new Aggregate(shardId, record);
+                        aggregates.put(shardId, aggregate);
+                    }
+                    aggregate.add(record);
+                }
+                scheduleFlush(batches);
+            }
+            batches.forEach(this::send);
+        }
+
+        void retry(Entry entry) {
+            // unless already sent by close
+            if (retries.remove(entry) != null) {
+                resend(entry);
+            }
+        }
+
+        void resend(Entry entry) {
+            List<List<Entry>> batches = new ArrayList<>(1);
+            synchronized (this) {
+                ready(entry, batches);
+                scheduleFlush(batches);
+            }
+            batches.forEach(this::send);
+        }
+
+        void flush() {
+            List<List<Entry>> batches = new ArrayList<>();
+            synchronized (this) {
+                drain(batches);
+            }
+            batches.forEach(this::send);
+        }
+
+        // guarded by this
+        private void drain(List<List<Entry>> batches) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            for (Aggregate aggregate : aggregates.values()) {
+                ready(aggregate.toEntry(), batches);
+            }
+            aggregates.clear();
+            if (!ready.isEmpty()) {
+                batches.add(ready);
+                ready = new ArrayList<>();
+                readyBytes = 0;
+            }
+        }
+
+        // guarded by this
+        private void scheduleFlush(List<List<Entry>> batches) {
+            if (closed) {
+                drain(batches);
+            } else if (scheduledFlush == null && (!ready.isEmpty() || !aggregates.isEmpty())) {
+                try {
+                    scheduledFlush = scheduler.schedule(this::flush, lingerNanos, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the scheduler is shut down
+                    drain(batches);
+                }
+            }
+        }
+
+        // guarded by this
+        private void ready(Entry entry, List<List<Entry>> batches) {
+            if (!ready.isEmpty() && readyBytes + entry.size > maxBatchBytes) {
+                batches.add(ready);
+                ready = new ArrayList<>();
+                readyBytes = 0;
+            }
+            ready.add(entry);
+            readyBytes += entry.size;
+            if (ready.size() >= maxBatchSize) {
+                batches.add(ready);
+                ready = new ArrayList<>();
+                readyBytes = 0;
+            }
+        }
+
+        private void send(List<Entry> batch) {
+            List<PutRecordsRequestEntry> requestEntries = new ArrayList<>(batch.size());
+            for (Entry entry : batch) {
+                requestEntries.add(PutRecordsRequestEntry.builder()
+                        .partitionKey(entry.partitionKey)
+                        .explicitHashKey(entry.explicitHashKey)
+                        .data(entry.data)
+                        .build());
+            }
+
+            requests.increment();
+            BatchUtil.send(() -> client.putRecords(r -> r.streamName(name).records(requestEntries)),
+                    result -> {
+                        // the result entries are in the order of the request entries
+                        List<PutRecordsResultEntry> resultEntries = result.records();
+                        for (int i = 0; i < batch.size(); i++) {
+                            completed(batch.get(i), resultEntries.get(i));
+                        }
+                    },
+                    failure -> batch.forEach(entry -> entry.userRecords.forEach(record -> failed(record, failure))));
+        }
+
+        private void completed(Entry entry, PutRecordsResultEntry result) {
+            if (result.errorCode() == null) {
+                records.increment();
+                if (entry.shardId != null && !entry.shardId.equals(result.shardId())) {
+                    // the shards changed, the next records are aggregated with the new shards
+                    shardMap = null;
+                }
+                for (int i = 0; i < entry.userRecords.size(); i++) {
+                    UserRecord record = entry.userRecords.get(i);
+                    bufferedBytes.addAndGet(-record.size);
+                    record.result.complete(new UserRecordResult(result.shardId(), result.sequenceNumber(), i));
+                }
+                return;
+            }
+
+            // ProvisionedThroughputExceededException and InternalFailure are the only errors of the entries
+            if (entry.attempts < maxRetries && !closed) {
+                long backoff = BatchUtil.backoff(retryBackoffNanos, entry.attempts, maxRetryBackoffNanos);
+                entry.attempts++;
+                retries.put(entry, this);
+                try {
+                    entry.retry = scheduler.schedule(() -> retry(entry), backoff, TimeUnit.NANOSECONDS);
+                    retried.increment();
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // the scheduler is shut down
+                    retries.remove(entry);
+                    entry.userRecords.forEach(record -> failed(record, e));
+                    return;
+                }
+            }
+            KinesisException failure = KinesisException.builder()
+                    .message(result.errorCode() + ": " + result.errorMessage())
+                    .build();
+            entry.userRecords.forEach(record -> failed(record, failure));
+        }
+    }
+
+    private final class Aggregate {
+
+        private final String shardId;
+        private final String partitionKey;
+        private final int partitionKeyLength;
+        private final String explicitHashKey;
+        private final KinesisAggregatedRecord record = new KinesisAggregatedRecord();
+        private final List<UserRecord> userRecords = new ArrayList<>();
+
+        private Aggregate(String shardId, UserRecord first) {
+            this.shardId = shardId;
+            this.partitionKey = first.partitionKey;
+            this.partitionKeyLength = first.partitionKeyLength;
+            this.explicitHashKey = first.hashKey().toString();
+        }
+
+        void add(UserRecord userRecord) {
+            record.add(userRecord.partitionKey, userRecord.data.asByteArrayUnsafe());
+            userRecords.add(userRecord);
+        }
+
+        Entry toEntry() {
+            if (userRecords.size() == 1) {
+                // a single user record is sent as is
+                UserRecord userRecord = userRecords.get(0);
+                return new Entry(userRecords, userRecord.partitionKey, null, userRecord.data, shardId);
+            }
+            return new Entry(userRecords, partitionKey, explicitHashKey,
+                    SdkBytes.fromByteArrayUnsafe(record.toByteArray()), shardId);
+        }
+    }
+
+    private static final class Entry {
+        private final List<UserRecord> userRecords;
+        private final String partitionKey;
+        private final String explicitHashKey;
+        private final SdkBytes data;
+        private final String shardId;
+        private final long size;
+        private int attempts;
+        private volatile ScheduledFuture<?> retry;
+
+        private Entry(List<UserRecord> userRecords, String partitionKey, String explicitHashKey, SdkBytes data,
+                String shardId) {
+            this.userRecords = userRecords;
+            this.partitionKey = partitionKey;
+            this.explicitHashKey = explicitHashKey;
+            this.data = data;
+            this.shardId = shardId;
+            this.size = data.asByteArrayUnsafe().length + partitionKey.getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    private static final class UserRecord {
+        private final String partitionKey;
+        private final int partitionKeyLength;
+        private final SdkBytes data;
+        private final long size;
+        private final CompletableFuture<UserRecordResult> result = new CompletableFuture<>();
+
+        private UserRecord(String partitionKey, SdkBytes data) {
+            this.partitionKey = partitionKey;
+            this.partitionKeyLength = partitionKey.getBytes(StandardCharsets.UTF_8).length;
+            this.data = data;
+            this.size = data.asByteArrayUnsafe().length + partitionKeyLength;
+        }
+
+        BigInteger hashKey() {
+            return new BigInteger(1, KinesisAggregatedRecord.md5().digest(partitionKey.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * The hash key ranges of the open shards of a stream.
+     */
+    private static final class ShardMap {
+
+        private final BigInteger[] startingHashKeys;
+        private final String[] shardIds;
+
+        private ShardMap(List<Shard> shards) {
+            List<Shard> sorted = new ArrayList<>(shards);
+            sorted.sort((a, b) -> new BigInteger(a.hashKeyRange().startingHashKey())
+                    .compareTo(new BigInteger(b.hashKeyRange().startingHashKey())));
+            startingHashKeys = new BigInteger[sorted.size()];
+            shardIds = new String[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                startingHashKeys[i] = new BigInteger(sorted.get(i).hashKeyRange().startingHashKey());
+                shardIds[i] = sorted.get(i).shardId();
+            }
+        }
+
+        String shardId(BigInteger hashKey) {
+            if (shardIds.length == 0) {
+                return null;
+            }
+            int index = Arrays.binarySearch(startingHashKeys, hashKey);
+            // the shard with the greatest starting hash key lower than the hash key
+            return shardIds[index >= 0 ? index : Math.max(0, -index - 2)];
+        }
+    }
+}
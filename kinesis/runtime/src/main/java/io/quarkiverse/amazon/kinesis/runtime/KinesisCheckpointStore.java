@@ -0,0 +1,78 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+/**
+ * Stores the checkpoints of the shards consumed by the {@link KinesisFanOutConsumer} in a DynamoDB table.
+ * <p>
+ * The items are keyed by the consumer name and the shard id in the {@code key} partition key, and hold the sequence
+ * number and sub-sequence number of the last processed user record, or {@code SHARD_END} once all the records of a
+ * closed shard were processed.
+ */
+public class KinesisCheckpointStore {
+
+    static final String SHARD_END = "SHARD_END";
+
+    private static final String KEY = "key";
+    private static final String SEQUENCE_NUMBER = "sequenceNumber";
+    private static final String SUB_SEQUENCE_NUMBER = "subSequenceNumber";
+
+    private final DynamoDbAsyncClient client;
+    private final String table;
+
+    public KinesisCheckpointStore(DynamoDbAsyncClient client, String table) {
+        this.client = client;
+        this.table = table;
+    }
+
+    /**
+     * @return the checkpoint of the shard, or {@code null} if the shard has no checkpoint
+     */
+    CompletableFuture<Checkpoint> load(String consumerName, String shardId) {
+        return client.getItem(r -> r.tableName(table)
+                .key(Map.of(KEY, AttributeValue.fromS(key(consumerName, shardId))))
+                .consistentRead(true))
+                .thenApply(response -> {
+                    if (!response.hasItem() || !response.item().containsKey(SEQUENCE_NUMBER)) {
+                        return null;
+                    }
+                    Map<String, AttributeValue> item = response.item();
+                    AttributeValue subSequenceNumber = item.get(SUB_SEQUENCE_NUMBER);
+                    return new Checkpoint(item.get(SEQUENCE_NUMBER).s(),
+                            subSequenceNumber != null ? Long.parseLong(subSequenceNumber.n()) : 0);
+                });
+    }
+
+    CompletableFuture<Void> save(String consumerName, String shardId, Checkpoint checkpoint) {
+        return client.putItem(r -> r.tableName(table)
+                .item(Map.of(KEY, AttributeValue.fromS(key(consumerName, shardId)),
+                        SEQUENCE_NUMBER, AttributeValue.fromS(checkpoint.sequenceNumber),
+                        SUB_SEQUENCE_NUMBER, AttributeValue.fromN(Long.toString(checkpoint.subSequenceNumber)))))
+                .thenApply(response -> null);
+    }
+
+    private static String key(String consumerName, String shardId) {
+        return consumerName + "/" + shardId;
+    }
+
+    static final class Checkpoint {
+
+        static final Checkpoint SHARD_END = new Checkpoint(KinesisCheckpointStore.SHARD_END, 0);
+
+        final String sequenceNumber;
+        final long subSequenceNumber;
+
+        Checkpoint(String sequenceNumber, long subSequenceNumber) {
+            this.sequenceNumber = sequenceNumber;
+            this.subSequenceNumber = subSequenceNumber;
+        }
+
+        boolean isShardEnd() {
+            return KinesisCheckpointStore.SHARD_END.equals(sequenceNumber);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package io.quarkiverse.amazon.kinesis.runtime;
 
+import java.util.Map;
+
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.runtime.annotations.ConfigDocMapKey;
 import io.quarkus.runtime.annotations.ConfigDocSection;
 import io.quarkus.runtime.annotations.ConfigPhase;
 import io.quarkus.runtime.annotations.ConfigRoot;
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefaults;
+import io.smallrye.config.WithUnnamedKey;
 
 @ConfigRoot(phase = ConfigPhase.RUN_TIME)
 @ConfigMapping(prefix = "quarkus.kinesis")
@@ -22,4 +28,22 @@ public interface KinesisConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Aggregating producer configurations, per client
+     */
+    @ConfigDocSection
+    @ConfigDocMapKey("client-name")
+    @WithDefaults
+    @WithUnnamedKey(ClientUtil.DEFAULT_CLIENT_NAME)
+    Map<String, KinesisProducerConfig> producer();
+
+    /**
+     * Enhanced fan-out consumer configurations, per client
+     */
+    @ConfigDocSection
+    @ConfigDocMapKey("client-name")
+    @WithDefaults
+    @WithUnnamedKey(ClientUtil.DEFAULT_CLIENT_NAME)
+    Map<String, KinesisConsumerConfig> consumer();
 }
@@ -0,0 +1,55 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface KinesisConsumerConfig {
+
+    /**
+     * The name of the enhanced fan-out consumer registered on the consumed streams.
+     * <p>
+     * The consumer is registered if it does not exist yet.
+     */
+    Optional<String> consumerName();
+
+    /**
+     * The position in the shards without checkpoint the records are read from.
+     */
+    @WithDefault("latest")
+    InitialPosition initialPosition();
+
+    /**
+     * The name of the DynamoDB table storing the checkpoints, with a `key` string partition key.
+     * <p>
+     * The checkpoints are stored with the default client of the `quarkus-amazon-dynamodb` extension. The checkpoints
+     * are only kept in memory if not set.
+     */
+    Optional<String> checkpointTable();
+
+    /**
+     * The interval between the writes of the checkpoints of the shards.
+     */
+    @WithDefault("10S")
+    Duration checkpointInterval();
+
+    /**
+     * Whether the records aggregated in the format of the Kinesis Producer Library are deaggregated into user records.
+     */
+    @WithDefault("true")
+    boolean deaggregationEnabled();
+
+    enum InitialPosition {
+        /**
+         * The records added after the subscription
+         */
+        LATEST,
+        /**
+         * The oldest records of the shards
+         */
+        TRIM_HORIZON
+    }
+}
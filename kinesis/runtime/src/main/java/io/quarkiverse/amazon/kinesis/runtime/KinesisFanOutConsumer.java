@@ -0,0 +1,632 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.quarkiverse.amazon.kinesis.runtime.KinesisCheckpointStore.Checkpoint;
+import io.quarkiverse.amazon.kinesis.runtime.KinesisConsumerConfig.InitialPosition;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
+import software.amazon.awssdk.services.kinesis.model.ChildShard;
+import software.amazon.awssdk.services.kinesis.model.ConsumerStatus;
+import software.amazon.awssdk.services.kinesis.model.ListShardsRequest;
+import software.amazon.awssdk.services.kinesis.model.Record;
+import software.amazon.awssdk.services.kinesis.model.ResourceInUseException;
+import software.amazon.awssdk.services.kinesis.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.kinesis.model.Shard;
+import software.amazon.awssdk.services.kinesis.model.ShardIteratorType;
+import software.amazon.awssdk.services.kinesis.model.StartingPosition;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardEvent;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardRequest;
+import software.amazon.awssdk.services.kinesis.model.SubscribeToShardResponseHandler;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Consumes Kinesis streams with an enhanced fan-out consumer, receiving the records of each shard over a
+ * {@code SubscribeToShard} HTTP/2 stream.
+ * <p>
+ * The consumer is registered on the stream if it does not exist yet. A subscription is opened on each shard which has
+ * no parent shard left to read, and is opened again when it ends after 5 minutes or fails, after the last received
+ * record. The child shards of a closed shard are read once all the records of their parents were emitted. The records
+ * are requested from the shards as they are requested by the subscriber of the returned {@link Multi}.
+ * <p>
+ * The application marks the processed records with {@link KinesisUserRecord#checkpoint()}. The checkpoints are written
+ * periodically to a DynamoDB table if configured, and the shards are read again from their checkpoint after a restart.
+ * The shards are not leased: all the shards of a stream are read by each consumption.
+ * <p>
+ * Closing the consumer ends the ongoing consumptions: their subscriptions are cancelled, their {@link Multi} completes
+ * and their checkpoints are written.
+ */
+public class KinesisFanOutConsumer implements SdkAutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(KinesisFanOutConsumer.class);
+
+    // the maximum number of shards read concurrently by a consumption
+    private static final int MAX_SHARDS = 1024;
+    // the maximum time waited for the checkpoints to be written when closing
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(10);
+
+    private final KinesisAsyncClient client;
+    private final ScheduledExecutorService scheduler;
+    private final KinesisCheckpointStore checkpointStore;
+    private final String defaultConsumerName;
+    private final InitialPosition initialPosition;
+    private final Duration checkpointInterval;
+    private final boolean deaggregationEnabled;
+
+    private final Set<Consumption> consumptions = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder subscriptions = new LongAdder();
+    private final LongAdder events = new LongAdder();
+    private final LongAdder userRecords = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+
+    public KinesisFanOutConsumer(KinesisAsyncClient client, ScheduledExecutorService scheduler,
+            KinesisCheckpointStore checkpointStore, String defaultConsumerName, InitialPosition initialPosition,
+            Duration checkpointInterval, boolean deaggregationEnabled) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.checkpointStore = checkpointStore;
+        this.defaultConsumerName = defaultConsumerName;
+        this.initialPosition = initialPosition;
+        this.checkpointInterval = checkpointInterval;
+        this.deaggregationEnabled = deaggregationEnabled;
+    }
+
+    /**
+     * Consumes a stream with the configured consumer.
+     *
+     * @param streamArn the ARN of the stream
+     * @return the user records of the shards of the stream
+     */
+    public Multi<KinesisUserRecord> consume(String streamArn) {
+        if (defaultConsumerName == null) {
+            return Multi.createFrom()
+                    .failure(new IllegalStateException("quarkus.kinesis.consumer.consumer-name is not configured"));
+        }
+        return consume(streamArn, defaultConsumerName);
+    }
+
+    /**
+     * Consumes a stream with an enhanced fan-out consumer, registered if it does not exist yet.
+     *
+     * @param streamArn the ARN of the stream
+     * @param consumerName the name of the consumer
+     * @return the user records of the shards of the stream
+     */
+    public Multi<KinesisUserRecord> consume(String streamArn, String consumerName) {
+        return consumerArn(streamArn, consumerName)
+                .onItem().transformToMulti(consumerArn -> new Consumption(streamArn, consumerArn, consumerName).records());
+    }
+
+    /**
+     * Ends the ongoing consumptions and writes their checkpoints.
+     */
+    @Override
+    public void close() {
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        consumptions.forEach(consumption -> written.add(consumption.stop()));
+        try {
+            CompletableFuture.allOf(written.toArray(CompletableFuture[]::new))
+                    .get(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            LOG.warnf("The checkpoints were not written within %s", CLOSE_TIMEOUT);
+        }
+    }
+
+    /**
+     * @return the number of {@code SubscribeToShard} subscriptions
+     */
+    public long subscriptions() {
+        return subscriptions.sum();
+    }
+
+    /**
+     * @return the number of received {@code SubscribeToShard} events
+     */
+    public long events() {
+        return events.sum();
+    }
+
+    /**
+     * @return the number of emitted user records
+     */
+    public long userRecords() {
+        return userRecords.sum();
+    }
+
+    /**
+     * @return the number of written checkpoints
+     */
+    public long checkpoints() {
+        return checkpoints.sum();
+    }
+
+    private Uni<String> consumerArn(String streamArn, String consumerName) {
+        return describeConsumer(streamArn, consumerName)
+                .onFailure(ResourceNotFoundException.class).recoverWithUni(() -> Uni.createFrom()
+                        .completionStage(() -> client.registerStreamConsumer(r -> r.streamARN(streamArn)
+                                .consumerName(consumerName)))
+                        .map(response -> response.consumer().consumerARN())
+                        // registered concurrently by another instance
+                        .onFailure(ResourceInUseException.class)
+                        .recoverWithUni(() -> describeConsumer(streamArn, consumerName)))
+                .call(this::awaitActive);
+    }
+
+    private Uni<String> describeConsumer(String streamArn, String consumerName) {
+        return Uni.createFrom()
+                .completionStage(() -> client.describeStreamConsumer(r -> r.streamARN(streamArn).consumerName(consumerName)))
+                .map(response -> response.consumerDescription().consumerARN());
+    }
+
+    private Uni<Void> awaitActive(String consumerArn) {
+        return Uni.createFrom()
+                .completionStage(() -> client.describeStreamConsumer(r -> r.consumerARN(consumerArn)))
+                .invoke(response -> {
+                    if (response.consumerDescription().consumerStatus() != ConsumerStatus.ACTIVE) {
+                        throw new IllegalStateException("The consumer " + consumerArn + " is not active");
+                    }
+                })
+                .onFailure(IllegalStateException.class).retry().withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(5))
+                .atMost(60)
+                .replaceWithVoid();
+    }
+
+    private static int compare(String sequenceNumber, long subSequenceNumber, Checkpoint checkpoint) {
+        int comparison = new BigInteger(sequenceNumber).compareTo(new BigInteger(checkpoint.sequenceNumber));
+        return comparison != 0 ? comparison : Long.compare(subSequenceNumber, checkpoint.subSequenceNumber);
+    }
+
+    private final class Consumption {
+
+        private final String streamArn;
+        private final String consumerArn;
+        private final String consumerName;
+        private final Map<String, ShardState> shards = new ConcurrentHashMap<>();
+        private final Set<EventSubscriber> activeSubscriptions = ConcurrentHashMap.newKeySet();
+
+        private volatile MultiEmitter<? super ShardState> readyShards;
+        private volatile ScheduledFuture<?> checkpointTask;
+        private volatile boolean stopped;
+
+        private Consumption(String streamArn, String consumerArn, String consumerName) {
+            this.streamArn = streamArn;
+            this.consumerArn = consumerArn;
+            this.consumerName = consumerName;
+        }
+
+        Multi<KinesisUserRecord> records() {
+            return Multi.createFrom().<ShardState> emitter(emitter -> {
+                readyShards = emitter;
+                consumptions.add(this);
+                start();
+            })
+                    .onItem().transformToMulti(this::shardRecords).merge(MAX_SHARDS)
+                    .onTermination().invoke(this::stop);
+        }
+
+        private void start() {
+            listShards(ListShardsRequest.builder().streamARN(streamArn).build(), new ArrayList<>())
+                    .thenCompose(listed -> {
+                        List<CompletableFuture<?>> loads = new ArrayList<>(listed.size());
+                        for (Shard shard : listed) {
+                            ShardState state = new ShardState(shard.shardId(), parents(shard.parentShardId(),
+                                    shard.adjacentParentShardId()), false);
+                            shards.put(shard.shardId(), state);
+                            if (checkpointStore != null) {
+                                loads.add(checkpointStore.load(consumerName, shard.shardId())
+                                        .thenAccept(checkpoint -> state.checkpoint = checkpoint));
+                            }
+                            if (shard.sequenceNumberRange().endingSequenceNumber() != null) {
+                                state.closed = true;
+                            }
+                        }
+                        return CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new));
+                    })
+                    .whenComplete((ignored, failure) -> {
+                        if (failure != null) {
+                            readyShards.fail(failure);
+                            return;
+                        }
+                        for (ShardState shard : shards.values()) {
+                            // the closed shards are skipped when reading from the latest records
+                            if (shard.checkpoint != null ? shard.checkpoint.isShardEnd()
+                                    : shard.closed && initialPosition == InitialPosition.LATEST) {
+                                shard.ended = true;
+                            }
+                        }
+                        emitReadyShards();
+                        if (checkpointStore != null) {
+                            long interval = checkpointInterval.toMillis();
+                            checkpointTask = scheduler.scheduleWithFixedDelay(this::writeCheckpoints, interval, interval,
+                                    TimeUnit.MILLISECONDS);
+                        }
+                    });
+        }
+
+        private CompletableFuture<List<Shard>> listShards(ListShardsRequest request, List<Shard> listed) {
+            return client.listShards(request).thenCompose(response -> {
+                listed.addAll(response.shards());
+                if (response.nextToken() == null) {
+                    return CompletableFuture.completedFuture(listed);
+                }
+                return listShards(ListShardsRequest.builder().nextToken(response.nextToken()).build(), listed);
+            });
+        }
+
+        // emits the shards which have no parent shard left to read
+        private synchronized void emitReadyShards() {
+            if (stopped) {
+                return;
+            }
+            for (ShardState shard : shards.values()) {
+                if (shard.emitted || shard.ended) {
+                    continue;
+                }
+                boolean ready = true;
+                for (String parent : shard.parents) {
+                    ShardState parentState = shards.get(parent);
+                    if (parentState != null && !parentState.ended) {
+                        ready = false;
+                    }
+                }
+                if (ready) {
+                    shard.emitted = true;
+                    readyShards.emit(shard);
+                }
+            }
+        }
+
+        private synchronized void shardEnded(ShardState shard, List<ChildShard> childShards) {
+            shard.ended = true;
+            for (ChildShard childShard : childShards) {
+                ShardState child = shards.computeIfAbsent(childShard.shardId(),
+                        id -> new ShardState(id, childShard.parentShards(), true));
+                // the records of a shard created while consuming are all read
+                child.trimHorizon = true;
+            }
+            emitReadyShards();
+        }
+
+        private Multi<KinesisUserRecord> shardRecords(ShardState shard) {
+            // a subscription ends after 5 minutes, and is opened again until the end of the shard
+            return Multi.createBy().repeating().supplier(() -> shard).until(state -> state.endReceived || stopped)
+                    .onItem().transformToMultiAndConcatenate(this::subscription)
+                    .onItem().transformToMultiAndConcatenate(event -> {
+                        Multi<KinesisUserRecord> records = Multi.createFrom().iterable(userRecords(shard, event));
+                        if (event.continuationSequenceNumber() != null) {
+                            return records;
+                        }
+                        // the shard ends once the records of its last event are emitted, then its children are read
+                        return records.onCompletion().invoke(() -> shardEnded(shard, event.childShards()));
+                    });
+        }
+
+        private Multi<SubscribeToShardEvent> subscription(ShardState shard) {
+            return Multi.createFrom().deferred(() -> {
+                if (stopped) {
+                    return Multi.createFrom().<SubscribeToShardEvent> empty();
+                }
+                subscriptions.increment();
+                return Multi.createFrom().publisher(new ShardSubscription(this, SubscribeToShardRequest.builder()
+                        .consumerARN(consumerArn)
+                        .shardId(shard.shardId)
+                        .startingPosition(shard.startingPosition())
+                        .build()));
+            })
+                    .onItem().invoke(event -> {
+                        events.increment();
+                        if (event.continuationSequenceNumber() == null) {
+                            shard.endReceived = true;
+                        } else {
+                            shard.continuation = event.continuationSequenceNumber();
+                        }
+                    })
+                    .onFailure().invoke(failure -> LOG.warn("The subscription to the shard " + shard.shardId + " of "
+                            + streamArn + " failed, subscribing again", failure))
+                    .onFailure().retry().withBackOff(Duration.ofSeconds(1), Duration.ofSeconds(30)).indefinitely();
+        }
+
+        private List<KinesisUserRecord> userRecords(ShardState shard, SubscribeToShardEvent event) {
+            List<KinesisUserRecord> result = new ArrayList<>(event.records().size());
+            for (Record record : event.records()) {
+                List<KinesisAggregatedRecord.UserData> aggregated = deaggregationEnabled
+                        ? KinesisAggregatedRecord.deaggregate(record.data().asByteArrayUnsafe())
+                        : null;
+                if (aggregated == null) {
+                    add(result, shard, record, 0, record.partitionKey(), record.data());
+                    continue;
+                }
+                for (int i = 0; i < aggregated.size(); i++) {
+                    KinesisAggregatedRecord.UserData userData = aggregated.get(i);
+                    add(result, shard, record, i, userData.partitionKey, SdkBytes.fromByteArrayUnsafe(userData.data));
+                }
+            }
+            userRecords.add(result.size());
+            return result;
+        }
+
+        private void add(List<KinesisUserRecord> result, ShardState shard, Record record, long subSequenceNumber,
+                String partitionKey, SdkBytes data) {
+            Checkpoint checkpoint = shard.checkpoint;
+            if (checkpoint != null && record.sequenceNumber().equals(checkpoint.sequenceNumber)
+                    && subSequenceNumber <= checkpoint.subSequenceNumber) {
+                // the record at the checkpoint is read again, only its user records after the checkpoint are emitted
+                return;
+            }
+            shard.lastEmitted = new Checkpoint(record.sequenceNumber(), subSequenceNumber);
+            result.add(new KinesisUserRecord(shard.shardId, record.sequenceNumber(), subSequenceNumber, partitionKey, data,
+                    record.approximateArrivalTimestamp(), shard::checkpointed));
+        }
+
+        /**
+         * @return completed once the checkpoints are written
+         */
+        CompletableFuture<Void> stop() {
+            if (!consumptions.remove(this)) {
+                return CompletableFuture.completedFuture(null);
+            }
+            stopped = true;
+            // the shard streams complete, then the records
+            activeSubscriptions.forEach(EventSubscriber::close);
+            MultiEmitter<? super ShardState> emitter = readyShards;
+            if (emitter != null) {
+                emitter.complete();
+            }
+            ScheduledFuture<?> task = checkpointTask;
+            if (task == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            task.cancel(false);
+            return writeCheckpoints();
+        }
+
+        private CompletableFuture<Void> writeCheckpoints() {
+            List<CompletableFuture<?>> saved = new ArrayList<>();
+            for (ShardState shard : shards.values()) {
+                Checkpoint next = shard.nextCheckpoint();
+                if (next == null) {
+                    continue;
+                }
+                saved.add(checkpointStore.save(consumerName, shard.shardId, next).handle((ignored, failure) -> {
+                    if (failure != null) {
+                        LOG.warn("Unable to write the checkpoint of the shard " + shard.shardId + " of " + streamArn,
+                                failure);
+                    } else {
+                        checkpoints.increment();
+                    }
+                    return null;
+                }));
+            }
+            return CompletableFuture.allOf(saved.toArray(CompletableFuture[]::new));
+        }
+
+        private List<String> parents(String parent, String adjacentParent) {
+            List<String> parents = new ArrayList<>(2);
+            if (parent != null) {
+                parents.add(parent);
+            }
+            if (adjacentParent != null) {
+                parents.add(adjacentParent);
+            }
+            return parents;
+        }
+    }
+
+    private final class ShardState {
+
+        private final String shardId;
+        private final List<String> parents;
+
+        // set before the shard is read
+        private volatile Checkpoint checkpoint;
+        private volatile boolean closed;
+        private volatile boolean trimHorizon;
+
+        private volatile String continuation;
+        // the last event of the shard was received, its records may not be emitted yet
+        private volatile boolean endReceived;
+        private volatile boolean ended;
+        // guarded by the consumption
+        private boolean emitted;
+
+        private volatile Checkpoint lastEmitted;
+        // guarded by this
+        private Checkpoint processed;
+        private Checkpoint written;
+
+        private ShardState(String shardId, List<String> parents, boolean trimHorizon) {
+            this.shardId = shardId;
+            this.parents = parents;
+            this.trimHorizon = trimHorizon;
+        }
+
+        StartingPosition startingPosition() {
+            if (continuation != null) {
+                return StartingPosition.builder()
+                        .type(ShardIteratorType.AFTER_SEQUENCE_NUMBER)
+                        .sequenceNumber(continuation)
+                        .build();
+            }
+            if (checkpoint != null) {
+                // the user records of an aggregated record following the checkpoint are emitted
+                return StartingPosition.builder()
+                        .type(ShardIteratorType.AT_SEQUENCE_NUMBER)
+                        .sequenceNumber(checkpoint.sequenceNumber)
+                        .build();
+            }
+            if (trimHorizon || initialPosition == InitialPosition.TRIM_HORIZON) {
+                return StartingPosition.builder().type(ShardIteratorType.TRIM_HORIZON).build();
+            }
+            return StartingPosition.builder().type(ShardIteratorType.LATEST).build();
+        }
+
+        synchronized void checkpointed(KinesisUserRecord record) {
+            if (processed == null || compare(record.sequenceNumber(), record.subSequenceNumber(), processed) > 0) {
+                processed = new Checkpoint(record.sequenceNumber(), record.subSequenceNumber());
+            }
+        }
+
+        /**
+         * @return the checkpoint to write, or {@code null} if the checkpoint did not change
+         */
+        synchronized Checkpoint nextCheckpoint() {
+            Checkpoint next = processed;
+            Checkpoint last = lastEmitted;
+            // the end of the shard is written once its last record is processed
+            if (ended && (last == null || next != null && compare(last.sequenceNumber, last.subSequenceNumber, next) <= 0)) {
+                next = Checkpoint.SHARD_END;
+            }
+            if (next == null || next == written) {
+                return null;
+            }
+            written = next;
+            return next;
+        }
+    }
+
+    /**
+     * Adapts the event stream of a {@code SubscribeToShard} request to a {@link Flow.Publisher}, the events being
+     * requested from the stream as they are requested by the subscriber.
+     */
+    private final class ShardSubscription implements Flow.Publisher<SubscribeToShardEvent> {
+
+        private final Consumption consumption;
+        private final SubscribeToShardRequest request;
+
+        private ShardSubscription(Consumption consumption, SubscribeToShardRequest request) {
+            this.consumption = consumption;
+            this.request = request;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super SubscribeToShardEvent> subscriber) {
+            EventSubscriber eventSubscriber = new EventSubscriber(consumption, subscriber);
+            client.subscribeToShard(request, SubscribeToShardResponseHandler.builder()
+                    .onEventStream(publisher -> publisher.filter(SubscribeToShardEvent.class).subscribe(eventSubscriber))
+                    .build())
+                    .whenComplete((ignored, failure) -> {
+                        // the request failed before the event stream was received
+                        if (failure != null && eventSubscriber.subscribed.compareAndSet(false, true)) {
+                            subscriber.onSubscribe(new Flow.Subscription() {
+                                @Override
+                                public void request(long n) {
+                                }
+
+                                @Override
+                                public void cancel() {
+                                }
+                            });
+                            subscriber.onError(failure);
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Forwards the events of a {@code SubscribeToShard} event stream, until the stream ends or the consumption stops.
+     */
+    private static final class EventSubscriber implements Subscriber<SubscribeToShardEvent> {
+
+        private final Consumption consumption;
+        private final Flow.Subscriber<? super SubscribeToShardEvent> subscriber;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        private volatile Subscription subscription;
+        // guarded by this, the signals are serialized with the completion on close
+        private boolean done;
+
+        private EventSubscriber(Consumption consumption, Flow.Subscriber<? super SubscribeToShardEvent> subscriber) {
+            this.consumption = consumption;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            subscribed.set(true);
+            consumption.activeSubscriptions.add(this);
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    consumption.activeSubscriptions.remove(EventSubscriber.this);
+                    subscription.cancel();
+                }
+            });
+            // stopped while the subscription was being opened
+            if (consumption.stopped) {
+                close();
+            }
+        }
+
+        @Override
+        public synchronized void onNext(SubscribeToShardEvent event) {
+            if (!done) {
+                subscriber.onNext(event);
+            }
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            if (terminate()) {
+                subscriber.onError(failure);
+            }
+        }
+
+        @Override
+        public void onComplete() {
+            if (terminate()) {
+                subscriber.onComplete();
+            }
+        }
+
+        /**
+         * Cancels the event stream and completes the subscriber.
+         */
+        void close() {
+            Subscription current = subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            onComplete();
+        }
+
+        private synchronized boolean terminate() {
+            if (done) {
+                return false;
+            }
+            done = true;
+            consumption.activeSubscriptions.remove(this);
+            return true;
+        }
+    }
+}
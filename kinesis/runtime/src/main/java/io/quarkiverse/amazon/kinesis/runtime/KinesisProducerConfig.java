@@ -0,0 +1,72 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+import java.time.Duration;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface KinesisProducerConfig {
+
+    /**
+     * Whether the user records sent to the same shard are aggregated into Kinesis records in the format of the Kinesis
+     * Producer Library.
+     */
+    @WithDefault("true")
+    boolean aggregationEnabled();
+
+    /**
+     * The maximum size of an aggregated record. The maximum value is 1M.
+     */
+    @WithDefault("50K")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxAggregatedBytes();
+
+    /**
+     * The maximum number of records of a `PutRecords` request. The maximum value is 500.
+     */
+    @WithDefault("500")
+    int maxBatchSize();
+
+    /**
+     * The maximum total size of the records of a `PutRecords` request. The maximum value is 5M.
+     */
+    @WithDefault("5M")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxBatchBytes();
+
+    /**
+     * The maximum time a user record waits for other records of the same stream before being sent.
+     */
+    @WithDefault("100MS")
+    Duration linger();
+
+    /**
+     * The maximum total size of the user records waiting to be sent or being sent. The records added beyond this size
+     * are rejected.
+     */
+    @WithDefault("64M")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxBufferedBytes();
+
+    /**
+     * The maximum number of times a record which failed because of throttling or an internal failure is sent again.
+     */
+    @WithDefault("3")
+    int maxRetries();
+
+    /**
+     * The delay before the failed records are sent again, doubled on each retry.
+     */
+    @WithDefault("100MS")
+    Duration retryBackoff();
+
+    /**
+     * The maximum delay before the failed records are sent again.
+     */
+    @WithDefault("20S")
+    Duration maxRetryBackoff();
+}
@@ -1,13 +1,21 @@
 package io.quarkiverse.amazon.kinesis.runtime;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.kinesis.KinesisAsyncClient;
 import software.amazon.awssdk.services.kinesis.KinesisClient;
 
@@ -44,4 +52,63 @@ public class KinesisRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return KinesisAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<KinesisAggregatingProducer>, KinesisAggregatingProducer> createProducer(
+            String clientName, ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<KinesisAggregatingProducer>, KinesisAggregatingProducer>() {
+            @Override
+            public KinesisAggregatingProducer apply(SyntheticCreationalContext<KinesisAggregatingProducer> context) {
+                KinesisAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(KinesisAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(KinesisAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                KinesisProducerConfig producerConfig = config.producer().get(clientName);
+                if (producerConfig.maxBatchSize() < 1 || producerConfig.maxBatchSize() > 500) {
+                    throw new RuntimeConfigurationError("quarkus.kinesis.producer.max-batch-size must be between 1 and 500");
+                }
+                if (producerConfig.maxBatchBytes().asLongValue() > 5 * 1024 * 1024) {
+                    throw new RuntimeConfigurationError("quarkus.kinesis.producer.max-batch-bytes must be at most 5M");
+                }
+                return new KinesisAggregatingProducer(client, scheduledExecutorService, producerConfig);
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<KinesisFanOutConsumer>, KinesisFanOutConsumer> createConsumer(
+            String clientName, ScheduledExecutorService scheduledExecutorService, boolean dynamoDbPresent) {
+        return new Function<SyntheticCreationalContext<KinesisFanOutConsumer>, KinesisFanOutConsumer>() {
+            @Override
+            public KinesisFanOutConsumer apply(SyntheticCreationalContext<KinesisFanOutConsumer> context) {
+                KinesisAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(KinesisAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(KinesisAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                KinesisConsumerConfig consumerConfig = config.consumer().get(clientName);
+                KinesisCheckpointStore checkpointStore = null;
+                if (consumerConfig.checkpointTable().isPresent()) {
+                    if (!dynamoDbPresent) {
+                        throw new RuntimeConfigurationError(
+                                "quarkus.kinesis.consumer.checkpoint-table requires the quarkus-amazon-dynamodb extension");
+                    }
+                    checkpointStore = new KinesisCheckpointStore(context.getInjectedReference(DynamoDbAsyncClient.class),
+                            consumerConfig.checkpointTable().get());
+                }
+                return new KinesisFanOutConsumer(client,
+                        scheduledExecutorService,
+                        checkpointStore,
+                        consumerConfig.consumerName().orElse(null),
+                        consumerConfig.initialPosition(),
+                        consumerConfig.checkpointInterval(),
+                        consumerConfig.deaggregationEnabled());
+            }
+        };
+    }
 }
@@ -0,0 +1,79 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+import java.time.Instant;
+import java.util.function.Consumer;
+
+import software.amazon.awssdk.core.SdkBytes;
+
+/**
+ * A user record received by the {@link KinesisFanOutConsumer}, either a Kinesis record or a user record of an aggregated
+ * Kinesis record.
+ */
+public final class KinesisUserRecord {
+
+    private final String shardId;
+    private final String sequenceNumber;
+    private final long subSequenceNumber;
+    private final String partitionKey;
+    private final SdkBytes data;
+    private final Instant approximateArrivalTimestamp;
+    private final Consumer<KinesisUserRecord> checkpointer;
+
+    KinesisUserRecord(String shardId, String sequenceNumber, long subSequenceNumber, String partitionKey, SdkBytes data,
+            Instant approximateArrivalTimestamp, Consumer<KinesisUserRecord> checkpointer) {
+        this.shardId = shardId;
+        this.sequenceNumber = sequenceNumber;
+        this.subSequenceNumber = subSequenceNumber;
+        this.partitionKey = partitionKey;
+        this.data = data;
+        this.approximateArrivalTimestamp = approximateArrivalTimestamp;
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * @return the shard the record was read from
+     */
+    public String shardId() {
+        return shardId;
+    }
+
+    /**
+     * @return the sequence number of the Kinesis record, shared by the user records of an aggregated record
+     */
+    public String sequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * @return the position of the user record in the aggregated record, 0 if the record is not aggregated
+     */
+    public long subSequenceNumber() {
+        return subSequenceNumber;
+    }
+
+    public String partitionKey() {
+        return partitionKey;
+    }
+
+    public SdkBytes data() {
+        return data;
+    }
+
+    public Instant approximateArrivalTimestamp() {
+        return approximateArrivalTimestamp;
+    }
+
+    /**
+     * Marks this record and the previous records of its shard as processed. The checkpoint of the shard is written
+     * periodically, the records following the last written checkpoint are received again after a restart.
+     */
+    public void checkpoint() {
+        checkpointer.accept(this);
+    }
+
+    @Override
+    public String toString() {
+        return "KinesisUserRecord[shardId=" + shardId + ", sequenceNumber=" + sequenceNumber + ", subSequenceNumber="
+                + subSequenceNumber + ", partitionKey=" + partitionKey + "]";
+    }
+}
@@ -0,0 +1,44 @@
+package io.quarkiverse.amazon.kinesis.runtime;
+
+/**
+ * The result of a user record sent by the {@link KinesisAggregatingProducer}.
+ */
+public final class UserRecordResult {
+
+    private final String shardId;
+    private final String sequenceNumber;
+    private final int subSequenceNumber;
+
+    UserRecordResult(String shardId, String sequenceNumber, int subSequenceNumber) {
+        this.shardId = shardId;
+        this.sequenceNumber = sequenceNumber;
+        this.subSequenceNumber = subSequenceNumber;
+    }
+
+    /**
+     * @return the shard the record was written to
+     */
+    public String shardId() {
+        return shardId;
+    }
+
+    /**
+     * @return the sequence number of the Kinesis record, shared by the user records aggregated in the record
+     */
+    public String sequenceNumber() {
+        return sequenceNumber;
+    }
+
+    /**
+     * @return the position of the user record in the aggregated record, 0 if the record is not aggregated
+     */
+    public int subSequenceNumber() {
+        return subSequenceNumber;
+    }
+
+    @Override
+    public String toString() {
+        return "UserRecordResult[shardId=" + shardId + ", sequenceNumber=" + sequenceNumber + ", subSequenceNumber="
+                + subSequenceNumber + "]";
+    }
+}
@@ -2,6 +2,9 @@ package io.quarkiverse.amazon.kms.deployment;
 
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,7 +25,10 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
 import io.quarkiverse.amazon.kms.runtime.KmsBuildTimeConfig;
+import io.quarkiverse.amazon.kms.runtime.KmsBulkOperations;
+import io.quarkiverse.amazon.kms.runtime.KmsEnvelopeEncryptor;
 import io.quarkiverse.amazon.kms.runtime.KmsRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
@@ -42,6 +48,8 @@ import software.amazon.awssdk.services.kms.KmsClientBuilder;
 public class KmsProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-kms";
+    private static final DotName KMS_ENVELOPE_ENCRYPTOR = DotName.createSimple(KmsEnvelopeEncryptor.class);
+    private static final DotName KMS_BULK_OPERATIONS = DotName.createSimple(KmsBulkOperations.class);
 
     KmsBuildTimeConfig buildTimeConfig;
 
@@ -84,6 +92,10 @@ public class KmsProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, KMS_ENVELOPE_ENCRYPTOR, asyncClientName(),
+                requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, KMS_BULK_OPERATIONS, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -207,4 +219,57 @@ public class KmsProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createEnvelopeEncryptors(KmsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the encryptor is removed if not injected, its data keys are zeroized when it is destroyed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(KmsEnvelopeEncryptor.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createEnvelopeEncryptor(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(KmsAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createBulkOperations(KmsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the bulk operations are removed if not injected
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(KmsBulkOperations.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createBulkOperations(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(KmsAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .done());
+        }
+    }
 }
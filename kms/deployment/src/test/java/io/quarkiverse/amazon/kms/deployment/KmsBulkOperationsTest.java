@@ -0,0 +1,143 @@
+package io.quarkiverse.amazon.kms.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.amazon.kms.runtime.KmsBulkOperations;
+import io.quarkiverse.amazon.kms.runtime.KmsBulkResult;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsAsyncClient;
+import software.amazon.awssdk.services.kms.model.InvalidCiphertextException;
+import software.amazon.awssdk.services.kms.model.KmsException;
+import software.amazon.awssdk.services.kms.model.ReEncryptRequest;
+import software.amazon.awssdk.services.kms.model.ReEncryptResponse;
+
+/**
+ * Runs the bulk operations against a local stub of the client, without KMS.
+ */
+class KmsBulkOperationsTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void reEncryptAll() {
+        StubKmsClient stub = new StubKmsClient(scheduler);
+        KmsBulkOperations operations = new KmsBulkOperations(stub, scheduler, 200, 10, 8, 5,
+                Duration.ofMillis(10), Duration.ofMillis(100));
+
+        List<SdkBytes> ciphertexts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ciphertexts.add(SdkBytes.fromUtf8String("ciphertext-" + i));
+        }
+        long start = System.nanoTime();
+        List<KmsBulkResult> results = new ArrayList<>(operations.reEncryptAll(ciphertexts, "destination")
+                .collect().asList().await().atMost(Duration.ofMinutes(1)));
+        long elapsed = System.nanoTime() - start;
+
+        results.sort(Comparator.comparingLong(KmsBulkResult::index));
+        assertEquals(100, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals("destination:ciphertext-" + i, results.get(i).output().asUtf8String());
+        }
+        // every tenth ciphertext is throttled once
+        assertEquals(10, operations.throttled());
+        assertEquals(110, operations.requests());
+        assertTrue(stub.maxInFlight.get() <= 8, "max in flight " + stub.maxInFlight.get());
+        // 110 requests at 200 per second after a burst of 10
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(400), "elapsed " + elapsed);
+    }
+
+    @Test
+    void failures() {
+        StubKmsClient stub = new StubKmsClient(scheduler);
+        KmsBulkOperations operations = new KmsBulkOperations(stub, scheduler, 1000, 100, 4, 2,
+                Duration.ofMillis(1), Duration.ofMillis(10));
+
+        List<KmsBulkResult> results = new ArrayList<>(operations.reEncryptAll(List.of(
+                SdkBytes.fromUtf8String("valid"),
+                SdkBytes.fromUtf8String("invalid"),
+                SdkBytes.fromUtf8String("throttled")), "destination")
+                .collect().asList().await().atMost(Duration.ofMinutes(1)));
+
+        results.sort(Comparator.comparingLong(KmsBulkResult::index));
+        assertTrue(results.get(0).isSuccess());
+        assertInstanceOf(InvalidCiphertextException.class, results.get(1).failure());
+        // given up after the retries
+        assertInstanceOf(KmsException.class, results.get(2).failure());
+        assertEquals(2, operations.throttled());
+        assertEquals(1, operations.succeeded());
+        assertEquals(2, operations.failed());
+    }
+
+    private static final class StubKmsClient implements KmsAsyncClient {
+
+        private final ScheduledExecutorService scheduler;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final Set<String> throttledOnce = ConcurrentHashMap.newKeySet();
+
+        private StubKmsClient(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public CompletableFuture<ReEncryptResponse> reEncrypt(ReEncryptRequest request) {
+            String ciphertext = request.ciphertextBlob().asUtf8String();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            CompletableFuture<ReEncryptResponse> response = new CompletableFuture<>();
+            scheduler.schedule(() -> {
+                inFlight.decrementAndGet();
+                if (ciphertext.equals("throttled")
+                        || (ciphertext.endsWith("0") && throttledOnce.add(ciphertext))) {
+                    response.completeExceptionally(KmsException.builder()
+                            .statusCode(400)
+                            .awsErrorDetails(AwsErrorDetails.builder()
+                                    .errorCode("ThrottlingException")
+                                    .errorMessage("Rate exceeded")
+                                    .build())
+                            .build());
+                } else if (ciphertext.equals("invalid")) {
+                    response.completeExceptionally(InvalidCiphertextException.builder().message("invalid").build());
+                } else {
+                    response.complete(ReEncryptResponse.builder()
+                            .keyId(request.destinationKeyId())
+                            .ciphertextBlob(SdkBytes.fromUtf8String(request.destinationKeyId() + ":" + ciphertext))
+                            .build());
+                }
+            }, 5, TimeUnit.MILLISECONDS);
+            return response;
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
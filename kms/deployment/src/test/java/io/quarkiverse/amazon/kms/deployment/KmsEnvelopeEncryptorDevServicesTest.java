@@ -0,0 +1,59 @@
+package io.quarkiverse.amazon.kms.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.kms.runtime.KmsEnvelopeEncryptor;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.kms.KmsAsyncClient;
+
+class KmsEnvelopeEncryptorDevServicesTest {
+
+    @Inject
+    KmsEnvelopeEncryptor encryptor;
+
+    @Inject
+    KmsAsyncClient client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withEmptyApplication();
+
+    @Test
+    void test() {
+        String keyId = client.createKey(r -> r.description("envelope")).join().keyMetadata().keyId();
+        Map<String, String> context = Map.of("tenant", "quarkus");
+
+        List<byte[]> plaintexts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            plaintexts.add(("message-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        List<byte[]> messages = encryptor.encryptAll(keyId, plaintexts, context).join();
+        // a single data key encrypts all the messages
+        assertEquals(1, encryptor.generatedKeys());
+        assertEquals(100, encryptor.encrypted());
+
+        // the data key generated by this instance is already cached for decryption
+        List<byte[]> decrypted = encryptor.decryptAll(messages, context).join();
+        for (int i = 0; i < plaintexts.size(); i++) {
+            assertArrayEquals(plaintexts.get(i), decrypted.get(i));
+        }
+        assertEquals(0, encryptor.unwrappedKeys());
+
+        // the encryption context is authenticated
+        assertThrows(CompletionException.class,
+                () -> encryptor.decrypt(messages.get(0), Map.of("tenant", "other")).join());
+    }
+}
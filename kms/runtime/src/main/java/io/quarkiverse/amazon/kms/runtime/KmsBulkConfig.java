@@ -0,0 +1,54 @@
+package io.quarkiverse.amazon.kms.runtime;
+
+import java.time.Duration;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface KmsBulkConfig {
+
+    /**
+     * The maximum rate of the requests of the bulk operations, per second.
+     * <p>
+     * The KMS quota of the cryptographic operations is shared by all the applications of an account and region, keep
+     * this rate below it.
+     */
+    @WithDefault("500")
+    double requestsPerSecond();
+
+    /**
+     * The maximum number of requests sent at once, above the rate, after an idle period.
+     */
+    @WithDefault("50")
+    int burst();
+
+    /**
+     * The maximum number of requests in flight.
+     */
+    @WithDefault("64")
+    int maxConcurrency();
+
+    /**
+     * The maximum number of times a throttled request is sent again, once the retries of the client are exhausted.
+     */
+    @WithDefault("5")
+    int maxRetries();
+
+    /**
+     * The base of the exponential backoff of the throttled requests, each retry waiting a random amount of time up to
+     * the backoff.
+     */
+    @WithDefault("100MS")
+    @WithConverter(DurationConverter.class)
+    Duration retryBackoff();
+
+    /**
+     * The maximum backoff of the throttled requests.
+     */
+    @WithDefault("20S")
+    @WithConverter(DurationConverter.class)
+    Duration maxRetryBackoff();
+}
@@ -0,0 +1,212 @@
+package io.quarkiverse.amazon.kms.runtime;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.kms.KmsAsyncClient;
+import software.amazon.awssdk.services.kms.model.DecryptRequest;
+import software.amazon.awssdk.services.kms.model.DecryptResponse;
+import software.amazon.awssdk.services.kms.model.ReEncryptRequest;
+import software.amazon.awssdk.services.kms.model.ReEncryptResponse;
+
+/**
+ * Decrypts or encrypts again large numbers of ciphertexts with the asynchronous client, without exceeding the KMS
+ * request quota.
+ * <p>
+ * The requests are limited by a token bucket, all the operations of an instance sharing the same rate, and at most the
+ * maximum concurrency requests are in flight per operation. The requests still throttled once the retries of the
+ * client are exhausted are sent again after an exponential backoff with full jitter.
+ * <p>
+ * The results are emitted as the requests complete, the index of a result being the position of its ciphertext among
+ * the ciphertexts of the operation. A failed ciphertext does not stop the operation.
+ */
+public class KmsBulkOperations {
+
+    private final KmsAsyncClient client;
+    private final ScheduledExecutorService scheduler;
+    private final KmsTokenBucket limiter;
+    private final int maxConcurrency;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public KmsBulkOperations(KmsAsyncClient client, ScheduledExecutorService scheduler, double requestsPerSecond,
+            int burst, int maxConcurrency, int maxRetries, Duration retryBackoff, Duration maxRetryBackoff) {
+        if (requestsPerSecond <= 0 || burst < 1 || maxConcurrency < 1) {
+            throw new IllegalArgumentException("The rate, the burst and the maximum concurrency must be positive");
+        }
+        this.client = client;
+        this.scheduler = scheduler;
+        this.limiter = new KmsTokenBucket(requestsPerSecond, burst);
+        this.maxConcurrency = maxConcurrency;
+        this.maxRetries = maxRetries;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.maxRetryBackoffNanos = maxRetryBackoff.toNanos();
+    }
+
+    /**
+     * @param ciphertexts the ciphertexts, encrypted without encryption context
+     * @param destinationKeyId the id, ARN or alias of the KMS key encrypting the ciphertexts again
+     * @return the ciphertexts encrypted again, as the requests complete
+     */
+    public Multi<KmsBulkResult> reEncryptAll(Iterable<SdkBytes> ciphertexts, String destinationKeyId) {
+        return reEncryptAll(ciphertexts, destinationKeyId, Map.of());
+    }
+
+    /**
+     * @param ciphertexts the ciphertexts
+     * @param destinationKeyId the id, ARN or alias of the KMS key encrypting the ciphertexts again
+     * @param encryptionContext the encryption context of the ciphertexts, kept when they are encrypted again
+     * @return the ciphertexts encrypted again, as the requests complete
+     */
+    public Multi<KmsBulkResult> reEncryptAll(Iterable<SdkBytes> ciphertexts, String destinationKeyId,
+            Map<String, String> encryptionContext) {
+        return run(ciphertexts, ciphertext -> client.reEncrypt(ReEncryptRequest.builder()
+                .ciphertextBlob(ciphertext)
+                .destinationKeyId(destinationKeyId)
+                .sourceEncryptionContext(encryptionContext)
+                .destinationEncryptionContext(encryptionContext)
+                .build())
+                .thenApply(ReEncryptResponse::ciphertextBlob));
+    }
+
+    /**
+     * @param ciphertexts the ciphertexts, encrypted without encryption context
+     * @return the plaintexts, as the requests complete
+     */
+    public Multi<KmsBulkResult> decryptAll(Iterable<SdkBytes> ciphertexts) {
+        return decryptAll(ciphertexts, Map.of());
+    }
+
+    /**
+     * @param ciphertexts the ciphertexts
+     * @param encryptionContext the encryption context of the ciphertexts
+     * @return the plaintexts, as the requests complete
+     */
+    public Multi<KmsBulkResult> decryptAll(Iterable<SdkBytes> ciphertexts, Map<String, String> encryptionContext) {
+        return run(ciphertexts, ciphertext -> client.decrypt(DecryptRequest.builder()
+                .ciphertextBlob(ciphertext)
+                .encryptionContext(encryptionContext)
+                .build())
+                .thenApply(DecryptResponse::plaintext));
+    }
+
+    /**
+     * @return the number of requests sent, retries included
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of requests throttled once the retries of the client were exhausted
+     */
+    public long throttled() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return the number of ciphertexts processed
+     */
+    public long succeeded() {
+        return succeeded.sum();
+    }
+
+    /**
+     * @return the number of ciphertexts which could not be processed
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    private Multi<KmsBulkResult> run(Iterable<SdkBytes> inputs, Function<SdkBytes, CompletableFuture<SdkBytes>> operation) {
+        // the indexes start over for each subscription
+        return Multi.createFrom().deferred(() -> {
+            AtomicLong next = new AtomicLong();
+            return Multi.createFrom().iterable(inputs)
+                    .onItem().transformToUni(input -> {
+                        long index = next.getAndIncrement();
+                        return Uni.createFrom().completionStage(() -> attempt(operation, input, 0))
+                                .onItemOrFailure().transform((output, failure) -> {
+                                    if (failure != null) {
+                                        failed.increment();
+                                    } else {
+                                        succeeded.increment();
+                                    }
+                                    return new KmsBulkResult(index, input, output, failure);
+                                });
+                    })
+                    .merge(maxConcurrency);
+        });
+    }
+
+    private CompletableFuture<SdkBytes> attempt(Function<SdkBytes, CompletableFuture<SdkBytes>> operation, SdkBytes input,
+            int retries) {
+        CompletableFuture<SdkBytes> result = new CompletableFuture<>();
+        Runnable send = () -> {
+            requests.increment();
+            CompletableFuture<SdkBytes> response;
+            try {
+                response = operation.apply(input);
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((output, failure) -> {
+                if (failure == null) {
+                    result.complete(output);
+                    return;
+                }
+                Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause()
+                        : failure;
+                if (!isThrottling(cause) || retries >= maxRetries) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                throttled.increment();
+                scheduler.schedule(() -> attempt(operation, input, retries + 1).whenComplete((retried, retryFailure) -> {
+                    if (retryFailure != null) {
+                        result.completeExceptionally(retryFailure);
+                    } else {
+                        result.complete(retried);
+                    }
+                }), backoff(retries), TimeUnit.NANOSECONDS);
+            });
+        };
+
+        long wait = limiter.reserve();
+        if (wait == 0) {
+            send.run();
+        } else {
+            scheduler.schedule(send, wait, TimeUnit.NANOSECONDS);
+        }
+        return result;
+    }
+
+    // full jitter, a random wait up to the exponential backoff
+    private long backoff(int retries) {
+        long ceiling = retries < 20 ? Math.min(maxRetryBackoffNanos, retryBackoffNanos << retries) : maxRetryBackoffNanos;
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling) : 0;
+    }
+
+    private static boolean isThrottling(Throwable failure) {
+        return failure instanceof SdkServiceException && ((SdkServiceException) failure).isThrottlingException();
+    }
+}
@@ -0,0 +1,53 @@
+package io.quarkiverse.amazon.kms.runtime;
+
+import software.amazon.awssdk.core.SdkBytes;
+
+/**
+ * The result of the operation on a ciphertext of a bulk operation.
+ */
+public final class KmsBulkResult {
+
+    private final long index;
+    private final SdkBytes input;
+    private final SdkBytes output;
+    private final Throwable failure;
+
+    KmsBulkResult(long index, SdkBytes input, SdkBytes output, Throwable failure) {
+        this.index = index;
+        this.input = input;
+        this.output = output;
+        this.failure = failure;
+    }
+
+    /**
+     * @return the position of the ciphertext among the ciphertexts of the operation
+     */
+    public long index() {
+        return index;
+    }
+
+    /**
+     * @return the ciphertext
+     */
+    public SdkBytes input() {
+        return input;
+    }
+
+    /**
+     * @return the ciphertext encrypted again or the plaintext, {@code null} if the operation failed
+     */
+    public SdkBytes output() {
+        return output;
+    }
+
+    /**
+     * @return the failure of the operation, {@code null} if it succeeded
+     */
+    public Throwable failure() {
+        return failure;
+    }
+
+    public boolean isSuccess() {
+        return failure == null;
+    }
+}
@@ -22,4 +22,16 @@ public interface KmsConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Envelope encryptor configurations
+     */
+    @ConfigDocSection
+    KmsEnvelopeEncryptorConfig envelopeEncryptor();
+
+    /**
+     * Bulk operations configurations
+     */
+    @ConfigDocSection
+    KmsBulkConfig bulk();
 }
@@ -0,0 +1,615 @@
+package io.quarkiverse.amazon.kms.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.kms.KmsAsyncClient;
+import software.amazon.awssdk.services.kms.model.DataKeySpec;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Encrypts messages locally with AES-GCM under data keys generated by KMS, which are cached to avoid a KMS request per
+ * message.
+ * <p>
+ * A data key encrypts messages until it reaches its maximum age, number of messages or number of bytes, then a new one
+ * is generated with {@code GenerateDataKey}. The data keys unwrapped with {@code Decrypt} are cached by encrypted data
+ * key and encryption context, least recently used first evicted, and the messages encrypted by this instance are
+ * decrypted without KMS request. Concurrent requests for the same data key are collapsed.
+ * <p>
+ * The plaintext data keys are zeroized once evicted and no longer in use. A data key is held by a single
+ * {@link SecretKey} used for all its messages, since a {@link javax.crypto.spec.SecretKeySpec} copies the key and
+ * cannot be cleared. The JCE still copies the key on each {@link Cipher#init}, into the key schedule of the thread-local
+ * cipher and, for AES-GCM, into a copy kept to detect the reuse of an initialization vector. These copies are only
+ * overwritten when the cipher is initialized again.
+ * <p>
+ * The message holds the encrypted data key, the initialization vector and the ciphertext with its tag:
+ *
+ * <pre>
+ * version (1 byte) | encrypted data key length (2 bytes) | encrypted data key | IV (12 bytes) | ciphertext | tag (16 bytes)
+ * </pre>
+ *
+ * The header and the encryption context are authenticated with the ciphertext.
+ */
+public class KmsEnvelopeEncryptor implements SdkAutoCloseable {
+
+    /**
+     * The maximum number of messages encrypted with a data key, the limit of AES-GCM with random initialization vectors.
+     */
+    public static final long MAX_MESSAGES_PER_KEY = 1L << 32;
+
+    private static final byte VERSION = 1;
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+
+    private final KmsAsyncClient client;
+    private final ScheduledExecutorService executor;
+    private final String defaultKeyId;
+    private final DataKeySpec dataKeySpec;
+    private final long maxAgeNanos;
+    private final long maxMessages;
+    private final long maxBytes;
+    private final int maxSize;
+
+    private final SecureRandom random = new SecureRandom();
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(KmsEnvelopeEncryptor::newCipher);
+
+    private final ConcurrentHashMap<CacheKey, DataKey> encryptionKeys = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<DataKey>> generations = new ConcurrentHashMap<>();
+    // access ordered, guarded by itself
+    private final LinkedHashMap<CacheKey, DataKey> decryptionKeys = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<CacheKey, CompletableFuture<DataKey>> unwraps = new ConcurrentHashMap<>();
+
+    private final ScheduledFuture<?> scheduledEviction;
+    private volatile boolean closed;
+
+    private final LongAdder generatedKeys = new LongAdder();
+    private final LongAdder unwrappedKeys = new LongAdder();
+    private final LongAdder encrypted = new LongAdder();
+    private final LongAdder decrypted = new LongAdder();
+    private final LongAdder evictedKeys = new LongAdder();
+
+    public KmsEnvelopeEncryptor(KmsAsyncClient client, ScheduledExecutorService executor, String defaultKeyId,
+            DataKeySpec dataKeySpec, Duration maxAge, long maxMessages, long maxBytes, int maxSize) {
+        if (maxMessages < 1 || maxMessages > MAX_MESSAGES_PER_KEY) {
+            throw new IllegalArgumentException("The maximum number of messages must be between 1 and 2^32: " + maxMessages);
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive: " + maxSize);
+        }
+        this.client = client;
+        this.executor = executor;
+        this.defaultKeyId = defaultKeyId;
+        this.dataKeySpec = dataKeySpec;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.maxSize = maxSize;
+
+        long period = Math.max(maxAgeNanos / 2, TimeUnit.SECONDS.toNanos(1));
+        this.scheduledEviction = executor.scheduleWithFixedDelay(this::evictExpired, period, period,
+                TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Encrypts a message with a data key of the default KMS key, without encryption context.
+     *
+     * @param plaintext the message
+     * @return a future completed with the encrypted message
+     */
+    public CompletableFuture<byte[]> encrypt(byte[] plaintext) {
+        if (defaultKeyId == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("No KMS key is configured, set quarkus.kms.envelope-encryptor.key-id"));
+        }
+        return encrypt(defaultKeyId, plaintext, Map.of());
+    }
+
+    /**
+     * @param keyId the id, ARN or alias of the KMS key wrapping the data key
+     * @param plaintext the message
+     * @param encryptionContext the encryption context of the data key, required to decrypt the message
+     * @return a future completed with the encrypted message
+     */
+    public CompletableFuture<byte[]> encrypt(String keyId, byte[] plaintext, Map<String, String> encryptionContext) {
+        Objects.requireNonNull(keyId, "keyId");
+        if (plaintext.length > maxBytes) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "The message size " + plaintext.length + " exceeds the maximum number of bytes per data key "
+                            + maxBytes));
+        }
+        return encrypt(new CacheKey(keyId, null, encryptionContext), plaintext);
+    }
+
+    /**
+     * Encrypts messages in parallel, on as many threads as there are processors.
+     *
+     * @param keyId the id, ARN or alias of the KMS key wrapping the data keys
+     * @param plaintexts the messages
+     * @param encryptionContext the encryption context of the data keys
+     * @return a future completed with the encrypted messages, in order
+     */
+    public CompletableFuture<List<byte[]>> encryptAll(String keyId, List<byte[]> plaintexts,
+            Map<String, String> encryptionContext) {
+        return inParallel(plaintexts, plaintext -> encrypt(keyId, plaintext, encryptionContext));
+    }
+
+    /**
+     * Decrypts a message encrypted without encryption context.
+     *
+     * @param message the encrypted message
+     * @return a future completed with the plaintext
+     */
+    public CompletableFuture<byte[]> decrypt(byte[] message) {
+        return decrypt(message, Map.of());
+    }
+
+    /**
+     * @param message the encrypted message
+     * @param encryptionContext the encryption context used to encrypt the message
+     * @return a future completed with the plaintext
+     */
+    public CompletableFuture<byte[]> decrypt(byte[] message, Map<String, String> encryptionContext) {
+        if (message.length < 3 || message[0] != VERSION) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unsupported message format"));
+        }
+        int keyLength = ((message[1] & 0xff) << 8) | (message[2] & 0xff);
+        if (message.length < 3 + keyLength + IV_LENGTH + TAG_LENGTH) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("The message is truncated"));
+        }
+        byte[] ciphertextBlob = Arrays.copyOfRange(message, 3, 3 + keyLength);
+        return decrypt(new CacheKey(null, ciphertextBlob, encryptionContext), message);
+    }
+
+    /**
+     * Decrypts messages in parallel, on as many threads as there are processors.
+     *
+     * @param messages the encrypted messages
+     * @param encryptionContext the encryption context used to encrypt the messages
+     * @return a future completed with the plaintexts, in order
+     */
+    public CompletableFuture<List<byte[]>> decryptAll(List<byte[]> messages, Map<String, String> encryptionContext) {
+        return inParallel(messages, message -> decrypt(message, encryptionContext));
+    }
+
+    /**
+     * Evicts and zeroizes the cached data keys.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        scheduledEviction.cancel(false);
+        evict(key -> true);
+    }
+
+    /**
+     * @return the number of data keys generated with {@code GenerateDataKey}
+     */
+    public long generatedKeys() {
+        return generatedKeys.sum();
+    }
+
+    /**
+     * @return the number of data keys unwrapped with {@code Decrypt}
+     */
+    public long unwrappedKeys() {
+        return unwrappedKeys.sum();
+    }
+
+    /**
+     * @return the number of encrypted messages
+     */
+    public long encrypted() {
+        return encrypted.sum();
+    }
+
+    /**
+     * @return the number of decrypted messages
+     */
+    public long decrypted() {
+        return decrypted.sum();
+    }
+
+    /**
+     * @return the number of data keys evicted from the caches
+     */
+    public long evictedKeys() {
+        return evictedKeys.sum();
+    }
+
+    private CompletableFuture<byte[]> encrypt(CacheKey cacheKey, byte[] plaintext) {
+        DataKey dataKey = encryptionKeys.get(cacheKey);
+        if (dataKey != null) {
+            if (dataKey.acquireFor(plaintext.length, System.nanoTime())) {
+                return seal(dataKey, cacheKey, plaintext);
+            }
+            // the key is exhausted
+            if (encryptionKeys.remove(cacheKey, dataKey)) {
+                evicted(dataKey);
+            }
+        }
+        return generate(cacheKey).thenCompose(generated -> generated.acquireFor(plaintext.length, System.nanoTime())
+                ? seal(generated, cacheKey, plaintext)
+                // exhausted by the concurrent messages
+                : encrypt(cacheKey, plaintext));
+    }
+
+    private CompletableFuture<byte[]> decrypt(CacheKey cacheKey, byte[] message) {
+        DataKey dataKey;
+        synchronized (decryptionKeys) {
+            dataKey = decryptionKeys.get(cacheKey);
+        }
+        if (dataKey != null && !dataKey.isExpired(System.nanoTime()) && dataKey.acquire()) {
+            return open(dataKey, cacheKey, message);
+        }
+        return unwrap(cacheKey).thenCompose(unwrapped -> unwrapped.acquire()
+                ? open(unwrapped, cacheKey, message)
+                // evicted in the meantime
+                : decrypt(cacheKey, message));
+    }
+
+    private CompletableFuture<DataKey> generate(CacheKey cacheKey) {
+        CompletableFuture<DataKey> generation = new CompletableFuture<>();
+        CompletableFuture<DataKey> pending = generations.putIfAbsent(cacheKey, generation);
+        if (pending != null) {
+            return pending;
+        }
+
+        try {
+            client.generateDataKey(r -> r.keyId(cacheKey.keyId)
+                    .keySpec(dataKeySpec)
+                    .encryptionContext(cacheKey.encryptionContext))
+                    .whenComplete((response, failure) -> {
+                        generations.remove(cacheKey, generation);
+                        if (failure != null) {
+                            generation.completeExceptionally(failure);
+                            return;
+                        }
+                        generatedKeys.increment();
+                        // the arrays of the response are not copied, they are zeroized with the key
+                        DataKey dataKey = new DataKey(response.plaintext().asByteArrayUnsafe(),
+                                response.ciphertextBlob().asByteArray());
+                        DataKey previous = encryptionKeys.put(cacheKey, dataKey);
+                        if (previous != null) {
+                            evicted(previous);
+                        }
+                        // the messages encrypted with the key are decrypted without KMS request
+                        dataKey.acquire();
+                        cacheForDecryption(new CacheKey(null, dataKey.ciphertextBlob, cacheKey.encryptionContext), dataKey);
+                        generation.complete(dataKey);
+                    });
+        } catch (RuntimeException e) {
+            generations.remove(cacheKey, generation);
+            generation.completeExceptionally(e);
+        }
+        return generation;
+    }
+
+    private CompletableFuture<DataKey> unwrap(CacheKey cacheKey) {
+        CompletableFuture<DataKey> unwrap = new CompletableFuture<>();
+        CompletableFuture<DataKey> pending = unwraps.putIfAbsent(cacheKey, unwrap);
+        if (pending != null) {
+            return pending;
+        }
+
+        try {
+            client.decrypt(r -> r.ciphertextBlob(SdkBytes.fromByteArrayUnsafe(cacheKey.ciphertextBlob))
+                    .encryptionContext(cacheKey.encryptionContext))
+                    .whenComplete((response, failure) -> {
+                        unwraps.remove(cacheKey, unwrap);
+                        if (failure != null) {
+                            unwrap.completeExceptionally(failure);
+                            return;
+                        }
+                        unwrappedKeys.increment();
+                        DataKey dataKey = new DataKey(response.plaintext().asByteArrayUnsafe(), cacheKey.ciphertextBlob);
+                        cacheForDecryption(cacheKey, dataKey);
+                        unwrap.complete(dataKey);
+                    });
+        } catch (RuntimeException e) {
+            unwraps.remove(cacheKey, unwrap);
+            unwrap.completeExceptionally(e);
+        }
+        return unwrap;
+    }
+
+    // the reference of the cache on the key is already acquired
+    private void cacheForDecryption(CacheKey cacheKey, DataKey dataKey) {
+        List<DataKey> evicted = new ArrayList<>();
+        synchronized (decryptionKeys) {
+            DataKey previous = decryptionKeys.put(cacheKey, dataKey);
+            if (previous != null) {
+                evicted.add(previous);
+            }
+            Iterator<DataKey> iterator = decryptionKeys.values().iterator();
+            while (decryptionKeys.size() > maxSize && iterator.hasNext()) {
+                evicted.add(iterator.next());
+                iterator.remove();
+            }
+        }
+        evicted.forEach(this::evicted);
+        if (closed) {
+            evict(key -> true);
+        }
+    }
+
+    private CompletableFuture<byte[]> seal(DataKey dataKey, CacheKey cacheKey, byte[] plaintext) {
+        byte[] ciphertextBlob = dataKey.ciphertextBlob;
+        int headerLength = 3 + ciphertextBlob.length;
+        byte[] message = new byte[headerLength + IV_LENGTH + plaintext.length + TAG_LENGTH];
+        message[0] = VERSION;
+        message[1] = (byte) (ciphertextBlob.length >>> 8);
+        message[2] = (byte) ciphertextBlob.length;
+        System.arraycopy(ciphertextBlob, 0, message, 3, ciphertextBlob.length);
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        System.arraycopy(iv, 0, message, headerLength, IV_LENGTH);
+
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, dataKey.key, new GCMParameterSpec(TAG_LENGTH * 8, iv));
+            cipher.updateAAD(message, 0, headerLength);
+            cipher.updateAAD(cacheKey.associatedData);
+            cipher.doFinal(plaintext, 0, plaintext.length, message, headerLength + IV_LENGTH);
+            encrypted.increment();
+            return CompletableFuture.completedFuture(message);
+        } catch (GeneralSecurityException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            dataKey.release();
+        }
+    }
+
+    private CompletableFuture<byte[]> open(DataKey dataKey, CacheKey cacheKey, byte[] message) {
+        int headerLength = 3 + cacheKey.ciphertextBlob.length;
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, dataKey.key,
+                    new GCMParameterSpec(TAG_LENGTH * 8, message, headerLength, IV_LENGTH));
+            cipher.updateAAD(message, 0, headerLength);
+            cipher.updateAAD(cacheKey.associatedData);
+            byte[] plaintext = cipher.doFinal(message, headerLength + IV_LENGTH, message.length - headerLength - IV_LENGTH);
+            decrypted.increment();
+            return CompletableFuture.completedFuture(plaintext);
+        } catch (GeneralSecurityException e) {
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            dataKey.release();
+        }
+    }
+
+    private CompletableFuture<List<byte[]>> inParallel(List<byte[]> inputs,
+            Function<byte[], CompletableFuture<byte[]>> operation) {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        int chunkSize = Math.max(1, (inputs.size() + parallelism - 1) / parallelism);
+        List<CompletableFuture<List<CompletableFuture<byte[]>>>> chunks = new ArrayList<>();
+        for (int i = 0; i < inputs.size(); i += chunkSize) {
+            List<byte[]> chunk = inputs.subList(i, Math.min(i + chunkSize, inputs.size()));
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                List<CompletableFuture<byte[]>> results = new ArrayList<>(chunk.size());
+                for (byte[] input : chunk) {
+                    results.add(operation.apply(input));
+                }
+                return results;
+            }, executor));
+        }
+        return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).thenCompose(ignored -> {
+            List<CompletableFuture<byte[]>> results = new ArrayList<>(inputs.size());
+            chunks.forEach(chunk -> results.addAll(chunk.join()));
+            return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).thenApply(done -> {
+                List<byte[]> outputs = new ArrayList<>(results.size());
+                results.forEach(result -> outputs.add(result.join()));
+                return outputs;
+            });
+        });
+    }
+
+    private void evictExpired() {
+        long now = System.nanoTime();
+        evict(dataKey -> dataKey.isExpired(now));
+    }
+
+    private void evict(Predicate<DataKey> predicate) {
+        encryptionKeys.forEach((cacheKey, dataKey) -> {
+            if (predicate.test(dataKey) && encryptionKeys.remove(cacheKey, dataKey)) {
+                evicted(dataKey);
+            }
+        });
+        List<DataKey> evicted = new ArrayList<>();
+        synchronized (decryptionKeys) {
+            Iterator<DataKey> iterator = decryptionKeys.values().iterator();
+            while (iterator.hasNext()) {
+                DataKey dataKey = iterator.next();
+                if (predicate.test(dataKey)) {
+                    evicted.add(dataKey);
+                    iterator.remove();
+                }
+            }
+        }
+        evicted.forEach(this::evicted);
+    }
+
+    private void evicted(DataKey dataKey) {
+        evictedKeys.increment();
+        dataKey.release();
+    }
+
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private final class DataKey {
+        private final AesKey key;
+        private final byte[] ciphertextBlob;
+        private final long createdAt = System.nanoTime();
+        private final AtomicLong messages = new AtomicLong();
+        private final AtomicLong bytes = new AtomicLong();
+        // the caches holding the key and the operations using it, the key is zeroized once there are none left
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        private DataKey(byte[] key, byte[] ciphertextBlob) {
+            this.key = new AesKey(key);
+            this.ciphertextBlob = ciphertextBlob;
+        }
+
+        boolean isExpired(long now) {
+            return now - createdAt >= maxAgeNanos;
+        }
+
+        // counts the message against the limits of the key
+        boolean acquireFor(int length, long now) {
+            if (isExpired(now) || messages.incrementAndGet() > maxMessages || bytes.addAndGet(length) > maxBytes) {
+                return false;
+            }
+            return acquire();
+        }
+
+        boolean acquire() {
+            while (true) {
+                int current = references.get();
+                if (current == 0) {
+                    // already zeroized
+                    return false;
+                }
+                if (references.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            if (references.decrementAndGet() == 0) {
+                key.destroy();
+            }
+        }
+    }
+
+    /**
+     * An AES key holding the only copy of the plaintext data key, zeroized when destroyed.
+     */
+    private static final class AesKey implements SecretKey {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] key;
+        private volatile boolean destroyed;
+
+        private AesKey(byte[] key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getAlgorithm() {
+            return "AES";
+        }
+
+        @Override
+        public String getFormat() {
+            return "RAW";
+        }
+
+        @Override
+        public byte[] getEncoded() {
+            if (destroyed) {
+                throw new IllegalStateException("The data key is zeroized");
+            }
+            // copied by contract, the caller may keep or clear the array
+            return key.clone();
+        }
+
+        @Override
+        public void destroy() {
+            destroyed = true;
+            Arrays.fill(key, (byte) 0);
+        }
+
+        @Override
+        public boolean isDestroyed() {
+            return destroyed;
+        }
+    }
+
+    private static final class CacheKey {
+        private final String keyId;
+        private final byte[] ciphertextBlob;
+        private final Map<String, String> encryptionContext;
+        // the canonical encoding of the encryption context, authenticated with the messages
+        private final byte[] associatedData;
+        private final int hashCode;
+
+        private CacheKey(String keyId, byte[] ciphertextBlob, Map<String, String> encryptionContext) {
+            this.keyId = keyId;
+            this.ciphertextBlob = ciphertextBlob;
+            this.encryptionContext = Map.copyOf(encryptionContext);
+            this.associatedData = encode(encryptionContext);
+            this.hashCode = 31 * (31 * Objects.hashCode(keyId) + Arrays.hashCode(ciphertextBlob))
+                    + Arrays.hashCode(associatedData);
+        }
+
+        private static byte[] encode(Map<String, String> encryptionContext) {
+            if (encryptionContext.isEmpty()) {
+                return new byte[0];
+            }
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try (DataOutputStream output = new DataOutputStream(encoded)) {
+                for (Map.Entry<String, String> entry : new TreeMap<>(encryptionContext).entrySet()) {
+                    output.writeUTF(entry.getKey());
+                    output.writeUTF(entry.getValue());
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return encoded.toByteArray();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey other = (CacheKey) o;
+            return Objects.equals(keyId, other.keyId) && Arrays.equals(ciphertextBlob, other.ciphertextBlob)
+                    && Arrays.equals(associatedData, other.associatedData);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
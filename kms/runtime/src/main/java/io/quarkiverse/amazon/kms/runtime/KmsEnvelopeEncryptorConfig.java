@@ -0,0 +1,58 @@
+package io.quarkiverse.amazon.kms.runtime;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+import software.amazon.awssdk.services.kms.model.DataKeySpec;
+
+@ConfigGroup
+public interface KmsEnvelopeEncryptorConfig {
+
+    /**
+     * The id, ARN or alias of the KMS key wrapping the data keys of the messages encrypted without explicit key.
+     */
+    @ConfigDocDefault("The key must be specified when encrypting")
+    Optional<String> keyId();
+
+    /**
+     * The length of the data keys.
+     */
+    @WithDefault("AES_256")
+    DataKeySpec dataKeySpec();
+
+    /**
+     * The amount of time a data key is kept in memory, to encrypt messages or to decrypt them.
+     */
+    @WithDefault("5M")
+    @WithConverter(DurationConverter.class)
+    Duration maxAge();
+
+    /**
+     * The maximum number of messages encrypted with a data key before a new data key is generated. The maximum value
+     * is 2^32, the limit of AES-GCM with random initialization vectors.
+     */
+    @WithDefault("1000000")
+    long maxMessages();
+
+    /**
+     * The maximum number of bytes encrypted with a data key before a new data key is generated.
+     */
+    @WithDefault("64G")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxBytes();
+
+    /**
+     * The maximum number of unwrapped data keys kept in memory to decrypt messages.
+     * <p>
+     * Least recently used data keys are evicted once this number is exceeded.
+     */
+    @WithDefault("1000")
+    int maxSize();
+}
@@ -1,9 +1,16 @@
 package io.quarkiverse.amazon.kms.runtime;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
@@ -44,4 +51,65 @@ public class KmsRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return KmsAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<KmsEnvelopeEncryptor>, KmsEnvelopeEncryptor> createEnvelopeEncryptor(
+            String clientName, ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<KmsEnvelopeEncryptor>, KmsEnvelopeEncryptor>() {
+            @Override
+            public KmsEnvelopeEncryptor apply(SyntheticCreationalContext<KmsEnvelopeEncryptor> context) {
+                KmsAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(KmsAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(KmsAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                KmsEnvelopeEncryptorConfig encryptorConfig = config.envelopeEncryptor();
+                if (encryptorConfig.maxMessages() < 1
+                        || encryptorConfig.maxMessages() > KmsEnvelopeEncryptor.MAX_MESSAGES_PER_KEY) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.kms.envelope-encryptor.max-messages must be between 1 and 4294967296");
+                }
+                return new KmsEnvelopeEncryptor(client,
+                        scheduledExecutorService,
+                        encryptorConfig.keyId().orElse(null),
+                        encryptorConfig.dataKeySpec(),
+                        encryptorConfig.maxAge(),
+                        encryptorConfig.maxMessages(),
+                        encryptorConfig.maxBytes().asLongValue(),
+                        encryptorConfig.maxSize());
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<KmsBulkOperations>, KmsBulkOperations> createBulkOperations(
+            String clientName, ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<KmsBulkOperations>, KmsBulkOperations>() {
+            @Override
+            public KmsBulkOperations apply(SyntheticCreationalContext<KmsBulkOperations> context) {
+                KmsAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(KmsAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(KmsAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                KmsBulkConfig bulkConfig = config.bulk();
+                if (bulkConfig.requestsPerSecond() <= 0 || bulkConfig.burst() < 1 || bulkConfig.maxConcurrency() < 1) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.kms.bulk.requests-per-second, burst and max-concurrency must be positive");
+                }
+                return new KmsBulkOperations(client,
+                        scheduledExecutorService,
+                        bulkConfig.requestsPerSecond(),
+                        bulkConfig.burst(),
+                        bulkConfig.maxConcurrency(),
+                        bulkConfig.maxRetries(),
+                        bulkConfig.retryBackoff(),
+                        bulkConfig.maxRetryBackoff());
+            }
+        };
+    }
 }
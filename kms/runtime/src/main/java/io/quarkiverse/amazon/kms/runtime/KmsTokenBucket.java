@@ -0,0 +1,34 @@
+package io.quarkiverse.amazon.kms.runtime;
+
+/**
+ * A token bucket limiting the rate of the requests, where a permit is reserved ahead of time when the bucket is empty.
+ */
+final class KmsTokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    // guarded by this
+    private double tokens;
+    private long refilledAt;
+
+    KmsTokenBucket(double tokensPerSecond, int capacity) {
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Reserves a permit.
+     *
+     * @return the number of nanoseconds to wait before using the permit
+     */
+    synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
@@ -2,6 +2,9 @@ package io.quarkiverse.amazon.lambda.deployment;
 
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,8 +25,10 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
 import io.quarkiverse.amazon.lambda.runtime.LambdaBuildTimeConfig;
 import io.quarkiverse.amazon.lambda.runtime.LambdaConfig;
+import io.quarkiverse.amazon.lambda.runtime.LambdaInvoker;
 import io.quarkiverse.amazon.lambda.runtime.LambdaRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
@@ -43,6 +48,8 @@ import software.amazon.awssdk.services.lambda.LambdaClientBuilder;
 public class LambdaProcessor extends AbstractAmazonServiceProcessor {
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-lambda";
 
+    private static final DotName LAMBDA_INVOKER = DotName.createSimple(LambdaInvoker.class);
+
     LambdaBuildTimeConfig buildTimeConfig;
 
     @Override
@@ -84,6 +91,8 @@ public class LambdaProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, LAMBDA_INVOKER, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -224,4 +233,31 @@ public class LambdaProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createInvokers(LambdaRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the invoker is removed if not injected, the connections are pre-warmed when it is created
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(LambdaInvoker.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createInvoker(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(LambdaAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
 }
@@ -0,0 +1,249 @@
+package io.quarkiverse.amazon.lambda.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.amazon.lambda.runtime.LambdaInvoker;
+import io.smallrye.mutiny.subscription.Cancellable;
+import software.amazon.awssdk.services.lambda.LambdaAsyncClient;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+import software.amazon.awssdk.services.lambda.model.InvokeWithResponseStreamRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeWithResponseStreamResponseHandler;
+
+/**
+ * Runs the invoker against a local stub of the client completing the invocations on demand, without Lambda.
+ */
+class LambdaInvokerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void boundsTheConcurrency() {
+        StubLambdaClient stub = new StubLambdaClient();
+        LambdaInvoker invoker = new LambdaInvoker(stub, scheduler, 2, 10, List.of(), 0, null);
+
+        List<CompletableFuture<InvokeResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            results.add(invoker.invoke(request("function")));
+        }
+        // the invocations of the other functions are not queued behind them
+        CompletableFuture<InvokeResponse> other = invoker.invoke(request("other"));
+        assertEquals(2, stub.inFlight("function"));
+        assertEquals(1, stub.inFlight("other"));
+        assertEquals(3, invoker.pending());
+
+        // the completion of an invocation sends the next one
+        stub.complete("function");
+        assertTrue(results.get(0).isDone());
+        assertEquals(2, stub.inFlight("function"));
+        assertEquals(2, invoker.pending());
+        while (stub.inFlight("function") > 0) {
+            stub.complete("function");
+        }
+        stub.complete("other");
+        results.forEach(result -> assertEquals(200, result.join().statusCode()));
+        assertEquals(200, other.join().statusCode());
+
+        assertEquals(6, invoker.invocations());
+        assertEquals(0, invoker.pending());
+        assertEquals(2, stub.maxInFlight("function"));
+        invoker.close();
+    }
+
+    @Test
+    void drainsTheQueueInALoop() {
+        StubLambdaClient stub = new StubLambdaClient();
+        LambdaInvoker invoker = new LambdaInvoker(stub, scheduler, 1, 100_000, List.of(), 0, null);
+
+        CompletableFuture<InvokeResponse> first = invoker.invoke(request("function"));
+        stub.synchronous = true;
+        List<CompletableFuture<InvokeResponse>> queued = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            queued.add(invoker.invoke(request("function")));
+        }
+        assertEquals(100_000, invoker.pending());
+
+        // each queued invocation is completed on the thread sending it, which releases its slot to the next one
+        stub.complete("function");
+        assertEquals(200, first.join().statusCode());
+        queued.forEach(result -> assertEquals(200, result.join().statusCode()));
+        assertEquals(0, invoker.pending());
+        assertEquals(100_001, invoker.invocations());
+        invoker.close();
+    }
+
+    @Test
+    void rejectsTheInvocationsAboveTheMaximumPending() throws Exception {
+        StubLambdaClient stub = new StubLambdaClient();
+        LambdaInvoker invoker = new LambdaInvoker(stub, scheduler, 1, 2, List.of(), 0, null);
+
+        List<CompletableFuture<InvokeResponse>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(invoker.invoke(request("function")));
+        }
+        assertEquals(2, invoker.pending());
+
+        CompletableFuture<InvokeResponse> overflow = invoker.invoke(request("function"));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> overflow.get(1, TimeUnit.MINUTES));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+
+        CompletableFuture<List<ByteBuffer>> stream = invoker.invokeWithResponseStream("function", new byte[0])
+                .collect().asList()
+                .subscribeAsCompletionStage()
+                .toCompletableFuture();
+        failure = assertThrows(ExecutionException.class, () -> stream.get(1, TimeUnit.MINUTES));
+        assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+        assertEquals(0, stub.streams.get());
+        assertEquals(2, invoker.rejected());
+
+        // the rejected invocations do not hold a slot
+        for (int i = 0; i < 3; i++) {
+            stub.complete("function");
+        }
+        results.forEach(result -> assertEquals(200, result.join().statusCode()));
+        assertEquals(0, invoker.pending());
+        assertEquals(3, invoker.invocations());
+        invoker.close();
+    }
+
+    @Test
+    void cancelsTheResponseStreams() {
+        StubLambdaClient stub = new StubLambdaClient();
+        LambdaInvoker invoker = new LambdaInvoker(stub, scheduler, 1, 10, List.of(), 0, null);
+
+        CompletableFuture<InvokeResponse> first = invoker.invoke(request("function"));
+        Cancellable queued = invoker.invokeWithResponseStream("function", new byte[0]).subscribe()
+                .with(chunk -> {
+                }, failure -> {
+                });
+        assertEquals(1, invoker.pending());
+
+        // a stream cancelled while queued is not invoked
+        queued.cancel();
+        stub.complete("function");
+        assertEquals(200, first.join().statusCode());
+        assertEquals(0, stub.streams.get());
+        assertEquals(0, invoker.pending());
+        assertEquals(1, invoker.invocations());
+
+        // a stream cancelled while in flight releases its slot to the next invocation
+        Cancellable inFlight = invoker.invokeWithResponseStream("function", new byte[0]).subscribe()
+                .with(chunk -> {
+                }, failure -> {
+                });
+        assertEquals(1, stub.streams.get());
+        CompletableFuture<InvokeResponse> next = invoker.invoke(request("function"));
+        assertEquals(1, invoker.pending());
+        assertFalse(next.isDone());
+        inFlight.cancel();
+        assertEquals(0, invoker.pending());
+        stub.complete("function");
+        assertEquals(200, next.join().statusCode());
+        assertEquals(3, invoker.invocations());
+        invoker.close();
+    }
+
+    private static InvokeRequest request(String functionName) {
+        return InvokeRequest.builder().functionName(functionName).build();
+    }
+
+    private static final class StubLambdaClient implements LambdaAsyncClient {
+
+        private final List<Invocation> invocations = new CopyOnWriteArrayList<>();
+        private final AtomicInteger streams = new AtomicInteger();
+        private volatile boolean synchronous;
+
+        @Override
+        public CompletableFuture<InvokeResponse> invoke(InvokeRequest request) {
+            if (synchronous) {
+                return CompletableFuture.completedFuture(InvokeResponse.builder().statusCode(200).build());
+            }
+            Invocation invocation = new Invocation(request.functionName(), inFlight(request.functionName()) + 1);
+            invocations.add(invocation);
+            return invocation.response;
+        }
+
+        @Override
+        public CompletableFuture<Void> invokeWithResponseStream(InvokeWithResponseStreamRequest request,
+                InvokeWithResponseStreamResponseHandler handler) {
+            streams.incrementAndGet();
+            // the event stream is never received
+            return new CompletableFuture<>();
+        }
+
+        int inFlight(String functionName) {
+            int inFlight = 0;
+            for (Invocation invocation : invocations) {
+                if (invocation.functionName.equals(functionName) && !invocation.response.isDone()) {
+                    inFlight++;
+                }
+            }
+            return inFlight;
+        }
+
+        int maxInFlight(String functionName) {
+            int max = 0;
+            for (Invocation invocation : invocations) {
+                if (invocation.functionName.equals(functionName)) {
+                    max = Math.max(max, invocation.inFlight);
+                }
+            }
+            return max;
+        }
+
+        void complete(String functionName) {
+            for (Invocation invocation : invocations) {
+                if (invocation.functionName.equals(functionName) && !invocation.response.isDone()) {
+                    invocation.response.complete(InvokeResponse.builder().statusCode(200).build());
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class Invocation {
+
+        private final String functionName;
+        // the number of invocations of the function in flight once sent
+        private final int inFlight;
+        private final CompletableFuture<InvokeResponse> response = new CompletableFuture<>();
+
+        private Invocation(String functionName, int inFlight) {
+            this.functionName = functionName;
+            this.inFlight = inFlight;
+        }
+    }
+}
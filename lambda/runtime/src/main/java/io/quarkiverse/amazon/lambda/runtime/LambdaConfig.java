@@ -19,4 +19,8 @@ public interface LambdaConfig extends HasAmazonClientRuntimeConfig {
     /** Async HTTP transport configurations */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /** Invoker configurations */
+    @ConfigDocSection
+    LambdaInvokerConfig invoker();
 }
@@ -0,0 +1,510 @@
+package io.quarkiverse.amazon.lambda.runtime;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import io.smallrye.mutiny.Multi;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.lambda.LambdaAsyncClient;
+import software.amazon.awssdk.services.lambda.model.InvocationType;
+import software.amazon.awssdk.services.lambda.model.InvokeRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeResponse;
+import software.amazon.awssdk.services.lambda.model.InvokeResponseStreamUpdate;
+import software.amazon.awssdk.services.lambda.model.InvokeWithResponseStreamCompleteEvent;
+import software.amazon.awssdk.services.lambda.model.InvokeWithResponseStreamRequest;
+import software.amazon.awssdk.services.lambda.model.InvokeWithResponseStreamResponseEvent;
+import software.amazon.awssdk.services.lambda.model.InvokeWithResponseStreamResponseHandler;
+import software.amazon.awssdk.services.lambda.model.LambdaException;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Invokes functions with a bounded number of invocations in flight per function.
+ * <p>
+ * The invocations above the maximum concurrency of a function are queued and sent as the previous invocations of the
+ * function complete, so that a burst of invocations of a function neither exhausts the connections of the client nor
+ * starves the other functions. The payloads are passed to the client and returned without being copied. The connections
+ * to the invoke endpoint can be opened in advance, and kept open, with {@code DryRun} invocations.
+ */
+public class LambdaInvoker implements SdkAutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(LambdaInvoker.class);
+
+    private final LambdaAsyncClient client;
+    private final int maxConcurrency;
+    private final int maxPending;
+    private final List<String> prewarmFunctions;
+    private final int prewarmConnections;
+    private final ScheduledFuture<?> scheduledPrewarm;
+
+    private final Map<String, Limiter> limiters = new ConcurrentHashMap<>();
+
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder functionErrors = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public LambdaInvoker(LambdaAsyncClient client, ScheduledExecutorService scheduler, int maxConcurrency,
+            int maxPending, List<String> prewarmFunctions, int prewarmConnections, Duration prewarmInterval) {
+        this.client = client;
+        this.maxConcurrency = maxConcurrency;
+        this.maxPending = maxPending;
+        this.prewarmFunctions = prewarmFunctions;
+        this.prewarmConnections = prewarmConnections;
+
+        prewarm();
+        if (prewarmInterval != null && !prewarmFunctions.isEmpty()) {
+            this.scheduledPrewarm = scheduler.scheduleWithFixedDelay(this::prewarm, prewarmInterval.toNanos(),
+                    prewarmInterval.toNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            this.scheduledPrewarm = null;
+        }
+    }
+
+    /**
+     * Invokes a function synchronously. The payload is not copied and must not be modified until the invocation
+     * completes.
+     *
+     * @param functionName the name or ARN of the function
+     * @param payload the JSON payload
+     * @return the payload of the response, a read-only view of the response without copy, or a future failed with a
+     *         {@link LambdaException} if the function failed
+     */
+    public CompletableFuture<ByteBuffer> invoke(String functionName, byte[] payload) {
+        return invoke(InvokeRequest.builder()
+                .functionName(functionName)
+                .payload(SdkBytes.fromByteArrayUnsafe(payload))
+                .build())
+                .thenApply(response -> {
+                    if (response.functionError() != null) {
+                        throw LambdaException.builder()
+                                .message(response.functionError() + ": " + response.payload().asUtf8String())
+                                .statusCode(response.statusCode())
+                                .build();
+                    }
+                    return response.payload() != null ? response.payload().asByteBuffer() : ByteBuffer.allocate(0);
+                });
+    }
+
+    /**
+     * Invokes a function once the number of its invocations in flight is below the maximum concurrency.
+     *
+     * @param request the invocation
+     * @return the response, including the response of a failed function
+     */
+    public CompletableFuture<InvokeResponse> invoke(InvokeRequest request) {
+        CompletableFuture<InvokeResponse> result = new CompletableFuture<>();
+        Limiter limiter = limiters.computeIfAbsent(request.functionName(), name -> new Limiter());
+        if (!limiter.submit(() -> {
+            invocations.increment();
+            CompletableFuture<InvokeResponse> response;
+            try {
+                response = client.invoke(request);
+            } catch (RuntimeException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            response.whenComplete((invoked, failure) -> {
+                limiter.release();
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    if (invoked.functionError() != null) {
+                        functionErrors.increment();
+                    }
+                    result.complete(invoked);
+                }
+            });
+        })) {
+            return rejected(request.functionName());
+        }
+        return result;
+    }
+
+    /**
+     * Invokes a function streaming its response. The invocation counts in the concurrency of the function until the
+     * stream completes or the subscription is cancelled.
+     *
+     * @param functionName the name or ARN of the function
+     * @param payload the JSON payload, not copied
+     * @return the chunks of the response, read-only views of the received events without copy, requested from the
+     *         stream as they are requested by the subscriber
+     */
+    public Multi<ByteBuffer> invokeWithResponseStream(String functionName, byte[] payload) {
+        return invokeWithResponseStream(InvokeWithResponseStreamRequest.builder()
+                .functionName(functionName)
+                .payload(SdkBytes.fromByteArrayUnsafe(payload))
+                .build());
+    }
+
+    /**
+     * Invokes a function streaming its response.
+     *
+     * @param request the invocation
+     * @return the chunks of the response, the stream failing with a {@link LambdaException} if the function failed
+     */
+    public Multi<ByteBuffer> invokeWithResponseStream(InvokeWithResponseStreamRequest request) {
+        return Multi.createFrom().publisher(new ResponseStream(request));
+    }
+
+    @Override
+    public void close() {
+        if (scheduledPrewarm != null) {
+            scheduledPrewarm.cancel(false);
+        }
+    }
+
+    /**
+     * @return the number of invocations sent
+     */
+    public long invocations() {
+        return invocations.sum();
+    }
+
+    /**
+     * @return the number of invocations whose function failed
+     */
+    public long functionErrors() {
+        return functionErrors.sum();
+    }
+
+    /**
+     * @return the number of invocations rejected because too many invocations of the function were queued
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return the number of invocations waiting for the completion of an invocation of the same function
+     */
+    public long pending() {
+        long pending = 0;
+        for (Limiter limiter : limiters.values()) {
+            pending += limiter.pendingCount.get();
+        }
+        return pending;
+    }
+
+    private <T> CompletableFuture<T> rejected(String functionName) {
+        rejected.increment();
+        return CompletableFuture.failedFuture(new RejectedExecutionException(
+                "Too many pending invocations of the function " + functionName));
+    }
+
+    private void prewarm() {
+        for (String functionName : prewarmFunctions) {
+            // concurrent requests make the client open as many connections
+            for (int i = 0; i < prewarmConnections; i++) {
+                try {
+                    client.invoke(r -> r.functionName(functionName).invocationType(InvocationType.DRY_RUN))
+                            .whenComplete((ignored, failure) -> {
+                                if (failure != null) {
+                                    LOG.debugf(failure, "Unable to pre-warm the connections to the function %s",
+                                            functionName);
+                                }
+                            });
+                } catch (RuntimeException e) {
+                    LOG.debugf(e, "Unable to pre-warm the connections to the function %s", functionName);
+                }
+            }
+        }
+    }
+
+    /**
+     * Bounds the number of invocations in flight of a function.
+     * <p>
+     * The queue is drained by one thread at a time, in a loop: an invocation completed on the thread sending it
+     * releases its slot without sending the next invocation from within the previous one.
+     */
+    private final class Limiter {
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+        // the number of times the queue must be drained again, the thread incrementing it from zero drains it
+        private final AtomicInteger drainRequests = new AtomicInteger();
+
+        boolean submit(Runnable invocation) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                return false;
+            }
+            pending.add(invocation);
+            drain();
+            return true;
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+            drain();
+        }
+
+        private void drain() {
+            if (drainRequests.getAndIncrement() != 0) {
+                // drained again by the thread draining the queue
+                return;
+            }
+            int requests = 1;
+            do {
+                dispatch();
+                requests = drainRequests.addAndGet(-requests);
+            } while (requests != 0);
+        }
+
+        private void dispatch() {
+            while (!pending.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= maxConcurrency) {
+                    // the completion of an invocation in flight drains the queue
+                    return;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                Runnable invocation = pending.poll();
+                if (invocation == null) {
+                    // the queue is checked again in case an invocation was added meanwhile
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                pendingCount.decrementAndGet();
+                invocation.run();
+            }
+        }
+    }
+
+    /**
+     * Adapts the event stream of an {@code InvokeWithResponseStream} request to a {@link Flow.Publisher} of the payload
+     * chunks, the events being requested from the stream as they are requested by the subscriber.
+     */
+    private final class ResponseStream implements Flow.Publisher<ByteBuffer> {
+
+        private final InvokeWithResponseStreamRequest request;
+
+        private ResponseStream(InvokeWithResponseStreamRequest request) {
+            this.request = request;
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            Limiter limiter = limiters.computeIfAbsent(request.functionName(), name -> new Limiter());
+            StreamSubscription stream = new StreamSubscription(subscriber, limiter);
+            subscriber.onSubscribe(stream);
+            if (stream.cancelled) {
+                return;
+            }
+            if (!limiter.submit(() -> {
+                if (!stream.acquired()) {
+                    // cancelled while queued, the function is not invoked
+                    return;
+                }
+                invocations.increment();
+                CompletableFuture<Void> response;
+                try {
+                    response = client.invokeWithResponseStream(request, InvokeWithResponseStreamResponseHandler.builder()
+                            .onEventStream(publisher -> publisher.subscribe(new EventSubscriber(stream)))
+                            .build());
+                } catch (RuntimeException e) {
+                    response = CompletableFuture.failedFuture(e);
+                }
+                response.whenComplete((ignored, failure) -> {
+                    if (failure != null) {
+                        // the request failed, possibly before the event stream was received
+                        stream.fail(failure);
+                    }
+                });
+            })) {
+                rejected.increment();
+                stream.fail(new RejectedExecutionException(
+                        "Too many pending invocations of the function " + request.functionName()));
+            }
+        }
+    }
+
+    /**
+     * The subscription of a response stream, given to the subscriber before the invocation is sent. The requests of the
+     * subscriber are passed to the event stream once it is received, and a cancellation releases the slot of the
+     * invocation or, if the invocation is still queued, prevents it from being sent.
+     */
+    private static final class StreamSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final Limiter limiter;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final Object signals = new Object();
+        private volatile boolean acquired;
+        private volatile boolean cancelled;
+        // guarded by this
+        private Subscription events;
+        private long requested;
+        // guarded by the signals
+        private boolean done;
+
+        private StreamSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, Limiter limiter) {
+            this.subscriber = subscriber;
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("The number of requested chunks must be positive: " + n));
+                cancel();
+                return;
+            }
+            Subscription current;
+            synchronized (this) {
+                current = events;
+                if (current == null) {
+                    requested = requested + n < 0 ? Long.MAX_VALUE : requested + n;
+                    return;
+                }
+            }
+            current.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            Subscription current;
+            synchronized (this) {
+                current = events;
+            }
+            if (current != null) {
+                current.cancel();
+            }
+            if (acquired) {
+                release();
+            }
+        }
+
+        // called with the slot of the invocation, which is released if the subscription was cancelled
+        boolean acquired() {
+            acquired = true;
+            if (cancelled) {
+                release();
+                return false;
+            }
+            return true;
+        }
+
+        void subscribed(Subscription subscription) {
+            long initial;
+            synchronized (this) {
+                events = subscription;
+                initial = requested;
+                requested = 0;
+            }
+            if (cancelled) {
+                subscription.cancel();
+            } else if (initial > 0) {
+                subscription.request(initial);
+            }
+        }
+
+        void next(ByteBuffer chunk) {
+            synchronized (signals) {
+                if (!done && !cancelled) {
+                    subscriber.onNext(chunk);
+                }
+            }
+        }
+
+        void fail(Throwable failure) {
+            synchronized (signals) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            release();
+            if (!cancelled) {
+                subscriber.onError(failure);
+            }
+        }
+
+        void complete() {
+            synchronized (signals) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            release();
+            if (!cancelled) {
+                subscriber.onComplete();
+            }
+        }
+
+        private void release() {
+            if (acquired && released.compareAndSet(false, true)) {
+                limiter.release();
+            }
+        }
+    }
+
+    private final class EventSubscriber implements Subscriber<InvokeWithResponseStreamResponseEvent> {
+
+        private final StreamSubscription stream;
+        private Subscription subscription;
+
+        private EventSubscriber(StreamSubscription stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            stream.subscribed(subscription);
+        }
+
+        @Override
+        public void onNext(InvokeWithResponseStreamResponseEvent event) {
+            if (event instanceof InvokeResponseStreamUpdate) {
+                SdkBytes payload = ((InvokeResponseStreamUpdate) event).payload();
+                if (payload != null) {
+                    stream.next(payload.asByteBuffer());
+                    return;
+                }
+            } else if (event instanceof InvokeWithResponseStreamCompleteEvent) {
+                InvokeWithResponseStreamCompleteEvent complete = (InvokeWithResponseStreamCompleteEvent) event;
+                if (complete.errorCode() != null) {
+                    functionErrors.increment();
+                    subscription.cancel();
+                    stream.fail(LambdaException.builder()
+                            .message(complete.errorCode() + ": " + complete.errorDetails())
+                            .build());
+                    return;
+                }
+            }
+            // the event requested by the subscriber is replaced by the next one
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable failure) {
+            stream.fail(failure);
+        }
+
+        @Override
+        public void onComplete() {
+            stream.complete();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.quarkiverse.amazon.lambda.runtime;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface LambdaInvokerConfig {
+
+    /**
+     * The maximum number of invocations of a function in flight. The invocations above are queued until an invocation
+     * of the function completes.
+     * <p>
+     * Keep the sum of the invocations of all the functions below the maximum number of connections of the async client.
+     */
+    @WithDefault("64")
+    int maxConcurrency();
+
+    /**
+     * The maximum number of queued invocations of a function, the invocations above fail immediately.
+     */
+    @WithDefault("10000")
+    int maxPending();
+
+    /**
+     * The functions invoked with the {@code DryRun} invocation type when the invoker is created, to open the connections
+     * to the invoke endpoint before the first invocation.
+     */
+    @ConfigDocDefault("No connection is opened in advance")
+    Optional<List<String>> prewarmFunctions();
+
+    /**
+     * The number of concurrent {@code DryRun} invocations of each pre-warmed function, which is the number of
+     * connections opened in advance.
+     */
+    @WithDefault("8")
+    int prewarmConnections();
+
+    /**
+     * The interval of the {@code DryRun} invocations keeping the connections open, it must be below the maximum idle
+     * time of the connections of the async client.
+     */
+    @ConfigDocDefault("The connections are only opened when the invoker is created")
+    @WithConverter(DurationConverter.class)
+    Optional<Duration> prewarmInterval();
+}
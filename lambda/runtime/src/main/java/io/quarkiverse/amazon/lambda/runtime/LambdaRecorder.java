@@ -1,6 +1,12 @@
 package io.quarkiverse.amazon.lambda.runtime;
 
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.*;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
@@ -40,4 +46,33 @@ public class LambdaRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return LambdaAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<LambdaInvoker>, LambdaInvoker> createInvoker(final String clientName,
+            final ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<LambdaInvoker>, LambdaInvoker>() {
+            @Override
+            public LambdaInvoker apply(SyntheticCreationalContext<LambdaInvoker> context) {
+                LambdaAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(LambdaAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(LambdaAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                LambdaInvokerConfig invokerConfig = config.invoker();
+                if (invokerConfig.maxConcurrency() < 1 || invokerConfig.maxPending() < 0) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.lambda.invoker.max-concurrency must be positive and max-pending must not be negative");
+                }
+                return new LambdaInvoker(client,
+                        scheduledExecutorService,
+                        invokerConfig.maxConcurrency(),
+                        invokerConfig.maxPending(),
+                        invokerConfig.prewarmFunctions().orElse(List.of()),
+                        invokerConfig.prewarmConnections(),
+                        invokerConfig.prewarmInterval().orElse(null));
+            }
+        };
+    }
 }
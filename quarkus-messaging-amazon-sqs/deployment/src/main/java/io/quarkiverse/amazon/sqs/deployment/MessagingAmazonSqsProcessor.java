@@ -1,17 +1,313 @@
 package io.quarkiverse.amazon.sqs.deployment;
 
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationTarget;
+import org.jboss.jandex.ClassInfo;
+import org.jboss.jandex.ClassType;
+import org.jboss.jandex.DotName;
+import org.jboss.jandex.IndexView;
+import org.jboss.jandex.MethodParameterInfo;
+import org.jboss.jandex.Type;
+import org.jboss.logging.Logger;
+
+import io.quarkiverse.amazon.sqs.runtime.AmazonSqsConnector;
+import io.quarkiverse.amazon.sqs.runtime.MessagingAmazonSqsBuildTimeConfig;
+import io.quarkiverse.amazon.sqs.runtime.MessagingAmazonSqsChannelsBuildTimeConfig;
+import io.quarkiverse.amazon.sqs.runtime.MessagingAmazonSqsRecorder;
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadCodec;
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadCodecs;
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadConverter;
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadEncoder;
+import io.quarkus.arc.deployment.AdditionalBeanBuildItem;
+import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
+import io.quarkus.deployment.Capabilities;
+import io.quarkus.deployment.Capability;
+import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.deployment.annotations.ExecutionTime;
+import io.quarkus.deployment.annotations.Record;
+import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
+import io.quarkus.deployment.builditem.ExecutorBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
+import io.quarkus.deployment.builditem.IndexDependencyBuildItem;
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.reactive.messaging.OutgoingInterceptor;
 
 /**
  * Processor
  */
 public class MessagingAmazonSqsProcessor {
 
+    private static final Logger LOG = Logger.getLogger(MessagingAmazonSqsProcessor.class);
+
     private static final String FEATURE = "messaging-amazon-sqs";
 
+    private static final Set<String> SQS_CONNECTORS = Set.of("smallrye-sqs", AmazonSqsConnector.CONNECTOR_NAME);
+
+    private static final DotName INCOMING = DotName.createSimple("org.eclipse.microprofile.reactive.messaging.Incoming");
+    private static final DotName OUTGOING = DotName.createSimple("org.eclipse.microprofile.reactive.messaging.Outgoing");
+    private static final DotName CHANNEL = DotName.createSimple("org.eclipse.microprofile.reactive.messaging.Channel");
+    private static final DotName EMITTER = DotName.createSimple("org.eclipse.microprofile.reactive.messaging.Emitter");
+    private static final DotName MUTINY_EMITTER = DotName
+            .createSimple("io.smallrye.reactive.messaging.MutinyEmitter");
+
+    // the types wrapping the payload type in the signatures of the methods and the injection points
+    private static final Set<DotName> WRAPPERS = Set.of(
+            DotName.createSimple("org.eclipse.microprofile.reactive.messaging.Message"),
+            DotName.createSimple("io.smallrye.mutiny.Multi"),
+            DotName.createSimple("io.smallrye.mutiny.Uni"),
+            DotName.createSimple("java.util.concurrent.CompletionStage"),
+            DotName.createSimple("java.util.concurrent.CompletableFuture"),
+            DotName.createSimple("java.util.concurrent.Flow$Publisher"),
+            DotName.createSimple("org.reactivestreams.Publisher"),
+            EMITTER,
+            MUTINY_EMITTER);
+
+    private static final DotName PROTOBUF_MESSAGE = DotName.createSimple("com.google.protobuf.MessageLite");
+    private static final DotName AVRO_SPECIFIC_RECORD = DotName.createSimple("org.apache.avro.specific.SpecificRecord");
+    private static final DotName SQS_PAYLOAD_CODEC = DotName.createSimple(SqsPayloadCodec.class);
+
+    MessagingAmazonSqsBuildTimeConfig buildTimeConfig;
+
+    MessagingAmazonSqsChannelsBuildTimeConfig channelsConfig;
+
     @BuildStep
     FeatureBuildItem feature() {
         return new FeatureBuildItem(FEATURE);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void connector(MessagingAmazonSqsRecorder recorder,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<AdditionalBeanBuildItem> additionalBeans,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+        // only registered on demand, a single connector is automatically attached to the channels
+        if (buildTimeConfig.connectorEnabled()) {
+            additionalBeans.produce(AdditionalBeanBuildItem.builder()
+                    .addBeanClasses(AmazonSqsConnector.class).setUnremovable().build());
+            syntheticBeans.produce(SyntheticBeanBuildItem.configure(ScheduledExecutorService.class)
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .unremovable()
+                    .addQualifier().annotation(Identifier.class).addValue("value", AmazonSqsConnector.CONNECTOR_NAME).done()
+                    .supplier(recorder.connectorScheduler(executorBuildItem.getExecutorProxy()))
+                    .done());
+        }
+    }
+
+    @BuildStep
+    void indexPayloadTypes(BuildProducer<IndexDependencyBuildItem> indexDependencies) {
+        // the generated protobuf messages and avro records are recognized by their supertypes
+        if (buildTimeConfig.codecsEnabled()) {
+            indexDependencies.produce(new IndexDependencyBuildItem("com.google.protobuf", "protobuf-java"));
+            indexDependencies.produce(new IndexDependencyBuildItem("org.apache.avro", "avro"));
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void codecs(MessagingAmazonSqsRecorder recorder,
+            CombinedIndexBuildItem combinedIndex,
+            Capabilities capabilities,
+            BuildProducer<AdditionalBeanBuildItem> additionalBeans,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+        if (!buildTimeConfig.codecsEnabled()) {
+            return;
+        }
+
+        IndexView index = combinedIndex.getIndex();
+        Map<String, Type> incoming = new HashMap<>();
+        Map<String, Type> outgoing = new HashMap<>();
+        for (AnnotationInstance annotation : index.getAnnotations(INCOMING)) {
+            if (annotation.target().kind() == AnnotationTarget.Kind.METHOD
+                    && annotation.target().asMethod().parametersCount() == 1) {
+                incoming.put(annotation.value().asString(), annotation.target().asMethod().parameterType(0));
+            }
+        }
+        for (AnnotationInstance annotation : index.getAnnotations(OUTGOING)) {
+            if (annotation.target().kind() == AnnotationTarget.Kind.METHOD) {
+                outgoing.put(annotation.value().asString(), annotation.target().asMethod().returnType());
+            }
+        }
+        for (AnnotationInstance annotation : index.getAnnotations(CHANNEL)) {
+            Type type = injectionPointType(annotation.target());
+            if (type == null) {
+                continue;
+            }
+            if (type.name().equals(EMITTER) || type.name().equals(MUTINY_EMITTER)) {
+                outgoing.put(annotation.value().asString(), type);
+            } else {
+                incoming.put(annotation.value().asString(), type);
+            }
+        }
+
+        // the channels both consumed and produced by the application are internal channels
+        Set<String> internal = new HashSet<>(incoming.keySet());
+        internal.retainAll(outgoing.keySet());
+
+        PayloadTypes payloadTypes = new PayloadTypes(index, capabilities);
+        Map<String, String> encoders = new HashMap<>();
+        for (Map.Entry<String, Type> entry : incoming.entrySet()) {
+            if (!internal.contains(entry.getKey()) && isSqsChannel(channelsConfig.incoming(), entry.getKey())) {
+                payloadTypes.register(entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Type> entry : outgoing.entrySet()) {
+            if (!internal.contains(entry.getKey()) && isSqsChannel(channelsConfig.outgoing(), entry.getKey())) {
+                payloadTypes.register(entry.getValue())
+                        .ifPresent(type -> encoders.put(entry.getKey(), type));
+            }
+        }
+        if (payloadTypes.formats.isEmpty() && payloadTypes.customCodecs.isEmpty()) {
+            return;
+        }
+
+        SyntheticBeanBuildItem.ExtendedBeanConfigurator codecs = SyntheticBeanBuildItem.configure(SqsPayloadCodecs.class)
+                .setRuntimeInit()
+                .scope(ApplicationScoped.class)
+                .unremovable()
+                .createWith(recorder.createCodecs(payloadTypes.formats, payloadTypes.customCodecs));
+        if (payloadTypes.formats.containsValue(SqsPayloadCodecs.Format.JSON)) {
+            codecs.addInjectionPoint(ClassType.create(DotName.createSimple("com.fasterxml.jackson.databind.ObjectMapper")));
+        }
+        for (String codec : new HashSet<>(payloadTypes.customCodecs.values())) {
+            codecs.addInjectionPoint(ClassType.create(DotName.createSimple(codec)));
+        }
+        syntheticBeans.produce(codecs.done());
+        if (!payloadTypes.customCodecs.isEmpty()) {
+            // the codecs of the application are beans, whether they declare a scope or not
+            additionalBeans.produce(AdditionalBeanBuildItem.builder()
+                    .addBeanClasses(new HashSet<>(payloadTypes.customCodecs.values())).setUnremovable().build());
+        }
+
+        // the interceptors of the outgoing channels are selected by type and channel name
+        for (Map.Entry<String, String> encoder : encoders.entrySet()) {
+            syntheticBeans.produce(SyntheticBeanBuildItem.configure(SqsPayloadEncoder.class)
+                    .addType(OutgoingInterceptor.class)
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .unremovable()
+                    .addQualifier().annotation(Identifier.class).addValue("value", encoder.getKey()).done()
+                    .createWith(recorder.createEncoder(encoder.getValue()))
+                    .addInjectionPoint(ClassType.create(DotName.createSimple(SqsPayloadCodecs.class)))
+                    .done());
+        }
+        additionalBeans.produce(AdditionalBeanBuildItem.builder()
+                .addBeanClasses(SqsPayloadConverter.class).setUnremovable().build());
+    }
+
+    private static Type injectionPointType(AnnotationTarget target) {
+        if (target.kind() == AnnotationTarget.Kind.FIELD) {
+            return target.asField().type();
+        }
+        if (target.kind() == AnnotationTarget.Kind.METHOD_PARAMETER) {
+            MethodParameterInfo parameter = target.asMethodParameter();
+            return parameter.method().parameterType(parameter.position());
+        }
+        return null;
+    }
+
+    private static boolean isSqsChannel(Map<String, MessagingAmazonSqsChannelsBuildTimeConfig.ChannelConfig> channels,
+            String channel) {
+        // a channel without connector is attached to the single connector available
+        MessagingAmazonSqsChannelsBuildTimeConfig.ChannelConfig config = channels.get(channel);
+        return config == null || config.connector().map(SQS_CONNECTORS::contains).orElse(true);
+    }
+
+    /**
+     * The codecs of the payload types of the channels, resolved from the index.
+     */
+    private static final class PayloadTypes {
+
+        private final Capabilities capabilities;
+        private final Set<DotName> protobufMessages;
+        private final Set<DotName> avroRecords;
+        // the codecs implemented by the application, by payload type
+        private final Map<String, String> applicationCodecs = new HashMap<>();
+
+        private final Map<String, SqsPayloadCodecs.Format> formats = new HashMap<>();
+        private final Map<String, String> customCodecs = new HashMap<>();
+
+        private PayloadTypes(IndexView index, Capabilities capabilities) {
+            this.capabilities = capabilities;
+            this.protobufMessages = names(index.getAllKnownImplementors(PROTOBUF_MESSAGE));
+            this.avroRecords = names(index.getAllKnownImplementors(AVRO_SPECIFIC_RECORD));
+            for (ClassInfo codec : index.getAllKnownImplementors(SQS_PAYLOAD_CODEC)) {
+                if (codec.isInterface() || Modifier.isAbstract(codec.flags())) {
+                    continue;
+                }
+                for (Type implemented : codec.interfaceTypes()) {
+                    if (implemented.name().equals(SQS_PAYLOAD_CODEC)
+                            && implemented.kind() == Type.Kind.PARAMETERIZED_TYPE
+                            && implemented.asParameterizedType().arguments().get(0).kind() == Type.Kind.CLASS) {
+                        // the generic codecs of this extension have a type variable instead
+                        String type = implemented.asParameterizedType().arguments().get(0).name().toString();
+                        String previous = applicationCodecs.put(type, codec.name().toString());
+                        if (previous != null) {
+                            throw new IllegalStateException("Multiple SQS payload codecs are implemented for " + type
+                                    + ": " + previous + " and " + codec.name());
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Registers the codec of the payload type of a channel.
+         *
+         * @return the payload type, if it is encoded by a codec
+         */
+        private Optional<String> register(Type type) {
+            while (type.kind() == Type.Kind.PARAMETERIZED_TYPE && WRAPPERS.contains(type.name())) {
+                type = type.asParameterizedType().arguments().get(0);
+            }
+            if (type.kind() != Type.Kind.CLASS) {
+                return Optional.empty();
+            }
+            String name = type.name().toString();
+            String applicationCodec = applicationCodecs.get(name);
+            if (applicationCodec != null) {
+                customCodecs.put(name, applicationCodec);
+                return Optional.of(name);
+            }
+            if (name.startsWith("java.") || name.startsWith("io.vertx.")) {
+                // strings, boxed primitives and JSON objects are sent as they are by the connector
+                return Optional.empty();
+            }
+
+            SqsPayloadCodecs.Format format;
+            if (protobufMessages.contains(type.name())) {
+                format = SqsPayloadCodecs.Format.PROTOBUF;
+            } else if (avroRecords.contains(type.name())) {
+                format = SqsPayloadCodecs.Format.AVRO;
+            } else if (capabilities.isPresent(Capability.JACKSON)) {
+                format = SqsPayloadCodecs.Format.JSON;
+            } else {
+                LOG.debugf("No codec is registered for the payload type %s", name);
+                return Optional.empty();
+            }
+            formats.put(name, format);
+            return Optional.of(name);
+        }
+
+        private static Set<DotName> names(Collection<ClassInfo> classes) {
+            Set<DotName> names = new HashSet<>();
+            for (ClassInfo clazz : classes) {
+                names.add(clazz.name());
+            }
+            return names;
+        }
+    }
 }
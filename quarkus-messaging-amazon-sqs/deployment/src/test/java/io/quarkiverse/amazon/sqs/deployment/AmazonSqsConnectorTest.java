@@ -0,0 +1,67 @@
+package io.quarkiverse.amazon.sqs.deployment;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.reactive.messaging.spi.Connector;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.sqs.runtime.AmazonSqsConnector;
+import io.quarkus.test.QuarkusUnitTest;
+
+class AmazonSqsConnectorTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar
+                    .addClass(Quote.class)
+                    .addClass(QuoteProcessor.class)
+                    .addClass(QuotesResource.class)
+                    .addAsResource(new StringAsset(
+                            """
+                                    quarkus.sqs.devservices.queues=quotes,quote-requests
+                                    quarkus.messaging.amazon-sqs.connector.enabled=true
+                                    mp.messaging.incoming.requests.connector=quarkus-amazon-sqs
+                                    mp.messaging.incoming.requests.queue=quote-requests
+                                    mp.messaging.incoming.requests.poller.max-concurrency=4
+                                    mp.messaging.incoming.quotes-in.connector=smallrye-sqs
+                                    mp.messaging.incoming.quotes-in.queue=quotes
+                                    mp.messaging.outgoing.quotes.connector=smallrye-sqs
+                                    mp.messaging.outgoing.quote-requests.connector=smallrye-sqs"""),
+                            "application.properties"));
+
+    @Inject
+    @Connector(AmazonSqsConnector.CONNECTOR_NAME)
+    AmazonSqsConnector connector;
+
+    @Test
+    void test() {
+        given().post("/quotes/request")
+                .then()
+                .statusCode(200);
+        given().post("/quotes/request")
+                .then()
+                .statusCode(200);
+
+        await().untilAsserted(() -> {
+            assertThat(given().get("/quotes")
+                    .then()
+                    .assertThat()
+                    .statusCode(is(Response.Status.OK.getStatusCode()))
+                    .extract()
+                    .as(Quote[].class), arrayWithSize(2));
+        });
+
+        await().untilAsserted(() -> assertThat(connector.metrics("requests").acknowledged(), is(2L)));
+        await().untilAsserted(() -> assertThat(connector.metrics("requests").deleteRequests(), greaterThanOrEqualTo(1L)));
+    }
+}
@@ -0,0 +1,30 @@
+package io.quarkiverse.amazon.sqs.deployment;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadCodec;
+
+/**
+ * A codec of the application, writing the quotes in a format the JSON codec does not produce.
+ */
+public class QuoteCodec implements SqsPayloadCodec<Quote> {
+
+    static final AtomicInteger encoded = new AtomicInteger();
+    static final AtomicInteger decoded = new AtomicInteger();
+
+    @Override
+    public String encode(Quote quote) {
+        encoded.incrementAndGet();
+        return "quote;" + quote.id + ";" + quote.price;
+    }
+
+    @Override
+    public Quote decode(String body) {
+        decoded.incrementAndGet();
+        String[] fields = body.split(";");
+        if (fields.length != 3 || !fields[0].equals("quote")) {
+            throw new IllegalArgumentException("Not a quote: " + body);
+        }
+        return new Quote(fields[1], Integer.parseInt(fields[2]));
+    }
+}
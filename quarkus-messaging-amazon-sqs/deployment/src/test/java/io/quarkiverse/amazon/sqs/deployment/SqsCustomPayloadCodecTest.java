@@ -0,0 +1,80 @@
+package io.quarkiverse.amazon.sqs.deployment;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadCodecs;
+import io.quarkus.test.QuarkusUnitTest;
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.reactive.messaging.OutgoingInterceptor;
+
+class SqsCustomPayloadCodecTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar
+                    .addClass(Quote.class)
+                    .addClass(QuoteCodec.class)
+                    .addClass(QuoteProcessor.class)
+                    .addClass(QuotesResource.class)
+                    .addAsResource(new StringAsset(
+                            """
+                                    quarkus.sqs.devservices.queues=quotes,quote-requests
+                                    quarkus.messaging.amazon-sqs.codecs.enabled=true
+                                    mp.messaging.incoming.requests.queue=quote-requests
+                                    mp.messaging.incoming.quotes-in.queue=quotes"""),
+                            "application.properties"));
+
+    @Inject
+    SqsPayloadCodecs codecs;
+
+    @Inject
+    @Any
+    Instance<OutgoingInterceptor> interceptors;
+
+    @Test
+    void test() {
+        assertThat(codecs.get(Quote.class), instanceOf(QuoteCodec.class));
+
+        // the interceptor of the outgoing channel is looked up by SmallRye Reactive Messaging by type and identifier
+        Instance<OutgoingInterceptor> encoder = interceptors.select(Identifier.Literal.of("quotes"));
+        assertThat(encoder.isResolvable(), is(true));
+        assertThat(encoder.get().beforeMessageSend(Message.of(new Quote("id", 42))).getPayload(), is("quote;id;42"));
+
+        int encodedBefore = QuoteCodec.encoded.get();
+        int decodedBefore = QuoteCodec.decoded.get();
+        given().post("/quotes/request")
+                .then()
+                .statusCode(200);
+        given().post("/quotes/request")
+                .then()
+                .statusCode(200);
+
+        await().untilAsserted(() -> {
+            assertThat(given().get("/quotes")
+                    .then()
+                    .assertThat()
+                    .statusCode(is(Response.Status.OK.getStatusCode()))
+                    .extract()
+                    .as(Quote[].class), arrayWithSize(2));
+        });
+        // sent and received in the format of the codec of the application
+        assertThat(QuoteCodec.encoded.get() - encodedBefore, greaterThanOrEqualTo(2));
+        assertThat(QuoteCodec.decoded.get() - decodedBefore, greaterThanOrEqualTo(2));
+    }
+}
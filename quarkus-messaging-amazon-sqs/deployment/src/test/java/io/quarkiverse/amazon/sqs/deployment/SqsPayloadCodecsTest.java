@@ -0,0 +1,71 @@
+package io.quarkiverse.amazon.sqs.deployment;
+
+import static io.restassured.RestAssured.given;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadCodec;
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadCodecs;
+import io.quarkiverse.amazon.sqs.runtime.SqsPayloadConverter;
+import io.quarkus.test.QuarkusUnitTest;
+
+class SqsPayloadCodecsTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar
+                    .addClass(Quote.class)
+                    .addClass(QuoteProcessor.class)
+                    .addClass(QuotesResource.class)
+                    .addAsResource(new StringAsset(
+                            """
+                                    quarkus.sqs.devservices.queues=quotes,quote-requests
+                                    quarkus.messaging.amazon-sqs.codecs.enabled=true
+                                    mp.messaging.incoming.requests.queue=quote-requests
+                                    mp.messaging.incoming.quotes-in.queue=quotes"""),
+                            "application.properties"));
+
+    @Inject
+    SqsPayloadCodecs codecs;
+
+    @Inject
+    SqsPayloadConverter converter;
+
+    @Test
+    void test() {
+        SqsPayloadCodec<Quote> codec = codecs.get(Quote.class);
+        assertThat(codec, notNullValue());
+        assertThat(codec.decode(codec.encode(new Quote("id", 42))).price, is(42));
+        assertThat(codecs.get(String.class), nullValue());
+        // the messages of the other connectors are not decoded
+        assertThat(converter.canConvert(Message.of(codec.encode(new Quote("id", 42))), Quote.class), is(false));
+
+        given().post("/quotes/request")
+                .then()
+                .statusCode(200);
+        given().post("/quotes/request")
+                .then()
+                .statusCode(200);
+
+        await().untilAsserted(() -> {
+            assertThat(given().get("/quotes")
+                    .then()
+                    .assertThat()
+                    .statusCode(is(Response.Status.OK.getStatusCode()))
+                    .extract()
+                    .as(Quote[].class), arrayWithSize(2));
+        });
+    }
+}
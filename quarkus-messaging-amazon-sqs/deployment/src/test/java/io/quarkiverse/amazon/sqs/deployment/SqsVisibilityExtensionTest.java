@@ -0,0 +1,84 @@
+package io.quarkiverse.amazon.sqs.deployment;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.eclipse.microprofile.reactive.messaging.spi.Connector;
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.sqs.runtime.AmazonSqsConnector;
+import io.quarkus.test.QuarkusUnitTest;
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+class SqsVisibilityExtensionTest {
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar
+                    .addClass(SlowProcessor.class)
+                    .addAsResource(new StringAsset(
+                            """
+                                    quarkus.sqs.devservices.queues=slow-requests
+                                    quarkus.messaging.amazon-sqs.connector.enabled=true
+                                    mp.messaging.incoming.slow.connector=quarkus-amazon-sqs
+                                    mp.messaging.incoming.slow.queue=slow-requests
+                                    mp.messaging.incoming.slow.visibility-timeout=2
+                                    mp.messaging.incoming.slow.ack.flush-interval=0S"""),
+                            "application.properties"));
+
+    @Inject
+    @Connector(AmazonSqsConnector.CONNECTOR_NAME)
+    AmazonSqsConnector connector;
+
+    @Inject
+    SqsAsyncClient client;
+
+    @Inject
+    SlowProcessor processor;
+
+    @Test
+    void test() {
+        String queueUrl = client.getQueueUrl(r -> r.queueName("slow-requests")).join().queueUrl();
+        client.sendMessage(r -> r.queueUrl(queueUrl).messageBody("slow")).join();
+
+        // processed in 5 seconds, the 2 seconds visibility timeout being extended while it is processed
+        await().atMost(Duration.ofSeconds(30))
+                .untilAsserted(() -> assertThat(connector.metrics("slow").acknowledged(), is(1L)));
+        assertThat(connector.metrics("slow").visibilityExtensions(), greaterThanOrEqualTo(2L));
+        assertThat(connector.metrics("slow").visibilityRequests(), greaterThanOrEqualTo(2L));
+
+        await().untilAsserted(() -> assertThat(connector.metrics("slow").deleteRequests(), is(1L)));
+        assertThat(client.getQueueAttributes(r -> r.queueUrl(queueUrl).attributeNamesWithStrings(
+                "ApproximateNumberOfMessages", "ApproximateNumberOfMessagesNotVisible")).join().attributesAsStrings(),
+                is(Map.of("ApproximateNumberOfMessages", "0", "ApproximateNumberOfMessagesNotVisible", "0")));
+        // the message was not delivered again while it was processed
+        assertThat(processor.invocations.get(), is(1));
+        assertThat(connector.metrics("slow").received(), is(1L));
+    }
+
+    @ApplicationScoped
+    public static class SlowProcessor {
+
+        final AtomicInteger invocations = new AtomicInteger();
+
+        @Incoming("slow")
+        @Blocking
+        public void process(String request) throws InterruptedException {
+            invocations.incrementAndGet();
+            Thread.sleep(5000);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+// in the package of the dispatcher, which is internal to the connector
+class SqsMessageGroupDispatcherTest {
+
+    private final List<Message> dispatched = new CopyOnWriteArrayList<>();
+    private final List<Message> discarded = new CopyOnWriteArrayList<>();
+    private final SqsPollerMetrics metrics = new SqsPollerMetrics();
+
+    @Test
+    void ordersMessagesOfAGroup() {
+        SqsMessageGroupDispatcher dispatcher = dispatcher(10);
+        Message a1 = message("a", 1);
+        Message a2 = message("a", 2);
+        Message a3 = message("a", 3);
+
+        dispatcher.received(List.of(a1, a2));
+        dispatcher.received(List.of(a3));
+        assertEquals(List.of(a1), dispatched);
+
+        dispatcher.processed(a1, true);
+        assertEquals(List.of(a1, a2), dispatched);
+        dispatcher.processed(a2, true);
+        dispatcher.processed(a3, true);
+        assertEquals(List.of(a1, a2, a3), dispatched);
+        assertTrue(discarded.isEmpty());
+    }
+
+    @Test
+    void dispatchesGroupsInParallel() {
+        SqsMessageGroupDispatcher dispatcher = dispatcher(10);
+        Message a1 = message("a", 1);
+        Message a2 = message("a", 2);
+        Message b1 = message("b", 1);
+        Message c1 = message("c", 1);
+
+        // the first message of each group is dispatched without waiting for the other groups
+        dispatcher.received(List.of(a1, a2, b1, c1));
+        assertEquals(List.of(a1, b1, c1), dispatched);
+        assertEquals(3, metrics.activeGroups());
+
+        dispatcher.processed(b1, true);
+        dispatcher.processed(a1, true);
+        assertEquals(List.of(a1, b1, c1, a2), dispatched);
+    }
+
+    @Test
+    void removesDrainedGroups() {
+        SqsMessageGroupDispatcher dispatcher = dispatcher(10);
+        Message a1 = message("a", 1);
+        Message a2 = message("a", 2);
+        Message b1 = message("b", 1);
+
+        dispatcher.received(List.of(a1, a2, b1));
+        assertEquals(2, dispatcher.groups());
+
+        dispatcher.processed(a1, true);
+        assertEquals(2, dispatcher.groups());
+        dispatcher.processed(a2, true);
+        assertEquals(1, dispatcher.groups());
+        dispatcher.processed(b1, true);
+        assertEquals(0, dispatcher.groups());
+        assertEquals(0, metrics.activeGroups());
+
+        // a group received again is dispatched right away
+        Message a3 = message("a", 3);
+        dispatcher.received(List.of(a3));
+        assertEquals(List.of(a1, b1, a2, a3), dispatched);
+        dispatcher.processed(a3, true);
+        assertEquals(0, dispatcher.groups());
+    }
+
+    @Test
+    void waitsForAnActiveGroupSlot() {
+        SqsMessageGroupDispatcher dispatcher = dispatcher(1);
+        Message a1 = message("a", 1);
+        Message b1 = message("b", 1);
+        Message b2 = message("b", 2);
+
+        dispatcher.received(List.of(a1, b1, b2));
+        assertEquals(List.of(a1), dispatched);
+        assertEquals(1, metrics.waitingGroups());
+
+        // the slot of the drained group is handed over to the waiting group
+        dispatcher.processed(a1, true);
+        assertEquals(List.of(a1, b1), dispatched);
+        assertEquals(1, metrics.activeGroups());
+        assertEquals(0, metrics.waitingGroups());
+        dispatcher.processed(b1, true);
+        dispatcher.processed(b2, true);
+        assertEquals(List.of(a1, b1, b2), dispatched);
+        assertEquals(0, metrics.activeGroups());
+        assertEquals(0, dispatcher.groups());
+    }
+
+    @Test
+    void discardsTheNextMessagesOfAFailedGroup() {
+        SqsMessageGroupDispatcher dispatcher = dispatcher(10);
+        Message a1 = message("a", 1);
+        Message a2 = message("a", 2);
+        Message a3 = message("a", 3);
+
+        dispatcher.received(List.of(a1, a2, a3));
+        dispatcher.processed(a1, false);
+        assertEquals(List.of(a1), dispatched);
+        assertEquals(List.of(a2, a3), discarded);
+        assertEquals(0, dispatcher.groups());
+    }
+
+    @Test
+    void processesConcurrently() throws InterruptedException {
+        int groups = 8;
+        int messagesPerGroup = 50;
+        ExecutorService workers = Executors.newFixedThreadPool(groups);
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(groups * messagesPerGroup);
+
+        SqsMessageGroupDispatcher[] dispatcher = new SqsMessageGroupDispatcher[1];
+        dispatcher[0] = new SqsMessageGroupDispatcher(groups, message -> workers.execute(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            String group = message.attributes().get(MessageSystemAttributeName.MESSAGE_GROUP_ID);
+            processed.computeIfAbsent(group, g -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(Integer.parseInt(message.body()));
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            dispatcher[0].processed(message, true);
+            done.countDown();
+        }), discarded::add, metrics);
+
+        // received by batches of 10 interleaving the groups, as from a FIFO queue
+        List<Message> batch = new ArrayList<>();
+        for (int i = 0; i < messagesPerGroup; i++) {
+            for (int g = 0; g < groups; g++) {
+                batch.add(message("group-" + g, i));
+                if (batch.size() == 10) {
+                    dispatcher[0].received(batch);
+                    batch = new ArrayList<>();
+                }
+            }
+        }
+        dispatcher[0].received(batch);
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        workers.shutdown();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < messagesPerGroup; i++) {
+            expected.add(i);
+        }
+        assertEquals(groups, processed.size());
+        processed.forEach((group, order) -> assertEquals(expected, order, group));
+        assertTrue(maxRunning.get() > 1, "the groups were not processed in parallel");
+        assertTrue(maxRunning.get() <= groups, String.valueOf(maxRunning.get()));
+        assertTrue(discarded.isEmpty(), discarded.stream().map(Message::body).collect(Collectors.joining(",")));
+        assertEquals(0, dispatcher[0].groups());
+        assertEquals(0, metrics.activeGroups());
+    }
+
+    private SqsMessageGroupDispatcher dispatcher(int maxActiveGroups) {
+        return new SqsMessageGroupDispatcher(maxActiveGroups, dispatched::add, discarded::add, metrics);
+    }
+
+    private static Message message(String group, int sequence) {
+        return Message.builder()
+                .messageId(group + "-" + sequence)
+                .receiptHandle(group + "-" + sequence)
+                .body(Integer.toString(sequence))
+                .attributes(Map.of(MessageSystemAttributeName.MESSAGE_GROUP_ID, group))
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import static io.smallrye.reactive.messaging.annotations.ConnectorAttribute.Direction.INCOMING;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.config.Config;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.spi.Connector;
+
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.reactive.messaging.annotations.ConnectorAttribute;
+import io.smallrye.reactive.messaging.connector.InboundConnector;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+
+/**
+ * Inbound connector polling SQS queues with concurrent long-poll loops.
+ * <p>
+ * It is registered when {@code quarkus.messaging.amazon-sqs.connector.enabled} is set and is based on the default
+ * {@link SqsAsyncClient}.
+ */
+@ApplicationScoped
+@Connector(AmazonSqsConnector.CONNECTOR_NAME)
+@ConnectorAttribute(name = "queue", type = "string", direction = INCOMING,
+        description = "The name of the SQS queue, defaults to the channel name")
+@ConnectorAttribute(name = "queue.url", type = "string", direction = INCOMING,
+        description = "The URL of the SQS queue, resolved from the queue name if not set")
+@ConnectorAttribute(name = "max-number-of-messages", type = "int", direction = INCOMING,
+        description = "The maximum number of messages of a receive request", defaultValue = "10")
+@ConnectorAttribute(name = "wait-time-seconds", type = "int", direction = INCOMING,
+        description = "The long polling wait time of a receive request", defaultValue = "20")
+@ConnectorAttribute(name = "visibility-timeout", type = "int", direction = INCOMING,
+        description = "The visibility timeout in seconds of the received messages, defaults to the queue visibility timeout")
+@ConnectorAttribute(name = "poller.min-concurrency", type = "int", direction = INCOMING,
+        description = "The minimum number of concurrent long-poll loops", defaultValue = "1")
+@ConnectorAttribute(name = "poller.max-concurrency", type = "int", direction = INCOMING,
+        description = "The maximum number of concurrent long-poll loops", defaultValue = "8")
+@ConnectorAttribute(name = "poller.max-in-flight", type = "int", direction = INCOMING,
+        description = "The maximum number of received messages not acknowledged yet", defaultValue = "1000")
+@ConnectorAttribute(name = "poller.retry-delay", type = "string", direction = INCOMING,
+        description = "The delay before a failed receive request is retried", defaultValue = "1S")
+@ConnectorAttribute(name = "ack.batch-size", type = "int", direction = INCOMING,
+        description = "The maximum number of acknowledged messages deleted by a request", defaultValue = "10")
+@ConnectorAttribute(name = "ack.flush-interval", type = "string", direction = INCOMING,
+        description = "The maximum delay before acknowledged messages are deleted", defaultValue = "100MS")
+@ConnectorAttribute(name = "visibility-extension.enabled", type = "boolean", direction = INCOMING,
+        description = "Whether the visibility timeout of the messages still processed is extended", defaultValue = "true")
+@ConnectorAttribute(name = "visibility-extension.threshold", type = "string", direction = INCOMING,
+        description = "The remaining visibility time below which the visibility timeout is extended", defaultValue = "10S")
+@ConnectorAttribute(name = "group-ordering.enabled", type = "boolean", direction = INCOMING,
+        description = "Whether the messages of a message group are processed in order, defaults to true for FIFO queues")
+@ConnectorAttribute(name = "group-ordering.max-active-groups", type = "int", direction = INCOMING,
+        description = "The maximum number of message groups processed concurrently", defaultValue = "100")
+public class AmazonSqsConnector implements InboundConnector {
+
+    public static final String CONNECTOR_NAME = "quarkus-amazon-sqs";
+
+    @Inject
+    Instance<SqsAsyncClient> client;
+
+    // the Quarkus scheduled executor, shut down by Quarkus
+    @Inject
+    @Identifier(CONNECTOR_NAME)
+    ScheduledExecutorService scheduler;
+
+    private final Map<String, SqsPoller> pollers = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    void destroy() {
+        pollers.values().forEach(SqsPoller::stop);
+    }
+
+    @Override
+    public Flow.Publisher<? extends Message<?>> getPublisher(Config config) {
+        SqsPollerConfiguration configuration = new SqsPollerConfiguration(config);
+        SqsPoller poller = new SqsPoller(client.get(), configuration, scheduler);
+        pollers.put(configuration.channel(), poller);
+        return poller.messages();
+    }
+
+    /**
+     * @param channel the name of an incoming channel of this connector
+     * @return the metrics of the poller of the channel, or {@code null} if the channel is unknown
+     */
+    public SqsPollerMetrics metrics(String channel) {
+        SqsPoller poller = pollers.get(channel);
+        return poller != null ? poller.metrics() : null;
+    }
+}
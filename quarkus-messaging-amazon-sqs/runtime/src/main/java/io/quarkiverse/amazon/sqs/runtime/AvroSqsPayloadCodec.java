@@ -0,0 +1,55 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificData;
+import org.apache.avro.specific.SpecificDatumReader;
+import org.apache.avro.specific.SpecificDatumWriter;
+import org.apache.avro.specific.SpecificRecord;
+
+/**
+ * Encodes the Avro specific records in the binary format, as Base64 since a message body is text.
+ * <p>
+ * The schema is resolved once for the payload type, the writer and the reader are thread-safe.
+ */
+final class AvroSqsPayloadCodec<T extends SpecificRecord> implements SqsPayloadCodec<T> {
+
+    private final DatumWriter<T> writer;
+    private final DatumReader<T> reader;
+
+    AvroSqsPayloadCodec(Class<T> type) {
+        Schema schema = SpecificData.get().getSchema(type);
+        this.writer = new SpecificDatumWriter<>(schema);
+        this.reader = new SpecificDatumReader<>(schema);
+    }
+
+    @Override
+    public String encode(T payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        try {
+            writer.write(payload, encoder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    @Override
+    public T decode(String body) {
+        try {
+            return reader.read(null, DecoderFactory.get().binaryDecoder(Base64.getDecoder().decode(body), null));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
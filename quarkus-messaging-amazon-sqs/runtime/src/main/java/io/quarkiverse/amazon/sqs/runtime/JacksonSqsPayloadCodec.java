@@ -0,0 +1,40 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Encodes the payloads as JSON with a reader and a writer resolved once for the payload type.
+ */
+final class JacksonSqsPayloadCodec<T> implements SqsPayloadCodec<T> {
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    JacksonSqsPayloadCodec(ObjectMapper mapper, Class<T> type) {
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writerFor(type);
+    }
+
+    @Override
+    public String encode(T payload) {
+        try {
+            return writer.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T decode(String body) {
+        try {
+            return reader.readValue(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
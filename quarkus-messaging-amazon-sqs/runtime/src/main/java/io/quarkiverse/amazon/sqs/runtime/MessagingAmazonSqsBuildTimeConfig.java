@@ -0,0 +1,35 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import io.quarkus.runtime.annotations.ConfigPhase;
+import io.quarkus.runtime.annotations.ConfigRoot;
+import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefault;
+import io.smallrye.config.WithName;
+
+/**
+ * Messaging Amazon SQS build time configuration
+ */
+@ConfigMapping(prefix = "quarkus.messaging.amazon-sqs")
+@ConfigRoot(phase = ConfigPhase.BUILD_TIME)
+public interface MessagingAmazonSqsBuildTimeConfig {
+
+    /**
+     * Enable the `quarkus-amazon-sqs` inbound connector, which polls the queues with concurrent long-poll loops.
+     * <p>
+     * Once enabled, two connectors are available and the `connector` attribute must be set on every SQS channel.
+     */
+    @WithName("connector.enabled")
+    @WithDefault("false")
+    boolean connectorEnabled();
+
+    /**
+     * Encode and decode the payloads of the SQS channels with codecs resolved at build time from the payload types of the
+     * channels, instead of the generic JSON mapping of the connector.
+     * <p>
+     * Protobuf messages and Avro specific records are encoded in their binary format as Base64, the other types as JSON
+     * with Jackson. The payloads are then sent as text, without the `_classname` message attribute.
+     */
+    @WithName("codecs.enabled")
+    @WithDefault("false")
+    boolean codecsEnabled();
+}
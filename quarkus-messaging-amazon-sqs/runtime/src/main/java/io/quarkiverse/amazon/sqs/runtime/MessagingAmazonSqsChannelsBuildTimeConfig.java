@@ -0,0 +1,40 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.util.Map;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocIgnore;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.annotations.ConfigPhase;
+import io.quarkus.runtime.annotations.ConfigRoot;
+import io.smallrye.config.ConfigMapping;
+
+/**
+ * The connectors of the messaging channels, read at build time to select the channels whose payloads are encoded by
+ * the SQS codecs. These are the properties of SmallRye Reactive Messaging, they are not documented by this extension.
+ */
+@ConfigMapping(prefix = "mp.messaging")
+@ConfigRoot(phase = ConfigPhase.BUILD_TIME)
+public interface MessagingAmazonSqsChannelsBuildTimeConfig {
+
+    /**
+     * The incoming channels.
+     */
+    @ConfigDocIgnore
+    Map<String, ChannelConfig> incoming();
+
+    /**
+     * The outgoing channels.
+     */
+    @ConfigDocIgnore
+    Map<String, ChannelConfig> outgoing();
+
+    @ConfigGroup
+    interface ChannelConfig {
+
+        /**
+         * The connector of the channel.
+         */
+        Optional<String> connector();
+    }
+}
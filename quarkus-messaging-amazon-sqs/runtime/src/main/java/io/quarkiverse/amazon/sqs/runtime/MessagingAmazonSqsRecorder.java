@@ -0,0 +1,76 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.arc.SyntheticCreationalContext;
+import io.quarkus.runtime.annotations.Recorder;
+
+@Recorder
+public class MessagingAmazonSqsRecorder {
+
+    public Supplier<ScheduledExecutorService> connectorScheduler(ScheduledExecutorService executor) {
+        return new Supplier<ScheduledExecutorService>() {
+            @Override
+            public ScheduledExecutorService get() {
+                return executor;
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<SqsPayloadCodecs>, SqsPayloadCodecs> createCodecs(
+            Map<String, SqsPayloadCodecs.Format> formats, Map<String, String> customCodecs) {
+        return new Function<SyntheticCreationalContext<SqsPayloadCodecs>, SqsPayloadCodecs>() {
+            @Override
+            public SqsPayloadCodecs apply(SyntheticCreationalContext<SqsPayloadCodecs> context) {
+                // the types are loaded once, at startup
+                Map<Class<?>, SqsPayloadCodec<?>> codecs = new HashMap<>();
+                for (Map.Entry<String, SqsPayloadCodecs.Format> entry : formats.entrySet()) {
+                    Class<?> type = loadClass(entry.getKey());
+                    codecs.put(type, createCodec(context, type, entry.getValue()));
+                }
+                for (Map.Entry<String, String> entry : customCodecs.entrySet()) {
+                    codecs.put(loadClass(entry.getKey()), (SqsPayloadCodec<?>) context.getInjectedReference(
+                            loadClass(entry.getValue())));
+                }
+                return new SqsPayloadCodecs(codecs);
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<SqsPayloadEncoder>, SqsPayloadEncoder> createEncoder(String typeName) {
+        return new Function<SyntheticCreationalContext<SqsPayloadEncoder>, SqsPayloadEncoder>() {
+            @Override
+            public SqsPayloadEncoder apply(SyntheticCreationalContext<SqsPayloadEncoder> context) {
+                Class<?> type = loadClass(typeName);
+                return new SqsPayloadEncoder(type, context.getInjectedReference(SqsPayloadCodecs.class).get(type));
+            }
+        };
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static SqsPayloadCodec<?> createCodec(SyntheticCreationalContext<SqsPayloadCodecs> context, Class<?> type,
+            SqsPayloadCodecs.Format format) {
+        switch (format) {
+            case PROTOBUF:
+                return new ProtobufSqsPayloadCodec(type);
+            case AVRO:
+                return new AvroSqsPayloadCodec(type);
+            default:
+                return new JacksonSqsPayloadCodec<>(context.getInjectedReference(ObjectMapper.class), type);
+        }
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to load the class " + name, e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Base64;
+
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+
+/**
+ * Encodes the Protobuf payloads in the binary format, as Base64 since a message body is text.
+ */
+final class ProtobufSqsPayloadCodec<T extends MessageLite> implements SqsPayloadCodec<T> {
+
+    private final Parser<T> parser;
+
+    @SuppressWarnings("unchecked")
+    ProtobufSqsPayloadCodec(Class<T> type) {
+        try {
+            // generated messages expose their parser with a static method
+            this.parser = (Parser<T>) type.getMethod("parser").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unable to resolve the Protobuf parser of " + type.getName(), e);
+        }
+    }
+
+    @Override
+    public String encode(T payload) {
+        return Base64.getEncoder().encodeToString(payload.toByteArray());
+    }
+
+    @Override
+    public T decode(String body) {
+        try {
+            return parser.parseFrom(Base64.getDecoder().decode(body));
+        } catch (InvalidProtocolBufferException e) {
+            throw new IllegalArgumentException("Unable to decode a Protobuf message", e);
+        }
+    }
+}
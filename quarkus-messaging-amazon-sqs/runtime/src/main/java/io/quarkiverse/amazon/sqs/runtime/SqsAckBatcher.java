@@ -0,0 +1,190 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SqsException;
+
+/**
+ * Coalesces the deletions and visibility changes of the messages of a queue into {@code DeleteMessageBatch} and
+ * {@code ChangeMessageVisibilityBatch} requests.
+ * <p>
+ * A batch is sent once it holds the configured number of entries, or once the flush interval elapsed since its first
+ * entry was added. Once the batcher is closed, the entries are sent as soon as they are added, since the messages
+ * processed while the application stops are still acknowledged.
+ */
+final class SqsAckBatcher {
+
+    private final SqsAsyncClient client;
+    private final String queueUrl;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final ScheduledExecutorService scheduler;
+
+    private final Batch deletes = new Batch(true);
+    private final Batch visibilityChanges = new Batch(false);
+
+    private volatile boolean closed;
+
+    final LongAdder deleteRequests = new LongAdder();
+    final LongAdder visibilityRequests = new LongAdder();
+
+    SqsAckBatcher(SqsAsyncClient client, String queueUrl, int batchSize, Duration flushInterval,
+            ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.queueUrl = queueUrl;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.scheduler = scheduler;
+    }
+
+    CompletableFuture<Void> delete(String receiptHandle) {
+        return deletes.add(receiptHandle, 0);
+    }
+
+    CompletableFuture<Void> changeVisibility(String receiptHandle, int visibilityTimeout) {
+        return visibilityChanges.add(receiptHandle, visibilityTimeout);
+    }
+
+    /**
+     * Sends the pending entries.
+     */
+    void flush() {
+        deletes.flush();
+        visibilityChanges.flush();
+    }
+
+    /**
+     * Sends the pending entries, and the entries added afterwards without scheduling a flush.
+     */
+    void close() {
+        closed = true;
+        flush();
+    }
+
+    private final class Batch {
+
+        private final boolean delete;
+
+        // guarded by this
+        private List<Entry> entries = new ArrayList<>();
+        private ScheduledFuture<?> scheduledFlush;
+
+        private Batch(boolean delete) {
+            this.delete = delete;
+        }
+
+        CompletableFuture<Void> add(String receiptHandle, int visibilityTimeout) {
+            Entry entry = new Entry(receiptHandle, visibilityTimeout);
+            List<Entry> full = null;
+            synchronized (this) {
+                entries.add(entry);
+                if (entries.size() >= batchSize || closed) {
+                    full = take();
+                } else if (entries.size() == 1 && flushIntervalNanos > 0) {
+                    try {
+                        scheduledFlush = scheduler.schedule(this::flush, flushIntervalNanos, TimeUnit.NANOSECONDS);
+                    } catch (RejectedExecutionException e) {
+                        // the scheduler is shut down
+                        full = take();
+                    }
+                }
+            }
+            if (full != null) {
+                send(full);
+            } else if (flushIntervalNanos <= 0) {
+                flush();
+            }
+            return entry.result;
+        }
+
+        void flush() {
+            List<Entry> pending;
+            synchronized (this) {
+                if (entries.isEmpty()) {
+                    return;
+                }
+                pending = take();
+            }
+            send(pending);
+        }
+
+        // guarded by this
+        private List<Entry> take() {
+            List<Entry> taken = entries;
+            entries = new ArrayList<>(batchSize);
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            return taken;
+        }
+
+        private void send(List<Entry> batch) {
+            CompletableFuture<List<BatchResultErrorEntry>> failed;
+            try {
+                if (delete) {
+                    deleteRequests.increment();
+                    List<DeleteMessageBatchRequestEntry> requestEntries = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        requestEntries.add(DeleteMessageBatchRequestEntry.builder()
+                                .id(Integer.toString(i))
+                                .receiptHandle(batch.get(i).receiptHandle)
+                                .build());
+                    }
+                    failed = client.deleteMessageBatch(r -> r.queueUrl(queueUrl).entries(requestEntries))
+                            .thenApply(response -> response.failed());
+                } else {
+                    visibilityRequests.increment();
+                    List<ChangeMessageVisibilityBatchRequestEntry> requestEntries = new ArrayList<>(batch.size());
+                    for (int i = 0; i < batch.size(); i++) {
+                        requestEntries.add(ChangeMessageVisibilityBatchRequestEntry.builder()
+                                .id(Integer.toString(i))
+                                .receiptHandle(batch.get(i).receiptHandle)
+                                .visibilityTimeout(batch.get(i).visibilityTimeout)
+                                .build());
+                    }
+                    failed = client.changeMessageVisibilityBatch(r -> r.queueUrl(queueUrl).entries(requestEntries))
+                            .thenApply(response -> response.failed());
+                }
+            } catch (RuntimeException e) {
+                failed = CompletableFuture.failedFuture(e);
+            }
+
+            failed.whenComplete((errors, failure) -> {
+                if (failure != null) {
+                    batch.forEach(entry -> entry.result.completeExceptionally(failure));
+                    return;
+                }
+                for (BatchResultErrorEntry error : errors) {
+                    batch.get(Integer.parseInt(error.id())).result.completeExceptionally(SqsException.builder()
+                            .message(error.code() + ": " + error.message())
+                            .build());
+                }
+                batch.forEach(entry -> entry.result.complete(null));
+            });
+        }
+    }
+
+    private static final class Entry {
+        private final String receiptHandle;
+        private final int visibilityTimeout;
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+        private Entry(String receiptHandle, int visibilityTimeout) {
+            this.receiptHandle = receiptHandle;
+            this.visibilityTimeout = visibilityTimeout;
+        }
+    }
+}
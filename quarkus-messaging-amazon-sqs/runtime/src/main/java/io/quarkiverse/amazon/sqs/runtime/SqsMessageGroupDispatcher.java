@@ -0,0 +1,150 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+
+/**
+ * Dispatches the messages of a FIFO queue so that the messages of a message group are processed one at a time, in
+ * order, while the messages of different groups are processed concurrently.
+ * <p>
+ * A group is active while one of its messages is processed. The next message of an active group is dispatched once
+ * the previous one is acknowledged. When the maximum number of active groups is reached, the messages of the other
+ * groups wait until a group becomes inactive, the groups being activated in the order their first message was
+ * received. When a message is negatively acknowledged, the next messages of its group are discarded without being
+ * processed: they are received again, after the failed message, once their visibility timeout expires.
+ */
+final class SqsMessageGroupDispatcher {
+
+    private final int maxActiveGroups;
+    private final Consumer<Message> dispatch;
+    private final Consumer<Message> discard;
+    private final SqsPollerMetrics metrics;
+
+    // guarded by this, the messages waiting for dispatch of the active and waiting groups
+    private final Map<String, ArrayDeque<Message>> groups = new HashMap<>();
+    private final ArrayDeque<String> waitingGroups = new ArrayDeque<>();
+    private int activeGroups;
+
+    SqsMessageGroupDispatcher(int maxActiveGroups, Consumer<Message> dispatch, Consumer<Message> discard,
+            SqsPollerMetrics metrics) {
+        this.maxActiveGroups = maxActiveGroups;
+        this.dispatch = dispatch;
+        this.discard = discard;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Dispatches the received messages, or queues them behind the messages of their group being processed.
+     */
+    void received(List<Message> messages) {
+        for (Message message : messages) {
+            String group = message.attributes().get(MessageSystemAttributeName.MESSAGE_GROUP_ID);
+            if (group == null) {
+                dispatch.accept(message);
+                continue;
+            }
+
+            boolean ready = false;
+            synchronized (this) {
+                ArrayDeque<Message> pending = groups.get(group);
+                if (pending != null) {
+                    pending.add(message);
+                } else {
+                    pending = new ArrayDeque<>();
+                    groups.put(group, pending);
+                    if (activeGroups < maxActiveGroups) {
+                        activeGroups++;
+                        ready = true;
+                    } else {
+                        pending.add(message);
+                        waitingGroups.add(group);
+                    }
+                }
+                updateGauges();
+            }
+            // the messages of a group are dispatched one at a time, so dispatching outside the lock keeps their order
+            if (ready) {
+                dispatch.accept(message);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the next message of the group of a processed message, or activates a waiting group.
+     *
+     * @param message the processed message
+     * @param success whether the message was acknowledged, the next messages of its group are discarded otherwise
+     */
+    void processed(Message message, boolean success) {
+        String group = message.attributes().get(MessageSystemAttributeName.MESSAGE_GROUP_ID);
+        if (group == null) {
+            return;
+        }
+
+        Message next = null;
+        ArrayDeque<Message> discarded = null;
+        synchronized (this) {
+            ArrayDeque<Message> pending = groups.get(group);
+            if (pending == null) {
+                return;
+            }
+            if (!success && !pending.isEmpty()) {
+                discarded = new ArrayDeque<>(pending);
+                pending.clear();
+            }
+            next = pending.poll();
+            if (next == null) {
+                groups.remove(group);
+                String waiting = waitingGroups.poll();
+                if (waiting != null) {
+                    // the group keeps its slot and hands it over
+                    next = groups.get(waiting).poll();
+                } else {
+                    activeGroups--;
+                }
+            }
+            updateGauges();
+        }
+
+        if (discarded != null) {
+            discarded.forEach(discard);
+        }
+        if (next != null) {
+            dispatch.accept(next);
+        }
+    }
+
+    /**
+     * Discards the messages waiting for dispatch.
+     */
+    void clear() {
+        ArrayDeque<Message> discarded = new ArrayDeque<>();
+        synchronized (this) {
+            groups.values().forEach(discarded::addAll);
+            groups.clear();
+            waitingGroups.clear();
+            activeGroups = 0;
+            updateGauges();
+        }
+        discarded.forEach(discard);
+    }
+
+    /**
+     * @return the number of active and waiting groups
+     */
+    synchronized int groups() {
+        return groups.size();
+    }
+
+    // guarded by this
+    private void updateGauges() {
+        metrics.activeGroups = activeGroups;
+        metrics.waitingGroups = waitingGroups.size();
+    }
+}
@@ -0,0 +1,13 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+/**
+ * Encodes the payloads of a type into SQS message bodies and decodes them back.
+ *
+ * @param <T> the payload type
+ */
+public interface SqsPayloadCodec<T> {
+
+    String encode(T payload);
+
+    T decode(String body);
+}
@@ -0,0 +1,35 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+
+/**
+ * The payload codecs of the types of the SQS channels, resolved at build time from the signatures of the methods and
+ * the injection points of the channels.
+ */
+public final class SqsPayloadCodecs {
+
+    /**
+     * The encoding of a payload type.
+     */
+    public enum Format {
+        JSON,
+        PROTOBUF,
+        AVRO
+    }
+
+    private final Map<Class<?>, SqsPayloadCodec<?>> codecs;
+
+    SqsPayloadCodecs(Map<Class<?>, SqsPayloadCodec<?>> codecs) {
+        this.codecs = codecs;
+    }
+
+    /**
+     * @param type a payload type
+     * @return the codec of the type, or {@code null} if the type has no codec
+     */
+    @SuppressWarnings("unchecked")
+    public <T> SqsPayloadCodec<T> get(Type type) {
+        return (SqsPayloadCodec<T>) codecs.get(type);
+    }
+}
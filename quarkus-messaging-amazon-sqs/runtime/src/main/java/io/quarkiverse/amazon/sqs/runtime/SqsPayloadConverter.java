@@ -0,0 +1,33 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.lang.reflect.Type;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+
+import io.smallrye.reactive.messaging.MessageConverter;
+
+/**
+ * Decodes the bodies of the received SQS messages into the payload type expected by the consuming method.
+ * <p>
+ * The converters are global, the messages of the other connectors are left to them.
+ */
+@ApplicationScoped
+public class SqsPayloadConverter implements MessageConverter {
+
+    @Inject
+    SqsPayloadCodecs codecs;
+
+    @Override
+    public boolean canConvert(Message<?> in, Type target) {
+        return in.getPayload() instanceof String && in.getMetadata(SqsReceivedMetadata.class).isPresent()
+                && codecs.get(target) != null;
+    }
+
+    @Override
+    public Message<?> convert(Message<?> in, Type target) {
+        return in.withPayload(codecs.get(target).decode((String) in.getPayload()));
+    }
+}
@@ -0,0 +1,37 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+
+import io.smallrye.reactive.messaging.OutgoingInterceptor;
+
+/**
+ * Encodes the payloads sent to an SQS channel with the codec of the payload type of the channel, so that the connector
+ * sends them as they are.
+ */
+public class SqsPayloadEncoder implements OutgoingInterceptor {
+
+    private final Class<?> type;
+    private final SqsPayloadCodec<Object> codec;
+
+    SqsPayloadEncoder(Class<?> type, SqsPayloadCodec<Object> codec) {
+        this.type = type;
+        this.codec = codec;
+    }
+
+    @Override
+    public Message<?> beforeMessageSend(Message<?> message) {
+        Object payload = message.getPayload();
+        if (!type.isInstance(payload)) {
+            return message;
+        }
+        return message.withPayload(codec.encode(payload));
+    }
+
+    @Override
+    public void onMessageAck(Message<?> message) {
+    }
+
+    @Override
+    public void onMessageNack(Message<?> message, Throwable failure) {
+    }
+}
@@ -0,0 +1,384 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.jboss.logging.Logger;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.MessageSystemAttributeName;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+
+/**
+ * Polls a queue with concurrent long-poll loops.
+ * <p>
+ * The number of received messages not acknowledged yet is bounded: a loop only receives as many messages as there are
+ * available permits and parks when there are none, until messages are acknowledged. The number of loops adapts between
+ * the configured minimum and maximum: a loop is added when a receive returns a full batch while permits are available,
+ * meaning the queue has a backlog that processing keeps up with, and a loop stops when a receive returns no message or
+ * when processing lags behind and permits run out.
+ * <p>
+ * Acknowledged messages are deleted with {@code DeleteMessageBatch} requests. While a message is processed, its
+ * visibility timeout is extended with {@code ChangeMessageVisibilityBatch} requests when it is about to expire, so that
+ * the message is not delivered again.
+ * <p>
+ * The messages of a FIFO queue are dispatched through a {@link SqsMessageGroupDispatcher}, so that the messages of a
+ * message group are processed in order even when the consuming method runs on virtual threads or worker threads.
+ */
+final class SqsPoller {
+
+    private static final Logger LOG = Logger.getLogger(SqsPoller.class);
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final SqsAsyncClient client;
+    private final SqsPollerConfiguration configuration;
+    private final ScheduledExecutorService scheduler;
+    private final SqsPollerMetrics metrics = new SqsPollerMetrics();
+
+    // guarded by this
+    private int permits;
+    private int activeLoops;
+    private int parkedLoops;
+    private int targetConcurrency;
+
+    // messages being processed, by receipt handle, when the visibility timeout is extended
+    private final Map<String, InFlightMessage> processing = new ConcurrentHashMap<>();
+
+    private volatile boolean stopped;
+    private volatile String queueUrl;
+    private volatile int visibilityTimeout;
+    private volatile long visibilityExtensionThresholdNanos;
+    private volatile SqsAckBatcher batcher;
+    private volatile SqsMessageGroupDispatcher dispatcher;
+    private volatile ScheduledFuture<?> heartbeat;
+    private volatile MultiEmitter<? super Message<?>> emitter;
+
+    SqsPoller(SqsAsyncClient client, SqsPollerConfiguration configuration, ScheduledExecutorService scheduler) {
+        this.client = client;
+        this.configuration = configuration;
+        this.scheduler = scheduler;
+        this.permits = configuration.maxInFlight();
+        this.targetConcurrency = configuration.minConcurrency();
+    }
+
+    Multi<Message<?>> messages() {
+        // the buffer never overflows since the messages in the buffer are in flight
+        return Multi.createFrom().<Message<?>> emitter(e -> {
+            emitter = e;
+            e.onTermination(this::stop);
+            resolveQueueUrl()
+                    .thenCompose(url -> {
+                        queueUrl = url;
+                        return resolveVisibilityTimeout();
+                    })
+                    .whenComplete((timeout, failure) -> {
+                        if (failure != null) {
+                            e.fail(failure);
+                            return;
+                        }
+                        visibilityTimeout = timeout;
+                        start();
+                    });
+        }, configuration.maxInFlight());
+    }
+
+    SqsPollerMetrics metrics() {
+        return metrics;
+    }
+
+    String queueUrl() {
+        return queueUrl;
+    }
+
+    void stop() {
+        stopped = true;
+        ScheduledFuture<?> currentHeartbeat = heartbeat;
+        if (currentHeartbeat != null) {
+            currentHeartbeat.cancel(false);
+        }
+        SqsAckBatcher currentBatcher = batcher;
+        if (currentBatcher != null) {
+            // send the pending deletions, and the deletions of the messages still processed without delay
+            currentBatcher.close();
+        }
+        SqsMessageGroupDispatcher currentDispatcher = dispatcher;
+        if (currentDispatcher != null) {
+            currentDispatcher.clear();
+        }
+    }
+
+    private CompletableFuture<String> resolveQueueUrl() {
+        if (configuration.queueUrl().isPresent()) {
+            return CompletableFuture.completedFuture(configuration.queueUrl().get());
+        }
+        return client.getQueueUrl(r -> r.queueName(configuration.queue()))
+                .thenApply(response -> response.queueUrl());
+    }
+
+    private CompletableFuture<Integer> resolveVisibilityTimeout() {
+        if (configuration.visibilityTimeout().isPresent() || !configuration.visibilityExtension()) {
+            return CompletableFuture.completedFuture(configuration.visibilityTimeout().orElse(0));
+        }
+        return client.getQueueAttributes(r -> r.queueUrl(queueUrl).attributeNames(QueueAttributeName.VISIBILITY_TIMEOUT))
+                .thenApply(response -> Integer.parseInt(response.attributes().get(QueueAttributeName.VISIBILITY_TIMEOUT)));
+    }
+
+    private void start() {
+        batcher = new SqsAckBatcher(client, queueUrl, configuration.ackBatchSize(), configuration.ackFlushInterval(),
+                scheduler);
+        metrics.batcher = batcher;
+        if (configuration.groupOrdering(queueUrl)) {
+            dispatcher = new SqsMessageGroupDispatcher(configuration.maxActiveGroups(), this::dispatch, this::discard,
+                    metrics);
+        }
+
+        if (configuration.visibilityExtension() && visibilityTimeout > 0) {
+            long threshold = configuration.visibilityExtensionThreshold().toMillis();
+            if (threshold >= visibilityTimeout * 1000L) {
+                // the messages would be extended at every check, extend them halfway through instead
+                threshold = visibilityTimeout * 1000L / 2;
+                LOG.warnf("The visibility extension threshold %s of channel %s is not lower than the visibility timeout"
+                        + " of %ss, using %sms instead", configuration.visibilityExtensionThreshold(),
+                        configuration.channel(), visibilityTimeout, threshold);
+            }
+            visibilityExtensionThresholdNanos = TimeUnit.MILLISECONDS.toNanos(threshold);
+            // check often enough to extend the visibility timeout before the threshold is crossed
+            long period = Math.max(100, Math.min(1000, threshold / 2));
+            heartbeat = scheduler.scheduleWithFixedDelay(this::extendVisibility, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        int loops;
+        synchronized (this) {
+            loops = targetConcurrency;
+            activeLoops = loops;
+            updateGauges();
+        }
+        for (int i = 0; i < loops; i++) {
+            poll();
+        }
+    }
+
+    private void poll() {
+        int requested;
+        synchronized (this) {
+            if (stopped || activeLoops > targetConcurrency) {
+                activeLoops--;
+                updateGauges();
+                return;
+            }
+            requested = Math.min(configuration.maxNumberOfMessages(), permits);
+            if (requested == 0) {
+                // processing lags behind, more loops would not help
+                parkedLoops++;
+                targetConcurrency = Math.max(configuration.minConcurrency(), targetConcurrency - 1);
+                updateGauges();
+                return;
+            }
+            permits -= requested;
+            updateGauges();
+        }
+
+        metrics.receiveRequests.increment();
+        ReceiveMessageRequest.Builder request = ReceiveMessageRequest.builder()
+                .queueUrl(queueUrl)
+                .maxNumberOfMessages(requested)
+                .waitTimeSeconds(configuration.waitTimeSeconds())
+                .messageAttributeNames("All")
+                .messageSystemAttributeNames(MessageSystemAttributeName.ALL);
+        configuration.visibilityTimeout().ifPresent(request::visibilityTimeout);
+
+        try {
+            client.receiveMessage(request.build())
+                    .whenComplete((response, failure) -> received(requested, response, failure));
+        } catch (RuntimeException e) {
+            received(requested, null, e);
+        }
+    }
+
+    private void received(int requested, ReceiveMessageResponse response, Throwable failure) {
+        if (failure != null) {
+            synchronized (this) {
+                permits += requested;
+                if (stopped) {
+                    // the loop ends instead of being retried
+                    activeLoops--;
+                }
+                updateGauges();
+            }
+            if (stopped) {
+                return;
+            }
+            LOG.warn("Unable to receive messages from " + queueUrl + " for channel " + configuration.channel()
+                    + ", retrying in " + configuration.retryDelay(), failure);
+            scheduler.schedule(this::poll, configuration.retryDelay().toMillis(), TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        List<software.amazon.awssdk.services.sqs.model.Message> messages = response.messages();
+        int count = messages.size();
+        boolean grow = false;
+        synchronized (this) {
+            permits += requested - count;
+            if (count == configuration.maxNumberOfMessages() && permits >= configuration.maxNumberOfMessages()
+                    && targetConcurrency < configuration.maxConcurrency()) {
+                // backlog in the queue and processing keeps up
+                targetConcurrency++;
+                if (activeLoops < targetConcurrency) {
+                    activeLoops++;
+                    grow = true;
+                }
+            } else if (count == 0) {
+                targetConcurrency = Math.max(configuration.minConcurrency(), targetConcurrency - 1);
+            }
+            updateGauges();
+        }
+
+        metrics.received.add(count);
+        if (count == 0) {
+            metrics.emptyReceives.increment();
+        }
+        if (stopped) {
+            // not deleted, the messages will be received again once their visibility timeout expires
+            messages.forEach(message -> release());
+        } else {
+            if (heartbeat != null) {
+                // extended while waiting for dispatch as well
+                long deadline = System.nanoTime() + Duration.ofSeconds(visibilityTimeout).toNanos();
+                messages.forEach(message -> processing.put(message.receiptHandle(), new InFlightMessage(deadline)));
+            }
+            if (dispatcher != null) {
+                dispatcher.received(messages);
+            } else {
+                messages.forEach(this::dispatch);
+            }
+        }
+
+        if (grow) {
+            poll();
+        }
+        poll();
+    }
+
+    private void dispatch(software.amazon.awssdk.services.sqs.model.Message message) {
+        if (stopped) {
+            discard(message);
+        } else {
+            emitter.emit(toMessage(message));
+        }
+    }
+
+    private void discard(software.amazon.awssdk.services.sqs.model.Message message) {
+        // not deleted, the message will be received again once its visibility timeout expires
+        processing.remove(message.receiptHandle());
+        release();
+    }
+
+    private Message<?> toMessage(software.amazon.awssdk.services.sqs.model.Message message) {
+        AtomicBoolean done = new AtomicBoolean();
+        return Message.of(message.body(), Metadata.of(new SqsReceivedMetadata(queueUrl, message)),
+                () -> ack(message, done),
+                failure -> nack(message, done));
+    }
+
+    private CompletionStage<Void> ack(software.amazon.awssdk.services.sqs.model.Message message, AtomicBoolean done) {
+        if (!done.compareAndSet(false, true)) {
+            return DONE;
+        }
+        processing.remove(message.receiptHandle());
+        metrics.acknowledged.increment();
+        release();
+
+        SqsMessageGroupDispatcher currentDispatcher = dispatcher;
+        return batcher.delete(message.receiptHandle())
+                .handle((response, failure) -> {
+                    if (failure != null) {
+                        LOG.warnf(failure, "Unable to delete message %s from %s", message.messageId(), queueUrl);
+                    }
+                    // the next message of the group waits for the deletion, a message not deleted will be received
+                    // again once its visibility timeout expires
+                    if (currentDispatcher != null) {
+                        currentDispatcher.processed(message, failure == null);
+                    }
+                    return null;
+                });
+    }
+
+    private CompletionStage<Void> nack(software.amazon.awssdk.services.sqs.model.Message message, AtomicBoolean done) {
+        if (done.compareAndSet(false, true)) {
+            // not deleted, the message will be received again once its visibility timeout expires
+            processing.remove(message.receiptHandle());
+            metrics.negativelyAcknowledged.increment();
+            release();
+            if (dispatcher != null) {
+                dispatcher.processed(message, false);
+            }
+        }
+        return DONE;
+    }
+
+    private void extendVisibility() {
+        long now = System.nanoTime();
+        long threshold = visibilityExtensionThresholdNanos;
+        long extension = Duration.ofSeconds(visibilityTimeout).toNanos();
+        for (Map.Entry<String, InFlightMessage> entry : processing.entrySet()) {
+            InFlightMessage message = entry.getValue();
+            if (message.deadline - now > threshold) {
+                continue;
+            }
+            // the new timeout starts when the request is processed
+            message.deadline = now + extension;
+            metrics.visibilityExtensions.increment();
+            batcher.changeVisibility(entry.getKey(), visibilityTimeout).whenComplete((response, failure) -> {
+                if (failure != null && processing.containsKey(entry.getKey())) {
+                    LOG.warn("Unable to extend the visibility timeout of a message of " + queueUrl, failure);
+                }
+            });
+        }
+    }
+
+    private void release() {
+        boolean resume = false;
+        synchronized (this) {
+            permits++;
+            if (parkedLoops > 0
+                    && permits >= Math.min(configuration.maxNumberOfMessages(), configuration.maxInFlight())) {
+                parkedLoops--;
+                resume = true;
+            }
+            updateGauges();
+        }
+        if (resume) {
+            poll();
+        }
+    }
+
+    // guarded by this
+    private void updateGauges() {
+        metrics.concurrency = activeLoops - parkedLoops;
+        metrics.targetConcurrency = targetConcurrency;
+        metrics.inFlight = configuration.maxInFlight() - permits;
+    }
+
+    private static final class InFlightMessage {
+        private volatile long deadline;
+
+        private InFlightMessage(long deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
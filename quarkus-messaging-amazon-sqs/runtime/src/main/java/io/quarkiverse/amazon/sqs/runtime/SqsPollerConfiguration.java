@@ -0,0 +1,146 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.Config;
+
+import io.quarkus.runtime.configuration.DurationConverter;
+
+/**
+ * The configuration of an incoming channel of the {@link AmazonSqsConnector}.
+ */
+final class SqsPollerConfiguration {
+
+    private static final int MAX_NUMBER_OF_MESSAGES = 10;
+
+    private final String channel;
+    private final String queue;
+    private final Optional<String> queueUrl;
+    private final int maxNumberOfMessages;
+    private final int waitTimeSeconds;
+    private final Optional<Integer> visibilityTimeout;
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final int maxInFlight;
+    private final Duration retryDelay;
+    private final int ackBatchSize;
+    private final Duration ackFlushInterval;
+    private final boolean visibilityExtension;
+    private final Duration visibilityExtensionThreshold;
+    private final Optional<Boolean> groupOrdering;
+    private final int maxActiveGroups;
+
+    SqsPollerConfiguration(Config config) {
+        this.channel = config.getValue("channel-name", String.class);
+        this.queue = config.getOptionalValue("queue", String.class).orElse(channel);
+        this.queueUrl = config.getOptionalValue("queue.url", String.class);
+        this.maxNumberOfMessages = config.getOptionalValue("max-number-of-messages", Integer.class)
+                .orElse(MAX_NUMBER_OF_MESSAGES);
+        this.waitTimeSeconds = config.getOptionalValue("wait-time-seconds", Integer.class).orElse(20);
+        this.visibilityTimeout = config.getOptionalValue("visibility-timeout", Integer.class);
+        this.minConcurrency = config.getOptionalValue("poller.min-concurrency", Integer.class).orElse(1);
+        this.maxConcurrency = config.getOptionalValue("poller.max-concurrency", Integer.class).orElse(8);
+        this.maxInFlight = config.getOptionalValue("poller.max-in-flight", Integer.class).orElse(1000);
+        this.retryDelay = config.getOptionalValue("poller.retry-delay", String.class)
+                .map(DurationConverter::parseDuration).orElse(Duration.ofSeconds(1));
+        this.ackBatchSize = config.getOptionalValue("ack.batch-size", Integer.class).orElse(MAX_NUMBER_OF_MESSAGES);
+        this.ackFlushInterval = config.getOptionalValue("ack.flush-interval", String.class)
+                .map(DurationConverter::parseDuration).orElse(Duration.ofMillis(100));
+        this.visibilityExtension = config.getOptionalValue("visibility-extension.enabled", Boolean.class).orElse(true);
+        this.visibilityExtensionThreshold = config.getOptionalValue("visibility-extension.threshold", String.class)
+                .map(DurationConverter::parseDuration).orElse(Duration.ofSeconds(10));
+        this.groupOrdering = config.getOptionalValue("group-ordering.enabled", Boolean.class);
+        this.maxActiveGroups = config.getOptionalValue("group-ordering.max-active-groups", Integer.class).orElse(100);
+
+        if (maxNumberOfMessages < 1 || maxNumberOfMessages > MAX_NUMBER_OF_MESSAGES) {
+            throw invalid("max-number-of-messages", "must be between 1 and 10");
+        }
+        if (minConcurrency < 1 || maxConcurrency < minConcurrency) {
+            throw invalid("poller.max-concurrency",
+                    "must be greater than or equal to poller.min-concurrency, which must be positive");
+        }
+        if (maxInFlight < 1) {
+            throw invalid("poller.max-in-flight", "must be positive");
+        }
+        if (ackBatchSize < 1 || ackBatchSize > MAX_NUMBER_OF_MESSAGES) {
+            throw invalid("ack.batch-size", "must be between 1 and 10");
+        }
+        if (maxActiveGroups < 1) {
+            throw invalid("group-ordering.max-active-groups", "must be positive");
+        }
+    }
+
+    private IllegalArgumentException invalid(String attribute, String reason) {
+        return new IllegalArgumentException(
+                String.format("mp.messaging.incoming.%s.%s %s", channel, attribute, reason));
+    }
+
+    String channel() {
+        return channel;
+    }
+
+    String queue() {
+        return queue;
+    }
+
+    Optional<String> queueUrl() {
+        return queueUrl;
+    }
+
+    int maxNumberOfMessages() {
+        return maxNumberOfMessages;
+    }
+
+    int waitTimeSeconds() {
+        return waitTimeSeconds;
+    }
+
+    Optional<Integer> visibilityTimeout() {
+        return visibilityTimeout;
+    }
+
+    int minConcurrency() {
+        return minConcurrency;
+    }
+
+    int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    int maxInFlight() {
+        return maxInFlight;
+    }
+
+    Duration retryDelay() {
+        return retryDelay;
+    }
+
+    int ackBatchSize() {
+        return ackBatchSize;
+    }
+
+    Duration ackFlushInterval() {
+        return ackFlushInterval;
+    }
+
+    boolean visibilityExtension() {
+        return visibilityExtension;
+    }
+
+    Duration visibilityExtensionThreshold() {
+        return visibilityExtensionThreshold;
+    }
+
+    /**
+     * @param queueUrl the resolved URL of the queue
+     * @return whether the messages are dispatched in order per message group, by default for FIFO queues
+     */
+    boolean groupOrdering(String queueUrl) {
+        return groupOrdering.orElseGet(() -> queueUrl.endsWith(".fifo"));
+    }
+
+    int maxActiveGroups() {
+        return maxActiveGroups;
+    }
+}
@@ -0,0 +1,120 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput gauges and counters of the poller of a channel.
+ */
+public final class SqsPollerMetrics {
+
+    volatile int concurrency;
+    volatile int targetConcurrency;
+    volatile int inFlight;
+    volatile int activeGroups;
+    volatile int waitingGroups;
+
+    final LongAdder receiveRequests = new LongAdder();
+    final LongAdder emptyReceives = new LongAdder();
+    final LongAdder received = new LongAdder();
+    final LongAdder acknowledged = new LongAdder();
+    final LongAdder negativelyAcknowledged = new LongAdder();
+    final LongAdder visibilityExtensions = new LongAdder();
+    volatile SqsAckBatcher batcher;
+
+    SqsPollerMetrics() {
+    }
+
+    /**
+     * @return the number of running long-poll loops
+     */
+    public int concurrency() {
+        return concurrency;
+    }
+
+    /**
+     * @return the number of long-poll loops the poller currently adapts to
+     */
+    public int targetConcurrency() {
+        return targetConcurrency;
+    }
+
+    /**
+     * @return the number of received messages not acknowledged yet
+     */
+    public int inFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of message groups with a message being processed, when the messages are dispatched in order per
+     *         message group
+     */
+    public int activeGroups() {
+        return activeGroups;
+    }
+
+    /**
+     * @return the number of message groups waiting for the number of active groups to drop below its maximum
+     */
+    public int waitingGroups() {
+        return waitingGroups;
+    }
+
+    /**
+     * @return the number of {@code ReceiveMessage} requests
+     */
+    public long receiveRequests() {
+        return receiveRequests.sum();
+    }
+
+    /**
+     * @return the number of {@code ReceiveMessage} requests which did not return any message
+     */
+    public long emptyReceives() {
+        return emptyReceives.sum();
+    }
+
+    /**
+     * @return the number of received messages
+     */
+    public long received() {
+        return received.sum();
+    }
+
+    /**
+     * @return the number of acknowledged messages
+     */
+    public long acknowledged() {
+        return acknowledged.sum();
+    }
+
+    /**
+     * @return the number of negatively acknowledged messages
+     */
+    public long negativelyAcknowledged() {
+        return negativelyAcknowledged.sum();
+    }
+
+    /**
+     * @return the number of visibility timeout extensions of messages still processed
+     */
+    public long visibilityExtensions() {
+        return visibilityExtensions.sum();
+    }
+
+    /**
+     * @return the number of {@code DeleteMessageBatch} requests
+     */
+    public long deleteRequests() {
+        SqsAckBatcher current = batcher;
+        return current != null ? current.deleteRequests.sum() : 0;
+    }
+
+    /**
+     * @return the number of {@code ChangeMessageVisibilityBatch} requests
+     */
+    public long visibilityRequests() {
+        SqsAckBatcher current = batcher;
+        return current != null ? current.visibilityRequests.sum() : 0;
+    }
+}
@@ -0,0 +1,31 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import software.amazon.awssdk.services.sqs.model.Message;
+
+/**
+ * Metadata of the messages received by the {@link AmazonSqsConnector}.
+ */
+public final class SqsReceivedMetadata {
+
+    private final String queueUrl;
+    private final Message message;
+
+    SqsReceivedMetadata(String queueUrl, Message message) {
+        this.queueUrl = queueUrl;
+        this.message = message;
+    }
+
+    /**
+     * @return the URL of the queue the message was received from
+     */
+    public String queueUrl() {
+        return queueUrl;
+    }
+
+    /**
+     * @return the received message, including its attributes and receipt handle
+     */
+    public Message message() {
+        return message;
+    }
+}
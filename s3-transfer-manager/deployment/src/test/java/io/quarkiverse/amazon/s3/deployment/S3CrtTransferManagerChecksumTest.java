@@ -0,0 +1,42 @@
+package io.quarkiverse.amazon.s3.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.s3.runtime.S3Crt;
+import io.quarkus.arc.ClientProxy;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.internal.crt.S3CrtAsyncClient;
+import software.amazon.awssdk.transfer.s3.S3TransferManager;
+
+public class S3CrtTransferManagerChecksumTest {
+
+    @Inject
+    @S3Crt
+    S3AsyncClient client;
+
+    @Inject
+    @S3Crt
+    S3TransferManager transferManager;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar
+                    .addAsResource("sync-urlconn-full-config.properties", "application.properties"))
+            .overrideConfigKey("quarkus.s3.checksum.algorithm", "crc32c")
+            .overrideConfigKey("quarkus.s3.checksum.response-validation", "true");
+
+    @Test
+    public void test() {
+        // the checksum settings do not wrap the CRT-based client, which the transfer manager would not recognize
+        assertInstanceOf(S3CrtAsyncClient.class, ClientProxy.unwrap(client));
+        assertEquals("software.amazon.awssdk.transfer.s3.internal.CrtS3TransferManager",
+                ClientProxy.unwrap(transferManager).getClass().getName());
+    }
+}
@@ -1,7 +1,15 @@
 package io.quarkiverse.amazon.s3.deployment;
 
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.injectionPointAnnotationsClient;
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.namedClient;
+
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import jakarta.enterprise.context.ApplicationScoped;
 
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,8 +30,12 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
 import io.quarkiverse.amazon.s3.runtime.S3BuildTimeConfig;
+import io.quarkiverse.amazon.s3.runtime.S3BulkOperations;
+import io.quarkiverse.amazon.s3.runtime.S3BulkPresigner;
 import io.quarkiverse.amazon.s3.runtime.S3Config;
+import io.quarkiverse.amazon.s3.runtime.S3ObjectCache;
 import io.quarkiverse.amazon.s3.runtime.S3Recorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
@@ -44,6 +56,9 @@ import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 public class S3Processor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-s3";
+    private static final DotName S3_OBJECT_CACHE = DotName.createSimple(S3ObjectCache.class);
+    private static final DotName S3_BULK_PRESIGNER = DotName.createSimple(S3BulkPresigner.class);
+    private static final DotName S3_BULK_OPERATIONS = DotName.createSimple(S3BulkOperations.class);
 
     S3BuildTimeConfig buildTimeConfig;
 
@@ -91,6 +106,12 @@ public class S3Processor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, S3_OBJECT_CACHE, asyncClientName(),
+                requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, S3_BULK_PRESIGNER, presignerClientName(),
+                requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, S3_BULK_OPERATIONS, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -214,4 +235,75 @@ public class S3Processor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createObjectCaches(S3Recorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the cache is removed if not injected
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(S3ObjectCache.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createObjectCache(asyncClient.getClientName()))
+                    .addInjectionPoint(ClassType.create(S3AsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createBulkOperations(S3Recorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(S3BulkOperations.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createBulkOperations(asyncClient.getClientName()))
+                    .addInjectionPoint(ClassType.create(S3AsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createBulkPresigners(S3Recorder recorder,
+            List<RequireAmazonClientInjectionBuildItem> amazonClientInjections,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        Set<String> presignerClientNames = amazonClientInjections.stream()
+                .filter(c -> presignerClientName().equals(c.getClassName()))
+                .map(c -> c.getName())
+                .collect(Collectors.toSet());
+
+        for (String clientName : presignerClientNames) {
+            // the bulk presigner is removed if not injected
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(S3BulkPresigner.class), clientName)
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createBulkPresigner(clientName))
+                    .addInjectionPoint(ClassType.create(S3Presigner.class), injectionPointAnnotationsClient(clientName))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
 }
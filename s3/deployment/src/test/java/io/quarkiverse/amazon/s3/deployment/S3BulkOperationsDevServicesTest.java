@@ -0,0 +1,159 @@
+package io.quarkiverse.amazon.s3.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.s3.runtime.S3BulkDeleteResult;
+import io.quarkiverse.amazon.s3.runtime.S3BulkOperations;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+public class S3BulkOperationsDevServicesTest {
+
+    private static final String BUCKET = "default";
+    // more than a listing page and a DeleteObjects request under the first prefix
+    private static final Map<String, Integer> PREFIXES = Map.of("a", 1200, "b", 800, "c", 500);
+    private static final int TOTAL = 2500;
+
+    @Inject
+    S3AsyncClient client;
+
+    @Inject
+    S3BulkOperations bulkOperations;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot(jar -> jar.addClasses(RecordingInterceptor.class))
+            .overrideConfigKey("quarkus.s3.interceptors", RecordingInterceptor.class.getName());
+
+    @Test
+    public void test() {
+        putObjects();
+
+        // the common prefixes are listed concurrently, each one over several pages
+        RecordingInterceptor.listRequests.set(0);
+        List<String> listed = keys(bulkOperations.listObjects(BUCKET, "bulk/").collect().asList()
+                .await().atMost(Duration.ofMinutes(1)));
+        assertEquals(TOTAL, listed.size());
+        assertEquals(expectedKeys(), new HashSet<>(listed));
+        // one page for the listed prefix, then 2 pages for a and 1 page for b and c
+        assertEquals(5, RecordingInterceptor.listRequests.get());
+
+        // the ranges delimited by the split points neither overlap nor miss a key
+        List<String> sharded = keys(bulkOperations.listObjects(BUCKET, "bulk/a/", List.of("00400", "00800"))
+                .collect().asList().await().atMost(Duration.ofMinutes(1)));
+        assertEquals(1200, sharded.size());
+        assertEquals(expectedKeys().stream().filter(key -> key.startsWith("bulk/a/")).collect(Collectors.toSet()),
+                new HashSet<>(sharded));
+        assertTrue(sharded.contains("bulk/a/00400"));
+        assertTrue(sharded.contains("bulk/a/00401"));
+
+        // the keys of c ending with 7 are reported as errors by the interceptor
+        List<S3BulkDeleteResult> results = bulkOperations.deleteObjects(BUCKET, "bulk/").collect().asList()
+                .await().atMost(Duration.ofMinutes(1));
+        int expectedErrors = 50;
+        assertEquals(TOTAL, results.stream().mapToInt(result -> result.keys().size()).sum());
+        assertTrue(results.size() >= 3, String.valueOf(results.size()));
+        for (S3BulkDeleteResult result : results) {
+            assertNull(result.failure());
+            assertTrue(result.keys().size() <= 1000, String.valueOf(result.keys().size()));
+            assertEquals(result.keys().size() - result.errors().size(), result.deleted());
+            assertEquals(result.errors().isEmpty(), result.isSuccessful());
+            for (S3Error error : result.errors()) {
+                assertTrue(result.keys().contains(error.key()), error.key());
+                assertEquals("AccessDenied", error.code());
+            }
+        }
+        assertEquals(expectedErrors, results.stream().mapToInt(result -> result.errors().size()).sum());
+        assertEquals(TOTAL - expectedErrors,
+                results.stream().mapToLong(S3BulkDeleteResult::totalDeleted).max().getAsLong());
+        assertEquals(expectedErrors,
+                results.stream().mapToLong(S3BulkDeleteResult::totalFailed).max().getAsLong());
+        for (int size : RecordingInterceptor.deleteRequestSizes) {
+            assertTrue(size <= 1000, String.valueOf(size));
+        }
+    }
+
+    private void putObjects() {
+        List<String> keys = new ArrayList<>(expectedKeys());
+        for (int start = 0; start < keys.size(); start += 100) {
+            List<CompletableFuture<?>> puts = new ArrayList<>();
+            for (String key : keys.subList(start, Math.min(start + 100, keys.size()))) {
+                puts.add(client.putObject(b -> b.bucket(BUCKET).key(key), AsyncRequestBody.fromString(key)));
+            }
+            CompletableFuture.allOf(puts.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    private static Set<String> expectedKeys() {
+        Set<String> keys = new HashSet<>();
+        PREFIXES.forEach((prefix, count) -> {
+            for (int i = 0; i < count; i++) {
+                keys.add(String.format("bulk/%s/%05d", prefix, i));
+            }
+        });
+        return keys;
+    }
+
+    private static List<String> keys(List<S3Object> objects) {
+        return objects.stream().map(S3Object::key).collect(Collectors.toList());
+    }
+
+    public static class RecordingInterceptor implements ExecutionInterceptor {
+
+        static final AtomicInteger listRequests = new AtomicInteger();
+        static final List<Integer> deleteRequestSizes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+            if (context.request() instanceof ListObjectsV2Request) {
+                listRequests.incrementAndGet();
+            } else if (context.request() instanceof DeleteObjectsRequest) {
+                deleteRequestSizes.add(((DeleteObjectsRequest) context.request()).delete().objects().size());
+            }
+        }
+
+        @Override
+        public SdkResponse modifyResponse(Context.ModifyResponse context, ExecutionAttributes executionAttributes) {
+            if (!(context.response() instanceof DeleteObjectsResponse)) {
+                return context.response();
+            }
+            // simulates keys that S3 refuses to delete
+            List<S3Error> errors = new ArrayList<>(((DeleteObjectsResponse) context.response()).errors());
+            for (ObjectIdentifier object : ((DeleteObjectsRequest) context.request()).delete().objects()) {
+                if (object.key().startsWith("bulk/c/") && object.key().endsWith("7")) {
+                    errors.add(S3Error.builder().key(object.key()).code("AccessDenied").message("Access Denied").build());
+                }
+            }
+            return ((DeleteObjectsResponse) context.response()).toBuilder().errors(errors).build();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package io.quarkiverse.amazon.s3.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+
+public class S3ChecksumDevServicesTest {
+
+    private static final String BUCKET = "default";
+    private static final String CORRUPTED = "corrupted";
+
+    @Inject
+    S3Client client;
+
+    @Inject
+    S3AsyncClient asyncClient;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot(jar -> jar.addClasses(RecordingInterceptor.class))
+            .overrideConfigKey("quarkus.s3.interceptors", RecordingInterceptor.class.getName())
+            .overrideConfigKey("quarkus.s3.checksum.algorithm", "crc32c")
+            .overrideConfigKey("quarkus.s3.checksum.response-validation", "true");
+
+    @Test
+    public void syncClient() {
+        String content = "sync checksum content";
+        PutObjectResponse put = client.putObject(b -> b.bucket(BUCKET).key("checksum/sync"),
+                RequestBody.fromString(content));
+        assertChecksumSent();
+        // S3 validated the checksum it received and stored it
+        assertEquals(crc32c(content), put.checksumCRC32C());
+
+        ResponseBytes<GetObjectResponse> get = client.getObjectAsBytes(b -> b.bucket(BUCKET).key("checksum/sync"));
+        assertValidationRequested();
+        assertEquals(content, get.asUtf8String());
+        assertEquals(crc32c(content), get.response().checksumCRC32C());
+
+        client.putObject(b -> b.bucket(BUCKET).key("checksum/" + CORRUPTED), RequestBody.fromString(content));
+        assertThrows(SdkClientException.class,
+                () -> client.getObjectAsBytes(b -> b.bucket(BUCKET).key("checksum/" + CORRUPTED)).asUtf8String());
+    }
+
+    @Test
+    public void asyncClient() {
+        String content = "async checksum content";
+        PutObjectResponse put = asyncClient.putObject(b -> b.bucket(BUCKET).key("checksum/async"),
+                AsyncRequestBody.fromString(content)).join();
+        assertChecksumSent();
+        assertEquals(crc32c(content), put.checksumCRC32C());
+
+        ResponseBytes<GetObjectResponse> get = asyncClient.getObject(b -> b.bucket(BUCKET).key("checksum/async"),
+                AsyncResponseTransformer.toBytes()).join();
+        assertValidationRequested();
+        assertEquals(content, get.asUtf8String());
+
+        asyncClient.putObject(b -> b.bucket(BUCKET).key("checksum/async-" + CORRUPTED),
+                AsyncRequestBody.fromString(content)).join();
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> asyncClient.getObject(b -> b.bucket(BUCKET).key("checksum/async-" + CORRUPTED),
+                        AsyncResponseTransformer.toBytes()).join());
+        assertTrue(failure.getCause() instanceof SdkClientException, String.valueOf(failure.getCause()));
+    }
+
+    private static void assertChecksumSent() {
+        Map<String, List<String>> headers = RecordingInterceptor.requestHeaders.get("PutObject");
+        assertEquals(List.of("CRC32C"), headers.get("x-amz-sdk-checksum-algorithm"));
+        // sent as a header, or as a trailer after a streamed body
+        assertTrue(headers.containsKey("x-amz-checksum-crc32c")
+                || headers.getOrDefault("x-amz-trailer", List.of()).contains("x-amz-checksum-crc32c"), headers.toString());
+    }
+
+    private static void assertValidationRequested() {
+        assertEquals(List.of("ENABLED"), RecordingInterceptor.requestHeaders.get("GetObject").get("x-amz-checksum-mode"));
+    }
+
+    private static String crc32c(String content) {
+        CRC32C crc32c = new CRC32C();
+        crc32c.update(content.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc32c.getValue()).array());
+    }
+
+    public static class RecordingInterceptor implements ExecutionInterceptor {
+
+        static final Map<String, Map<String, List<String>>> requestHeaders = new ConcurrentHashMap<>();
+
+        @Override
+        public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+            requestHeaders.put(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME),
+                    context.httpRequest().headers());
+        }
+
+        @Override
+        public SdkHttpResponse modifyHttpResponse(Context.ModifyHttpResponse context,
+                ExecutionAttributes executionAttributes) {
+            SdkHttpRequest request = context.httpRequest();
+            if (!request.encodedPath().endsWith(CORRUPTED)
+                    || context.httpResponse().firstMatchingHeader("x-amz-checksum-crc32c").isEmpty()) {
+                return context.httpResponse();
+            }
+            // the body no longer matches the checksum returned by S3
+            return context.httpResponse().toBuilder().putHeader("x-amz-checksum-crc32c", crc32c("other content")).build();
+        }
+    }
+}
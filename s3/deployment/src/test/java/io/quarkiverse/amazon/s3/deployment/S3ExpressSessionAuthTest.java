@@ -0,0 +1,74 @@
+package io.quarkiverse.amazon.s3.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.http.SdkHttpRequest;
+import software.amazon.awssdk.services.s3.S3Client;
+
+/**
+ * Checks the requests signed by a client with the S3 Express session authentication disabled, aborted before they are
+ * sent, without S3.
+ */
+public class S3ExpressSessionAuthTest {
+
+    private static final String DIRECTORY_BUCKET = "bucket--use1-az4--x-s3";
+
+    @Inject
+    S3Client client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot(jar -> jar.addClasses(AbortingInterceptor.class))
+            .overrideConfigKey("quarkus.devservices.enabled", "false")
+            .overrideConfigKey("quarkus.s3.interceptors", AbortingInterceptor.class.getName())
+            .overrideConfigKey("quarkus.s3.express-session-auth", "false")
+            .overrideConfigKey("quarkus.s3.sync-client.type", "url")
+            .overrideConfigKey("quarkus.s3.aws.region", "us-east-1")
+            .overrideConfigKey("quarkus.s3.aws.credentials.type", "static")
+            .overrideConfigKey("quarkus.s3.aws.credentials.static-provider.access-key-id", "test-key")
+            .overrideConfigKey("quarkus.s3.aws.credentials.static-provider.secret-access-key", "test-secret");
+
+    @Test
+    public void test() {
+        assertThrows(RuntimeException.class, () -> client.headObject(b -> b.bucket(DIRECTORY_BUCKET).key("key")));
+
+        // no session is created, the request is signed with the client credentials for the zonal endpoint
+        assertFalse(AbortingInterceptor.operations.contains("CreateSession"), AbortingInterceptor.operations.toString());
+        assertEquals("HeadObject", AbortingInterceptor.operations.get(0));
+        SdkHttpRequest request = AbortingInterceptor.requests.get(0);
+        assertEquals(DIRECTORY_BUCKET + ".s3express-use1-az4.us-east-1.amazonaws.com", request.host());
+        assertTrue(request.firstMatchingHeader("x-amz-s3session-token").isEmpty(), request.headers().toString());
+        String authorization = request.firstMatchingHeader("Authorization").orElseThrow();
+        assertTrue(authorization.contains("Credential=test-key/"), authorization);
+        assertTrue(authorization.contains("/us-east-1/s3express/aws4_request"), authorization);
+    }
+
+    public static class AbortingInterceptor implements ExecutionInterceptor {
+
+        static final List<String> operations = new CopyOnWriteArrayList<>();
+        static final List<SdkHttpRequest> requests = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes executionAttributes) {
+            operations.add(executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME));
+            requests.add(context.httpRequest());
+            throw new IllegalStateException("Not sent");
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.quarkiverse.amazon.s3.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.s3.runtime.S3ObjectCache;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+
+public class S3ObjectCacheDevServicesTest {
+
+    @Inject
+    S3Client client;
+
+    @Inject
+    S3ObjectCache cache;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withEmptyApplication()
+            .overrideConfigKey("quarkus.s3.object-cache.revalidate-after", "0S");
+
+    @Test
+    public void test() throws Exception {
+        client.putObject(b -> b.bucket("default").key("cached"), RequestBody.fromString("first"));
+
+        Path first = cache.get("default", "cached").join();
+        Path second = cache.get("default", "cached").join();
+
+        assertEquals("first", Files.readString(second));
+        assertEquals(first, second);
+        // the objects of the default client are stored in its own sub-directory
+        assertTrue(first.startsWith(Path.of(System.getProperty("java.io.tmpdir"), "quarkus-s3-object-cache", "default")),
+                first.toString());
+        assertEquals(1, cache.downloadCount());
+        assertEquals(1, cache.revalidationCount());
+
+        client.putObject(b -> b.bucket("default").key("cached"), RequestBody.fromString("second"));
+
+        assertEquals("second", Files.readString(cache.get("default", "cached").join()));
+        assertEquals(2, cache.downloadCount());
+
+        // an object invalidated while it is downloaded is not cached
+        client.putObject(b -> b.bucket("default").key("cached"), RequestBody.fromString("third"));
+        CompletableFuture<Path> inFlight = cache.get("default", "cached");
+        cache.invalidate("default", "cached");
+        inFlight.join();
+        assertEquals(0, cache.size());
+        assertEquals("third", Files.readString(cache.get("default", "cached").join()));
+        assertEquals(4, cache.downloadCount());
+    }
+}
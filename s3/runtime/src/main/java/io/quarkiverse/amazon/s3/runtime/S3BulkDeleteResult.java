@@ -0,0 +1,74 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.util.List;
+
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+/**
+ * Outcome of a single {@code DeleteObjects} request of a bulk delete, along with the progress of the whole operation.
+ */
+public final class S3BulkDeleteResult {
+
+    private final List<String> keys;
+    private final List<S3Error> errors;
+    private final Throwable failure;
+    private final long totalDeleted;
+    private final long totalFailed;
+
+    S3BulkDeleteResult(List<String> keys, List<S3Error> errors, Throwable failure, long totalDeleted, long totalFailed) {
+        this.keys = keys;
+        this.errors = errors;
+        this.failure = failure;
+        this.totalDeleted = totalDeleted;
+        this.totalFailed = totalFailed;
+    }
+
+    /**
+     * @return the keys of the batch
+     */
+    public List<String> keys() {
+        return keys;
+    }
+
+    /**
+     * @return the number of keys of the batch that were deleted
+     */
+    public int deleted() {
+        return failure != null ? 0 : keys.size() - errors.size();
+    }
+
+    /**
+     * @return the per key errors reported by S3, empty if the whole request failed
+     */
+    public List<S3Error> errors() {
+        return errors;
+    }
+
+    /**
+     * @return the failure of the whole request, {@code null} if the request succeeded
+     */
+    public Throwable failure() {
+        return failure;
+    }
+
+    /**
+     * @return whether every key of the batch was deleted
+     */
+    public boolean isSuccessful() {
+        return failure == null && errors.isEmpty();
+    }
+
+    /**
+     * @return the number of keys deleted so far by the bulk delete
+     */
+    public long totalDeleted() {
+        return totalDeleted;
+    }
+
+    /**
+     * @return the number of keys that failed to be deleted so far by the bulk delete
+     */
+    public long totalFailed() {
+        return totalFailed;
+    }
+}
@@ -0,0 +1,197 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.CommonPrefix;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.S3Object;
+
+/**
+ * Bulk listing and deletion of S3 objects.
+ * <p>
+ * Listings are sharded and the shards are listed concurrently: either by the common prefixes found under the listed
+ * prefix with the configured delimiter, or by key ranges delimited by split points. Deletions are batched into
+ * {@code DeleteObjects} requests with a bounded number of requests in flight.
+ */
+public class S3BulkOperations {
+
+    static final int MAX_DELETE_BATCH_SIZE = 1000;
+
+    private final S3AsyncClient client;
+    private final int maxConcurrency;
+    private final int deleteBatchSize;
+    private final String delimiter;
+
+    public S3BulkOperations(S3AsyncClient client, int maxConcurrency, int deleteBatchSize, String delimiter) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be positive: " + maxConcurrency);
+        }
+        if (deleteBatchSize < 1 || deleteBatchSize > MAX_DELETE_BATCH_SIZE) {
+            throw new IllegalArgumentException("The delete batch size must be between 1 and 1000: " + deleteBatchSize);
+        }
+        this.client = client;
+        this.maxConcurrency = maxConcurrency;
+        this.deleteBatchSize = deleteBatchSize;
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Lists the objects under a prefix, listing each common prefix found with the configured delimiter concurrently.
+     * <p>
+     * Objects are not emitted in key order.
+     *
+     * @param bucket the bucket name
+     * @param prefix the prefix of the listed keys, may be empty
+     * @return the listed objects
+     */
+    public Multi<S3Object> listObjects(String bucket, String prefix) {
+        ListObjectsV2Request request = ListObjectsV2Request.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .delimiter(delimiter)
+                .build();
+
+        Multi<Multi<S3Object>> shards = pages(request).onItem().transformToIterable(page -> {
+            List<Multi<S3Object>> pageShards = new ArrayList<>(page.commonPrefixes().size() + 1);
+            if (!page.contents().isEmpty()) {
+                pageShards.add(Multi.createFrom().iterable(page.contents()));
+            }
+            for (CommonPrefix commonPrefix : page.commonPrefixes()) {
+                pageShards.add(objects(ListObjectsV2Request.builder()
+                        .bucket(bucket)
+                        .prefix(commonPrefix.prefix())
+                        .build()));
+            }
+            return pageShards;
+        });
+
+        return shards.onItem().transformToMulti(shard -> shard).merge(maxConcurrency);
+    }
+
+    /**
+     * Lists the objects under a prefix, listing the key ranges delimited by the split points concurrently.
+     * <p>
+     * This suits flat key spaces where the delimiter does not shard the listing, for instance with split points
+     * {@code 4}, {@code 8} and {@code c} for keys starting with an hexadecimal hash. Objects are not emitted in key
+     * order.
+     *
+     * @param bucket the bucket name
+     * @param prefix the prefix of the listed keys, may be empty
+     * @param splitPoints the sorted key suffixes, appended to the prefix, delimiting the listed ranges
+     * @return the listed objects
+     */
+    public Multi<S3Object> listObjects(String bucket, String prefix, List<String> splitPoints) {
+        List<Multi<S3Object>> shards = new ArrayList<>(splitPoints.size() + 1);
+
+        // shard i lists the keys in (bound i - 1, bound i]
+        String lowerBound = null;
+        for (int i = 0; i <= splitPoints.size(); i++) {
+            String upperBound = i < splitPoints.size() ? prefix + splitPoints.get(i) : null;
+            if (lowerBound != null && upperBound != null && compare(lowerBound, upperBound) >= 0) {
+                throw new IllegalArgumentException("The split points must be sorted: " + splitPoints);
+            }
+
+            Multi<S3Object> shard = objects(ListObjectsV2Request.builder()
+                    .bucket(bucket)
+                    .prefix(prefix)
+                    .startAfter(lowerBound)
+                    .build());
+            if (upperBound != null) {
+                shard = shard.select().first(object -> compare(object.key(), upperBound) <= 0);
+            }
+            shards.add(shard);
+            lowerBound = upperBound;
+        }
+
+        return Multi.createFrom().iterable(shards).onItem().transformToMulti(shard -> shard).merge(maxConcurrency);
+    }
+
+    /**
+     * Deletes all the objects under a prefix.
+     *
+     * @param bucket the bucket name
+     * @param prefix the prefix of the deleted keys, may be empty
+     * @return the outcome of each {@code DeleteObjects} request
+     */
+    public Multi<S3BulkDeleteResult> deleteObjects(String bucket, String prefix) {
+        return deleteObjects(bucket, listObjects(bucket, prefix).map(S3Object::key));
+    }
+
+    /**
+     * Deletes objects by batches of keys.
+     * <p>
+     * A failed {@code DeleteObjects} request is reported as a result and does not fail the returned stream.
+     *
+     * @param bucket the bucket name
+     * @param keys the keys of the objects to delete
+     * @return the outcome of each {@code DeleteObjects} request
+     */
+    public Multi<S3BulkDeleteResult> deleteObjects(String bucket, Multi<String> keys) {
+        AtomicLong totalDeleted = new AtomicLong();
+        AtomicLong totalFailed = new AtomicLong();
+
+        return keys.group().intoLists().of(deleteBatchSize)
+                .onItem().transformToUni(batch -> deleteBatch(bucket, batch, totalDeleted, totalFailed))
+                .merge(maxConcurrency);
+    }
+
+    private Uni<S3BulkDeleteResult> deleteBatch(String bucket, List<String> keys, AtomicLong totalDeleted,
+            AtomicLong totalFailed) {
+        List<ObjectIdentifier> objects = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            objects.add(ObjectIdentifier.builder().key(key).build());
+        }
+        DeleteObjectsRequest request = DeleteObjectsRequest.builder()
+                .bucket(bucket)
+                // only errors are returned
+                .delete(d -> d.objects(objects).quiet(true))
+                .build();
+
+        return Uni.createFrom().completionStage(() -> client.deleteObjects(request))
+                .map(response -> new S3BulkDeleteResult(keys, response.errors(), null,
+                        totalDeleted.addAndGet(keys.size() - response.errors().size()),
+                        totalFailed.addAndGet(response.errors().size())))
+                .onFailure().recoverWithItem(failure -> new S3BulkDeleteResult(keys, Collections.emptyList(), failure,
+                        totalDeleted.get(), totalFailed.addAndGet(keys.size())));
+    }
+
+    private Multi<S3Object> objects(ListObjectsV2Request request) {
+        return pages(request).onItem().transformToIterable(ListObjectsV2Response::contents);
+    }
+
+    private Multi<ListObjectsV2Response> pages(ListObjectsV2Request request) {
+        return Multi.createBy().repeating()
+                .uni(() -> new String[1], continuationToken -> Uni.createFrom()
+                        .completionStage(() -> client.listObjectsV2(
+                                request.toBuilder().continuationToken(continuationToken[0]).build()))
+                        .invoke(page -> continuationToken[0] = page.nextContinuationToken()))
+                .whilst(ListObjectsV2Response::isTruncated);
+    }
+
+    /**
+     * Compares keys in the order used by S3 listings, which is the UTF-8 binary order.
+     */
+    static int compare(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int codePointA = a.codePointAt(i);
+            int codePointB = b.codePointAt(j);
+            if (codePointA != codePointB) {
+                return Integer.compare(codePointA, codePointB);
+            }
+            i += Character.charCount(codePointA);
+            j += Character.charCount(codePointB);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+}
@@ -0,0 +1,27 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface S3BulkOperationsConfig {
+
+    /**
+     * The maximum number of concurrent `ListObjectsV2` shards and of in-flight `DeleteObjects` requests of a bulk
+     * operation.
+     */
+    @WithDefault("16")
+    int maxConcurrency();
+
+    /**
+     * The number of keys deleted by a single `DeleteObjects` request, at most 1000.
+     */
+    @WithDefault("1000")
+    int deleteBatchSize();
+
+    /**
+     * The delimiter used to shard listings: each common prefix found under the listed prefix is listed concurrently.
+     */
+    @WithDefault("/")
+    String delimiter();
+}
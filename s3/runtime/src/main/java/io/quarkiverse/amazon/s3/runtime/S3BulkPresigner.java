@@ -0,0 +1,439 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.RegionMetadata;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * High-throughput presigner for S3 GET object URLs.
+ * <p>
+ * Plain GET requests, targeting a bucket and a key with an optional version, are signed with SigV4 query parameters
+ * without going through the SDK request pipeline: the derived signing key is cached per date, region and service,
+ * and the canonical request buffers are reused per thread. Every other request, and configurations not supported by
+ * the fast path such as accelerate mode or access point ARNs, are delegated to the {@link S3Presigner}.
+ * <p>
+ * URLs presigned in a batch share the same signing time and credentials.
+ * <p>
+ * The credentials provider of the bulk presigner is closed with it, the delegate presigner is not.
+ */
+public class S3BulkPresigner implements SdkAutoCloseable {
+
+    private static final String SERVICE = "s3";
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String TERMINATOR = "aws4_request";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final long MAX_EXPIRATION_SECONDS = Duration.ofDays(7).toSeconds();
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+    private static final HexFormat HEX = HexFormat.of();
+    private static final char[] UPPER_HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final ThreadLocal<SigningBuffers> BUFFERS = ThreadLocal.withInitial(SigningBuffers::new);
+
+    private final S3Presigner delegate;
+    private final AwsCredentialsProvider credentialsProvider;
+    private final String region;
+    private final String scheme;
+    private final String host;
+    private final boolean pathStyle;
+    private final boolean fastPathEnabled;
+
+    private volatile SigningKey signingKey;
+    private volatile SigningTime signingTime;
+
+    /**
+     * @param delegate the presigner used for the requests not supported by the fast path
+     * @param credentialsProvider the credentials provider, resolved as for the presigner and closed with this presigner
+     * @param region the region of the presigner, {@code null} if unknown
+     * @param endpointOverride the endpoint override of the presigner, {@code null} if none
+     * @param pathStyle whether path style access is enabled
+     * @param dualstack whether dualstack is enabled
+     * @param accelerate whether accelerate mode is enabled
+     */
+    public S3BulkPresigner(S3Presigner delegate, AwsCredentialsProvider credentialsProvider, Region region,
+            URI endpointOverride, boolean pathStyle, boolean dualstack, boolean accelerate) {
+        this.delegate = delegate;
+        this.credentialsProvider = credentialsProvider;
+        this.region = region == null ? null : region.id();
+        this.pathStyle = pathStyle;
+
+        if (endpointOverride != null) {
+            this.scheme = endpointOverride.getScheme();
+            this.host = endpointOverride.getRawAuthority();
+            this.fastPathEnabled = region != null && !accelerate
+                    && (endpointOverride.getRawPath() == null || endpointOverride.getRawPath().isEmpty()
+                            || endpointOverride.getRawPath().equals("/"));
+        } else {
+            RegionMetadata metadata = region == null ? null : region.metadata();
+            this.scheme = "https";
+            this.host = metadata == null ? null
+                    : (dualstack ? "s3.dualstack." : "s3.") + region.id() + "." + metadata.domain();
+            this.fastPathEnabled = metadata != null && !accelerate;
+        }
+    }
+
+    /**
+     * Presigns a GET object URL.
+     *
+     * @param bucket the bucket name
+     * @param key the object key
+     * @param expiration the duration the URL is valid, at most 7 days
+     * @return the presigned URL
+     */
+    public String presignGetObject(String bucket, String key, Duration expiration) {
+        return presignGetObject(bucket, key, null, expiration);
+    }
+
+    /**
+     * Presigns a GET object URL for a specific object version.
+     *
+     * @param bucket the bucket name
+     * @param key the object key
+     * @param versionId the object version, {@code null} for the latest version
+     * @param expiration the duration the URL is valid, at most 7 days
+     * @return the presigned URL
+     */
+    public String presignGetObject(String bucket, String key, String versionId, Duration expiration) {
+        if (!supports(bucket)) {
+            return delegate.presignGetObject(presignRequest(bucket, key, versionId, expiration)).url().toString();
+        }
+
+        return sign(bucket, key, versionId, expirationSeconds(expiration), credentialsProvider.resolveCredentials(),
+                currentSigningTime());
+    }
+
+    /**
+     * Presigns GET object URLs for keys of the same bucket.
+     *
+     * @param bucket the bucket name
+     * @param keys the object keys
+     * @param expiration the duration the URLs are valid, at most 7 days
+     * @return the presigned URLs, in the order of the keys
+     */
+    public List<String> presignGetObjects(String bucket, List<String> keys, Duration expiration) {
+        List<String> urls = new ArrayList<>(keys.size());
+
+        if (!supports(bucket)) {
+            for (String key : keys) {
+                urls.add(delegate.presignGetObject(presignRequest(bucket, key, null, expiration)).url().toString());
+            }
+            return urls;
+        }
+
+        long expirationSeconds = expirationSeconds(expiration);
+        AwsCredentials credentials = credentialsProvider.resolveCredentials();
+        SigningTime time = currentSigningTime();
+        for (String key : keys) {
+            urls.add(sign(bucket, key, null, expirationSeconds, credentials, time));
+        }
+        return urls;
+    }
+
+    /**
+     * Presigns GET object URLs.
+     * <p>
+     * Requests carrying anything else than a bucket, a key and a version, like response header overrides, are
+     * delegated to the {@link S3Presigner}.
+     *
+     * @param requests the presign requests
+     * @return the presigned URLs, in the order of the requests
+     */
+    public List<String> presignGetObjects(List<GetObjectPresignRequest> requests) {
+        List<String> urls = new ArrayList<>(requests.size());
+        AwsCredentials credentials = null;
+        SigningTime time = null;
+
+        for (GetObjectPresignRequest request : requests) {
+            GetObjectRequest getObjectRequest = request.getObjectRequest();
+            if (!supports(getObjectRequest.bucket()) || !isPlain(getObjectRequest)) {
+                urls.add(delegate.presignGetObject(request).url().toString());
+                continue;
+            }
+
+            if (credentials == null) {
+                credentials = credentialsProvider.resolveCredentials();
+                time = currentSigningTime();
+            }
+            urls.add(sign(getObjectRequest.bucket(), getObjectRequest.key(), getObjectRequest.versionId(),
+                    expirationSeconds(request.signatureDuration()), credentials, time));
+        }
+        return urls;
+    }
+
+    @Override
+    public void close() {
+        if (credentialsProvider instanceof SdkAutoCloseable) {
+            ((SdkAutoCloseable) credentialsProvider).close();
+        }
+    }
+
+    private boolean supports(String bucket) {
+        // access point and outposts ARNs require endpoint resolution
+        if (!fastPathEnabled || bucket.indexOf(':') >= 0) {
+            return false;
+        }
+        // directory buckets are signed with S3 Express session credentials
+        if (bucket.endsWith(S3Config.DIRECTORY_BUCKET_SUFFIX)) {
+            return false;
+        }
+        // bucket names with dots do not match the wildcard certificate of virtual hosted endpoints
+        return pathStyle || isDnsCompatible(bucket);
+    }
+
+    private static boolean isDnsCompatible(String bucket) {
+        for (int i = 0; i < bucket.length(); i++) {
+            char c = bucket.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-')) {
+                return false;
+            }
+        }
+        return !bucket.isEmpty();
+    }
+
+    private static boolean isPlain(GetObjectRequest request) {
+        return request.equals(GetObjectRequest.builder()
+                .bucket(request.bucket())
+                .key(request.key())
+                .versionId(request.versionId())
+                .build());
+    }
+
+    private static GetObjectPresignRequest presignRequest(String bucket, String key, String versionId,
+            Duration expiration) {
+        return GetObjectPresignRequest.builder()
+                .signatureDuration(expiration)
+                .getObjectRequest(r -> r.bucket(bucket).key(key).versionId(versionId))
+                .build();
+    }
+
+    private static long expirationSeconds(Duration expiration) {
+        long seconds = expiration.getSeconds();
+        if (seconds <= 0 || seconds > MAX_EXPIRATION_SECONDS) {
+            throw new IllegalArgumentException("The expiration must be between 1 second and 7 days: " + expiration);
+        }
+        return seconds;
+    }
+
+    private String sign(String bucket, String key, String versionId, long expirationSeconds, AwsCredentials credentials,
+            SigningTime time) {
+        SigningBuffers buffers = BUFFERS.get();
+        byte[] derivedKey = signingKey(credentials, time.date);
+        String scope = time.date + "/" + region + "/" + SERVICE + "/" + TERMINATOR;
+
+        // canonical URI
+        StringBuilder uri = buffers.uri;
+        uri.setLength(0);
+        uri.append('/');
+        if (pathStyle) {
+            encode(uri, bucket, false);
+            uri.append('/');
+        }
+        encode(uri, key, true);
+
+        // canonical query string, parameters are already sorted
+        StringBuilder query = buffers.query;
+        query.setLength(0);
+        query.append("X-Amz-Algorithm=").append(ALGORITHM);
+        query.append("&X-Amz-Credential=");
+        encode(query, credentials.accessKeyId(), false);
+        query.append("%2F");
+        encode(query, scope, false);
+        query.append("&X-Amz-Date=").append(time.timestamp);
+        query.append("&X-Amz-Expires=").append(expirationSeconds);
+        if (credentials instanceof AwsSessionCredentials) {
+            query.append("&X-Amz-Security-Token=");
+            encode(query, ((AwsSessionCredentials) credentials).sessionToken(), false);
+        }
+        query.append("&X-Amz-SignedHeaders=host");
+        if (versionId != null) {
+            query.append("&versionId=");
+            encode(query, versionId, false);
+        }
+
+        String virtualHost = pathStyle ? host : bucket + "." + host;
+
+        StringBuilder canonical = buffers.canonical;
+        canonical.setLength(0);
+        canonical.append("GET\n")
+                .append(uri).append('\n')
+                .append(query).append('\n')
+                .append("host:").append(virtualHost).append("\n\n")
+                .append("host\n")
+                .append("UNSIGNED-PAYLOAD");
+
+        StringBuilder stringToSign = buffers.stringToSign;
+        stringToSign.setLength(0);
+        stringToSign.append(ALGORITHM).append('\n')
+                .append(time.timestamp).append('\n')
+                .append(scope).append('\n');
+        HEX.formatHex(stringToSign, buffers.sha256(canonical));
+
+        StringBuilder url = buffers.url;
+        url.setLength(0);
+        url.append(scheme).append("://").append(virtualHost)
+                .append(uri).append('?')
+                .append(query)
+                .append("&X-Amz-Signature=");
+        HEX.formatHex(url, buffers.hmac(derivedKey, stringToSign));
+
+        return url.toString();
+    }
+
+    private byte[] signingKey(AwsCredentials credentials, String date) {
+        SigningKey cached = signingKey;
+        if (cached != null && cached.matches(credentials, date)) {
+            return cached.key;
+        }
+
+        try {
+            byte[] secret = ("AWS4" + credentials.secretAccessKey()).getBytes(StandardCharsets.UTF_8);
+            byte[] key = hmac(secret, date);
+            key = hmac(key, region);
+            key = hmac(key, SERVICE);
+            key = hmac(key, TERMINATOR);
+
+            signingKey = new SigningKey(credentials.accessKeyId(), credentials.secretAccessKey(), date, key);
+            return key;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to derive the signing key", e);
+        }
+    }
+
+    private SigningTime currentSigningTime() {
+        long epochSecond = Instant.now().getEpochSecond();
+        SigningTime cached = signingTime;
+        if (cached != null && cached.epochSecond == epochSecond) {
+            return cached;
+        }
+
+        String timestamp = TIMESTAMP_FORMAT.format(Instant.ofEpochSecond(epochSecond));
+        cached = new SigningTime(epochSecond, timestamp, timestamp.substring(0, 8));
+        signingTime = cached;
+        return cached;
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(HMAC_SHA256);
+        mac.init(new SecretKeySpec(key, HMAC_SHA256));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * URI encodes a value as specified by SigV4: every byte but unreserved characters is percent encoded.
+     */
+    private static void encode(StringBuilder target, String value, boolean keepSlash) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (keepSlash && c == '/')) {
+                target.append(c);
+            } else if (c < 0x80) {
+                appendEscaped(target, c);
+            } else {
+                int codePoint = value.codePointAt(i);
+                if (Character.isSupplementaryCodePoint(codePoint)) {
+                    i++;
+                }
+                for (byte b : new String(Character.toChars(codePoint)).getBytes(StandardCharsets.UTF_8)) {
+                    appendEscaped(target, b & 0xFF);
+                }
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder target, int b) {
+        target.append('%').append(UPPER_HEX[b >> 4]).append(UPPER_HEX[b & 0xF]);
+    }
+
+    private static final class SigningKey {
+        private final String accessKeyId;
+        private final String secretAccessKey;
+        private final String date;
+        private final byte[] key;
+
+        private SigningKey(String accessKeyId, String secretAccessKey, String date, byte[] key) {
+            this.accessKeyId = accessKeyId;
+            this.secretAccessKey = secretAccessKey;
+            this.date = date;
+            this.key = key;
+        }
+
+        private boolean matches(AwsCredentials credentials, String date) {
+            return this.date.equals(date)
+                    && accessKeyId.equals(credentials.accessKeyId())
+                    && secretAccessKey.equals(credentials.secretAccessKey());
+        }
+    }
+
+    private static final class SigningTime {
+        private final long epochSecond;
+        private final String timestamp;
+        private final String date;
+
+        private SigningTime(long epochSecond, String timestamp, String date) {
+            this.epochSecond = epochSecond;
+            this.timestamp = timestamp;
+            this.date = date;
+        }
+    }
+
+    /**
+     * Per thread buffers and crypto primitives reused across signatures.
+     */
+    private static final class SigningBuffers {
+        private final StringBuilder uri = new StringBuilder(256);
+        private final StringBuilder query = new StringBuilder(512);
+        private final StringBuilder canonical = new StringBuilder(1024);
+        private final StringBuilder stringToSign = new StringBuilder(256);
+        private final StringBuilder url = new StringBuilder(1024);
+        private final MessageDigest sha256;
+        private final Mac mac;
+        private byte[] macKey;
+
+        private SigningBuffers() {
+            try {
+                sha256 = MessageDigest.getInstance("SHA-256");
+                mac = Mac.getInstance(HMAC_SHA256);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private byte[] sha256(CharSequence value) {
+            return sha256.digest(value.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        private byte[] hmac(byte[] key, CharSequence value) {
+            try {
+                if (key != macKey) {
+                    mac.init(new SecretKeySpec(key, HMAC_SHA256));
+                    macKey = key;
+                }
+                return mac.doFinal(value.toString().getBytes(StandardCharsets.UTF_8));
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
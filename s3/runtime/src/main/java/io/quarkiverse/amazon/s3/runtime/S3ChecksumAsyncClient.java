@@ -0,0 +1,28 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import software.amazon.awssdk.services.s3.DelegatingS3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.S3Request;
+
+/**
+ * Applies the checksum defaults to the requests of an async client.
+ */
+final class S3ChecksumAsyncClient extends DelegatingS3AsyncClient {
+
+    private final S3ChecksumDefaults checksums;
+
+    S3ChecksumAsyncClient(S3AsyncClient delegate, S3ChecksumDefaults checksums) {
+        super(delegate);
+        this.checksums = checksums;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T extends S3Request, ReturnT> CompletableFuture<ReturnT> invokeOperation(T request,
+            Function<T, CompletableFuture<ReturnT>> operation) {
+        return operation.apply((T) checksums.apply(request));
+    }
+}
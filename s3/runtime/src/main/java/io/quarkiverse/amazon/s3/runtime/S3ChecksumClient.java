@@ -0,0 +1,26 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.util.function.Function;
+
+import software.amazon.awssdk.services.s3.DelegatingS3Client;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.S3Request;
+
+/**
+ * Applies the checksum defaults to the requests of a sync client.
+ */
+final class S3ChecksumClient extends DelegatingS3Client {
+
+    private final S3ChecksumDefaults checksums;
+
+    S3ChecksumClient(S3Client delegate, S3ChecksumDefaults checksums) {
+        super(delegate);
+        this.checksums = checksums;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected <T extends S3Request, ReturnT> ReturnT invokeOperation(T request, Function<T, ReturnT> operation) {
+        return operation.apply((T) checksums.apply(request));
+    }
+}
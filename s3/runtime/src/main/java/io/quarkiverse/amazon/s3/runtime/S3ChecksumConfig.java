@@ -0,0 +1,52 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+
+@ConfigGroup
+public interface S3ChecksumConfig {
+
+    /**
+     * The checksum algorithm used for the uploads which do not specify a checksum algorithm, a checksum value or a
+     * `Content-MD5` header.
+     * <p>
+     * It applies to the `PutObject`, `UploadPart` and `CreateMultipartUpload` requests. Over HTTPS, the checksum of a
+     * streaming upload is computed while the body is sent and sent as a trailer, the payload itself being unsigned.
+     * <p>
+     * The AWS CRT-based client has no default algorithm setting: it uses CRC32 when this property is set.
+     */
+    @ConfigDocDefault("No checksum")
+    Optional<Algorithm> algorithm();
+
+    /**
+     * Enable the validation of the checksum returned by S3 for the `GetObject` requests which do not specify a checksum
+     * mode.
+     */
+    @WithDefault("false")
+    boolean responseValidation();
+
+    /**
+     * An enumeration of the checksum algorithms supported by S3.
+     */
+    enum Algorithm {
+
+        CRC32(ChecksumAlgorithm.CRC32),
+        CRC32C(ChecksumAlgorithm.CRC32_C),
+        SHA1(ChecksumAlgorithm.SHA1),
+        SHA256(ChecksumAlgorithm.SHA256);
+
+        private final ChecksumAlgorithm checksumAlgorithm;
+
+        Algorithm(ChecksumAlgorithm checksumAlgorithm) {
+            this.checksumAlgorithm = checksumAlgorithm;
+        }
+
+        ChecksumAlgorithm checksumAlgorithm() {
+            return checksumAlgorithm;
+        }
+    }
+}
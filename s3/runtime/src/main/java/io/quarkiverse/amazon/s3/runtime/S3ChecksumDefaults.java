@@ -0,0 +1,75 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import software.amazon.awssdk.services.s3.model.ChecksumAlgorithm;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Request;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * Applies the configured checksum algorithm and response validation to the requests which do not specify them.
+ * <p>
+ * The defaults are set on the requests before they are passed to the client, the checksum of an operation being
+ * resolved by the client from the request it is called with, before the execution interceptors run.
+ */
+final class S3ChecksumDefaults {
+
+    private final ChecksumAlgorithm algorithm;
+    private final boolean responseValidation;
+
+    S3ChecksumDefaults(ChecksumAlgorithm algorithm, boolean responseValidation) {
+        this.algorithm = algorithm;
+        this.responseValidation = responseValidation;
+    }
+
+    static S3ChecksumDefaults create(S3ChecksumConfig config) {
+        if (config.algorithm().isEmpty() && !config.responseValidation()) {
+            return null;
+        }
+        return new S3ChecksumDefaults(config.algorithm().map(S3ChecksumConfig.Algorithm::checksumAlgorithm).orElse(null),
+                config.responseValidation());
+    }
+
+    /**
+     * @return the request with the checksum defaults applied, or the same request if they do not apply
+     */
+    S3Request apply(S3Request request) {
+        if (algorithm != null) {
+            if (request instanceof PutObjectRequest) {
+                PutObjectRequest putObject = (PutObjectRequest) request;
+                if (putObject.checksumAlgorithm() == null && putObject.contentMD5() == null && !hasChecksum(putObject)) {
+                    return putObject.toBuilder().checksumAlgorithm(algorithm).build();
+                }
+            } else if (request instanceof UploadPartRequest) {
+                UploadPartRequest uploadPart = (UploadPartRequest) request;
+                if (uploadPart.checksumAlgorithm() == null && uploadPart.contentMD5() == null && !hasChecksum(uploadPart)) {
+                    return uploadPart.toBuilder().checksumAlgorithm(algorithm).build();
+                }
+            } else if (request instanceof CreateMultipartUploadRequest) {
+                CreateMultipartUploadRequest createMultipartUpload = (CreateMultipartUploadRequest) request;
+                if (createMultipartUpload.checksumAlgorithm() == null) {
+                    return createMultipartUpload.toBuilder().checksumAlgorithm(algorithm).build();
+                }
+            }
+        }
+        if (responseValidation && request instanceof GetObjectRequest) {
+            GetObjectRequest getObject = (GetObjectRequest) request;
+            if (getObject.checksumMode() == null) {
+                return getObject.toBuilder().checksumMode(ChecksumMode.ENABLED).build();
+            }
+        }
+        return request;
+    }
+
+    private static boolean hasChecksum(PutObjectRequest request) {
+        return request.checksumCRC32() != null || request.checksumCRC32C() != null || request.checksumSHA1() != null
+                || request.checksumSHA256() != null;
+    }
+
+    private static boolean hasChecksum(UploadPartRequest request) {
+        return request.checksumCRC32() != null || request.checksumCRC32C() != null || request.checksumSHA1() != null
+                || request.checksumSHA256() != null;
+    }
+}
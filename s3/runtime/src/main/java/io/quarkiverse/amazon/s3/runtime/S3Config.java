@@ -15,6 +15,11 @@ import io.smallrye.config.WithDefault;
 @ConfigRoot(phase = ConfigPhase.RUN_TIME)
 public interface S3Config extends HasAmazonClientRuntimeConfig {
 
+    /**
+     * Suffix of the names of the S3 Express One Zone directory buckets.
+     */
+    String DIRECTORY_BUCKET_SUFFIX = "--x-s3";
+
     /**
      * Enable using the accelerate endpoint when accessing S3.
      *
@@ -69,6 +74,22 @@ public interface S3Config extends HasAmazonClientRuntimeConfig {
      */
     Optional<String> profileName();
 
+    /**
+     * Enable the session based authentication of the requests to S3 Express One Zone directory buckets.
+     * <p>
+     * Session credentials are obtained with `CreateSession`, then cached per bucket and refreshed by the client before
+     * they expire, so that requests are not individually authorized. Disable it to sign the requests to directory buckets
+     * with the client credentials, for instance against a local stand-in which does not implement `CreateSession`.
+     */
+    @WithDefault("true")
+    boolean expressSessionAuth();
+
+    /**
+     * Checksum configurations
+     */
+    @ConfigDocSection
+    S3ChecksumConfig checksum();
+
     /**
      * Sync HTTP transport configurations
      */
@@ -86,4 +107,16 @@ public interface S3Config extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     S3CrtConfig crtClient();
+
+    /**
+     * Bulk operations configurations
+     */
+    @ConfigDocSection
+    S3BulkOperationsConfig bulkOperations();
+
+    /**
+     * Local object cache configurations
+     */
+    @ConfigDocSection
+    S3ObjectCacheConfig objectCache();
 }
@@ -35,10 +35,14 @@ public class S3CrtRecorder {
     }
 
     private void configureS3Client(S3CrtAsyncClientBuilder builder, String awsServiceName) {
+        // the CRT-based client computes the CRC32 checksum of the uploads which do not specify an algorithm and validates
+        // the checksum of the downloads, it has no setting for another default algorithm
+        boolean checksums = config.checksum().algorithm().isPresent() || config.checksum().responseValidation();
         builder
                 .accelerate(config.accelerateMode())
-                .checksumValidationEnabled(config.checksumValidation())
+                .checksumValidationEnabled(config.checksumValidation() || checksums)
                 .crossRegionAccessEnabled(config.useArnRegionEnabled())
+                .disableS3ExpressSessionAuth(!config.expressSessionAuth())
                 .forcePathStyle(config.pathStyleAccess());
 
         config.crtClient().initialReadBufferSizeInBytes().ifPresent(builder::initialReadBufferSizeInBytes);
@@ -83,6 +87,8 @@ public class S3CrtRecorder {
         return new Function<SyntheticCreationalContext<S3AsyncClient>, S3AsyncClient>() {
             @Override
             public S3AsyncClient apply(SyntheticCreationalContext<S3AsyncClient> context) {
+                // not wrapped, the transfer manager only uses the multipart and resumable transfers of the CRT-based
+                // client itself
                 return context.getInjectedReference(S3CrtAsyncClientBuilder.class).build();
             }
         };
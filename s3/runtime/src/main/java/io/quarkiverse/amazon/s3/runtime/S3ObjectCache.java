@@ -0,0 +1,410 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Local disk cache of S3 objects.
+ * <p>
+ * Objects are keyed by bucket, key and ETag. A cached object is revalidated with a conditional GET
+ * ({@code If-None-Match}) and only downloaded again when it changed. Concurrent requests for the same object are
+ * collapsed into a single download, and the least recently used objects are evicted once the configured maximum
+ * size is exceeded.
+ * <p>
+ * Cached objects survive restarts: objects already present in the cache directory are revalidated on first access
+ * instead of being downloaded again.
+ * <p>
+ * An object invalidated while it is downloaded is not cached: the download may have read the previous version, so it
+ * is only returned to the requests waiting for it, and revalidated if it is restored at the next start.
+ */
+public class S3ObjectCache {
+
+    private static final Logger LOG = Logger.getLogger(S3ObjectCache.class);
+
+    private static final int NOT_MODIFIED = 304;
+    private static final String DOWNLOAD_PREFIX = ".download-";
+    private static final String ETAG_PREFIX = "etag-";
+    private static final long NEVER_VALIDATED = Long.MIN_VALUE;
+
+    private final S3AsyncClient client;
+    private final Path directory;
+    private final long maxSize;
+    private final long revalidateAfterNanos;
+
+    // access ordered, guarded by itself
+    private final LinkedHashMap<String, CachedObject> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // removed by the invalidations, guarded by the entries
+    private final ConcurrentHashMap<String, CompletableFuture<Path>> downloads = new ConcurrentHashMap<>();
+    private long size;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder revalidationCount = new LongAdder();
+    private final LongAdder downloadCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public S3ObjectCache(S3AsyncClient client, Path directory, long maxSize, Duration revalidateAfter) {
+        this.client = client;
+        this.directory = directory;
+        this.maxSize = maxSize;
+        this.revalidateAfterNanos = revalidateAfter.toNanos();
+
+        try {
+            Files.createDirectories(directory);
+            restore();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to initialize the S3 object cache in " + directory, e);
+        }
+    }
+
+    /**
+     * Returns the local copy of an object, downloading or revalidating it if needed.
+     * <p>
+     * The returned file must not be modified and stays available until the object is evicted or invalidated.
+     *
+     * @param bucket the bucket name
+     * @param key the object key
+     * @return a future completed with the path of the local copy of the object
+     */
+    public CompletableFuture<Path> get(String bucket, String key) {
+        String id = id(bucket, key);
+
+        CachedObject cached = lookup(id);
+        if (cached != null && cached.validatedAt != NEVER_VALIDATED
+                && System.nanoTime() - cached.validatedAt < revalidateAfterNanos) {
+            hitCount.increment();
+            return CompletableFuture.completedFuture(cached.file);
+        }
+
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> pending = downloads.putIfAbsent(id, download);
+        if (pending != null) {
+            return pending.copy();
+        }
+
+        fetch(bucket, key, id, cached, download).whenComplete((file, failure) -> {
+            downloads.remove(id, download);
+            if (failure != null) {
+                download.completeExceptionally(failure);
+            } else {
+                download.complete(file);
+            }
+        });
+
+        return download.copy();
+    }
+
+    /**
+     * Removes an object from the cache.
+     *
+     * @param bucket the bucket name
+     * @param key the object key
+     */
+    public void invalidate(String bucket, String key) {
+        String id = id(bucket, key);
+        CachedObject removed;
+        synchronized (entries) {
+            // the download in flight is not cached
+            downloads.remove(id);
+            removed = entries.remove(id);
+            if (removed != null) {
+                size -= removed.size;
+            }
+        }
+        if (removed != null) {
+            deleteQuietly(removed.file);
+        }
+    }
+
+    /**
+     * Removes all objects from the cache.
+     */
+    public void invalidateAll() {
+        List<CachedObject> removed;
+        synchronized (entries) {
+            removed = new ArrayList<>(entries.values());
+            downloads.clear();
+            entries.clear();
+            size = 0;
+        }
+        for (CachedObject cachedObject : removed) {
+            deleteQuietly(cachedObject.file);
+        }
+    }
+
+    /**
+     * @return the total size in bytes of the cached objects
+     */
+    public long size() {
+        synchronized (entries) {
+            return size;
+        }
+    }
+
+    /**
+     * @return the number of accesses served from disk without contacting S3
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of accesses served from disk after a successful conditional GET
+     */
+    public long revalidationCount() {
+        return revalidationCount.sum();
+    }
+
+    /**
+     * @return the number of objects downloaded from S3
+     */
+    public long downloadCount() {
+        return downloadCount.sum();
+    }
+
+    /**
+     * @return the number of objects evicted to stay below the maximum size
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    private CachedObject lookup(String id) {
+        CachedObject cached;
+        synchronized (entries) {
+            cached = entries.get(id);
+        }
+        if (cached != null && !Files.exists(cached.file)) {
+            // removed behind our back, forget it and download again
+            synchronized (entries) {
+                if (entries.remove(id, cached)) {
+                    size -= cached.size;
+                }
+            }
+            return null;
+        }
+        return cached;
+    }
+
+    private CompletableFuture<Path> fetch(String bucket, String key, String id, CachedObject cached,
+            CompletableFuture<Path> registration) {
+        GetObjectRequest.Builder request = GetObjectRequest.builder().bucket(bucket).key(key);
+        if (cached != null) {
+            request.ifNoneMatch(cached.etag);
+        }
+        Path download = directory.resolve(DOWNLOAD_PREFIX + UUID.randomUUID());
+
+        try {
+            return client.getObject(request.build(), AsyncResponseTransformer.toFile(download))
+                    .handle((response, failure) -> {
+                        if (failure == null) {
+                            downloadCount.increment();
+                            return store(id, response.eTag(), download, registration);
+                        }
+
+                        deleteQuietly(download);
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                ? failure.getCause()
+                                : failure;
+                        if (cached != null && cause instanceof S3Exception
+                                && ((S3Exception) cause).statusCode() == NOT_MODIFIED) {
+                            revalidationCount.increment();
+                            cached.validatedAt = System.nanoTime();
+                            return cached.file;
+                        }
+                        throw new CompletionException(cause);
+                    });
+        } catch (RuntimeException e) {
+            deleteQuietly(download);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Path store(String id, String etag, Path download, CompletableFuture<Path> registration) {
+        Path file = directory.resolve(id).resolve(fileName(etag));
+        long length;
+        try {
+            Files.createDirectories(file.getParent());
+            Files.move(download, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            length = Files.size(file);
+        } catch (IOException e) {
+            deleteQuietly(download);
+            throw new UncheckedIOException(e);
+        }
+
+        CachedObject stored = new CachedObject(etag, file, length, System.nanoTime());
+        List<Path> superseded = new ArrayList<>();
+        List<Path> evicted = new ArrayList<>();
+        synchronized (entries) {
+            if (downloads.get(id) != registration) {
+                // invalidated while it was downloaded, the object may be stale
+                return file;
+            }
+            CachedObject previous = entries.put(id, stored);
+            if (previous != null) {
+                size -= previous.size;
+                if (!previous.file.equals(file)) {
+                    superseded.add(previous.file);
+                }
+            }
+            size += length;
+            evictLeastRecentlyUsed(stored, evicted);
+        }
+
+        superseded.forEach(S3ObjectCache::deleteQuietly);
+        evicted.forEach(S3ObjectCache::deleteQuietly);
+        evictionCount.add(evicted.size());
+        return file;
+    }
+
+    private void evictLeastRecentlyUsed(CachedObject keep, List<Path> evicted) {
+        Iterator<CachedObject> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            CachedObject eldest = iterator.next();
+            if (eldest == keep) {
+                continue;
+            }
+            iterator.remove();
+            size -= eldest.size;
+            evicted.add(eldest.file);
+        }
+    }
+
+    private void restore() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(directory)) {
+            for (Path child : children) {
+                if (child.getFileName().toString().startsWith(DOWNLOAD_PREFIX)) {
+                    // leftover of an interrupted download
+                    deleteQuietly(child);
+                } else if (Files.isDirectory(child)) {
+                    restoreEntry(child, files);
+                }
+            }
+        }
+
+        // oldest files first so that the access order approximates the previous run
+        files.sort(Comparator.comparing(S3ObjectCache::lastModified));
+
+        List<Path> evicted = new ArrayList<>();
+        synchronized (entries) {
+            for (Path file : files) {
+                String etag;
+                try {
+                    etag = etag(file.getFileName().toString());
+                } catch (IllegalArgumentException e) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                long length = Files.size(file);
+                entries.put(file.getParent().getFileName().toString(),
+                        new CachedObject(etag, file, length, NEVER_VALIDATED));
+                size += length;
+            }
+            evictLeastRecentlyUsed(null, evicted);
+        }
+        evicted.forEach(S3ObjectCache::deleteQuietly);
+
+        if (!files.isEmpty()) {
+            LOG.debug("Restored " + (files.size() - evicted.size()) + " cached S3 objects from " + directory);
+        }
+    }
+
+    private static void restoreEntry(Path entryDirectory, List<Path> files) throws IOException {
+        Path latest = null;
+        try (DirectoryStream<Path> children = Files.newDirectoryStream(entryDirectory, ETAG_PREFIX + "*")) {
+            for (Path child : children) {
+                if (latest == null || lastModified(child) > lastModified(latest)) {
+                    if (latest != null) {
+                        deleteQuietly(latest);
+                    }
+                    latest = child;
+                } else {
+                    deleteQuietly(child);
+                }
+            }
+        }
+        if (latest != null) {
+            files.add(latest);
+        } else {
+            deleteQuietly(entryDirectory);
+        }
+    }
+
+    private static String id(String bucket, String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(bucket.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String fileName(String etag) {
+        String value = etag == null ? "" : etag;
+        return ETAG_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String etag(String fileName) {
+        return new String(Base64.getUrlDecoder().decode(fileName.substring(ETAG_PREFIX.length())), StandardCharsets.UTF_8);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("Unable to delete " + file, e);
+        }
+    }
+
+    private static final class CachedObject {
+        private final String etag;
+        private final Path file;
+        private final long size;
+        private volatile long validatedAt;
+
+        private CachedObject(String etag, Path file, long size, long validatedAt) {
+            this.etag = etag;
+            this.file = file;
+            this.size = size;
+            this.validatedAt = validatedAt;
+        }
+    }
+}
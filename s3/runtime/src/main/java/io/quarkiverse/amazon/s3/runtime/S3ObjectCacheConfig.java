@@ -0,0 +1,44 @@
+package io.quarkiverse.amazon.s3.runtime;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface S3ObjectCacheConfig {
+
+    /**
+     * The directory where cached objects are stored.
+     * <p>
+     * The objects cached through the default client are stored in the `default` sub-directory, and the objects cached
+     * through a named client in the `named/<client name>` sub-directory.
+     */
+    @ConfigDocDefault("`quarkus-s3-object-cache` in the system temporary directory")
+    Optional<Path> directory();
+
+    /**
+     * The maximum total size of the objects kept on disk.
+     * <p>
+     * Least recently used objects are evicted once this size is exceeded.
+     */
+    @WithDefault("1G")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxSize();
+
+    /**
+     * The amount of time a cached object is served without being revalidated with a conditional GET.
+     * <p>
+     * Specify `0` to revalidate the object on every access.
+     */
+    @WithDefault("0S")
+    @WithConverter(DurationConverter.class)
+    Duration revalidateAfter();
+}
@@ -1,14 +1,28 @@
 package io.quarkiverse.amazon.s3.runtime;
 
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
+import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
+import io.quarkiverse.amazon.common.runtime.AmazonClientConfig;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.awscore.AwsClient;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
 import software.amazon.awssdk.awscore.presigner.SdkPresigner;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.regions.providers.DefaultAwsRegionProviderChain;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.S3BaseClientBuilder;
@@ -64,10 +78,105 @@ public class S3Recorder extends AmazonClientRecorder {
         return new RuntimeValue<>(builder);
     }
 
+    @Override
+    protected AwsClient decorateClient(AwsClient client) {
+        S3ChecksumDefaults checksums = S3ChecksumDefaults.create(config.checksum());
+        if (checksums == null) {
+            return client;
+        }
+        return client instanceof S3AsyncClient ? new S3ChecksumAsyncClient((S3AsyncClient) client, checksums)
+                : new S3ChecksumClient((S3Client) client, checksums);
+    }
+
+    public Function<SyntheticCreationalContext<S3ObjectCache>, S3ObjectCache> createObjectCache(String clientName) {
+        return new Function<SyntheticCreationalContext<S3ObjectCache>, S3ObjectCache>() {
+            @Override
+            public S3ObjectCache apply(SyntheticCreationalContext<S3ObjectCache> context) {
+                S3AsyncClient client;
+                Path directory = config.objectCache().directory()
+                        .orElseGet(() -> Path.of(System.getProperty("java.io.tmpdir"), "quarkus-s3-object-cache"));
+                // each client has its own directory, the cache of a client never restores the objects of another one
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(S3AsyncClient.class);
+                    directory = directory.resolve("default");
+                } else {
+                    client = context.getInjectedReference(S3AsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                    directory = directory.resolve("named").resolve(clientName);
+                }
+
+                return new S3ObjectCache(client, directory, config.objectCache().maxSize().asLongValue(),
+                        config.objectCache().revalidateAfter());
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<S3BulkOperations>, S3BulkOperations> createBulkOperations(String clientName) {
+        return new Function<SyntheticCreationalContext<S3BulkOperations>, S3BulkOperations>() {
+            @Override
+            public S3BulkOperations apply(SyntheticCreationalContext<S3BulkOperations> context) {
+                S3AsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(S3AsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(S3AsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                return new S3BulkOperations(client, config.bulkOperations().maxConcurrency(),
+                        config.bulkOperations().deleteBatchSize(), config.bulkOperations().delimiter());
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<S3BulkPresigner>, S3BulkPresigner> createBulkPresigner(String clientName) {
+        return new Function<SyntheticCreationalContext<S3BulkPresigner>, S3BulkPresigner>() {
+            @Override
+            public S3BulkPresigner apply(SyntheticCreationalContext<S3BulkPresigner> context) {
+                S3Presigner presigner;
+                String namedExtension;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    presigner = context.getInjectedReference(S3Presigner.class);
+                    namedExtension = "s3";
+                } else {
+                    presigner = context.getInjectedReference(S3Presigner.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                    namedExtension = "s3." + clientName;
+                }
+
+                // resolved with the code configuring the presigner, which does not expose its configuration, the
+                // credentials provider is closed with the bulk presigner
+                AmazonClientConfig namedConfig = config.clients().get(clientName);
+                AmazonClientConfig defaultConfig = config.clients().get(ClientUtil.DEFAULT_CLIENT_NAME);
+
+                AwsCredentialsProvider credentials = AmazonClientCommonRecorder.credentialsProvider("s3", namedExtension,
+                        namedConfig.aws(), defaultConfig.aws());
+                Region region = namedConfig.aws().region().or(() -> defaultConfig.aws().region())
+                        .orElseGet(S3Recorder::defaultRegion);
+                URI endpointOverride = namedConfig.sdk().endpointOverride().filter(URI::isAbsolute)
+                        .or(() -> defaultConfig.sdk().endpointOverride().filter(URI::isAbsolute))
+                        .orElse(null);
+
+                return new S3BulkPresigner(presigner, credentials, region, endpointOverride, config.pathStyleAccess(),
+                        config.dualstack(), config.accelerateMode());
+            }
+        };
+    }
+
+    private static Region defaultRegion() {
+        try {
+            return new DefaultAwsRegionProviderChain().getRegion();
+        } catch (SdkClientException e) {
+            // every request is delegated to the presigner
+            return null;
+        }
+    }
+
     private void configureS3Client(S3BaseClientBuilder builder) {
         builder
                 .serviceConfiguration(s3ConfigurationBuilder().build())
-                .dualstackEnabled(config.dualstack());
+                .dualstackEnabled(config.dualstack())
+                .disableS3ExpressSessionAuth(!config.expressSessionAuth());
     }
 
     private S3Configuration.Builder s3ConfigurationBuilder() {
@@ -1,7 +1,13 @@
 package io.quarkiverse.amazon.secretsmanager.deployment;
 
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.injectionPointAnnotationsClient;
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.namedClient;
+
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,7 +28,9 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.secretsmanager.runtime.SecretCache;
 import io.quarkiverse.amazon.secretsmanager.runtime.SecretsManagerBuildTimeConfig;
+import io.quarkiverse.amazon.secretsmanager.runtime.SecretsManagerConfigBuilder;
 import io.quarkiverse.amazon.secretsmanager.runtime.SecretsManagerRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
@@ -34,6 +42,8 @@ import io.quarkus.deployment.builditem.ExecutorBuildItem;
 import io.quarkus.deployment.builditem.ExtensionSslNativeSupportBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
 import io.quarkus.deployment.builditem.LaunchModeBuildItem;
+import io.quarkus.deployment.builditem.RunTimeConfigBuilderBuildItem;
+import io.quarkus.deployment.builditem.ShutdownContextBuildItem;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClientBuilder;
 import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
@@ -42,6 +52,7 @@ import software.amazon.awssdk.services.secretsmanager.SecretsManagerClientBuilde
 public class SecretsManagerProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-secretsmanager";
+    private static final DotName SECRET_CACHE = DotName.createSimple(SecretCache.class);
 
     SecretsManagerBuildTimeConfig buildTimeConfig;
 
@@ -79,11 +90,25 @@ public class SecretsManagerProcessor extends AbstractAmazonServiceProcessor {
         setupExtension(extensionSslNativeSupport, feature, interceptors);
     }
 
+    @BuildStep
+    void configSource(BuildProducer<RunTimeConfigBuilderBuildItem> configBuilders) {
+        // always registered, the source loads the properties from Secrets Manager only when it is enabled
+        configBuilders.produce(new RunTimeConfigBuilderBuildItem(SecretsManagerConfigBuilder.class.getName()));
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void closeConfigSource(SecretsManagerRecorder recorder, ShutdownContextBuildItem shutdownContext) {
+        recorder.closeConfigSources(shutdownContext);
+    }
+
     @BuildStep
     void discoverClientInjectionPoints(BeanRegistrationPhaseBuildItem beanRegistrationPhase,
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, SECRET_CACHE, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -212,4 +237,28 @@ public class SecretsManagerProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createSecretCaches(SecretsManagerRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the cache is removed if not injected
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(SecretCache.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createSecretCache(asyncClient.getClientName()))
+                    .addInjectionPoint(ClassType.create(SecretsManagerAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .done());
+        }
+    }
 }
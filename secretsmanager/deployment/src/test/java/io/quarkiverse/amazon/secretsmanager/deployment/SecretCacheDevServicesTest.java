@@ -0,0 +1,62 @@
+package io.quarkiverse.amazon.secretsmanager.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.inject.Inject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.secretsmanager.runtime.SecretCache;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+
+class SecretCacheDevServicesTest {
+
+    @Inject
+    SecretCache cache;
+
+    @Inject
+    SecretsManagerAsyncClient client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withEmptyApplication();
+
+    @Test
+    void test() {
+        client.createSecret(r -> r.name("database")
+                .secretString("{\"username\":\"quarkus\",\"password\":\"secret\",\"port\":5432}")).join();
+
+        // the concurrent reads of a missing secret are collapsed
+        List<CompletableFuture<String>> reads = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            reads.add(cache.getSecretField("database", "password"));
+        }
+        reads.forEach(read -> assertEquals("secret", read.join()));
+        assertEquals(1, cache.size());
+
+        assertEquals("quarkus", cache.getSecretField("database", "username").join());
+        assertEquals("5432", cache.getSecretField("database", "port").join());
+        assertNull(cache.getSecretField("database", "host").join());
+        assertEquals(3, cache.hitCount());
+
+        cache.invalidate("database");
+        assertEquals(0, cache.size());
+
+        // a secret invalidated while it is fetched is not cached
+        CompletableFuture<String> read = cache.getSecretField("database", "password");
+        client.putSecretValue(r -> r.secretId("database")
+                .secretString("{\"username\":\"quarkus\",\"password\":\"rotated\",\"port\":5432}")).join();
+        cache.invalidate("database");
+        read.join();
+        assertEquals(0, cache.size());
+        assertEquals("rotated", cache.getSecretField("database", "password").join());
+        assertEquals(1, cache.size());
+    }
+}
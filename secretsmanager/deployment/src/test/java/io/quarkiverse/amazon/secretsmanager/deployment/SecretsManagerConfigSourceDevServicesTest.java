@@ -0,0 +1,40 @@
+package io.quarkiverse.amazon.secretsmanager.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+
+class SecretsManagerConfigSourceDevServicesTest {
+
+    @ConfigProperty(name = "standalone.greeting")
+    String greeting;
+
+    @ConfigProperty(name = "config-source.db.url")
+    String url;
+
+    @ConfigProperty(name = "config-source.db.password")
+    String password;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar
+                    .addAsResource("config-source-config.properties", "application.properties"));
+
+    @Test
+    void test() {
+        // the secrets are created by the localstack init script
+        assertEquals("hello", greeting);
+        // the fields of a JSON secret are properties too
+        assertEquals("jdbc:postgresql://db/app", url);
+        assertEquals("s3cr3t", password);
+        assertTrue(ConfigProvider.getConfig().getValue("config-source.db", String.class).contains("\"password\""));
+        // a missing secret is skipped, the other secrets being loaded
+        assertTrue(ConfigProvider.getConfig().getOptionalValue("standalone.missing", String.class).isEmpty());
+    }
+}
@@ -0,0 +1,13 @@
+#!/usr/bin/env bash
+echo "#### Create the secrets ####"
+aws secretsmanager create-secret --endpoint-url=http://localhost:4566 \
+                                 --name config-source/db \
+                                 --secret-string '{"url":"jdbc:postgresql://db/app","password":"s3cr3t"}' \
+                                 --profile=localstack \
+                                 --region=us-east-1
+aws secretsmanager create-secret --endpoint-url=http://localhost:4566 \
+                                 --name standalone/greeting \
+                                 --secret-string hello \
+                                 --profile=localstack \
+                                 --region=us-east-1
+echo "#### Secrets Manager init completed"
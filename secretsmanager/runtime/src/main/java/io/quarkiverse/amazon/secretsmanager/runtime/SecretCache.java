@@ -0,0 +1,319 @@
+package io.quarkiverse.amazon.secretsmanager.runtime;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import software.amazon.awssdk.protocols.jsoncore.JsonNode;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerAsyncClient;
+import software.amazon.awssdk.services.secretsmanager.model.GetSecretValueResponse;
+
+/**
+ * In-memory cache of Secrets Manager secrets.
+ * <p>
+ * Secrets are keyed by secret id and version stage, and served from memory until their time to live expires. A read
+ * during the refresh-ahead window preceding the expiry fetches the secret again in the background while the cached
+ * value is returned. Concurrent fetches of the same secret are collapsed into a single {@code GetSecretValue} request,
+ * and the least recently used secrets are evicted once the configured maximum size is exceeded.
+ * <p>
+ * A secret invalidated while it is being fetched is not cached when the fetch completes, the next read fetches it
+ * again.
+ * <p>
+ * The fields of JSON secrets are parsed once per fetched secret value.
+ */
+public class SecretCache {
+
+    private static final Logger LOG = Logger.getLogger(SecretCache.class);
+
+    /**
+     * The version stage of the current version of a secret
+     */
+    public static final String AWSCURRENT = "AWSCURRENT";
+
+    private final SecretsManagerAsyncClient client;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+
+    // access ordered, guarded by itself
+    private final LinkedHashMap<Key, CachedSecret> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentHashMap<Key, CompletableFuture<CachedSecret>> fetches = new ConcurrentHashMap<>();
+    // incremented by the invalidations, guarded by the entries
+    private long generation;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public SecretCache(SecretsManagerAsyncClient client, int maxSize, Duration ttl, Duration refreshAhead) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive: " + maxSize);
+        }
+        this.client = client;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = Math.max(0, ttl.toNanos() - refreshAhead.toNanos());
+    }
+
+    /**
+     * @param secretId the name or ARN of the secret
+     * @return a future completed with the current version of the secret
+     */
+    public CompletableFuture<GetSecretValueResponse> getSecretValue(String secretId) {
+        return getSecretValue(secretId, AWSCURRENT);
+    }
+
+    /**
+     * @param secretId the name or ARN of the secret
+     * @param versionStage the version stage of the secret
+     * @return a future completed with the version of the secret
+     */
+    public CompletableFuture<GetSecretValueResponse> getSecretValue(String secretId, String versionStage) {
+        return get(new Key(secretId, versionStage)).thenApply(cached -> cached.value);
+    }
+
+    /**
+     * @param secretId the name or ARN of the secret
+     * @return a future completed with the string of the current version of the secret, {@code null} for a binary
+     *         secret
+     */
+    public CompletableFuture<String> getSecretString(String secretId) {
+        return get(new Key(secretId, AWSCURRENT)).thenApply(cached -> cached.value.secretString());
+    }
+
+    /**
+     * Returns a field of a JSON secret, such as the {@code password} of a database secret.
+     * <p>
+     * String fields are returned as is, the other fields as JSON.
+     *
+     * @param secretId the name or ARN of the secret
+     * @param field the name of the top level field
+     * @return a future completed with the field of the current version of the secret, {@code null} if the secret has
+     *         no such field
+     */
+    public CompletableFuture<String> getSecretField(String secretId, String field) {
+        return get(new Key(secretId, AWSCURRENT)).thenApply(cached -> cached.fields().get(field));
+    }
+
+    /**
+     * Removes all the versions of a secret from the cache.
+     *
+     * @param secretId the name or ARN of the secret
+     */
+    public void invalidate(String secretId) {
+        synchronized (entries) {
+            generation++;
+            entries.keySet().removeIf(key -> key.secretId.equals(secretId));
+            fetches.keySet().removeIf(key -> key.secretId.equals(secretId));
+        }
+    }
+
+    /**
+     * Removes all secrets from the cache.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+            fetches.clear();
+        }
+    }
+
+    /**
+     * @return the number of cached secret versions
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return the number of reads served from memory
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of reads which waited for the secret to be fetched
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of secrets fetched again in the background before their expiry
+     */
+    public long refreshCount() {
+        return refreshCount.sum();
+    }
+
+    /**
+     * @return the number of secrets evicted to stay below the maximum size
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    private CompletableFuture<CachedSecret> get(Key key) {
+        CachedSecret cached;
+        synchronized (entries) {
+            cached = entries.get(key);
+        }
+
+        if (cached != null) {
+            long age = System.nanoTime() - cached.fetchedAt;
+            if (age < ttlNanos) {
+                hitCount.increment();
+                if (age >= refreshAfterNanos && !fetches.containsKey(key)) {
+                    refreshCount.increment();
+                    fetch(key).exceptionally(failure -> {
+                        // the cached value is served until it expires
+                        LOG.warnf(failure, "Unable to refresh the secret %s", key.secretId);
+                        return null;
+                    });
+                }
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+
+        missCount.increment();
+        return fetch(key).copy();
+    }
+
+    private CompletableFuture<CachedSecret> fetch(Key key) {
+        CompletableFuture<CachedSecret> fetch = new CompletableFuture<>();
+        long fetchGeneration;
+        synchronized (entries) {
+            CompletableFuture<CachedSecret> pending = fetches.putIfAbsent(key, fetch);
+            if (pending != null) {
+                return pending;
+            }
+            fetchGeneration = generation;
+        }
+
+        CompletableFuture<GetSecretValueResponse> response;
+        try {
+            response = client.getSecretValue(r -> r.secretId(key.secretId).versionStage(key.versionStage));
+        } catch (RuntimeException e) {
+            response = CompletableFuture.failedFuture(e);
+        }
+        response.whenComplete((value, failure) -> {
+            fetches.remove(key, fetch);
+            if (failure != null) {
+                fetch.completeExceptionally(failure);
+            } else {
+                fetch.complete(store(key, value, fetchGeneration));
+            }
+        });
+        return fetch;
+    }
+
+    private CachedSecret store(Key key, GetSecretValueResponse value, long fetchGeneration) {
+        CachedSecret stored = new CachedSecret(value, System.nanoTime());
+        synchronized (entries) {
+            if (fetchGeneration != generation) {
+                // invalidated while it was fetched, the value may be stale
+                return stored;
+            }
+            entries.put(key, stored);
+            Iterator<CachedSecret> iterator = entries.values().iterator();
+            while (entries.size() > maxSize && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                evictionCount.increment();
+            }
+        }
+        return stored;
+    }
+
+    /**
+     * Parses the top level fields of a JSON secret, the string fields as is and the other fields as JSON.
+     *
+     * @param secretString the string of the secret
+     * @return the fields, empty if the secret is not a JSON object
+     * @throws RuntimeException if the secret is not valid JSON
+     */
+    static Map<String, String> fields(String secretString) {
+        if (secretString == null) {
+            return Map.of();
+        }
+        JsonNode json = JsonNode.parser().parse(secretString);
+        if (!json.isObject()) {
+            return Map.of();
+        }
+        Map<String, String> parsed = new HashMap<>();
+        for (Map.Entry<String, JsonNode> field : json.asObject().entrySet()) {
+            JsonNode fieldValue = field.getValue();
+            if (fieldValue.isString()) {
+                parsed.put(field.getKey(), fieldValue.asString());
+            } else if (fieldValue.isNumber()) {
+                parsed.put(field.getKey(), fieldValue.asNumber());
+            } else if (fieldValue.isBoolean()) {
+                parsed.put(field.getKey(), Boolean.toString(fieldValue.asBoolean()));
+            } else if (!fieldValue.isNull()) {
+                parsed.put(field.getKey(), fieldValue.toString());
+            }
+        }
+        return parsed;
+    }
+
+    private static final class Key {
+        private final String secretId;
+        private final String versionStage;
+
+        private Key(String secretId, String versionStage) {
+            this.secretId = Objects.requireNonNull(secretId, "secretId");
+            this.versionStage = Objects.requireNonNull(versionStage, "versionStage");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return secretId.equals(other.secretId) && versionStage.equals(other.versionStage);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * secretId.hashCode() + versionStage.hashCode();
+        }
+    }
+
+    private static final class CachedSecret {
+        private final GetSecretValueResponse value;
+        private final long fetchedAt;
+        // parsed on first access
+        private volatile Map<String, String> fields;
+
+        private CachedSecret(GetSecretValueResponse value, long fetchedAt) {
+            this.value = value;
+            this.fetchedAt = fetchedAt;
+        }
+
+        Map<String, String> fields() {
+            Map<String, String> parsed = fields;
+            if (parsed == null) {
+                parsed = SecretCache.fields(value.secretString());
+                fields = parsed;
+            }
+            return parsed;
+        }
+
+    }
+}
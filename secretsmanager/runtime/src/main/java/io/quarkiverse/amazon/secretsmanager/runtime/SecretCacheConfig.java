@@ -0,0 +1,37 @@
+package io.quarkiverse.amazon.secretsmanager.runtime;
+
+import java.time.Duration;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface SecretCacheConfig {
+
+    /**
+     * The maximum number of secret versions kept in memory.
+     * <p>
+     * Least recently used secrets are evicted once this number is exceeded.
+     */
+    @WithDefault("1000")
+    int maxSize();
+
+    /**
+     * The amount of time a secret is served from memory before being fetched again.
+     */
+    @WithDefault("1H")
+    @WithConverter(DurationConverter.class)
+    Duration ttl();
+
+    /**
+     * The amount of time before the expiry of a secret during which a read refreshes the secret in the background,
+     * the cached value being served until the refreshed value is available.
+     * <p>
+     * Specify `0` to only fetch secrets once expired.
+     */
+    @WithDefault("5M")
+    @WithConverter(DurationConverter.class)
+    Duration refreshAhead();
+}
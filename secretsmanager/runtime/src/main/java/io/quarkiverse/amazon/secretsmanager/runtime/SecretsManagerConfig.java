@@ -22,4 +22,16 @@ public interface SecretsManagerConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Secret cache configurations
+     */
+    @ConfigDocSection
+    SecretCacheConfig cache();
+
+    /**
+     * Configuration source loading the properties from Secrets Manager
+     */
+    @ConfigDocSection
+    SecretsManagerConfigSourceConfig configSource();
 }
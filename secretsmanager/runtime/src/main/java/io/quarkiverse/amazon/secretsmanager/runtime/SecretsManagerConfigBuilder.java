@@ -0,0 +1,15 @@
+package io.quarkiverse.amazon.secretsmanager.runtime;
+
+import io.quarkus.runtime.configuration.ConfigBuilder;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+/**
+ * Registers the {@link SecretsManagerConfigSourceFactory} in the runtime configuration.
+ */
+public class SecretsManagerConfigBuilder implements ConfigBuilder {
+
+    @Override
+    public SmallRyeConfigBuilder configBuilder(SmallRyeConfigBuilder builder) {
+        return builder.withSources(new SecretsManagerConfigSourceFactory());
+    }
+}
@@ -0,0 +1,31 @@
+package io.quarkiverse.amazon.secretsmanager.runtime;
+
+import java.util.List;
+import java.util.Optional;
+
+import io.quarkiverse.amazon.common.runtime.AmazonConfigSourceConfig;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface SecretsManagerConfigSourceConfig extends AmazonConfigSourceConfig {
+
+    /**
+     * The names or ARNs of the secrets loaded with `BatchGetSecretValue`, twenty at a time.
+     */
+    Optional<List<String>> secrets();
+
+    /**
+     * The prefixes of the names of the secrets loaded with `BatchGetSecretValue`.
+     */
+    Optional<List<String>> namePrefixes();
+
+    /**
+     * Whether the fields of the secrets holding a JSON object are also loaded as properties.
+     * <p>
+     * The property of a field is named after the property of the secret and the field: the field `password` of the
+     * secret `my-app/db` is the property `my-app.db.password`, the secret itself is the property `my-app.db`.
+     */
+    @WithDefault("true")
+    boolean expandJson();
+}
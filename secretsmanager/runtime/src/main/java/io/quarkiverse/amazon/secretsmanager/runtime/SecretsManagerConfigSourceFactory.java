@@ -0,0 +1,128 @@
+package io.quarkiverse.amazon.secretsmanager.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.jboss.logging.Logger;
+
+import io.quarkiverse.amazon.common.runtime.AbstractAmazonConfigSourceFactory;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
+import io.smallrye.config.ConfigSourceContext;
+import software.amazon.awssdk.services.secretsmanager.SecretsManagerClient;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueRequest;
+import software.amazon.awssdk.services.secretsmanager.model.BatchGetSecretValueResponse;
+import software.amazon.awssdk.services.secretsmanager.model.Filter;
+import software.amazon.awssdk.services.secretsmanager.model.FilterNameStringType;
+import software.amazon.awssdk.services.secretsmanager.model.SecretValueEntry;
+
+/**
+ * Loads the properties of the {@code quarkus.secretsmanager.config-source} from Secrets Manager with
+ * {@code BatchGetSecretValue}, the chunks of twenty secrets being requested concurrently.
+ */
+public class SecretsManagerConfigSourceFactory extends AbstractAmazonConfigSourceFactory {
+
+    private static final Logger LOG = Logger.getLogger(SecretsManagerConfigSourceFactory.class);
+
+    // the maximum number of secrets of a BatchGetSecretValue request
+    private static final int MAX_SECRETS = 20;
+
+    public SecretsManagerConfigSourceFactory() {
+        super("secretsmanager");
+    }
+
+    @Override
+    protected PropertiesLoader createLoader(ConfigSourceContext context) {
+        List<String> secrets = settings(context, "secrets");
+        List<String> namePrefixes = settings(context, "name-prefixes");
+        if (secrets.isEmpty() && namePrefixes.isEmpty()) {
+            throw new RuntimeConfigurationError(
+                    "quarkus.secretsmanager.config-source.secrets or quarkus.secretsmanager.config-source.name-prefixes"
+                            + " must be set");
+        }
+        boolean expandJson = setting(context, "expand-json").map(Boolean::parseBoolean).orElse(true);
+        return new Loader(configure(SecretsManagerClient.builder(), context).build(), secrets, namePrefixes,
+                expandJson);
+    }
+
+    private static final class Loader implements PropertiesLoader {
+
+        private final SecretsManagerClient client;
+        private final List<List<String>> secrets = new ArrayList<>();
+        private final List<String> namePrefixes;
+        private final boolean expandJson;
+
+        private Loader(SecretsManagerClient client, List<String> secrets, List<String> namePrefixes,
+                boolean expandJson) {
+            this.client = client;
+            for (int i = 0; i < secrets.size(); i += MAX_SECRETS) {
+                this.secrets.add(secrets.subList(i, Math.min(i + MAX_SECRETS, secrets.size())));
+            }
+            this.namePrefixes = namePrefixes;
+            this.expandJson = expandJson;
+        }
+
+        @Override
+        public Map<String, String> load(ExecutorService executor) {
+            List<CompletableFuture<Map<String, String>>> loading = new ArrayList<>();
+            if (!namePrefixes.isEmpty()) {
+                Filter filter = Filter.builder().key(FilterNameStringType.NAME).values(namePrefixes).build();
+                loading.add(CompletableFuture.supplyAsync(
+                        () -> load(BatchGetSecretValueRequest.builder().filters(filter)), executor));
+            }
+            for (List<String> chunk : secrets) {
+                loading.add(CompletableFuture.supplyAsync(
+                        () -> load(BatchGetSecretValueRequest.builder().secretIdList(chunk)), executor));
+            }
+
+            // the secrets listed by name override the secrets matching a prefix
+            Map<String, String> properties = new HashMap<>();
+            for (CompletableFuture<Map<String, String>> loaded : loading) {
+                properties.putAll(loaded.join());
+            }
+            return properties;
+        }
+
+        private Map<String, String> load(BatchGetSecretValueRequest.Builder request) {
+            Map<String, String> properties = new HashMap<>();
+            String nextToken = null;
+            do {
+                BatchGetSecretValueResponse response = client.batchGetSecretValue(request.nextToken(nextToken).build());
+                if (response.hasErrors() && !response.errors().isEmpty()) {
+                    response.errors().forEach(error -> LOG.warnf("Unable to load the secret %s: %s %s", error.secretId(),
+                            error.errorCode(), error.message()));
+                }
+                for (SecretValueEntry secret : response.secretValues()) {
+                    if (secret.secretString() != null) {
+                        put(properties, secret.name().replace('/', '.'), secret.secretString());
+                    }
+                }
+                nextToken = response.nextToken();
+            } while (nextToken != null);
+            return properties;
+        }
+
+        private void put(Map<String, String> properties, String name, String secretString) {
+            properties.put(name, secretString);
+            if (!expandJson || !secretString.trim().startsWith("{")) {
+                return;
+            }
+            Map<String, String> fields;
+            try {
+                fields = SecretCache.fields(secretString);
+            } catch (RuntimeException e) {
+                // not JSON after all, kept as a string
+                return;
+            }
+            fields.forEach((field, value) -> properties.put(name + "." + field, value));
+        }
+
+        @Override
+        public void close() {
+            client.close();
+        }
+    }
+}
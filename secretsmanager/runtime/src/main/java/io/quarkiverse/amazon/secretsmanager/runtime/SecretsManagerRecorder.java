@@ -1,10 +1,19 @@
 package io.quarkiverse.amazon.secretsmanager.runtime;
 
+import java.util.function.Function;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
+import io.quarkiverse.amazon.common.runtime.AmazonConfigSource;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.ShutdownContext;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
@@ -44,4 +53,27 @@ public class SecretsManagerRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return SecretsManagerAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<SecretCache>, SecretCache> createSecretCache(String clientName) {
+        return new Function<SyntheticCreationalContext<SecretCache>, SecretCache>() {
+            @Override
+            public SecretCache apply(SyntheticCreationalContext<SecretCache> context) {
+                SecretsManagerAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(SecretsManagerAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(SecretsManagerAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                return new SecretCache(client, config.cache().maxSize(), config.cache().ttl(),
+                        config.cache().refreshAhead());
+            }
+        };
+    }
+
+    public void closeConfigSources(ShutdownContext shutdownContext) {
+        // the refreshed config sources hold a client and threads until the application stops
+        shutdownContext.addShutdownTask(() -> AmazonConfigSource.closeAll(ConfigProvider.getConfig()));
+    }
 }
@@ -1,7 +1,13 @@
 package io.quarkiverse.amazon.sns.deployment;
 
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.injectionPointAnnotationsClient;
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.namedClient;
+
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,10 +28,14 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
+import io.quarkiverse.amazon.sns.runtime.SnsBatchPublisher;
 import io.quarkiverse.amazon.sns.runtime.SnsBuildTimeConfig;
 import io.quarkiverse.amazon.sns.runtime.SnsRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
+import io.quarkus.bootstrap.classloading.QuarkusClassLoader;
 import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
 import io.quarkus.deployment.annotations.ExecutionTime;
@@ -42,6 +52,11 @@ import software.amazon.awssdk.services.sns.SnsClientBuilder;
 public class SnsProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-sns";
+    private static final DotName SNS_BATCH_PUBLISHER = DotName.createSimple(SnsBatchPublisher.class);
+    private static final DotName SNS_LARGE_PAYLOAD_ASYNC_CLIENT = DotName
+            .createSimple("io.quarkiverse.amazon.sns.runtime.SnsLargePayloadAsyncClient");
+    private static final DotName S3_ASYNC_CLIENT = DotName.createSimple("software.amazon.awssdk.services.s3.S3AsyncClient");
+    private static final String S3_EXTENSION_RECORDER = "io.quarkiverse.amazon.s3.runtime.S3Recorder";
 
     SnsBuildTimeConfig buildTimeConfig;
 
@@ -84,6 +99,14 @@ public class SnsProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, SNS_BATCH_PUBLISHER, asyncClientName(),
+                requireClientInjectionProducer);
+        if (discoverClientInjectionPointsFor(beanRegistrationPhase, SNS_LARGE_PAYLOAD_ASYNC_CLIENT, asyncClientName(),
+                requireClientInjectionProducer)) {
+            // the bodies are stored with the default S3 client
+            requireClientInjectionProducer
+                    .produce(new RequireAmazonClientInjectionBuildItem(S3_ASYNC_CLIENT, ClientUtil.DEFAULT_CLIENT_NAME));
+        }
     }
 
     @BuildStep
@@ -207,4 +230,61 @@ public class SnsProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createBatchPublishers(SnsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the batch publisher is removed if not injected, the pending batches are sent when it is destroyed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(SnsBatchPublisher.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createBatchPublisher(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(SnsAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createLargePayloadClients(SnsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        // the bodies are stored in S3 with the client of the S3 extension
+        if (!QuarkusClassLoader.isClassPresentAtRuntime(S3_EXTENSION_RECORDER)) {
+            return;
+        }
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the client is removed if not injected, it shares the underlying clients and is not closed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(SNS_LARGE_PAYLOAD_ASYNC_CLIENT),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createExtendedClient(asyncClient.getClientName()))
+                    .addInjectionPoint(ClassType.create(SnsAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .addInjectionPoint(ClassType.create(S3_ASYNC_CLIENT))
+                    .done());
+        }
+    }
 }
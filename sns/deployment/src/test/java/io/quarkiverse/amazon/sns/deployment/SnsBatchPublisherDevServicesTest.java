@@ -0,0 +1,49 @@
+package io.quarkiverse.amazon.sns.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.sns.runtime.SnsBatchPublisher;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+
+class SnsBatchPublisherDevServicesTest {
+
+    @Inject
+    SnsBatchPublisher publisher;
+
+    @Inject
+    SnsAsyncClient client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar.addAsResource(
+                    new StringAsset("quarkus.sns.batch-publisher.linger=50ms"),
+                    "application.properties"));
+
+    @Test
+    void test() {
+        String topicArn = client.createTopic(r -> r.name("topic1")).join().topicArn();
+
+        List<CompletableFuture<PublishBatchResultEntry>> results = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            results.add(publisher.publish(topicArn, "message-" + i));
+        }
+        results.forEach(result -> assertTrue(result.join().messageId() != null));
+
+        assertEquals(25, publisher.published());
+        assertEquals(3, publisher.requests());
+        assertEquals(0, publisher.failed());
+    }
+}
@@ -0,0 +1,189 @@
+package io.quarkiverse.amazon.sns.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkiverse.amazon.sns.runtime.SnsBatchPublisher;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+/**
+ * Runs the publisher against a local stub of the client failing some entries, without SNS.
+ */
+class SnsBatchPublisherTest {
+
+    private static final String TOPIC = "arn:aws:sns:eu-west-1:000000000000:topic";
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+
+    @AfterEach
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void retryFailedEntries() throws Exception {
+        StubSnsClient stub = new StubSnsClient();
+        SnsBatchPublisher publisher = new SnsBatchPublisher(stub, scheduler, 10, 256 * 1024, Duration.ofMillis(100), 2,
+                Duration.ofMillis(10), Duration.ofSeconds(1));
+
+        CompletableFuture<PublishBatchResultEntry> ok = publisher.publish(TOPIC, "ok");
+        CompletableFuture<PublishBatchResultEntry> throttledOnce = publisher.publish(TOPIC, "throttled-once");
+        CompletableFuture<PublishBatchResultEntry> throttled = publisher.publish(TOPIC, "throttled");
+        CompletableFuture<PublishBatchResultEntry> invalid = publisher.publish(TOPIC, "invalid");
+
+        assertEquals("ok", ok.get(1, TimeUnit.MINUTES).messageId());
+        // published again with the next batch of the topic
+        assertEquals("throttled-once", throttledOnce.get(1, TimeUnit.MINUTES).messageId());
+        assertEquals(2, stub.attempts.get("throttled-once").get());
+
+        // the server errors are retried up to the maximum number of retries, then fail
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> throttled.get(1, TimeUnit.MINUTES));
+        assertTrue(failure.getCause() instanceof SnsException, String.valueOf(failure.getCause()));
+        assertTrue(failure.getCause().getMessage().startsWith("Throttled"), failure.getCause().getMessage());
+        assertEquals(3, stub.attempts.get("throttled").get());
+
+        // the sender errors are not retried
+        failure = assertThrows(ExecutionException.class, () -> invalid.get(1, TimeUnit.MINUTES));
+        assertTrue(failure.getCause().getMessage().startsWith("InvalidParameter"), failure.getCause().getMessage());
+        assertEquals(1, stub.attempts.get("invalid").get());
+
+        assertEquals(2, publisher.published());
+        assertEquals(3, publisher.retried());
+        assertEquals(2, publisher.failed());
+        assertEquals(3, publisher.requests());
+        // the first request holds all the entries, then the retried ones are sent with the next batches
+        assertEquals(List.of(4, 2, 1), stub.requestSizes);
+        publisher.close();
+    }
+
+    @Test
+    void failedRequest() {
+        StubSnsClient stub = new StubSnsClient();
+        stub.failure = new IllegalStateException("unavailable");
+        SnsBatchPublisher publisher = new SnsBatchPublisher(stub, scheduler, 10, 256 * 1024, Duration.ofMillis(100), 2,
+                Duration.ofMillis(10), Duration.ofSeconds(1));
+
+        List<CompletableFuture<PublishBatchResultEntry>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(publisher.publish(TOPIC, "ok-" + i));
+        }
+        // the request itself is not retried by the publisher
+        for (CompletableFuture<PublishBatchResultEntry> result : results) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> result.get(1, TimeUnit.MINUTES));
+            assertEquals("unavailable", failure.getCause().getMessage());
+        }
+        assertEquals(1, publisher.requests());
+        assertEquals(3, publisher.failed());
+        assertEquals(0, publisher.retried());
+        publisher.close();
+    }
+
+    @Test
+    void closeWithPendingRetries() throws Exception {
+        StubSnsClient stub = new StubSnsClient();
+        SnsBatchPublisher publisher = new SnsBatchPublisher(stub, scheduler, 10, 256 * 1024, Duration.ofMillis(100), 2,
+                Duration.ofHours(1), Duration.ofHours(1));
+
+        CompletableFuture<PublishBatchResultEntry> throttledOnce = publisher.publish(TOPIC, "throttled-once");
+        CompletableFuture<PublishBatchResultEntry> throttled = publisher.publish(TOPIC, "throttled");
+        publisher.flush();
+        assertEquals(2, publisher.retried());
+
+        // published without waiting for the backoff, and not retried again
+        publisher.close();
+        assertEquals("throttled-once", throttledOnce.get(1, TimeUnit.MINUTES).messageId());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> throttled.get(1, TimeUnit.MINUTES));
+        assertTrue(failure.getCause().getMessage().startsWith("Throttled"), failure.getCause().getMessage());
+        assertEquals(2, stub.attempts.get("throttled").get());
+        assertEquals(List.of(2, 2), stub.requestSizes);
+
+        // published as soon as it is added
+        assertEquals("ok", publisher.publish(TOPIC, "ok").get(1, TimeUnit.MINUTES).messageId());
+    }
+
+    @Test
+    void schedulerShutDown() throws Exception {
+        StubSnsClient stub = new StubSnsClient();
+        SnsBatchPublisher publisher = new SnsBatchPublisher(stub, scheduler, 10, 256 * 1024, Duration.ofMillis(100), 2,
+                Duration.ofMillis(10), Duration.ofSeconds(1));
+        scheduler.shutdownNow();
+
+        // the batch is sent without lingering, the retry cannot be scheduled so the entry fails
+        CompletableFuture<PublishBatchResultEntry> ok = publisher.publish(TOPIC, "ok");
+        CompletableFuture<PublishBatchResultEntry> throttledOnce = publisher.publish(TOPIC, "throttled-once");
+        assertEquals("ok", ok.get(1, TimeUnit.MINUTES).messageId());
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> throttledOnce.get(1, TimeUnit.MINUTES));
+        assertTrue(failure.getCause() instanceof RejectedExecutionException, String.valueOf(failure.getCause()));
+        assertEquals(0, publisher.retried());
+        assertEquals(1, publisher.failed());
+        publisher.close();
+    }
+
+    private static final class StubSnsClient implements SnsAsyncClient {
+
+        private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private final List<Integer> requestSizes = new CopyOnWriteArrayList<>();
+        private volatile RuntimeException failure;
+
+        @Override
+        public CompletableFuture<PublishBatchResponse> publishBatch(PublishBatchRequest request) {
+            requestSizes.add(request.publishBatchRequestEntries().size());
+            if (failure != null) {
+                return CompletableFuture.failedFuture(failure);
+            }
+            List<PublishBatchResultEntry> successful = new ArrayList<>();
+            List<BatchResultErrorEntry> failed = new ArrayList<>();
+            for (PublishBatchRequestEntry entry : request.publishBatchRequestEntries()) {
+                int attempt = attempts.computeIfAbsent(entry.message(), message -> new AtomicInteger()).incrementAndGet();
+                if (entry.message().equals("invalid")) {
+                    failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("InvalidParameter")
+                            .message("invalid").senderFault(true).build());
+                } else if (entry.message().equals("throttled")
+                        || (entry.message().equals("throttled-once") && attempt == 1)) {
+                    failed.add(BatchResultErrorEntry.builder().id(entry.id()).code("Throttled")
+                            .message("throttled").senderFault(false).build());
+                } else {
+                    successful.add(PublishBatchResultEntry.builder().id(entry.id()).messageId(entry.message()).build());
+                }
+            }
+            return CompletableFuture.completedFuture(PublishBatchResponse.builder()
+                    .successful(successful)
+                    .failed(failed)
+                    .build());
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.quarkiverse.amazon.sns.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.common.runtime.LargePayloadPointer;
+import io.quarkiverse.amazon.sns.runtime.SnsLargePayloadAsyncClient;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+
+class SnsLargePayloadDevServicesTest {
+
+    @Inject
+    SnsLargePayloadAsyncClient client;
+
+    @Inject
+    S3AsyncClient s3;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar.addClasses(RecordingInterceptor.class).addAsResource(
+                    new StringAsset("quarkus.s3.devservices.buckets=payloads\n"
+                            + "quarkus.sns.interceptors=" + RecordingInterceptor.class.getName() + "\n"
+                            + "quarkus.sns.large-payload.bucket=payloads\n"
+                            + "quarkus.sns.large-payload.threshold=1K"),
+                    "application.properties"));
+
+    @Test
+    void publish() {
+        String topicArn = client.createTopic(r -> r.name("topic1")).join().topicArn();
+        String body = "x".repeat(4096);
+
+        client.publish(r -> r.topicArn(topicArn).message("small")).join();
+        client.publish(r -> r.topicArn(topicArn).message(body)).join();
+        assertEquals(1, client.offloadedPayloads());
+        assertEquals(4096, client.offloadedBytes());
+
+        List<PublishRequest> published = RecordingInterceptor.published.stream()
+                .filter(request -> topicArn.equals(request.topicArn()))
+                .collect(Collectors.toList());
+        assertEquals(2, published.size());
+        assertEquals("small", published.get(0).message());
+        assertFalse(published.get(0).messageAttributes().containsKey(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE));
+        assertStored(body, published.get(1).message(), published.get(1).messageAttributes());
+
+        PublishBatchResponse response = client.publishBatch(r -> r.topicArn(topicArn).publishBatchRequestEntries(
+                PublishBatchRequestEntry.builder().id("small").message("small").build(),
+                PublishBatchRequestEntry.builder().id("large").message(body).build())).join();
+        assertEquals(2, response.successful().size());
+        assertEquals(2, client.offloadedPayloads());
+
+        List<PublishBatchRequestEntry> entries = RecordingInterceptor.publishedBatches.stream()
+                .filter(request -> topicArn.equals(request.topicArn()))
+                .findFirst().orElseThrow().publishBatchRequestEntries();
+        assertEquals("small", entries.get(0).message());
+        assertStored(body, entries.get(1).message(), entries.get(1).messageAttributes());
+    }
+
+    @Test
+    void attributeLimit() {
+        String topicArn = client.createTopic(r -> r.name("topic2")).join().topicArn();
+        Map<String, MessageAttributeValue> attributes = new HashMap<>();
+        for (int i = 0; i < LargePayloadPointer.MAX_MESSAGE_ATTRIBUTES; i++) {
+            attributes.put("attribute" + i, MessageAttributeValue.builder().dataType("String").stringValue("v").build());
+        }
+        long offloaded = client.offloadedPayloads();
+
+        // rejected before the body is stored, the size attribute being over the limit
+        CompletionException failure = assertThrows(CompletionException.class, () -> client.publish(
+                r -> r.topicArn(topicArn).message("x".repeat(4096)).messageAttributes(attributes)).join());
+        assertTrue(failure.getCause() instanceof IllegalArgumentException, String.valueOf(failure.getCause()));
+        assertTrue(failure.getCause().getMessage().contains(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE));
+
+        failure = assertThrows(CompletionException.class, () -> client.publishBatch(r -> r.topicArn(topicArn)
+                .publishBatchRequestEntries(PublishBatchRequestEntry.builder().id("large").message("x".repeat(4096))
+                        .messageAttributes(attributes).build()))
+                .join());
+        assertTrue(failure.getCause() instanceof IllegalArgumentException, String.valueOf(failure.getCause()));
+        assertEquals(offloaded, client.offloadedPayloads());
+
+        // a small message is published as is
+        client.publish(r -> r.topicArn(topicArn).message("small").messageAttributes(attributes)).join();
+    }
+
+    private void assertStored(String body, String message, Map<String, MessageAttributeValue> attributes) {
+        LargePayloadPointer pointer = LargePayloadPointer.fromJson(message);
+        assertEquals("payloads", pointer.bucket());
+        assertEquals("4096", attributes.get(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE).stringValue());
+        assertEquals(body, s3.getObject(r -> r.bucket(pointer.bucket()).key(pointer.key()),
+                AsyncResponseTransformer.toBytes()).join().asUtf8String());
+    }
+
+    public static class RecordingInterceptor implements ExecutionInterceptor {
+
+        static final List<PublishRequest> published = new CopyOnWriteArrayList<>();
+        static final List<PublishBatchRequest> publishedBatches = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+            if (context.request() instanceof PublishRequest) {
+                published.add((PublishRequest) context.request());
+            } else if (context.request() instanceof PublishBatchRequest) {
+                publishedBatches.add((PublishBatchRequest) context.request());
+            }
+        }
+    }
+}
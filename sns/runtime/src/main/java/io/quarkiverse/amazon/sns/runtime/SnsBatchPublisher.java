@@ -0,0 +1,243 @@
+package io.quarkiverse.amazon.sns.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.quarkiverse.amazon.common.runtime.BatchUtil;
+import io.quarkiverse.amazon.common.runtime.LingeringBatch;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.SnsException;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * Publishes messages with {@code PublishBatch} requests, aggregating the messages of each topic.
+ * <p>
+ * A batch is sent once it holds the maximum number of entries or the next message would exceed the maximum size, or once
+ * the linger time elapsed since its first message was added. The entries which failed because of a server error are
+ * published again with the next batch of the topic after a backoff, the other failed entries complete their future
+ * exceptionally. The messages of a FIFO topic keep their order unless an entry is retried.
+ * <p>
+ * Once the publisher is closed, the messages are published as soon as they are added, and the entries waiting for their
+ * backoff are published immediately, without being retried again.
+ */
+public class SnsBatchPublisher implements SdkAutoCloseable {
+
+    private final SnsAsyncClient client;
+    private final ScheduledExecutorService scheduler;
+    private final int maxBatchSize;
+    private final long maxBatchBytes;
+    private final long lingerNanos;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    private final long maxRetryBackoffNanos;
+
+    private final Map<String, LingeringBatch<Entry>> batches = new ConcurrentHashMap<>();
+    // the entries waiting for their backoff, with their topic
+    private final Map<Entry, String> retries = new ConcurrentHashMap<>();
+
+    private volatile boolean closed;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public SnsBatchPublisher(SnsAsyncClient client, ScheduledExecutorService scheduler, int maxBatchSize,
+            long maxBatchBytes, Duration linger, int maxRetries, Duration retryBackoff, Duration maxRetryBackoff) {
+        this.client = client;
+        this.scheduler = scheduler;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = linger.toNanos();
+        this.maxRetries = maxRetries;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.maxRetryBackoffNanos = maxRetryBackoff.toNanos();
+    }
+
+    /**
+     * @param topicArn the topic
+     * @param message the message
+     * @return the result of the entry of the message once published
+     */
+    public CompletableFuture<PublishBatchResultEntry> publish(String topicArn, String message) {
+        return publish(PublishRequest.builder().topicArn(topicArn).message(message).build());
+    }
+
+    /**
+     * Publishes a message with a batch of the topic of the request. The phone number and target ARN of the request are
+     * not supported.
+     *
+     * @param request the message to publish
+     * @return the result of the entry of the message once published
+     */
+    public CompletableFuture<PublishBatchResultEntry> publish(PublishRequest request) {
+        if (request.topicArn() == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("Only the messages published to a topic are batched"));
+        }
+        Entry entry = new Entry(PublishBatchRequestEntry.builder()
+                .message(request.message())
+                .subject(request.subject())
+                .messageStructure(request.messageStructure())
+                .messageAttributes(request.messageAttributes())
+                .messageGroupId(request.messageGroupId())
+                .messageDeduplicationId(request.messageDeduplicationId()), size(request));
+        if (entry.size > maxBatchBytes) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "The message size " + entry.size + " exceeds the maximum batch size " + maxBatchBytes));
+        }
+        batches.computeIfAbsent(request.topicArn(), this::batch).add(entry);
+        return entry.result;
+    }
+
+    /**
+     * Sends the pending batches.
+     */
+    public void flush() {
+        batches.values().forEach(LingeringBatch::flush);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Entry entry : retries.keySet()) {
+            String topicArn = retries.remove(entry);
+            if (topicArn != null) {
+                if (entry.retry != null) {
+                    entry.retry.cancel(false);
+                }
+                batches.computeIfAbsent(topicArn, this::batch).add(entry);
+            }
+        }
+        batches.values().forEach(LingeringBatch::close);
+    }
+
+    /**
+     * @return the number of {@code PublishBatch} requests
+     */
+    public long requests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of published messages
+     */
+    public long published() {
+        return published.sum();
+    }
+
+    /**
+     * @return the number of entries published again after a server error
+     */
+    public long retried() {
+        return retried.sum();
+    }
+
+    /**
+     * @return the number of messages which could not be published
+     */
+    public long failed() {
+        return failed.sum();
+    }
+
+    private static long size(PublishRequest request) {
+        long size = BatchUtil.utf8Length(request.message()) + BatchUtil.utf8Length(request.subject());
+        for (Map.Entry<String, MessageAttributeValue> attribute : request.messageAttributes().entrySet()) {
+            MessageAttributeValue value = attribute.getValue();
+            size += BatchUtil.utf8Length(attribute.getKey()) + BatchUtil.utf8Length(value.dataType())
+                    + BatchUtil.utf8Length(value.stringValue());
+            size += value.binaryValue() != null ? value.binaryValue().asByteArrayUnsafe().length : 0;
+        }
+        return size;
+    }
+
+    private LingeringBatch<Entry> batch(String topicArn) {
+        LingeringBatch<Entry> batch = new LingeringBatch<>(scheduler, maxBatchSize, maxBatchBytes, lingerNanos,
+                entry -> entry.size, entries -> send(topicArn, entries));
+        if (closed) {
+            batch.close();
+        }
+        return batch;
+    }
+
+    private void send(String topicArn, List<Entry> batch) {
+        List<PublishBatchRequestEntry> requestEntries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            requestEntries.add(batch.get(i).entry.id(Integer.toString(i)).build());
+        }
+
+        requests.increment();
+        BatchUtil.send(() -> client.publishBatch(r -> r.topicArn(topicArn).publishBatchRequestEntries(requestEntries)),
+                result -> {
+                    for (PublishBatchResultEntry successful : result.successful()) {
+                        published.increment();
+                        batch.get(Integer.parseInt(successful.id())).result.complete(successful);
+                    }
+                    for (BatchResultErrorEntry error : result.failed()) {
+                        failed(topicArn, batch.get(Integer.parseInt(error.id())), error);
+                    }
+                },
+                failure -> {
+                    failed.add(batch.size());
+                    batch.forEach(entry -> entry.result.completeExceptionally(failure));
+                });
+    }
+
+    private void failed(String topicArn, Entry entry, BatchResultErrorEntry error) {
+        if (!Boolean.TRUE.equals(error.senderFault()) && entry.attempts < maxRetries && !closed) {
+            long backoff = BatchUtil.backoff(retryBackoffNanos, entry.attempts, maxRetryBackoffNanos);
+            entry.attempts++;
+            retries.put(entry, topicArn);
+            try {
+                entry.retry = scheduler.schedule(() -> retry(entry), backoff, TimeUnit.NANOSECONDS);
+                retried.increment();
+                return;
+            } catch (RejectedExecutionException e) {
+                // the scheduler is shut down
+                retries.remove(entry);
+                failed.increment();
+                entry.result.completeExceptionally(e);
+                return;
+            }
+        }
+        failed.increment();
+        entry.result.completeExceptionally(SnsException.builder()
+                .message(error.code() + ": " + error.message())
+                .build());
+    }
+
+    private void retry(Entry entry) {
+        // unless already published by close
+        String topicArn = retries.remove(entry);
+        if (topicArn != null) {
+            batches.computeIfAbsent(topicArn, this::batch).add(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final PublishBatchRequestEntry.Builder entry;
+        private final long size;
+        private final CompletableFuture<PublishBatchResultEntry> result = new CompletableFuture<>();
+        private int attempts;
+        private volatile ScheduledFuture<?> retry;
+
+        private Entry(PublishBatchRequestEntry.Builder entry, long size) {
+            this.entry = entry;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.quarkiverse.amazon.sns.runtime;
+
+import java.time.Duration;
+
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.quarkus.runtime.configuration.MemorySizeConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface SnsBatchPublisherConfig {
+
+    /**
+     * The maximum number of entries of a `PublishBatch` request. The maximum value is 10.
+     */
+    @WithDefault("10")
+    int maxBatchSize();
+
+    /**
+     * The maximum total size of the messages of a `PublishBatch` request. The maximum value is 256K.
+     */
+    @WithDefault("256K")
+    @WithConverter(MemorySizeConverter.class)
+    MemorySize maxBatchBytes();
+
+    /**
+     * The maximum time a message waits for other messages of the same topic to fill a batch before the batch is sent.
+     */
+    @WithDefault("10MS")
+    Duration linger();
+
+    /**
+     * The maximum number of times an entry which failed because of a server error is published again.
+     */
+    @WithDefault("3")
+    int maxRetries();
+
+    /**
+     * The delay before the failed entries are published again, doubled on each retry.
+     */
+    @WithDefault("100MS")
+    Duration retryBackoff();
+
+    /**
+     * The maximum delay before the failed entries are published again.
+     */
+    @WithDefault("20S")
+    Duration maxRetryBackoff();
+}
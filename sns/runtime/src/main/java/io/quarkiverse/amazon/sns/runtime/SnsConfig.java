@@ -1,12 +1,19 @@
 package io.quarkiverse.amazon.sns.runtime;
 
+import java.util.Map;
+
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
+import io.quarkiverse.amazon.common.runtime.LargePayloadConfig;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.runtime.annotations.ConfigDocMapKey;
 import io.quarkus.runtime.annotations.ConfigDocSection;
 import io.quarkus.runtime.annotations.ConfigPhase;
 import io.quarkus.runtime.annotations.ConfigRoot;
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefaults;
+import io.smallrye.config.WithUnnamedKey;
 
 @ConfigRoot(phase = ConfigPhase.RUN_TIME)
 @ConfigMapping(prefix = "quarkus.sns")
@@ -22,4 +29,22 @@ public interface SnsConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Batch publisher configurations, per client
+     */
+    @ConfigDocSection
+    @ConfigDocMapKey("client-name")
+    @WithDefaults
+    @WithUnnamedKey(ClientUtil.DEFAULT_CLIENT_NAME)
+    Map<String, SnsBatchPublisherConfig> batchPublisher();
+
+    /**
+     * Large payload configurations, per client
+     */
+    @ConfigDocSection
+    @ConfigDocMapKey("client-name")
+    @WithDefaults
+    @WithUnnamedKey(ClientUtil.DEFAULT_CLIENT_NAME)
+    Map<String, LargePayloadConfig> largePayload();
 }
@@ -0,0 +1,131 @@
+package io.quarkiverse.amazon.sns.runtime;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.quarkiverse.amazon.common.runtime.LargePayloadPointer;
+import io.quarkiverse.amazon.common.runtime.LargePayloadStore;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.sns.DelegatingSnsAsyncClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+
+/**
+ * An SNS asynchronous client storing the message bodies larger than a threshold in S3.
+ * <p>
+ * A stored body is replaced by a pointer to the S3 object, in the format of the Amazon SNS extended client library. The
+ * pointers are resolved by the SQS subscribers with raw message delivery through the `SqsLargePayloadAsyncClient`.
+ */
+public class SnsLargePayloadAsyncClient extends DelegatingSnsAsyncClient {
+
+    private final LargePayloadStore store;
+
+    /**
+     * @param delegate the client sending the requests
+     * @param s3 the client storing the bodies
+     * @param bucket the bucket where the bodies are stored, or {@code null} to store no body
+     * @param threshold the size of a message, in bytes, above which its body is stored
+     * @param alwaysThroughS3 whether all the bodies are stored
+     * @param keyPrefix the prefix of the keys of the stored bodies
+     */
+    public SnsLargePayloadAsyncClient(SnsAsyncClient delegate, S3AsyncClient s3, String bucket, long threshold,
+            boolean alwaysThroughS3, String keyPrefix) {
+        super(delegate);
+        this.store = new LargePayloadStore(bucket, threshold, alwaysThroughS3, keyPrefix,
+                (pointer, payload) -> s3.putObject(r -> r.bucket(pointer.bucket()).key(pointer.key()),
+                        AsyncRequestBody.fromBytesUnsafe(payload)));
+    }
+
+    @Override
+    public CompletableFuture<PublishResponse> publish(PublishRequest request) {
+        byte[] payload = payloadToStore(request.message(), request.messageAttributes());
+        if (payload == null) {
+            return super.publish(request);
+        }
+        try {
+            LargePayloadPointer.checkAttributeLimit(request.messageAttributes().keySet());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return store.store(payload).thenCompose(pointer -> super.publish(request.toBuilder()
+                .message(pointer.toJson())
+                .messageAttributes(withPayloadSize(request.messageAttributes(), payload.length))
+                .build()));
+    }
+
+    @Override
+    public CompletableFuture<PublishBatchResponse> publishBatch(PublishBatchRequest request) {
+        List<byte[]> payloads = new ArrayList<>(request.publishBatchRequestEntries().size());
+        boolean stored = false;
+        for (PublishBatchRequestEntry entry : request.publishBatchRequestEntries()) {
+            byte[] payload = payloadToStore(entry.message(), entry.messageAttributes());
+            if (payload != null) {
+                // checked before storing any body, the request being rejected as a whole
+                try {
+                    LargePayloadPointer.checkAttributeLimit(entry.messageAttributes().keySet());
+                } catch (IllegalArgumentException e) {
+                    return CompletableFuture.failedFuture(
+                            new IllegalArgumentException("Invalid entry " + entry.id() + ": " + e.getMessage(), e));
+                }
+                stored = true;
+            }
+            payloads.add(payload);
+        }
+        if (!stored) {
+            return super.publishBatch(request);
+        }
+
+        List<CompletableFuture<PublishBatchRequestEntry>> entries = new ArrayList<>(payloads.size());
+        for (int i = 0; i < payloads.size(); i++) {
+            PublishBatchRequestEntry entry = request.publishBatchRequestEntries().get(i);
+            byte[] payload = payloads.get(i);
+            if (payload == null) {
+                entries.add(CompletableFuture.completedFuture(entry));
+            } else {
+                entries.add(store.store(payload).thenApply(pointer -> entry.toBuilder()
+                        .message(pointer.toJson())
+                        .messageAttributes(withPayloadSize(entry.messageAttributes(), payload.length))
+                        .build()));
+            }
+        }
+        return CompletableFuture.allOf(entries.toArray(new CompletableFuture[0]))
+                .thenCompose(ignored -> {
+                    List<PublishBatchRequestEntry> published = new ArrayList<>(entries.size());
+                    entries.forEach(entry -> published.add(entry.join()));
+                    return super.publishBatch(request.toBuilder().publishBatchRequestEntries(published).build());
+                });
+    }
+
+    /**
+     * @return the number of message bodies stored in S3
+     */
+    public long offloadedPayloads() {
+        return store.offloadedPayloads();
+    }
+
+    /**
+     * @return the number of bytes of the message bodies stored in S3
+     */
+    public long offloadedBytes() {
+        return store.offloadedBytes();
+    }
+
+    private byte[] payloadToStore(String body, Map<String, MessageAttributeValue> attributes) {
+        return store.payloadToStore(body, LargePayloadStore.attributesSize(attributes,
+                value -> LargePayloadStore.attributeValueSize(value.dataType(), value.stringValue(), value.binaryValue())));
+    }
+
+    private static Map<String, MessageAttributeValue> withPayloadSize(Map<String, MessageAttributeValue> attributes,
+            int size) {
+        return LargePayloadStore.withPayloadSize(attributes, size,
+                value -> MessageAttributeValue.builder().dataType("Number").stringValue(value).build());
+    }
+}
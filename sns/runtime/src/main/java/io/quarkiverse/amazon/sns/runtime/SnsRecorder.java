@@ -1,13 +1,22 @@
 package io.quarkiverse.amazon.sns.runtime;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
+import io.quarkiverse.amazon.common.runtime.LargePayloadConfig;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.sns.SnsAsyncClient;
 import software.amazon.awssdk.services.sns.SnsClient;
 
@@ -44,4 +53,58 @@ public class SnsRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return SnsAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<SnsLargePayloadAsyncClient>, SnsLargePayloadAsyncClient> createExtendedClient(
+            String clientName) {
+        return new Function<SyntheticCreationalContext<SnsLargePayloadAsyncClient>, SnsLargePayloadAsyncClient>() {
+            @Override
+            public SnsLargePayloadAsyncClient apply(SyntheticCreationalContext<SnsLargePayloadAsyncClient> context) {
+                SnsAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(SnsAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(SnsAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                LargePayloadConfig largePayloadConfig = config.largePayload().get(clientName);
+                return new SnsLargePayloadAsyncClient(client,
+                        context.getInjectedReference(S3AsyncClient.class),
+                        largePayloadConfig.bucket().orElse(null),
+                        largePayloadConfig.threshold().asLongValue(),
+                        largePayloadConfig.alwaysThroughS3(),
+                        largePayloadConfig.keyPrefix().orElse(null));
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<SnsBatchPublisher>, SnsBatchPublisher> createBatchPublisher(String clientName,
+            ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<SnsBatchPublisher>, SnsBatchPublisher>() {
+            @Override
+            public SnsBatchPublisher apply(SyntheticCreationalContext<SnsBatchPublisher> context) {
+                SnsAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(SnsAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(SnsAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                SnsBatchPublisherConfig batchPublisherConfig = config.batchPublisher().get(clientName);
+                if (batchPublisherConfig.maxBatchSize() < 1 || batchPublisherConfig.maxBatchSize() > 10) {
+                    throw new RuntimeConfigurationError(
+                            "quarkus.sns.batch-publisher.max-batch-size must be between 1 and 10");
+                }
+                return new SnsBatchPublisher(client,
+                        scheduledExecutorService,
+                        batchPublisherConfig.maxBatchSize(),
+                        Math.min(batchPublisherConfig.maxBatchBytes().asLongValue(), 256 * 1024),
+                        batchPublisherConfig.linger(),
+                        batchPublisherConfig.maxRetries(),
+                        batchPublisherConfig.retryBackoff(),
+                        batchPublisherConfig.maxRetryBackoff());
+            }
+        };
+    }
 }
@@ -1,7 +1,13 @@
 package io.quarkiverse.amazon.sqs.deployment;
 
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.injectionPointAnnotationsClient;
+import static io.quarkiverse.amazon.common.deployment.ClientDeploymentUtil.namedClient;
+
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -21,11 +27,14 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientAwsCrtTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
 import io.quarkiverse.amazon.sqs.runtime.SqsBuildTimeConfig;
 import io.quarkiverse.amazon.sqs.runtime.SqsOpenTelemetryRecorder;
 import io.quarkiverse.amazon.sqs.runtime.SqsRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
+import io.quarkus.bootstrap.classloading.QuarkusClassLoader;
 import io.quarkus.deployment.annotations.BuildProducer;
 import io.quarkus.deployment.annotations.BuildStep;
 import io.quarkus.deployment.annotations.ExecutionTime;
@@ -38,10 +47,16 @@ import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.SqsAsyncClientBuilder;
 import software.amazon.awssdk.services.sqs.SqsClient;
 import software.amazon.awssdk.services.sqs.SqsClientBuilder;
+import software.amazon.awssdk.services.sqs.batchmanager.SqsAsyncBatchManager;
 
 public class SqsProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-sqs";
+    private static final DotName SQS_ASYNC_BATCH_MANAGER = DotName.createSimple(SqsAsyncBatchManager.class);
+    private static final DotName SQS_LARGE_PAYLOAD_ASYNC_CLIENT = DotName
+            .createSimple("io.quarkiverse.amazon.sqs.runtime.SqsLargePayloadAsyncClient");
+    private static final DotName S3_ASYNC_CLIENT = DotName.createSimple("software.amazon.awssdk.services.s3.S3AsyncClient");
+    private static final String S3_EXTENSION_RECORDER = "io.quarkiverse.amazon.s3.runtime.S3Recorder";
 
     SqsBuildTimeConfig buildTimeConfig;
 
@@ -84,6 +99,14 @@ public class SqsProcessor extends AbstractAmazonServiceProcessor {
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, SQS_ASYNC_BATCH_MANAGER, asyncClientName(),
+                requireClientInjectionProducer);
+        if (discoverClientInjectionPointsFor(beanRegistrationPhase, SQS_LARGE_PAYLOAD_ASYNC_CLIENT, asyncClientName(),
+                requireClientInjectionProducer)) {
+            // the bodies are stored with the default S3 client
+            requireClientInjectionProducer
+                    .produce(new RequireAmazonClientInjectionBuildItem(S3_ASYNC_CLIENT, ClientUtil.DEFAULT_CLIENT_NAME));
+        }
     }
 
     @BuildStep
@@ -207,4 +230,61 @@ public class SqsProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createBatchManagers(SqsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the batch manager is removed if not injected
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(SqsAsyncBatchManager.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createBatchManager(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(SqsAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createLargePayloadClients(SqsRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        // the bodies are stored in S3 with the client of the S3 extension
+        if (!QuarkusClassLoader.isClassPresentAtRuntime(S3_EXTENSION_RECORDER)) {
+            return;
+        }
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the client is removed if not injected, it shares the underlying clients and is not closed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(SQS_LARGE_PAYLOAD_ASYNC_CLIENT),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createExtendedClient(asyncClient.getClientName()))
+                    .addInjectionPoint(ClassType.create(SqsAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .addInjectionPoint(ClassType.create(S3_ASYNC_CLIENT))
+                    .done());
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package io.quarkiverse.amazon.sqs.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.batchmanager.SqsAsyncBatchManager;
+import software.amazon.awssdk.services.sqs.model.QueueAttributeName;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+class SqsBatchManagerDevServicesTest {
+
+    @Inject
+    SqsAsyncBatchManager batchManager;
+
+    @Inject
+    SqsAsyncClient client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar.addAsResource(
+                    new StringAsset("quarkus.sqs.devservices.queues=queue1\n"
+                            + "quarkus.sqs.batch-manager.send-request-frequency=1S"),
+                    "application.properties"));
+
+    @Test
+    void test() {
+        String queueUrl = client.getQueueUrl(r -> r.queueName("queue1")).join().queueUrl();
+
+        List<CompletableFuture<SendMessageResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            String body = "message-" + i;
+            responses.add(batchManager.sendMessage(r -> r.queueUrl(queueUrl).messageBody(body)));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).join();
+
+        String count = client.getQueueAttributes(r -> r.queueUrl(queueUrl)
+                .attributeNames(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES)).join()
+                .attributes().get(QueueAttributeName.APPROXIMATE_NUMBER_OF_MESSAGES);
+        assertEquals("25", count);
+    }
+}
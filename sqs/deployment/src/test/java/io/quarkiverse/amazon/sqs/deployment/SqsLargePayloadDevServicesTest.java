@@ -0,0 +1,142 @@
+package io.quarkiverse.amazon.sqs.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.common.runtime.LargePayloadPointer;
+import io.quarkiverse.amazon.sqs.runtime.SqsLargePayloadAsyncClient;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+
+class SqsLargePayloadDevServicesTest {
+
+    @Inject
+    SqsLargePayloadAsyncClient client;
+
+    @Inject
+    S3AsyncClient s3;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar.addAsResource(
+                    new StringAsset("quarkus.sqs.devservices.queues=queue1\n"
+                            + "quarkus.s3.devservices.buckets=payloads\n"
+                            + "quarkus.sqs.large-payload.bucket=payloads\n"
+                            + "quarkus.sqs.large-payload.threshold=1K"),
+                    "application.properties"));
+
+    @Test
+    void test() {
+        String queueUrl = client.getQueueUrl(r -> r.queueName("queue1")).join().queueUrl();
+        String body = "x".repeat(4096);
+
+        client.sendMessage(r -> r.queueUrl(queueUrl).messageBody("small")).join();
+        client.sendMessage(r -> r.queueUrl(queueUrl).messageBody(body)).join();
+        assertEquals(1, client.offloadedPayloads());
+        assertEquals(4096, client.offloadedBytes());
+        assertEquals(1, s3.listObjectsV2(r -> r.bucket("payloads")).join().keyCount());
+
+        int received = 0;
+        while (received < 2) {
+            for (Message message : client.receiveMessage(r -> r.queueUrl(queueUrl).maxNumberOfMessages(10)).join()
+                    .messages()) {
+                received++;
+                if (!message.body().equals("small")) {
+                    assertEquals(body, message.body());
+                }
+                client.deleteMessage(r -> r.queueUrl(queueUrl).receiptHandle(message.receiptHandle())).join();
+            }
+        }
+        assertEquals(1, client.fetchedPayloads());
+        assertEquals(1, client.deletedPayloads());
+        assertEquals(0, s3.listObjectsV2(r -> r.bucket("payloads")).join().keyCount());
+
+        // the S3 object of the first message expired, the second message is still resolved
+        client.sendMessage(r -> r.queueUrl(queueUrl).messageBody(body)).join();
+        String expiredKey = s3.listObjectsV2(r -> r.bucket("payloads")).join().contents().get(0).key();
+        s3.deleteObject(r -> r.bucket("payloads").key(expiredKey)).join();
+        client.sendMessage(r -> r.queueUrl(queueUrl).messageBody(body)).join();
+
+        List<Message> messages = new ArrayList<>();
+        while (messages.size() < 2) {
+            messages.addAll(client.receiveMessage(r -> r.queueUrl(queueUrl).maxNumberOfMessages(10)).join().messages());
+        }
+        assertEquals(1, client.missingPayloads());
+        for (Message message : messages) {
+            if (message.messageAttributes().containsKey(SqsLargePayloadAsyncClient.MISSING_PAYLOAD_ATTRIBUTE)) {
+                assertEquals(expiredKey, LargePayloadPointer.fromJson(message.body()).key());
+            } else {
+                assertEquals(body, message.body());
+            }
+            client.deleteMessage(r -> r.queueUrl(queueUrl).receiptHandle(message.receiptHandle())).join();
+        }
+        assertEquals(2, client.fetchedPayloads());
+
+        // the body of the first message is not a pointer, the second message is still resolved
+        client.sendMessage(r -> r.queueUrl(queueUrl).messageBody("not a pointer")
+                .messageAttributes(Map.of(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE,
+                        MessageAttributeValue.builder().dataType("Number").stringValue("13").build())))
+                .join();
+        client.sendMessage(r -> r.queueUrl(queueUrl).messageBody(body)).join();
+
+        messages.clear();
+        while (messages.size() < 2) {
+            messages.addAll(client.receiveMessage(r -> r.queueUrl(queueUrl).maxNumberOfMessages(10)).join().messages());
+        }
+        assertEquals(2, client.missingPayloads());
+        for (Message message : messages) {
+            if (message.messageAttributes().containsKey(SqsLargePayloadAsyncClient.MISSING_PAYLOAD_ATTRIBUTE)) {
+                assertEquals("not a pointer", message.body());
+            } else {
+                assertEquals(body, message.body());
+            }
+            client.deleteMessage(r -> r.queueUrl(queueUrl).receiptHandle(message.receiptHandle())).join();
+        }
+        assertEquals(3, client.fetchedPayloads());
+
+        // rejected before the body is stored, the size attribute being over the limit
+        Map<String, MessageAttributeValue> attributes = new HashMap<>();
+        for (int i = 0; i < LargePayloadPointer.MAX_MESSAGE_ATTRIBUTES; i++) {
+            attributes.put("attribute" + i, MessageAttributeValue.builder().dataType("String").stringValue("v").build());
+        }
+        CompletionException failure = assertThrows(CompletionException.class, () -> client.sendMessage(
+                r -> r.queueUrl(queueUrl).messageBody(body).messageAttributes(attributes)).join());
+        assertTrue(failure.getCause() instanceof IllegalArgumentException, String.valueOf(failure.getCause()));
+        assertEquals(4, client.offloadedPayloads());
+    }
+
+    @Test
+    void pointer() {
+        LargePayloadPointer pointer = new LargePayloadPointer("payloads", "prefix/\"quoted\"\\key\n");
+        String json = pointer.toJson();
+        assertEquals("[\"software.amazon.payloadoffloading.PayloadS3Pointer\","
+                + "{\"s3BucketName\":\"payloads\",\"s3Key\":\"prefix/\\\"quoted\\\"\\\\key\\n\"}]", json);
+        LargePayloadPointer parsed = LargePayloadPointer.fromJson(json);
+        assertEquals(pointer.bucket(), parsed.bucket());
+        assertEquals(pointer.key(), parsed.key());
+
+        // as written by the extended client libraries
+        parsed = LargePayloadPointer.fromJson("[ \"software.amazon.payloadoffloading.PayloadS3Pointer\", "
+                + "{ \"s3Key\" : \"a\\u0022b\", \"s3BucketName\" : \"bucket\" } ]");
+        assertEquals("bucket", parsed.bucket());
+        assertEquals("a\"b", parsed.key());
+
+        assertThrows(IllegalArgumentException.class, () -> LargePayloadPointer.fromJson("not a pointer"));
+        assertThrows(IllegalArgumentException.class, () -> LargePayloadPointer.fromJson("[\"other\",{}]"));
+    }
+}
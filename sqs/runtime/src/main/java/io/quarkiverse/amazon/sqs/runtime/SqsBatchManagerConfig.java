@@ -0,0 +1,36 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocDefault;
+import io.quarkus.runtime.annotations.ConfigGroup;
+
+@ConfigGroup
+public interface SqsBatchManagerConfig {
+
+    /**
+     * The maximum number of entries of a `SendMessageBatch`, `DeleteMessageBatch` or `ChangeMessageVisibilityBatch`
+     * request, and of messages requested by a `ReceiveMessage` request. The maximum value is 10.
+     */
+    @ConfigDocDefault("10")
+    Optional<Integer> maxBatchSize();
+
+    /**
+     * The maximum time a request waits for other requests to fill a batch before the batch is sent.
+     */
+    @ConfigDocDefault("200MS")
+    Optional<Duration> sendRequestFrequency();
+
+    /**
+     * The visibility timeout of the messages prefetched by the batch manager.
+     */
+    @ConfigDocDefault("The visibility timeout of the queue")
+    Optional<Duration> receiveMessageVisibilityTimeout();
+
+    /**
+     * The minimum wait time of the `ReceiveMessage` requests prefetching messages.
+     */
+    @ConfigDocDefault("50MS")
+    Optional<Duration> receiveMessageMinWaitDuration();
+}
@@ -1,12 +1,18 @@
 package io.quarkiverse.amazon.sqs.runtime;
 
+import java.util.Map;
+
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.runtime.annotations.ConfigDocMapKey;
 import io.quarkus.runtime.annotations.ConfigDocSection;
 import io.quarkus.runtime.annotations.ConfigPhase;
 import io.quarkus.runtime.annotations.ConfigRoot;
 import io.smallrye.config.ConfigMapping;
+import io.smallrye.config.WithDefaults;
+import io.smallrye.config.WithUnnamedKey;
 
 @ConfigMapping(prefix = "quarkus.sqs")
 @ConfigRoot(phase = ConfigPhase.RUN_TIME)
@@ -22,4 +28,22 @@ public interface SqsConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Batch manager configurations, per client
+     */
+    @ConfigDocSection
+    @ConfigDocMapKey("client-name")
+    @WithDefaults
+    @WithUnnamedKey(ClientUtil.DEFAULT_CLIENT_NAME)
+    Map<String, SqsBatchManagerConfig> batchManager();
+
+    /**
+     * Large payload configurations, per client
+     */
+    @ConfigDocSection
+    @ConfigDocMapKey("client-name")
+    @WithDefaults
+    @WithUnnamedKey(ClientUtil.DEFAULT_CLIENT_NAME)
+    Map<String, SqsLargePayloadConfig> largePayload();
 }
@@ -0,0 +1,385 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import io.quarkiverse.amazon.common.runtime.LargePayloadPointer;
+import io.quarkiverse.amazon.common.runtime.LargePayloadStore;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.sqs.DelegatingSqsAsyncClient;
+import software.amazon.awssdk.services.sqs.SqsAsyncClient;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityBatchResponse;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityRequest;
+import software.amazon.awssdk.services.sqs.model.ChangeMessageVisibilityResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageBatchResultEntry;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageRequest;
+import software.amazon.awssdk.services.sqs.model.DeleteMessageResponse;
+import software.amazon.awssdk.services.sqs.model.Message;
+import software.amazon.awssdk.services.sqs.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageRequest;
+import software.amazon.awssdk.services.sqs.model.ReceiveMessageResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchRequestEntry;
+import software.amazon.awssdk.services.sqs.model.SendMessageBatchResponse;
+import software.amazon.awssdk.services.sqs.model.SendMessageRequest;
+import software.amazon.awssdk.services.sqs.model.SendMessageResponse;
+
+/**
+ * An SQS asynchronous client storing the message bodies larger than a threshold in S3.
+ * <p>
+ * A stored body is replaced by a pointer to the S3 object, in the format of the Amazon SQS extended client library. The
+ * received pointers are resolved by downloading the S3 objects, and the receipt handles of these messages embed the
+ * pointer so that the S3 object is deleted with the message. A message whose S3 object no longer exists is received with
+ * the pointer as body and the {@link #MISSING_PAYLOAD_ATTRIBUTE} attribute, the other messages of the batch being
+ * resolved. So is a message whose body is not a valid pointer.
+ */
+public class SqsLargePayloadAsyncClient extends DelegatingSqsAsyncClient {
+
+    /**
+     * The message attribute set on a received message whose body could not be downloaded from S3, holding the reason.
+     */
+    public static final String MISSING_PAYLOAD_ATTRIBUTE = "ExtendedPayloadMissing";
+
+    private static final Logger LOG = Logger.getLogger(SqsLargePayloadAsyncClient.class);
+
+    private static final String BUCKET_MARKER = "-..s3BucketName..-";
+    private static final String KEY_MARKER = "-..s3Key..-";
+
+    private final S3AsyncClient s3;
+    private final LargePayloadStore store;
+    private final boolean deletePayloads;
+
+    private final LongAdder fetchedPayloads = new LongAdder();
+    private final LongAdder fetchedBytes = new LongAdder();
+    private final LongAdder deletedPayloads = new LongAdder();
+    private final LongAdder missingPayloads = new LongAdder();
+
+    /**
+     * @param delegate the client sending the requests
+     * @param s3 the client storing the bodies
+     * @param bucket the bucket where the bodies are stored, or {@code null} to only resolve the received pointers
+     * @param threshold the size of a message, in bytes, above which its body is stored
+     * @param alwaysThroughS3 whether all the bodies are stored
+     * @param keyPrefix the prefix of the keys of the stored bodies
+     * @param deletePayloads whether the stored body of a message is deleted with the message
+     */
+    public SqsLargePayloadAsyncClient(SqsAsyncClient delegate, S3AsyncClient s3, String bucket, long threshold,
+            boolean alwaysThroughS3, String keyPrefix, boolean deletePayloads) {
+        super(delegate);
+        this.s3 = s3;
+        this.store = new LargePayloadStore(bucket, threshold, alwaysThroughS3, keyPrefix,
+                (pointer, payload) -> s3.putObject(r -> r.bucket(pointer.bucket()).key(pointer.key()),
+                        AsyncRequestBody.fromBytesUnsafe(payload)));
+        this.deletePayloads = deletePayloads;
+    }
+
+    @Override
+    public CompletableFuture<SendMessageResponse> sendMessage(SendMessageRequest request) {
+        byte[] payload = payloadToStore(request.messageBody(), request.messageAttributes());
+        if (payload == null) {
+            return super.sendMessage(request);
+        }
+        try {
+            LargePayloadPointer.checkAttributeLimit(request.messageAttributes().keySet());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return store.store(payload).thenCompose(pointer -> super.sendMessage(request.toBuilder()
+                .messageBody(pointer.toJson())
+                .messageAttributes(withPayloadSize(request.messageAttributes(), payload.length))
+                .build()));
+    }
+
+    @Override
+    public CompletableFuture<SendMessageBatchResponse> sendMessageBatch(SendMessageBatchRequest request) {
+        List<byte[]> payloads = new ArrayList<>(request.entries().size());
+        boolean stored = false;
+        for (SendMessageBatchRequestEntry entry : request.entries()) {
+            byte[] payload = payloadToStore(entry.messageBody(), entry.messageAttributes());
+            if (payload != null) {
+                // checked before storing any body, the request being rejected as a whole
+                try {
+                    LargePayloadPointer.checkAttributeLimit(entry.messageAttributes().keySet());
+                } catch (IllegalArgumentException e) {
+                    return CompletableFuture.failedFuture(
+                            new IllegalArgumentException("Invalid entry " + entry.id() + ": " + e.getMessage(), e));
+                }
+                stored = true;
+            }
+            payloads.add(payload);
+        }
+        if (!stored) {
+            return super.sendMessageBatch(request);
+        }
+
+        List<CompletableFuture<SendMessageBatchRequestEntry>> entries = new ArrayList<>(request.entries().size());
+        for (int i = 0; i < payloads.size(); i++) {
+            SendMessageBatchRequestEntry entry = request.entries().get(i);
+            byte[] payload = payloads.get(i);
+            if (payload == null) {
+                entries.add(CompletableFuture.completedFuture(entry));
+            } else {
+                entries.add(store.store(payload).thenApply(pointer -> entry.toBuilder()
+                        .messageBody(pointer.toJson())
+                        .messageAttributes(withPayloadSize(entry.messageAttributes(), payload.length))
+                        .build()));
+            }
+        }
+        return CompletableFuture.allOf(entries.toArray(new CompletableFuture[0]))
+                .thenCompose(ignored -> {
+                    List<SendMessageBatchRequestEntry> sent = new ArrayList<>(entries.size());
+                    entries.forEach(entry -> sent.add(entry.join()));
+                    return super.sendMessageBatch(request.toBuilder().entries(sent).build());
+                });
+    }
+
+    @Override
+    public CompletableFuture<ReceiveMessageResponse> receiveMessage(ReceiveMessageRequest request) {
+        List<String> attributeNames = request.messageAttributeNames();
+        if (!attributeNames.contains("All") && !attributeNames.contains(".*")) {
+            // the size attribute identifies the pointers
+            List<String> names = new ArrayList<>(attributeNames);
+            names.add(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE);
+            names.add(LargePayloadPointer.LEGACY_PAYLOAD_SIZE_ATTRIBUTE);
+            request = request.toBuilder().messageAttributeNames(names).build();
+        }
+
+        return super.receiveMessage(request).thenCompose(response -> {
+            List<CompletableFuture<Message>> messages = new ArrayList<>(response.messages().size());
+            boolean stored = false;
+            for (Message message : response.messages()) {
+                if (isPointer(message)) {
+                    stored = true;
+                    messages.add(fetch(message));
+                } else {
+                    messages.add(CompletableFuture.completedFuture(message));
+                }
+            }
+            if (!stored) {
+                return CompletableFuture.completedFuture(response);
+            }
+            return CompletableFuture.allOf(messages.toArray(new CompletableFuture[0]))
+                    .thenApply(ignored -> {
+                        List<Message> received = new ArrayList<>(messages.size());
+                        messages.forEach(message -> received.add(message.join()));
+                        return response.toBuilder().messages(received).build();
+                    });
+        });
+    }
+
+    @Override
+    public CompletableFuture<DeleteMessageResponse> deleteMessage(DeleteMessageRequest request) {
+        String receiptHandle = request.receiptHandle();
+        if (!isEmbedded(receiptHandle)) {
+            return super.deleteMessage(request);
+        }
+        return super.deleteMessage(request.toBuilder().receiptHandle(originalReceiptHandle(receiptHandle)).build())
+                .thenCompose(response -> deletePayload(embeddedPointer(receiptHandle)).thenApply(ignored -> response));
+    }
+
+    @Override
+    public CompletableFuture<DeleteMessageBatchResponse> deleteMessageBatch(DeleteMessageBatchRequest request) {
+        Map<String, LargePayloadPointer> pointers = new HashMap<>();
+        List<DeleteMessageBatchRequestEntry> entries = new ArrayList<>(request.entries().size());
+        for (DeleteMessageBatchRequestEntry entry : request.entries()) {
+            if (isEmbedded(entry.receiptHandle())) {
+                pointers.put(entry.id(), embeddedPointer(entry.receiptHandle()));
+                entries.add(entry.toBuilder().receiptHandle(originalReceiptHandle(entry.receiptHandle())).build());
+            } else {
+                entries.add(entry);
+            }
+        }
+        if (pointers.isEmpty()) {
+            return super.deleteMessageBatch(request);
+        }
+        return super.deleteMessageBatch(request.toBuilder().entries(entries).build()).thenCompose(response -> {
+            List<CompletableFuture<Void>> deletions = new ArrayList<>();
+            for (DeleteMessageBatchResultEntry deleted : response.successful()) {
+                LargePayloadPointer pointer = pointers.get(deleted.id());
+                if (pointer != null) {
+                    deletions.add(deletePayload(pointer));
+                }
+            }
+            return CompletableFuture.allOf(deletions.toArray(new CompletableFuture[0])).thenApply(ignored -> response);
+        });
+    }
+
+    @Override
+    public CompletableFuture<ChangeMessageVisibilityResponse> changeMessageVisibility(
+            ChangeMessageVisibilityRequest request) {
+        if (!isEmbedded(request.receiptHandle())) {
+            return super.changeMessageVisibility(request);
+        }
+        return super.changeMessageVisibility(request.toBuilder()
+                .receiptHandle(originalReceiptHandle(request.receiptHandle()))
+                .build());
+    }
+
+    @Override
+    public CompletableFuture<ChangeMessageVisibilityBatchResponse> changeMessageVisibilityBatch(
+            ChangeMessageVisibilityBatchRequest request) {
+        List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<>(request.entries().size());
+        boolean embedded = false;
+        for (ChangeMessageVisibilityBatchRequestEntry entry : request.entries()) {
+            if (isEmbedded(entry.receiptHandle())) {
+                embedded = true;
+                entries.add(entry.toBuilder().receiptHandle(originalReceiptHandle(entry.receiptHandle())).build());
+            } else {
+                entries.add(entry);
+            }
+        }
+        if (!embedded) {
+            return super.changeMessageVisibilityBatch(request);
+        }
+        return super.changeMessageVisibilityBatch(request.toBuilder().entries(entries).build());
+    }
+
+    /**
+     * @return the number of message bodies stored in S3
+     */
+    public long offloadedPayloads() {
+        return store.offloadedPayloads();
+    }
+
+    /**
+     * @return the number of bytes of the message bodies stored in S3
+     */
+    public long offloadedBytes() {
+        return store.offloadedBytes();
+    }
+
+    /**
+     * @return the number of message bodies downloaded from S3
+     */
+    public long fetchedPayloads() {
+        return fetchedPayloads.sum();
+    }
+
+    /**
+     * @return the number of bytes of the message bodies downloaded from S3
+     */
+    public long fetchedBytes() {
+        return fetchedBytes.sum();
+    }
+
+    /**
+     * @return the number of message bodies deleted from S3
+     */
+    public long deletedPayloads() {
+        return deletedPayloads.sum();
+    }
+
+    /**
+     * @return the number of received messages whose body was no longer stored in S3 or was not a valid pointer
+     */
+    public long missingPayloads() {
+        return missingPayloads.sum();
+    }
+
+    private byte[] payloadToStore(String body, Map<String, MessageAttributeValue> attributes) {
+        return store.payloadToStore(body, LargePayloadStore.attributesSize(attributes,
+                value -> LargePayloadStore.attributeValueSize(value.dataType(), value.stringValue(), value.binaryValue())));
+    }
+
+    private static Map<String, MessageAttributeValue> withPayloadSize(Map<String, MessageAttributeValue> attributes,
+            int size) {
+        return LargePayloadStore.withPayloadSize(attributes, size,
+                value -> MessageAttributeValue.builder().dataType("Number").stringValue(value).build());
+    }
+
+    private static boolean isPointer(Message message) {
+        return message.messageAttributes().containsKey(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE)
+                || message.messageAttributes().containsKey(LargePayloadPointer.LEGACY_PAYLOAD_SIZE_ATTRIBUTE);
+    }
+
+    private CompletableFuture<Message> fetch(Message message) {
+        LargePayloadPointer pointer;
+        try {
+            pointer = LargePayloadPointer.fromJson(message.body());
+        } catch (IllegalArgumentException e) {
+            // only this message of the batch is affected
+            LOG.warnf("The body of the message %s is not a valid pointer: %s", message.messageId(), e.getMessage());
+            return CompletableFuture.completedFuture(missingPayload(message, e.getMessage()));
+        }
+        return s3.getObject(r -> r.bucket(pointer.bucket()).key(pointer.key()), AsyncResponseTransformer.toBytes())
+                .thenApply(payload -> {
+                    fetchedPayloads.increment();
+                    fetchedBytes.add(payload.asByteArrayUnsafe().length);
+
+                    Map<String, MessageAttributeValue> attributes = new HashMap<>(message.messageAttributes());
+                    attributes.remove(LargePayloadPointer.PAYLOAD_SIZE_ATTRIBUTE);
+                    attributes.remove(LargePayloadPointer.LEGACY_PAYLOAD_SIZE_ATTRIBUTE);
+                    return message.toBuilder()
+                            .body(payload.asUtf8String())
+                            .messageAttributes(attributes)
+                            .receiptHandle(BUCKET_MARKER + pointer.bucket() + BUCKET_MARKER
+                                    + KEY_MARKER + pointer.key() + KEY_MARKER + message.receiptHandle())
+                            .build();
+                })
+                .exceptionally(failure -> {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause()
+                            : failure;
+                    if (!(cause instanceof NoSuchKeyException)) {
+                        throw failure instanceof CompletionException ? (CompletionException) failure
+                                : new CompletionException(failure);
+                    }
+                    // expired or already deleted, only this message of the batch is affected
+                    LOG.warnf("The body of the message %s is no longer stored in s3://%s/%s", message.messageId(),
+                            pointer.bucket(), pointer.key());
+                    return missingPayload(message, cause.getMessage());
+                });
+    }
+
+    private Message missingPayload(Message message, String reason) {
+        missingPayloads.increment();
+        Map<String, MessageAttributeValue> attributes = new HashMap<>(message.messageAttributes());
+        attributes.put(MISSING_PAYLOAD_ATTRIBUTE, MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue(reason)
+                .build());
+        return message.toBuilder().messageAttributes(attributes).build();
+    }
+
+    private CompletableFuture<Void> deletePayload(LargePayloadPointer pointer) {
+        if (!deletePayloads) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return s3.deleteObject(r -> r.bucket(pointer.bucket()).key(pointer.key()))
+                .thenApply(response -> {
+                    deletedPayloads.increment();
+                    return null;
+                });
+    }
+
+    private static boolean isEmbedded(String receiptHandle) {
+        return receiptHandle != null && receiptHandle.startsWith(BUCKET_MARKER) && receiptHandle.contains(KEY_MARKER);
+    }
+
+    private static String originalReceiptHandle(String receiptHandle) {
+        return receiptHandle.substring(receiptHandle.lastIndexOf(KEY_MARKER) + KEY_MARKER.length());
+    }
+
+    private static LargePayloadPointer embeddedPointer(String receiptHandle) {
+        int bucketEnd = receiptHandle.indexOf(BUCKET_MARKER, BUCKET_MARKER.length());
+        int keyStart = receiptHandle.indexOf(KEY_MARKER, bucketEnd) + KEY_MARKER.length();
+        int keyEnd = receiptHandle.indexOf(KEY_MARKER, keyStart);
+        return new LargePayloadPointer(receiptHandle.substring(BUCKET_MARKER.length(), bucketEnd),
+                receiptHandle.substring(keyStart, keyEnd));
+    }
+}
@@ -0,0 +1,15 @@
+package io.quarkiverse.amazon.sqs.runtime;
+
+import io.quarkiverse.amazon.common.runtime.LargePayloadConfig;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface SqsLargePayloadConfig extends LargePayloadConfig {
+
+    /**
+     * Delete the body stored in S3 when the message is deleted.
+     */
+    @WithDefault("true")
+    boolean deletePayloads();
+}
@@ -1,15 +1,24 @@
 package io.quarkiverse.amazon.sqs.runtime;
 
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 import software.amazon.awssdk.services.sqs.SqsClient;
+import software.amazon.awssdk.services.sqs.batchmanager.BatchOverrideConfiguration;
+import software.amazon.awssdk.services.sqs.batchmanager.SqsAsyncBatchManager;
 
 @Recorder
 public class SqsRecorder extends AmazonClientRecorder {
@@ -44,4 +53,58 @@ public class SqsRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return SqsAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<SqsAsyncBatchManager>, SqsAsyncBatchManager> createBatchManager(
+            String clientName, ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<SqsAsyncBatchManager>, SqsAsyncBatchManager>() {
+            @Override
+            public SqsAsyncBatchManager apply(SyntheticCreationalContext<SqsAsyncBatchManager> context) {
+                SqsAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(SqsAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(SqsAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                SqsBatchManagerConfig batchManagerConfig = config.batchManager().get(clientName);
+                BatchOverrideConfiguration.Builder overrides = BatchOverrideConfiguration.builder();
+                batchManagerConfig.maxBatchSize().ifPresent(overrides::maxBatchSize);
+                batchManagerConfig.sendRequestFrequency().ifPresent(overrides::sendRequestFrequency);
+                batchManagerConfig.receiveMessageVisibilityTimeout().ifPresent(overrides::receiveMessageVisibilityTimeout);
+                batchManagerConfig.receiveMessageMinWaitDuration().ifPresent(overrides::receiveMessageMinWaitDuration);
+
+                return SqsAsyncBatchManager.builder()
+                        .client(client)
+                        .scheduledExecutor(scheduledExecutorService)
+                        .overrideConfiguration(overrides.build())
+                        .build();
+            }
+        };
+    }
+
+    public Function<SyntheticCreationalContext<SqsLargePayloadAsyncClient>, SqsLargePayloadAsyncClient> createExtendedClient(
+            String clientName) {
+        return new Function<SyntheticCreationalContext<SqsLargePayloadAsyncClient>, SqsLargePayloadAsyncClient>() {
+            @Override
+            public SqsLargePayloadAsyncClient apply(SyntheticCreationalContext<SqsLargePayloadAsyncClient> context) {
+                SqsAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(SqsAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(SqsAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                SqsLargePayloadConfig largePayloadConfig = config.largePayload().get(clientName);
+                return new SqsLargePayloadAsyncClient(client,
+                        context.getInjectedReference(S3AsyncClient.class),
+                        largePayloadConfig.bucket().orElse(null),
+                        largePayloadConfig.threshold().asLongValue(),
+                        largePayloadConfig.alwaysThroughS3(),
+                        largePayloadConfig.keyPrefix().orElse(null),
+                        largePayloadConfig.deletePayloads());
+            }
+        };
+    }
 }
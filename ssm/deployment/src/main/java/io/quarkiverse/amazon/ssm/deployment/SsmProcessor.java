@@ -2,6 +2,9 @@ package io.quarkiverse.amazon.ssm.deployment;
 
 import java.util.List;
 
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.jboss.jandex.ClassType;
 import org.jboss.jandex.DotName;
 
 import io.quarkiverse.amazon.common.deployment.AbstractAmazonServiceProcessor;
@@ -22,7 +25,10 @@ import io.quarkiverse.amazon.common.runtime.AmazonClientCommonRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientNettyTransportRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientOpenTelemetryRecorder;
 import io.quarkiverse.amazon.common.runtime.AmazonClientUrlConnectionTransportRecorder;
+import io.quarkiverse.amazon.common.runtime.SdkAutoCloseableDestroyer;
 import io.quarkiverse.amazon.ssm.runtime.SsmBuildTimeConfig;
+import io.quarkiverse.amazon.ssm.runtime.SsmConfigBuilder;
+import io.quarkiverse.amazon.ssm.runtime.SsmParameterCache;
 import io.quarkiverse.amazon.ssm.runtime.SsmRecorder;
 import io.quarkus.arc.deployment.BeanRegistrationPhaseBuildItem;
 import io.quarkus.arc.deployment.SyntheticBeanBuildItem;
@@ -34,6 +40,8 @@ import io.quarkus.deployment.builditem.ExecutorBuildItem;
 import io.quarkus.deployment.builditem.ExtensionSslNativeSupportBuildItem;
 import io.quarkus.deployment.builditem.FeatureBuildItem;
 import io.quarkus.deployment.builditem.LaunchModeBuildItem;
+import io.quarkus.deployment.builditem.RunTimeConfigBuilderBuildItem;
+import io.quarkus.deployment.builditem.ShutdownContextBuildItem;
 import software.amazon.awssdk.services.ssm.SsmAsyncClient;
 import software.amazon.awssdk.services.ssm.SsmAsyncClientBuilder;
 import software.amazon.awssdk.services.ssm.SsmClient;
@@ -42,6 +50,7 @@ import software.amazon.awssdk.services.ssm.SsmClientBuilder;
 public class SsmProcessor extends AbstractAmazonServiceProcessor {
 
     private static final String AMAZON_CLIENT_NAME = "amazon-sdk-ssm";
+    private static final DotName SSM_PARAMETER_CACHE = DotName.createSimple(SsmParameterCache.class);
 
     SsmBuildTimeConfig buildTimeConfig;
 
@@ -79,11 +88,25 @@ public class SsmProcessor extends AbstractAmazonServiceProcessor {
         setupExtension(extensionSslNativeSupport, feature, interceptors);
     }
 
+    @BuildStep
+    void configSource(BuildProducer<RunTimeConfigBuilderBuildItem> configBuilders) {
+        // always registered, the source loads the properties from Parameter Store only when it is enabled
+        configBuilders.produce(new RunTimeConfigBuilderBuildItem(SsmConfigBuilder.class.getName()));
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void closeConfigSource(SsmRecorder recorder, ShutdownContextBuildItem shutdownContext) {
+        recorder.closeConfigSources(shutdownContext);
+    }
+
     @BuildStep
     void discoverClientInjectionPoints(BeanRegistrationPhaseBuildItem beanRegistrationPhase,
             BuildProducer<RequireAmazonClientInjectionBuildItem> requireClientInjectionProducer) {
 
         discoverClientInjectionPointsInternal(beanRegistrationPhase, requireClientInjectionProducer);
+        discoverClientInjectionPointsFor(beanRegistrationPhase, SSM_PARAMETER_CACHE, asyncClientName(),
+                requireClientInjectionProducer);
     }
 
     @BuildStep
@@ -207,4 +230,31 @@ public class SsmProcessor extends AbstractAmazonServiceProcessor {
                 launchModeBuildItem,
                 executorBuildItem);
     }
+
+    @BuildStep
+    @Record(ExecutionTime.RUNTIME_INIT)
+    void createParameterCaches(SsmRecorder recorder,
+            List<AmazonClientAsyncResultBuildItem> asyncClients,
+            ExecutorBuildItem executorBuildItem,
+            BuildProducer<SyntheticBeanBuildItem> syntheticBeans) {
+
+        for (AmazonClientAsyncResultBuildItem asyncClient : asyncClients) {
+            if (!configName().equals(asyncClient.getAwsClientName())) {
+                continue;
+            }
+
+            // the cache is removed if not injected, its refresh is stopped when it is destroyed
+            syntheticBeans.produce(namedClient(SyntheticBeanBuildItem.configure(SsmParameterCache.class),
+                    asyncClient.getClientName())
+                    .defaultBean()
+                    .setRuntimeInit()
+                    .scope(ApplicationScoped.class)
+                    .createWith(recorder.createParameterCache(asyncClient.getClientName(),
+                            executorBuildItem.getExecutorProxy()))
+                    .addInjectionPoint(ClassType.create(SsmAsyncClient.class),
+                            injectionPointAnnotationsClient(asyncClient.getClientName()))
+                    .destroyer(SdkAutoCloseableDestroyer.class)
+                    .done());
+        }
+    }
 }
@@ -0,0 +1,39 @@
+package io.quarkiverse.amazon.ssm.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkus.test.QuarkusUnitTest;
+
+class SsmConfigSourceDevServicesTest {
+
+    @ConfigProperty(name = "greeting")
+    String greeting;
+
+    @ConfigProperty(name = "db.url")
+    String url;
+
+    @ConfigProperty(name = "standalone.port")
+    int port;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot((jar) -> jar
+                    .addAsResource("config-source-config.properties", "application.properties"));
+
+    @Test
+    void test() {
+        // the parameters are put by the localstack init script
+        assertEquals("hello", greeting);
+        assertEquals("jdbc:postgresql://db/app", url);
+        assertEquals(8443, port);
+        assertTrue(Files.isRegularFile(Path.of("target/ssm-config-source.snapshot")));
+    }
+}
@@ -0,0 +1,75 @@
+package io.quarkiverse.amazon.ssm.deployment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+
+import jakarta.inject.Inject;
+
+import org.jboss.shrinkwrap.api.asset.StringAsset;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+
+import io.quarkiverse.amazon.ssm.runtime.SsmParameterCache;
+import io.quarkus.test.QuarkusUnitTest;
+import software.amazon.awssdk.services.ssm.SsmAsyncClient;
+import software.amazon.awssdk.services.ssm.model.ParameterType;
+
+class SsmParameterCacheDevServicesTest {
+
+    @Inject
+    SsmParameterCache cache;
+
+    @Inject
+    SsmAsyncClient client;
+
+    @RegisterExtension
+    static final QuarkusUnitTest config = new QuarkusUnitTest()
+            .withApplicationRoot(jar -> jar.addAsResource(new StringAsset("""
+                    quarkus.ssm.cache.prefetch-paths=/flags
+                    quarkus.ssm.cache.max-size=3
+                    quarkus.ssm.cache.ttl=1S
+                    quarkus.ssm.cache.refresh-interval=1S
+                    quarkus.ssm.cache.refresh-jitter=0S
+                    """), "application.properties"));
+
+    @Test
+    void test() throws InterruptedException {
+        put("/flags/checkout", "on");
+        put("/flags/search/v2", "off");
+
+        // the hierarchy is prefetched when the cache is created
+        assertEquals(Map.of("/flags/checkout", "on", "/flags/search/v2", "off"),
+                cache.getParametersByPath("/flags").join());
+        assertEquals("on", cache.getParameterValue("/flags/checkout").join());
+        assertEquals(2, cache.size());
+        assertTrue(cache.hitCount() >= 1);
+
+        put("/flags/checkout", "off");
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (cache.updateCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, cache.updateCount());
+        assertEquals("off", cache.getParameterValue("/flags/checkout").join());
+        assertTrue(cache.refreshCount() >= 2);
+
+        // the least recently read parameter fetched on its own is evicted, the hierarchy is kept
+        put("/app/first", "1");
+        put("/app/second", "2");
+        assertEquals("1", cache.getParameterValue("/app/first").join());
+        assertEquals("2", cache.getParameterValue("/app/second").join());
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(Map.of("/flags/checkout", "off", "/flags/search/v2", "off"),
+                cache.getParametersByPath("/flags").join());
+        long misses = cache.missCount();
+        assertEquals("1", cache.getParameterValue("/app/first").join());
+        assertEquals(misses + 1, cache.missCount());
+    }
+
+    private void put(String name, String value) {
+        client.putParameter(r -> r.name(name).value(value).type(ParameterType.STRING).overwrite(true)).join();
+    }
+}
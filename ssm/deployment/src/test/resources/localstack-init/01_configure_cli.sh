@@ -0,0 +1,5 @@
+#!/usr/bin/env bash
+echo "#### Configure aws cli ####"
+aws configure set aws_access_key_id default_access_key --profile=localstack
+aws configure set aws_secret_access_key default_secret_key --profile=localstack
+aws configure set region us-east-1 --profile=localstack
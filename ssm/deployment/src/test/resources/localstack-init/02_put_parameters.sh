@@ -0,0 +1,12 @@
+#!/usr/bin/env bash
+echo "#### Put the parameters ####"
+for parameter in "/config-source/greeting hello" "/config-source/db/url jdbc:postgresql://db/app" "/standalone/port 8443"; do
+    set -- $parameter
+    aws ssm put-parameter --endpoint-url=http://localhost:4566 \
+                          --name "$1" \
+                          --value "$2" \
+                          --type String \
+                          --profile=localstack \
+                          --region=us-east-1
+done
+echo "#### Ssm init completed"
@@ -22,4 +22,16 @@ public interface SsmConfig extends HasAmazonClientRuntimeConfig {
      */
     @ConfigDocSection
     AsyncHttpClientConfig asyncClient();
+
+    /**
+     * Configuration source loading the properties from Parameter Store
+     */
+    @ConfigDocSection
+    SsmConfigSourceConfig configSource();
+
+    /**
+     * Parameter cache configurations
+     */
+    @ConfigDocSection
+    SsmParameterCacheConfig cache();
 }
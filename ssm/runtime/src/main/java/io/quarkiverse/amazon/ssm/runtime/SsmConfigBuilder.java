@@ -0,0 +1,15 @@
+package io.quarkiverse.amazon.ssm.runtime;
+
+import io.quarkus.runtime.configuration.ConfigBuilder;
+import io.smallrye.config.SmallRyeConfigBuilder;
+
+/**
+ * Registers the {@link SsmConfigSourceFactory} in the runtime configuration.
+ */
+public class SsmConfigBuilder implements ConfigBuilder {
+
+    @Override
+    public SmallRyeConfigBuilder configBuilder(SmallRyeConfigBuilder builder) {
+        return builder.withSources(new SsmConfigSourceFactory());
+    }
+}
@@ -0,0 +1,26 @@
+package io.quarkiverse.amazon.ssm.runtime;
+
+import java.util.List;
+import java.util.Optional;
+
+import io.quarkiverse.amazon.common.runtime.AmazonConfigSourceConfig;
+import io.quarkus.runtime.annotations.ConfigGroup;
+
+@ConfigGroup
+public interface SsmConfigSourceConfig extends AmazonConfigSourceConfig {
+
+    /**
+     * The hierarchies of parameters loaded with `GetParametersByPath`, recursively.
+     * <p>
+     * The name of a property is the name of the parameter relative to the path, with `.` instead of `/`: the
+     * parameter `/my-app/db/url` of the path `/my-app` is the property `db.url`.
+     */
+    Optional<List<String>> paths();
+
+    /**
+     * The parameters loaded with `GetParameters`, ten at a time.
+     * <p>
+     * The name of a property is the name of the parameter without the leading `/`, with `.` instead of `/`.
+     */
+    Optional<List<String>> names();
+}
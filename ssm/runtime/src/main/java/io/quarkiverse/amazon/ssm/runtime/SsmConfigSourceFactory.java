@@ -0,0 +1,108 @@
+package io.quarkiverse.amazon.ssm.runtime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import org.jboss.logging.Logger;
+
+import io.quarkiverse.amazon.common.runtime.AbstractAmazonConfigSourceFactory;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
+import io.smallrye.config.ConfigSourceContext;
+import software.amazon.awssdk.services.ssm.SsmClient;
+import software.amazon.awssdk.services.ssm.model.GetParametersResponse;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+
+/**
+ * Loads the properties of the {@code quarkus.ssm.config-source} from Parameter Store, the paths and the chunks of ten
+ * names being requested concurrently.
+ */
+public class SsmConfigSourceFactory extends AbstractAmazonConfigSourceFactory {
+
+    private static final Logger LOG = Logger.getLogger(SsmConfigSourceFactory.class);
+
+    // the maximum number of names of a GetParameters request
+    private static final int MAX_NAMES = 10;
+
+    public SsmConfigSourceFactory() {
+        super("ssm");
+    }
+
+    @Override
+    protected PropertiesLoader createLoader(ConfigSourceContext context) {
+        List<String> paths = settings(context, "paths");
+        List<String> names = settings(context, "names");
+        if (paths.isEmpty() && names.isEmpty()) {
+            throw new RuntimeConfigurationError(
+                    "quarkus.ssm.config-source.paths or quarkus.ssm.config-source.names must be set");
+        }
+        return new Loader(configure(SsmClient.builder(), context).build(), paths, names);
+    }
+
+    private static final class Loader implements PropertiesLoader {
+
+        private final SsmClient client;
+        private final List<String> paths;
+        private final List<List<String>> names = new ArrayList<>();
+
+        private Loader(SsmClient client, List<String> paths, List<String> names) {
+            this.client = client;
+            this.paths = paths;
+            for (int i = 0; i < names.size(); i += MAX_NAMES) {
+                this.names.add(names.subList(i, Math.min(i + MAX_NAMES, names.size())));
+            }
+        }
+
+        @Override
+        public Map<String, String> load(ExecutorService executor) {
+            List<CompletableFuture<Map<String, String>>> loading = new ArrayList<>();
+            for (String path : paths) {
+                loading.add(CompletableFuture.supplyAsync(() -> loadPath(path), executor));
+            }
+            for (List<String> chunk : names) {
+                loading.add(CompletableFuture.supplyAsync(() -> loadNames(chunk), executor));
+            }
+
+            // in the order of the settings, the names override the paths
+            Map<String, String> properties = new HashMap<>();
+            for (CompletableFuture<Map<String, String>> loaded : loading) {
+                properties.putAll(loaded.join());
+            }
+            return properties;
+        }
+
+        private Map<String, String> loadPath(String path) {
+            String prefix = path.endsWith("/") ? path : path + "/";
+            Map<String, String> properties = new HashMap<>();
+            client.getParametersByPathPaginator(r -> r.path(path).recursive(true).withDecryption(true))
+                    .parameters()
+                    .forEach(parameter -> properties.put(propertyName(parameter.name(), prefix), parameter.value()));
+            return properties;
+        }
+
+        private Map<String, String> loadNames(List<String> chunk) {
+            GetParametersResponse response = client.getParameters(r -> r.names(chunk).withDecryption(true));
+            if (response.hasInvalidParameters() && !response.invalidParameters().isEmpty()) {
+                LOG.warnf("The parameters %s do not exist", response.invalidParameters());
+            }
+            Map<String, String> properties = new HashMap<>();
+            for (Parameter parameter : response.parameters()) {
+                properties.put(propertyName(parameter.name(), "/"), parameter.value());
+            }
+            return properties;
+        }
+
+        private static String propertyName(String parameterName, String prefix) {
+            String relative = parameterName.startsWith(prefix) ? parameterName.substring(prefix.length()) : parameterName;
+            return relative.replace('/', '.');
+        }
+
+        @Override
+        public void close() {
+            client.close();
+        }
+    }
+}
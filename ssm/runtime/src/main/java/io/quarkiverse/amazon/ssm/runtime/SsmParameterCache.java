@@ -0,0 +1,456 @@
+package io.quarkiverse.amazon.ssm.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.jboss.logging.Logger;
+
+import software.amazon.awssdk.services.ssm.SsmAsyncClient;
+import software.amazon.awssdk.services.ssm.model.Parameter;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+/**
+ * In-memory cache of Parameter Store parameters.
+ * <p>
+ * Parameters are served from a concurrent map until their time to live, which may depend on their path, expires. The
+ * hierarchies to prefetch are loaded with {@code GetParametersByPath} when the cache is created, a parameter of a
+ * hierarchy being loaded is read from the hierarchy instead of being fetched on its own, and concurrent fetches of the
+ * same parameter are collapsed into a single {@code GetParameter} request.
+ * <p>
+ * The parameters and hierarchies about to expire are checked in the background: the hierarchies are listed again and
+ * the other parameters fetched with {@code GetParameters}, ten at a time, one request after the other. A cached
+ * parameter is only replaced if its version changed and is removed if it was deleted. A random jitter is added to the
+ * refresh interval, so that the instances of an application do not send their requests at the same time.
+ * <p>
+ * The least recently read parameters fetched on their own are evicted once the configured maximum size is exceeded,
+ * the parameters of the hierarchies are counted but kept until they are deleted.
+ */
+public class SsmParameterCache implements SdkAutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(SsmParameterCache.class);
+
+    // the maximum number of names of a GetParameters request
+    private static final int MAX_NAMES = 10;
+
+    private final SsmAsyncClient client;
+    private final ScheduledExecutorService scheduler;
+    private final int maxSize;
+    private final long ttlNanos;
+    // the most specific paths first
+    private final List<Map.Entry<String, Long>> pathTtlNanos = new ArrayList<>();
+    private final long refreshIntervalNanos;
+    private final long refreshJitterNanos;
+
+    private final ConcurrentHashMap<String, CachedParameter> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<CachedParameter>> fetches = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedPath> paths = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder refreshCount = new LongAdder();
+    private final LongAdder updateCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private volatile boolean closed;
+
+    public SsmParameterCache(SsmAsyncClient client, ScheduledExecutorService scheduler, int maxSize, Duration ttl,
+            Map<String, Duration> pathTtl, List<String> prefetchPaths, Duration refreshInterval, Duration refreshJitter) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive: " + maxSize);
+        }
+        this.client = client;
+        this.scheduler = scheduler;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        pathTtl.forEach((path, pathTtlValue) -> pathTtlNanos.add(Map.entry(prefix(path), pathTtlValue.toNanos())));
+        pathTtlNanos.sort(Comparator.comparingInt((Map.Entry<String, Long> entry) -> entry.getKey().length()).reversed());
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.refreshJitterNanos = refreshJitter.toNanos();
+
+        prefetchPaths.forEach(this::track);
+        scheduleRefresh();
+    }
+
+    /**
+     * @param name the name of the parameter
+     * @return a future completed with the parameter, secure strings being decrypted
+     */
+    public CompletableFuture<Parameter> getParameter(String name) {
+        Objects.requireNonNull(name, "name");
+        CachedParameter cached = entries.get(name);
+        if (cached != null && !cached.isExpired(System.nanoTime())) {
+            cached.readAt = System.nanoTime();
+            hitCount.increment();
+            return CompletableFuture.completedFuture(cached.parameter);
+        }
+
+        missCount.increment();
+        CachedPath hierarchy = trackedPath(name);
+        if (hierarchy != null && !hierarchy.loading.isDone()) {
+            // the parameter is fetched on its own only if the hierarchy does not contain it
+            return hierarchy.loading.handle((ignored, failure) -> null)
+                    .thenCompose(ignored -> {
+                        CachedParameter loaded = entries.get(name);
+                        return loaded != null ? CompletableFuture.completedFuture(loaded) : fetch(name);
+                    })
+                    .thenApply(loaded -> loaded.parameter);
+        }
+        return fetch(name).thenApply(fetched -> fetched.parameter);
+    }
+
+    /**
+     * @param name the name of the parameter
+     * @return a future completed with the value of the parameter
+     */
+    public CompletableFuture<String> getParameterValue(String name) {
+        return getParameter(name).thenApply(Parameter::value);
+    }
+
+    /**
+     * Returns the values of a hierarchy of parameters, loading it and keeping it up to date from now on if it is not
+     * prefetched.
+     *
+     * @param path the path of the hierarchy
+     * @return a future completed with the values of the parameters of the hierarchy by parameter name
+     */
+    public CompletableFuture<Map<String, String>> getParametersByPath(String path) {
+        CachedPath cached = track(path);
+        if (cached.loading.isDone() && !cached.loading.isCompletedExceptionally()) {
+            hitCount.increment();
+        } else {
+            missCount.increment();
+        }
+        return cached.loading.thenApply(ignored -> {
+            Map<String, String> values = new HashMap<>();
+            entries.forEach((name, entry) -> {
+                if (name.startsWith(cached.prefix)) {
+                    values.put(name, entry.parameter.value());
+                }
+            });
+            return values;
+        });
+    }
+
+    /**
+     * Removes a parameter from the cache.
+     *
+     * @param name the name of the parameter
+     */
+    public void invalidate(String name) {
+        entries.remove(name);
+    }
+
+    /**
+     * Removes all parameters from the cache, the hierarchies are loaded again by the next refresh.
+     */
+    public void invalidateAll() {
+        entries.clear();
+        paths.values().forEach(path -> path.validatedAt = System.nanoTime() - path.ttlNanos);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        ScheduledFuture<?> scheduled = scheduledRefresh;
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+    }
+
+    /**
+     * @return the number of cached parameters
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of reads served from memory
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return the number of reads which waited for the parameters to be fetched
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return the number of parameters checked again in the background
+     */
+    public long refreshCount() {
+        return refreshCount.sum();
+    }
+
+    /**
+     * @return the number of cached parameters replaced by a new version
+     */
+    public long updateCount() {
+        return updateCount.sum();
+    }
+
+    /**
+     * @return the number of cached parameters removed because they were deleted or to stay below the maximum size
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    private CachedPath track(String path) {
+        CachedPath tracked = paths.get(path);
+        if (tracked != null) {
+            return tracked;
+        }
+        CachedPath created = new CachedPath(path, ttlOf(prefix(path)));
+        tracked = paths.putIfAbsent(path, created);
+        if (tracked != null) {
+            return tracked;
+        }
+        CompletableFuture<Void> loading = created.loading;
+        list(created).whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                loading.completeExceptionally(failure);
+            } else {
+                loading.complete(null);
+            }
+        });
+        return created;
+    }
+
+    private CachedPath trackedPath(String name) {
+        for (CachedPath path : paths.values()) {
+            if (name.startsWith(path.prefix)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private CompletableFuture<CachedParameter> fetch(String name) {
+        CompletableFuture<CachedParameter> fetch = new CompletableFuture<>();
+        CompletableFuture<CachedParameter> pending = fetches.putIfAbsent(name, fetch);
+        if (pending != null) {
+            return pending.copy();
+        }
+
+        try {
+            client.getParameter(r -> r.name(name).withDecryption(true)).whenComplete((response, failure) -> {
+                fetches.remove(name, fetch);
+                if (failure != null) {
+                    fetch.completeExceptionally(failure);
+                } else {
+                    CachedParameter stored = new CachedParameter(response.parameter(), System.nanoTime(), ttlOf(name));
+                    entries.put(name, stored);
+                    evict();
+                    fetch.complete(stored);
+                }
+            });
+        } catch (RuntimeException e) {
+            fetches.remove(name, fetch);
+            fetch.completeExceptionally(e);
+        }
+        return fetch.copy();
+    }
+
+    private CompletableFuture<Void> list(CachedPath path) {
+        // the consumer is called by one thread at a time
+        Map<String, Parameter> listed = new HashMap<>();
+        long listedAt = System.nanoTime();
+        CompletableFuture<Void> listing;
+        try {
+            listing = client.getParametersByPathPaginator(r -> r.path(path.path).recursive(true).withDecryption(true))
+                    .parameters()
+                    .subscribe(parameter -> listed.put(parameter.name(), parameter));
+        } catch (RuntimeException e) {
+            listing = CompletableFuture.failedFuture(e);
+        }
+        return listing.thenRun(() -> {
+            listed.values().forEach(parameter -> validated(parameter, listedAt));
+            for (String name : entries.keySet()) {
+                if (name.startsWith(path.prefix) && !listed.containsKey(name) && entries.remove(name) != null) {
+                    evictionCount.increment();
+                }
+            }
+            path.validatedAt = listedAt;
+            evict();
+        });
+    }
+
+    private CompletableFuture<Void> check(List<String> names) {
+        long checkedAt = System.nanoTime();
+        CompletableFuture<Void> checking;
+        try {
+            checking = client.getParameters(r -> r.names(names).withDecryption(true)).thenAccept(response -> {
+                response.parameters().forEach(parameter -> validated(parameter, checkedAt));
+                for (String invalid : response.invalidParameters()) {
+                    if (entries.remove(invalid) != null) {
+                        evictionCount.increment();
+                    }
+                }
+                evict();
+            });
+        } catch (RuntimeException e) {
+            checking = CompletableFuture.failedFuture(e);
+        }
+        return checking;
+    }
+
+    // the cached parameter is replaced only if its version changed, its expiry is renewed anyway
+    private void validated(Parameter parameter, long validatedAt) {
+        refreshCount.increment();
+        entries.compute(parameter.name(), (name, cached) -> {
+            if (cached == null) {
+                return new CachedParameter(parameter, validatedAt, ttlOf(name));
+            }
+            CachedParameter validated;
+            if (!Objects.equals(cached.parameter.version(), parameter.version())) {
+                updateCount.increment();
+                validated = new CachedParameter(parameter, validatedAt, cached.ttlNanos);
+            } else {
+                validated = new CachedParameter(cached.parameter, validatedAt, cached.ttlNanos);
+            }
+            validated.readAt = cached.readAt;
+            return validated;
+        });
+    }
+
+    // removes the least recently read parameters which do not belong to a hierarchy
+    private void evict() {
+        if (entries.size() > maxSize) {
+            synchronized (entries) {
+                evict(entries.size() - maxSize);
+            }
+        }
+    }
+
+    private void evict(int excess) {
+        List<Map.Entry<String, CachedParameter>> candidates = new ArrayList<>();
+        for (Map.Entry<String, CachedParameter> entry : entries.entrySet()) {
+            if (trackedPath(entry.getKey()) == null) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(entry -> entry.getValue().readAt));
+        for (int i = 0; i < candidates.size() && excess > 0; i++) {
+            if (entries.remove(candidates.get(i).getKey(), candidates.get(i).getValue())) {
+                evictionCount.increment();
+                excess--;
+            }
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (closed) {
+            return;
+        }
+        long delay = refreshIntervalNanos
+                + (refreshJitterNanos > 0 ? ThreadLocalRandom.current().nextLong(refreshJitterNanos) : 0);
+        scheduledRefresh = scheduler.schedule(this::refresh, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private void refresh() {
+        // the entries expiring before the next refresh are checked now
+        long horizon = System.nanoTime() + refreshIntervalNanos + refreshJitterNanos;
+        CompletableFuture<Void> refreshing = CompletableFuture.completedFuture(null);
+
+        for (CachedPath path : paths.values()) {
+            if (horizon - path.validatedAt >= path.ttlNanos) {
+                refreshing = then(refreshing, () -> {
+                    CompletableFuture<Void> listing = list(path);
+                    if (path.loading.isCompletedExceptionally()) {
+                        path.loading = listing;
+                    }
+                    return listing;
+                }, "the parameters of the path " + path.path);
+            }
+        }
+
+        List<String> names = new ArrayList<>();
+        entries.forEach((name, cached) -> {
+            if (horizon - cached.validatedAt >= cached.ttlNanos && trackedPath(name) == null) {
+                names.add(name);
+            }
+        });
+        for (int i = 0; i < names.size(); i += MAX_NAMES) {
+            List<String> chunk = names.subList(i, Math.min(i + MAX_NAMES, names.size()));
+            refreshing = then(refreshing, () -> check(chunk), "the parameters " + chunk);
+        }
+
+        refreshing.whenComplete((ignored, failure) -> scheduleRefresh());
+    }
+
+    // the requests are sent one after the other, a failed request does not prevent the next ones
+    private static CompletableFuture<Void> then(CompletableFuture<Void> previous, Supplier<CompletableFuture<Void>> next,
+            String description) {
+        return previous.thenCompose(ignored -> next.get().exceptionally(failure -> {
+            // the cached values are served until they expire
+            LOG.warnf(failure, "Unable to refresh %s", description);
+            return null;
+        }));
+    }
+
+    private long ttlOf(String name) {
+        for (Map.Entry<String, Long> pathTtl : pathTtlNanos) {
+            if (name.startsWith(pathTtl.getKey())) {
+                return pathTtl.getValue();
+            }
+        }
+        return ttlNanos;
+    }
+
+    private static String prefix(String path) {
+        return path.endsWith("/") ? path : path + "/";
+    }
+
+    private static final class CachedParameter {
+        private final Parameter parameter;
+        private final long validatedAt;
+        private final long ttlNanos;
+        private volatile long readAt;
+
+        private CachedParameter(Parameter parameter, long validatedAt, long ttlNanos) {
+            this.parameter = parameter;
+            this.validatedAt = validatedAt;
+            this.ttlNanos = ttlNanos;
+            this.readAt = validatedAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - validatedAt >= ttlNanos;
+        }
+    }
+
+    private static final class CachedPath {
+        private final String path;
+        private final String prefix;
+        private final long ttlNanos;
+        private volatile long validatedAt;
+        // the first listing, replaced if it failed
+        private volatile CompletableFuture<Void> loading = new CompletableFuture<>();
+
+        private CachedPath(String path, long ttlNanos) {
+            this.path = path;
+            this.prefix = prefix(path);
+            this.ttlNanos = ttlNanos;
+            // due until listed
+            this.validatedAt = System.nanoTime() - ttlNanos;
+        }
+    }
+}
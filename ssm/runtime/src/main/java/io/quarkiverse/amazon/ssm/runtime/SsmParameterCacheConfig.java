@@ -0,0 +1,65 @@
+package io.quarkiverse.amazon.ssm.runtime;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import io.quarkus.runtime.annotations.ConfigDocMapKey;
+import io.quarkus.runtime.annotations.ConfigGroup;
+import io.quarkus.runtime.configuration.DurationConverter;
+import io.smallrye.config.WithConverter;
+import io.smallrye.config.WithDefault;
+
+@ConfigGroup
+public interface SsmParameterCacheConfig {
+
+    /**
+     * The hierarchies of parameters loaded with `GetParametersByPath` when the cache is created, and kept up to date
+     * afterwards.
+     */
+    Optional<List<String>> prefetchPaths();
+
+    /**
+     * The maximum number of parameters kept in memory.
+     * <p>
+     * The least recently read parameters fetched on their own are evicted once this number is exceeded, the parameters
+     * of the hierarchies are never evicted.
+     */
+    @WithDefault("1000")
+    int maxSize();
+
+    /**
+     * The amount of time a parameter is served from memory without being checked again.
+     * <p>
+     * The parameters about to expire are checked in the background, a parameter expired is fetched again on read.
+     */
+    @WithDefault("5M")
+    @WithConverter(DurationConverter.class)
+    Duration ttl();
+
+    /**
+     * The amount of time the parameters of a hierarchy are served from memory without being checked again, overriding
+     * the default time to live, such as `quarkus.ssm.cache.path-ttl."/my-app/flags"=30S`.
+     * <p>
+     * The most specific path applies.
+     */
+    @ConfigDocMapKey("path")
+    @WithConverter(DurationConverter.class)
+    Map<String, Duration> pathTtl();
+
+    /**
+     * The interval at which the parameters about to expire are checked in the background.
+     */
+    @WithDefault("1M")
+    @WithConverter(DurationConverter.class)
+    Duration refreshInterval();
+
+    /**
+     * The maximum random delay added to each refresh interval, so that the instances of an application do not check
+     * their parameters at the same time.
+     */
+    @WithDefault("10S")
+    @WithConverter(DurationConverter.class)
+    Duration refreshJitter();
+}
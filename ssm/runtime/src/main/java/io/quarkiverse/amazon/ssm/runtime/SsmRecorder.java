@@ -1,10 +1,22 @@
 package io.quarkiverse.amazon.ssm.runtime;
 
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
+
+import org.eclipse.microprofile.config.ConfigProvider;
+
+import io.quarkiverse.amazon.common.AmazonClient;
 import io.quarkiverse.amazon.common.runtime.AmazonClientRecorder;
+import io.quarkiverse.amazon.common.runtime.AmazonConfigSource;
 import io.quarkiverse.amazon.common.runtime.AsyncHttpClientConfig;
+import io.quarkiverse.amazon.common.runtime.ClientUtil;
 import io.quarkiverse.amazon.common.runtime.HasAmazonClientRuntimeConfig;
+import io.quarkiverse.amazon.common.runtime.RuntimeConfigurationError;
 import io.quarkiverse.amazon.common.runtime.SyncHttpClientConfig;
+import io.quarkus.arc.SyntheticCreationalContext;
 import io.quarkus.runtime.RuntimeValue;
+import io.quarkus.runtime.ShutdownContext;
 import io.quarkus.runtime.annotations.Recorder;
 import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
 import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
@@ -44,4 +56,41 @@ public class SsmRecorder extends AmazonClientRecorder {
     public AwsAsyncClientBuilder<?, ?> getAsyncClientBuilder() {
         return SsmAsyncClient.builder();
     }
+
+    public Function<SyntheticCreationalContext<SsmParameterCache>, SsmParameterCache> createParameterCache(String clientName,
+            ScheduledExecutorService scheduledExecutorService) {
+        return new Function<SyntheticCreationalContext<SsmParameterCache>, SsmParameterCache>() {
+            @Override
+            public SsmParameterCache apply(SyntheticCreationalContext<SsmParameterCache> context) {
+                SsmAsyncClient client;
+                if (ClientUtil.isDefaultClient(clientName)) {
+                    client = context.getInjectedReference(SsmAsyncClient.class);
+                } else {
+                    client = context.getInjectedReference(SsmAsyncClient.class,
+                            new AmazonClient.AmazonClientLiteral(clientName));
+                }
+
+                SsmParameterCacheConfig cacheConfig = config.cache();
+                if (cacheConfig.refreshInterval().isZero() || cacheConfig.refreshInterval().isNegative()) {
+                    throw new RuntimeConfigurationError("quarkus.ssm.cache.refresh-interval must be positive");
+                }
+                if (cacheConfig.maxSize() < 1) {
+                    throw new RuntimeConfigurationError("quarkus.ssm.cache.max-size must be positive");
+                }
+                return new SsmParameterCache(client,
+                        scheduledExecutorService,
+                        cacheConfig.maxSize(),
+                        cacheConfig.ttl(),
+                        cacheConfig.pathTtl(),
+                        cacheConfig.prefetchPaths().orElse(List.of()),
+                        cacheConfig.refreshInterval(),
+                        cacheConfig.refreshJitter());
+            }
+        };
+    }
+
+    public void closeConfigSources(ShutdownContext shutdownContext) {
+        // the refreshed config sources hold a client and threads until the application stops
+        shutdownContext.addShutdownTask(() -> AmazonConfigSource.closeAll(ConfigProvider.getConfig()));
+    }
 }